@@ -0,0 +1,54 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.annotations;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The annotation that specify the tables a statement reads or writes, for table-level second level cache invalidation.
+ * <p>
+ * The tables are normally found in the SQL. Use this annotation when they cannot be, e.g. for views, stored procedures
+ * or statements whose writes fire triggers.
+ * <p>
+ * <b>How to use:</b>
+ *
+ * <pre>
+ * public interface UserMapper {
+ *   &#064;CacheTables({ "users", "roles" })
+ *   &#064;Select("SELECT id, name, role FROM user_roles_view WHERE id = #{id}")
+ *   User selectById(int id);
+ * }
+ * </pre>
+ *
+ * @see org.apache.ibatis.session.Configuration#isTableLevelCacheInvalidation()
+ *
+ * @since 3.5.12
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface CacheTables {
+  /**
+   * Returns the names of the tables the statement depends on.
+   *
+   * @return the table names
+   */
+  String[] value();
+}
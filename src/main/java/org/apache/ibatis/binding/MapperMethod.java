@@ -27,6 +27,7 @@ import java.util.Optional;
 import org.apache.ibatis.annotations.Flush;
 import org.apache.ibatis.annotations.MapKey;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.CursorPublisher;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.mapping.StatementType;
@@ -82,6 +83,8 @@ public class MapperMethod {
           result = executeForMap(sqlSession, args);
         } else if (method.returnsCursor()) {
           result = executeForCursor(sqlSession, args);
+        } else if (method.returnsPublisher()) {
+          result = executeForPublisher(sqlSession, args);
         } else {
           Object param = method.convertArgsToSqlCommandParam(args);
           result = sqlSession.selectOne(command.getName(), param);
@@ -168,6 +171,15 @@ public class MapperMethod {
     return result;
   }
 
+  private Object executeForPublisher(SqlSession sqlSession, Object[] args) {
+    Object param = method.convertArgsToSqlCommandParam(args);
+    if (method.hasRowBounds()) {
+      RowBounds rowBounds = method.extractRowBounds(args);
+      return sqlSession.selectPublisher(command.getName(), param, rowBounds);
+    }
+    return sqlSession.selectPublisher(command.getName(), param);
+  }
+
   private <E> Object convertToDeclaredCollection(Configuration config, List<E> list) {
     Object collection = config.getObjectFactory().create(method.getReturnType());
     MetaObject metaObject = config.newMetaObject(collection);
@@ -274,6 +286,7 @@ public class MapperMethod {
     private final boolean returnsMap;
     private final boolean returnsVoid;
     private final boolean returnsCursor;
+    private final boolean returnsPublisher;
     private final boolean returnsOptional;
     private final Class<?> returnType;
     private final String mapKey;
@@ -293,6 +306,7 @@ public class MapperMethod {
       this.returnsVoid = void.class.equals(this.returnType);
       this.returnsMany = configuration.getObjectFactory().isCollection(this.returnType) || this.returnType.isArray();
       this.returnsCursor = Cursor.class.equals(this.returnType);
+      this.returnsPublisher = CursorPublisher.isPublisherType(this.returnType);
       this.returnsOptional = Optional.class.equals(this.returnType);
       this.mapKey = getMapKey(method);
       this.returnsMap = this.mapKey != null;
@@ -341,6 +355,17 @@ public class MapperMethod {
       return returnsCursor;
     }
 
+    /**
+     * Return whether return type is {@code java.util.concurrent.Flow.Publisher}.
+     *
+     * @return return {@code true}, if return type is {@code java.util.concurrent.Flow.Publisher}
+     *
+     * @since 3.5.12
+     */
+    public boolean returnsPublisher() {
+      return returnsPublisher;
+    }
+
     /**
      * return whether return type is {@code java.util.Optional}.
      *
@@ -43,14 +43,67 @@ public class SqlSourceBuilder extends BaseBuilder {
   public SqlSource parse(String originalSql, Class<?> parameterType, Map<String, Object> additionalParameters) {
     ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType,
         additionalParameters);
+    String sql = parse(originalSql, handler);
+    return new StaticSqlSource(configuration, sql, handler.getParameterMappings());
+  }
+
+  /**
+   * Parses a SQL statement like {@link #parse(String, Class, Map)} does, into a template that can be bound to the
+   * additional parameters of later executions of the same SQL without parsing it again.
+   *
+   * @param originalSql
+   *          the SQL statement
+   * @param parameterType
+   *          the type of the parameter object
+   * @param additionalParameters
+   *          the additional parameters of the execution
+   *
+   * @return the template
+   *
+   * @since 3.5.12
+   */
+  public SqlTemplate compile(String originalSql, Class<?> parameterType, Map<String, Object> additionalParameters) {
+    ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, parameterType,
+        additionalParameters);
+    String sql = parse(originalSql, handler);
+    return new SqlTemplate(sql, parameterType, handler.contents, handler.expressions, handler.propertyTypes,
+        handler.getParameterMappings());
+  }
+
+  /**
+   * Binds a template to the additional parameters of an execution. The parameter mappings of the template are reused,
+   * unless the type of their property is not the same for these parameters.
+   *
+   * @param template
+   *          the template
+   * @param additionalParameters
+   *          the additional parameters of the execution
+   *
+   * @return the SQL source of the execution
+   *
+   * @since 3.5.12
+   */
+  public SqlSource bind(SqlTemplate template, Map<String, Object> additionalParameters) {
+    ParameterMappingTokenHandler handler = new ParameterMappingTokenHandler(configuration, template.getParameterType(),
+        additionalParameters);
+    List<ParameterMapping> parameterMappings = new ArrayList<>(template.getParameterMappings());
+    for (int i = 0; i < parameterMappings.size(); i++) {
+      Map<String, String> expression = template.getExpressions().get(i);
+      Class<?> propertyType = handler.resolvePropertyType(expression);
+      if (propertyType != template.getPropertyTypes().get(i)) {
+        parameterMappings.set(i,
+            handler.buildParameterMapping(template.getContents().get(i), expression, propertyType));
+      }
+    }
+    return new StaticSqlSource(configuration, template.getSql(), parameterMappings);
+  }
+
+  private String parse(String originalSql, ParameterMappingTokenHandler handler) {
     GenericTokenParser parser = new GenericTokenParser("#{", "}", handler);
-    String sql;
     if (configuration.isShrinkWhitespacesInSql()) {
-      sql = parser.parse(removeExtraWhitespaces(originalSql));
-    } else {
-      sql = parser.parse(originalSql);
+      return parser.parse(removeExtraWhitespaces(originalSql));
     }
-    return new StaticSqlSource(configuration, sql, handler.getParameterMappings());
+    return parser.parse(originalSql);
   }
 
   public static String removeExtraWhitespaces(String original) {
@@ -70,6 +123,9 @@ public class SqlSourceBuilder extends BaseBuilder {
   private static class ParameterMappingTokenHandler extends BaseBuilder implements TokenHandler {
 
     private final List<ParameterMapping> parameterMappings = new ArrayList<>();
+    private final List<String> contents = new ArrayList<>();
+    private final List<Map<String, String>> expressions = new ArrayList<>();
+    private final List<Class<?>> propertyTypes = new ArrayList<>();
     private final Class<?> parameterType;
     private final MetaObject metaParameters;
 
@@ -86,12 +142,16 @@ public class SqlSourceBuilder extends BaseBuilder {
 
     @Override
     public String handleToken(String content) {
-      parameterMappings.add(buildParameterMapping(content));
+      Map<String, String> propertiesMap = parseParameterMapping(content);
+      Class<?> propertyType = resolvePropertyType(propertiesMap);
+      contents.add(content);
+      expressions.add(propertiesMap);
+      propertyTypes.add(propertyType);
+      parameterMappings.add(buildParameterMapping(content, propertiesMap, propertyType));
       return "?";
     }
 
-    private ParameterMapping buildParameterMapping(String content) {
-      Map<String, String> propertiesMap = parseParameterMapping(content);
+    private Class<?> resolvePropertyType(Map<String, String> propertiesMap) {
       String property = propertiesMap.get("property");
       Class<?> propertyType;
       if (metaParameters.hasGetter(property)) { // issue #448 get type from additional params
@@ -110,6 +170,12 @@ public class SqlSourceBuilder extends BaseBuilder {
           propertyType = Object.class;
         }
       }
+      return propertyType;
+    }
+
+    private ParameterMapping buildParameterMapping(String content, Map<String, String> propertiesMap,
+        Class<?> propertyType) {
+      String property = propertiesMap.get("property");
       ParameterMapping.Builder builder = new ParameterMapping.Builder(configuration, property, propertyType);
       Class<?> javaType = propertyType;
       String typeHandlerAlias = null;
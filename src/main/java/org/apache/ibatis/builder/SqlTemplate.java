@@ -0,0 +1,75 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.builder;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.ParameterMapping;
+
+/**
+ * A SQL statement whose {@code #{...}} placeholders have been parsed by {@link SqlSourceBuilder#compile}, together with
+ * the parameter mappings built for the execution it was compiled for. It is immutable, and can be shared by threads.
+ *
+ * @since 3.5.12
+ *
+ * @see SqlSourceBuilder#bind(SqlTemplate, Map)
+ */
+public class SqlTemplate {
+
+  private final String sql;
+  private final Class<?> parameterType;
+  private final List<String> contents;
+  private final List<Map<String, String>> expressions;
+  private final List<Class<?>> propertyTypes;
+  private final List<ParameterMapping> parameterMappings;
+
+  SqlTemplate(String sql, Class<?> parameterType, List<String> contents, List<Map<String, String>> expressions,
+      List<Class<?>> propertyTypes, List<ParameterMapping> parameterMappings) {
+    this.sql = sql;
+    this.parameterType = parameterType;
+    this.contents = contents;
+    this.expressions = expressions;
+    this.propertyTypes = propertyTypes;
+    this.parameterMappings = Collections.unmodifiableList(parameterMappings);
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public Class<?> getParameterType() {
+    return parameterType;
+  }
+
+  public List<ParameterMapping> getParameterMappings() {
+    return parameterMappings;
+  }
+
+  List<String> getContents() {
+    return contents;
+  }
+
+  List<Map<String, String>> getExpressions() {
+    return expressions;
+  }
+
+  List<Class<?>> getPropertyTypes() {
+    return propertyTypes;
+  }
+
+}
@@ -39,6 +39,7 @@ import java.util.stream.Stream;
 import org.apache.ibatis.annotations.Arg;
 import org.apache.ibatis.annotations.CacheNamespace;
 import org.apache.ibatis.annotations.CacheNamespaceRef;
+import org.apache.ibatis.annotations.CacheTables;
 import org.apache.ibatis.annotations.Case;
 import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.DeleteProvider;
@@ -66,6 +67,7 @@ import org.apache.ibatis.builder.IncompleteElementException;
 import org.apache.ibatis.builder.MapperBuilderAssistant;
 import org.apache.ibatis.builder.xml.XMLMapperBuilder;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.CursorPublisher;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
@@ -352,6 +354,9 @@ public class MapperAnnotationBuilder {
         }
       }
 
+      CacheTables cacheTablesAnnotation = method.getAnnotation(CacheTables.class);
+      String cacheTables = cacheTablesAnnotation != null ? String.join(",", cacheTablesAnnotation.value()) : null;
+
       String resultMapId = null;
       if (isSelect) {
         ResultMap resultMapAnnotation = method.getAnnotation(ResultMap.class);
@@ -368,7 +373,9 @@ public class MapperAnnotationBuilder {
           // TODO gcode issue #577
           false, keyGenerator, keyProperty, keyColumn, statementAnnotation.getDatabaseId(), languageDriver,
           // ResultSets
-          options != null ? nullOrEmpty(options.resultSets()) : null, statementAnnotation.isDirtySelect());
+          options != null ? nullOrEmpty(options.resultSets()) : null, statementAnnotation.isDirtySelect(),
+          // BatchDependsOn
+          null, cacheTables);
     });
   }
 
@@ -416,7 +423,8 @@ public class MapperAnnotationBuilder {
     } else if (resolvedReturnType instanceof ParameterizedType) {
       ParameterizedType parameterizedType = (ParameterizedType) resolvedReturnType;
       Class<?> rawType = (Class<?>) parameterizedType.getRawType();
-      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)) {
+      if (Collection.class.isAssignableFrom(rawType) || Cursor.class.isAssignableFrom(rawType)
+          || CursorPublisher.isPublisherType(rawType)) {
         Type[] actualTypeArguments = parameterizedType.getActualTypeArguments();
         if (actualTypeArguments != null && actualTypeArguments.length == 1) {
           Type returnTypeParameter = actualTypeArguments[0];
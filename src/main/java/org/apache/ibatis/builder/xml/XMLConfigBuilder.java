@@ -290,6 +290,16 @@ public class XMLConfigBuilder extends BaseBuilder {
         booleanValueOf(props.getProperty("argNameBasedConstructorAutoMapping"), false));
     configuration.setDefaultSqlProviderType(resolveClass(props.getProperty("defaultSqlProviderType")));
     configuration.setNullableOnForEach(booleanValueOf(props.getProperty("nullableOnForEach"), false));
+    configuration.setUseCompiledRowMappers(booleanValueOf(props.getProperty("useCompiledRowMappers"), false));
+    configuration.setUseColumnIndexes(booleanValueOf(props.getProperty("useColumnIndexes"), false));
+    configuration.setBatchReorderingEnabled(booleanValueOf(props.getProperty("batchReorderingEnabled"), false));
+    configuration.setMaxBatchSize(integerValueOf(props.getProperty("maxBatchSize"), null));
+    configuration.setMultiRowInsertSize(integerValueOf(props.getProperty("multiRowInsertSize"), null));
+    configuration.setCursorPrefetchSize(integerValueOf(props.getProperty("cursorPrefetchSize"), null));
+    configuration
+        .setTableLevelCacheInvalidation(booleanValueOf(props.getProperty("tableLevelCacheInvalidation"), false));
+    configuration.setCacheInvalidationTransport(resolveClass(props.getProperty("cacheInvalidationTransport")));
+    configuration.setDynamicSqlCacheEnabled(booleanValueOf(props.getProperty("dynamicSqlCacheEnabled"), true));
   }
 
   private void environmentsElement(XNode context) throws Exception {
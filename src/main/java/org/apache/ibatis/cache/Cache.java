@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.locks.ReadWriteLock;
 
 /**
@@ -75,6 +77,35 @@ public interface Cache {
    */
   Object removeObject(Object key);
 
+  /**
+   * Optional. Puts several objects at once, as a transaction commits. Implementations can override this method to add
+   * them more efficiently than one by one, e.g. acquiring their locks only once.
+   *
+   * @param objects
+   *          The keys and the results of the selects, which may be null for keys missed by a blocking cache
+   *
+   * @since 3.5.12
+   */
+  default void putObjects(Map<?, ?> objects) {
+    for (Map.Entry<?, ?> entry : objects.entrySet()) {
+      putObject(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /**
+   * Optional. Calls {@link #removeObject(Object)} for several keys at once, as a transaction rolls back.
+   *
+   * @param keys
+   *          The keys
+   *
+   * @since 3.5.12
+   */
+  default void removeObjects(Collection<?> keys) {
+    for (Object key : keys) {
+      removeObject(key);
+    }
+  }
+
   /**
    * Clears this cache instance.
    */
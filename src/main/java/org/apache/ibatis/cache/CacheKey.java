@@ -16,18 +16,23 @@
 package org.apache.ibatis.cache;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 import java.util.StringJoiner;
 
 import org.apache.ibatis.reflection.ArrayUtil;
 
 /**
+ * A key made of the components it was updated with, in order.
+ * <p>
+ * Components are kept in a plain array, {@code int} and {@code long} components are kept unboxed, and a 64-bit hash of
+ * all components is maintained as they are added, so that keys of different content are almost always told apart
+ * without comparing their components.
+ *
  * @author Clinton Begin
  */
 public class CacheKey implements Cloneable, Serializable {
 
-  private static final long serialVersionUID = 1146682552656046210L;
+  private static final long serialVersionUID = -5106452316187498523L;
 
   public static final CacheKey NULL_CACHE_KEY = new CacheKey() {
 
@@ -38,28 +43,39 @@ public class CacheKey implements Cloneable, Serializable {
       throw new CacheException("Not allowed to update a null cache key instance.");
     }
 
+    @Override
+    public void update(int value) {
+      throw new CacheException("Not allowed to update a null cache key instance.");
+    }
+
+    @Override
+    public void update(long value) {
+      throw new CacheException("Not allowed to update a null cache key instance.");
+    }
+
     @Override
     public void updateAll(Object[] objects) {
       throw new CacheException("Not allowed to update a null cache key instance.");
     }
   };
 
-  private static final int DEFAULT_MULTIPLIER = 37;
-  private static final int DEFAULT_HASHCODE = 17;
+  private static final Object[] EMPTY_COMPONENTS = {};
+  private static final int INITIAL_CAPACITY = 8;
+  private static final int MIN_VALUES_CAPACITY = 4;
+  private static final long SEED = 0x9E3779B97F4A7C15L;
+  private static final long NULL_HASH = 0x2545F4914F6CDD1DL;
 
-  private final int multiplier;
-  private int hashcode;
-  private long checksum;
+  private long hash;
   private int count;
   // 8/21/2017 - Sonarlint flags this as needing to be marked transient. While true if content is not serializable, this
   // is not always true and thus should not be marked transient.
-  private List<Object> updateList;
+  private Object[] components;
+  // the values of the unboxed components, whose slot in components holds Unboxed.VALUE
+  private long[] values;
 
   public CacheKey() {
-    this.hashcode = DEFAULT_HASHCODE;
-    this.multiplier = DEFAULT_MULTIPLIER;
-    this.count = 0;
-    this.updateList = new ArrayList<>();
+    this.hash = SEED;
+    this.components = EMPTY_COMPONENTS;
   }
 
   public CacheKey(Object[] objects) {
@@ -68,19 +84,41 @@ public class CacheKey implements Cloneable, Serializable {
   }
 
   public int getUpdateCount() {
-    return updateList.size();
+    return count;
   }
 
   public void update(Object object) {
-    int baseHashCode = object == null ? 1 : ArrayUtil.hashCode(object);
-
-    count++;
-    checksum += baseHashCode;
-    baseHashCode *= count;
+    add(object, object == null ? NULL_HASH : ArrayUtil.hashCode(object));
+  }
 
-    hashcode = multiplier * hashcode + baseHashCode;
+  /**
+   * Adds an {@code int} component without boxing it.
+   *
+   * @param value
+   *          the value
+   *
+   * @since 3.5.12
+   */
+  public void update(int value) {
+    update((long) value);
+  }
 
-    updateList.add(object);
+  /**
+   * Adds a {@code long} component without boxing it.
+   *
+   * @param value
+   *          the value
+   *
+   * @since 3.5.12
+   */
+  public void update(long value) {
+    if (values == null) {
+      values = new long[Math.max(MIN_VALUES_CAPACITY, count + 1)];
+    } else if (values.length <= count) {
+      values = Arrays.copyOf(values, Math.max(components.length, count + 1));
+    }
+    values[count] = value;
+    add(Unboxed.VALUE, value ^ SEED);
   }
 
   public void updateAll(Object[] objects) {
@@ -89,6 +127,20 @@ public class CacheKey implements Cloneable, Serializable {
     }
   }
 
+  private void add(Object component, long componentHash) {
+    if (components.length == count) {
+      components = Arrays.copyOf(components, Math.max(INITIAL_CAPACITY, count << 1));
+    }
+    components[count++] = component;
+    hash = Long.rotateLeft(hash ^ mix(componentHash + count), 29) * SEED;
+  }
+
+  private static long mix(long value) {
+    value = (value ^ value >>> 33) * 0xFF51AFD7ED558CCDL;
+    value = (value ^ value >>> 33) * 0xC4CEB9FE1A85EC53L;
+    return value ^ value >>> 33;
+  }
+
   @Override
   public boolean equals(Object object) {
     if (this == object) {
@@ -100,14 +152,18 @@ public class CacheKey implements Cloneable, Serializable {
 
     final CacheKey cacheKey = (CacheKey) object;
 
-    if ((hashcode != cacheKey.hashcode) || (checksum != cacheKey.checksum) || (count != cacheKey.count)) {
+    if (hash != cacheKey.hash || count != cacheKey.count) {
       return false;
     }
 
-    for (int i = 0; i < updateList.size(); i++) {
-      Object thisObject = updateList.get(i);
-      Object thatObject = cacheKey.updateList.get(i);
-      if (!ArrayUtil.equals(thisObject, thatObject)) {
+    for (int i = 0; i < count; i++) {
+      Object thisObject = components[i];
+      Object thatObject = cacheKey.components[i];
+      if (thisObject == Unboxed.VALUE || thatObject == Unboxed.VALUE) {
+        if (thisObject != thatObject || values[i] != cacheKey.values[i]) {
+          return false;
+        }
+      } else if (thisObject != thatObject && !ArrayUtil.equals(thisObject, thatObject)) {
         return false;
       }
     }
@@ -116,23 +172,35 @@ public class CacheKey implements Cloneable, Serializable {
 
   @Override
   public int hashCode() {
-    return hashcode;
+    return (int) (hash ^ hash >>> 32);
   }
 
   @Override
   public String toString() {
     StringJoiner returnValue = new StringJoiner(":");
-    returnValue.add(String.valueOf(hashcode));
-    returnValue.add(String.valueOf(checksum));
-    updateList.stream().map(ArrayUtil::toString).forEach(returnValue::add);
+    returnValue.add(String.valueOf(hashCode()));
+    returnValue.add(Long.toHexString(hash));
+    for (int i = 0; i < count; i++) {
+      returnValue.add(components[i] == Unboxed.VALUE ? String.valueOf(values[i]) : ArrayUtil.toString(components[i]));
+    }
     return returnValue.toString();
   }
 
   @Override
   public CacheKey clone() throws CloneNotSupportedException {
     CacheKey clonedCacheKey = (CacheKey) super.clone();
-    clonedCacheKey.updateList = new ArrayList<>(updateList);
+    clonedCacheKey.components = count == 0 ? EMPTY_COMPONENTS : Arrays.copyOf(components, components.length);
+    if (values != null) {
+      clonedCacheKey.values = Arrays.copyOf(values, values.length);
+    }
     return clonedCacheKey;
   }
 
+  /**
+   * Marks the components whose value is kept unboxed. Being an enum, it stays the same instance once deserialized.
+   */
+  private enum Unboxed {
+    VALUE
+  }
+
 }
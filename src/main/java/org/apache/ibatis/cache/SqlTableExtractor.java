@@ -0,0 +1,343 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Finds the tables a SQL statement reads or writes, for table-level cache invalidation.
+ * <p>
+ * The statement is not fully parsed: the names that follow {@code FROM}, {@code JOIN}, {@code USING} and the targets of
+ * {@code INSERT}, {@code UPDATE}, {@code DELETE}, {@code MERGE} and {@code REPLACE} are collected. Names that are not
+ * tables, e.g. {@code EXTRACT(YEAR FROM column)}, may be collected too, which is harmless. When a table may be missed,
+ * e.g. because the statement is a procedure call or reads a table function, no tables are returned at all. Tables that
+ * are only reached through views or triggers cannot be found.
+ *
+ * @since 3.5.12
+ */
+public final class SqlTableExtractor {
+
+  private SqlTableExtractor() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * Finds the tables of a statement.
+   *
+   * @param sql
+   *          the SQL statement
+   *
+   * @return the normalized names of the tables, or {@code null} if they cannot be found or there are none
+   */
+  public static String[] extract(String sql) {
+    List<Token> tokens = tokenize(sql);
+    int start = 0;
+    while (start < tokens.size() && tokens.get(start).is("(")) {
+      start++;
+    }
+    if (start == tokens.size()) {
+      return null;
+    }
+    Set<String> tables = new LinkedHashSet<>();
+    Token first = tokens.get(start);
+    int i = start + 1;
+    // where the scan for read tables starts, so that the tables of common table expressions are found
+    int scanFrom = -1;
+    if (first.isKeyword("WITH")) {
+      int main = skipCommonTableExpressions(tokens, i);
+      if (main < 0 || main == tokens.size()) {
+        return null;
+      }
+      scanFrom = i;
+      first = tokens.get(main);
+      i = main + 1;
+    }
+    if (first.isKeyword("INSERT") || first.isKeyword("REPLACE") || first.isKeyword("MERGE")) {
+      if (i < tokens.size() && (tokens.get(i).isKeyword("ALL") || tokens.get(i).isKeyword("FIRST"))) {
+        // a multi-table insert
+        return null;
+      }
+      if (i < tokens.size() && tokens.get(i).isKeyword("IGNORE")) {
+        i++;
+      }
+      if (i < tokens.size() && tokens.get(i).isKeyword("INTO")) {
+        i++;
+      }
+      if (readTableList(tokens, i, tables, false, true) < 0) {
+        return null;
+      }
+    } else if (first.isKeyword("UPDATE") || first.isKeyword("DELETE")) {
+      if (i < tokens.size() && !tokens.get(i).isKeyword("FROM") && readTableList(tokens, i, tables, true, false) < 0) {
+        return null;
+      }
+    } else if (!first.isKeyword("SELECT")) {
+      return null;
+    }
+    if (scanFrom >= 0) {
+      i = scanFrom;
+    }
+    // the parenthesis depths at which a FROM clause is open, where a comma may follow a join condition
+    BitSet fromClauses = new BitSet();
+    int depth = start;
+    for (; i < tokens.size(); i++) {
+      Token token = tokens.get(i);
+      if (token.is("(")) {
+        fromClauses.clear(++depth);
+      } else if (token.is(")")) {
+        if (depth > 0) {
+          fromClauses.clear(depth--);
+        }
+      } else if (token.isKeyword("FROM") || token.isKeyword("JOIN")) {
+        if (readTableList(tokens, i + 1, tables, token.isKeyword("FROM"), false) < 0) {
+          return null;
+        }
+        fromClauses.set(depth);
+      } else if (token.is(",") && fromClauses.get(depth)) {
+        if (readTableList(tokens, i + 1, tables, false, false) < 0) {
+          return null;
+        }
+      } else if (token.isClauseKeyword() && !token.isJoinKeyword()) {
+        fromClauses.clear(depth);
+      } else if (token.isKeyword("USING") && i + 1 < tokens.size() && tokens.get(i + 1).isName()
+          && readTableList(tokens, i + 1, tables, false, true) < 0) {
+        return null;
+      }
+    }
+    // e.g. a sequence or a function read without FROM
+    return tables.isEmpty() ? null : tables.toArray(new String[0]);
+  }
+
+  /**
+   * Normalizes a table name: the schema is dropped, and the name is lower cased and unquoted.
+   *
+   * @param table
+   *          the table name, possibly qualified
+   *
+   * @return the normalized name
+   */
+  public static String normalize(String table) {
+    String name = table.trim();
+    int dot = name.lastIndexOf('.');
+    if (dot >= 0) {
+      name = name.substring(dot + 1);
+    }
+    if (name.length() > 1 && "\"`[".indexOf(name.charAt(0)) >= 0) {
+      name = name.substring(1, name.length() - 1);
+    }
+    return name.toLowerCase(Locale.ENGLISH);
+  }
+
+  /**
+   * Reads {@code table [[AS] alias] [, ...]} and returns the index of the following token, or -1 if a table may have
+   * been missed. A subquery in place of a table is skipped, its tables are found by the caller. The target of an insert
+   * may be followed by its columns, whereas any other name followed by parentheses is a function.
+   */
+  private static int readTableList(List<Token> tokens, int i, Set<String> tables, boolean list, boolean target) {
+    while (i < tokens.size()) {
+      Token token = tokens.get(i);
+      if (token.is("(")) {
+        i = skipParentheses(tokens, i);
+      } else {
+        if (token.isKeyword("ONLY")
+            || token.isKeyword("TABLE") && i + 1 < tokens.size() && tokens.get(i + 1).isName()) {
+          i++;
+          token = i < tokens.size() ? tokens.get(i) : null;
+        }
+        if (token == null || !token.isName() || token.isKeyword("LATERAL")) {
+          return -1;
+        }
+        String name = token.text;
+        i++;
+        while (i + 1 < tokens.size() && tokens.get(i).is(".") && tokens.get(i + 1).isName()) {
+          name = tokens.get(i + 1).text;
+          i += 2;
+        }
+        if (!target && i < tokens.size() && tokens.get(i).is("(")) {
+          // a table function
+          return -1;
+        }
+        tables.add(normalize(name));
+      }
+      if (!list) {
+        return i;
+      }
+      if (i < tokens.size() && tokens.get(i).isKeyword("AS")) {
+        i++;
+      }
+      if (i < tokens.size() && tokens.get(i).isName() && !tokens.get(i).isClauseKeyword()) {
+        i++;
+        if (i < tokens.size() && tokens.get(i).is("(")) {
+          i = skipParentheses(tokens, i);
+        }
+      }
+      if (i < tokens.size() && tokens.get(i).is(",")) {
+        i++;
+      } else {
+        return i;
+      }
+    }
+    return i;
+  }
+
+  /**
+   * Skips {@code [RECURSIVE] name [(columns)] AS [[NOT] MATERIALIZED] (query) [, ...]} and returns the index of the
+   * statement that follows, or -1 if the list cannot be read.
+   */
+  private static int skipCommonTableExpressions(List<Token> tokens, int i) {
+    if (i < tokens.size() && tokens.get(i).isKeyword("RECURSIVE")) {
+      i++;
+    }
+    while (true) {
+      if (i >= tokens.size() || !tokens.get(i).isName()) {
+        return -1;
+      }
+      i++;
+      if (i < tokens.size() && tokens.get(i).is("(")) {
+        i = skipParentheses(tokens, i);
+      }
+      if (i >= tokens.size() || !tokens.get(i).isKeyword("AS")) {
+        return -1;
+      }
+      i++;
+      if (i < tokens.size() && tokens.get(i).isKeyword("NOT")) {
+        i++;
+      }
+      if (i < tokens.size() && tokens.get(i).isKeyword("MATERIALIZED")) {
+        i++;
+      }
+      if (i >= tokens.size() || !tokens.get(i).is("(")) {
+        return -1;
+      }
+      i = skipParentheses(tokens, i);
+      if (i < tokens.size() && tokens.get(i).is(",")) {
+        i++;
+      } else {
+        return i;
+      }
+    }
+  }
+
+  private static int skipParentheses(List<Token> tokens, int i) {
+    int depth = 0;
+    for (; i < tokens.size(); i++) {
+      if (tokens.get(i).is("(")) {
+        depth++;
+      } else if (tokens.get(i).is(")") && --depth == 0) {
+        return i + 1;
+      }
+    }
+    return i;
+  }
+
+  private static List<Token> tokenize(String sql) {
+    List<Token> tokens = new ArrayList<>();
+    int length = sql.length();
+    int i = 0;
+    while (i < length) {
+      char c = sql.charAt(i);
+      if (Character.isWhitespace(c)) {
+        i++;
+      } else if (c == '-' && i + 1 < length && sql.charAt(i + 1) == '-') {
+        i = sql.indexOf('\n', i);
+        i = i < 0 ? length : i + 1;
+      } else if (c == '/' && i + 1 < length && sql.charAt(i + 1) == '*') {
+        i = sql.indexOf("*/", i + 2);
+        i = i < 0 ? length : i + 2;
+      } else if (c == '\'') {
+        i++;
+        while (i < length) {
+          if (sql.charAt(i++) == '\'') {
+            if (i < length && sql.charAt(i) == '\'') {
+              i++;
+            } else {
+              break;
+            }
+          }
+        }
+        tokens.add(new Token("'", false));
+      } else if (c == '"' || c == '`' || c == '[') {
+        char close = c == '[' ? ']' : c;
+        int end = sql.indexOf(close, i + 1);
+        end = end < 0 ? length : end + 1;
+        tokens.add(new Token(sql.substring(i, end), true));
+        i = end;
+      } else if (Character.isLetter(c) || c == '_') {
+        int start = i;
+        while (i < length && (Character.isLetterOrDigit(sql.charAt(i)) || "_$#@".indexOf(sql.charAt(i)) >= 0)) {
+          i++;
+        }
+        tokens.add(new Token(sql.substring(start, i), true));
+      } else {
+        tokens.add(new Token(String.valueOf(c), false));
+        i++;
+      }
+    }
+    return tokens;
+  }
+
+  private static final class Token {
+
+    private static final Set<String> CLAUSE_KEYWORDS = new LinkedHashSet<>();
+    private static final Set<String> JOIN_KEYWORDS = new LinkedHashSet<>();
+
+    static {
+      for (String keyword : new String[] { "ON", "USING", "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "OUTER", "CROSS",
+          "NATURAL", "STRAIGHT_JOIN", "USE", "FORCE", "IGNORE", "PARTITION", "TABLESAMPLE", "WITH" }) {
+        JOIN_KEYWORDS.add(keyword);
+      }
+      for (String keyword : new String[] { "WHERE", "SET", "ON", "USING", "JOIN", "INNER", "LEFT", "RIGHT", "FULL",
+          "OUTER", "CROSS", "NATURAL", "STRAIGHT_JOIN", "GROUP", "ORDER", "HAVING", "LIMIT", "OFFSET", "FETCH", "FOR",
+          "UNION", "INTERSECT", "EXCEPT", "MINUS", "WINDOW", "VALUES", "SELECT", "DEFAULT", "OUTPUT", "RETURNING",
+          "WHEN", "CONNECT", "START", "PARTITION", "TABLESAMPLE", "WITH", "FROM", "USE", "FORCE", "IGNORE" }) {
+        CLAUSE_KEYWORDS.add(keyword);
+      }
+    }
+
+    private final String text;
+    private final boolean name;
+
+    Token(String text, boolean name) {
+      this.text = text;
+      this.name = name;
+    }
+
+    boolean is(String punctuation) {
+      return !name && text.equals(punctuation);
+    }
+
+    boolean isName() {
+      return name;
+    }
+
+    boolean isKeyword(String keyword) {
+      return name && text.equalsIgnoreCase(keyword);
+    }
+
+    boolean isClauseKeyword() {
+      return name && CLAUSE_KEYWORDS.contains(text.toUpperCase(Locale.ENGLISH));
+    }
+
+    boolean isJoinKeyword() {
+      return name && JOIN_KEYWORDS.contains(text.toUpperCase(Locale.ENGLISH));
+    }
+  }
+
+}
@@ -0,0 +1,54 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+
+/**
+ * A result stored in a second level cache with the versions of the tables it was read from, when table-level cache
+ * invalidation is enabled.
+ *
+ * @see TableVersions
+ *
+ * @since 3.5.12
+ */
+public final class TableVersionedResult implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String[] tables;
+  private final long[] versions;
+  private final Object result;
+
+  public TableVersionedResult(String[] tables, long[] versions, Object result) {
+    this.tables = tables;
+    this.versions = versions;
+    this.result = result;
+  }
+
+  public String[] getTables() {
+    return tables;
+  }
+
+  public long[] getVersions() {
+    return versions;
+  }
+
+  public Object getResult() {
+    return result;
+  }
+
+}
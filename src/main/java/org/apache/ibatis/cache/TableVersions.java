@@ -0,0 +1,109 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the committed writes to each table, so that the second level cache entries read from a table can be told stale
+ * once the table was written, without being looked up.
+ * <p>
+ * An entry records the versions of its tables before its query runs, so a write committed while the query runs makes it
+ * stale too.
+ *
+ * @see TableVersionedResult
+ *
+ * @since 3.5.12
+ */
+public class TableVersions {
+
+  private final ConcurrentHashMap<String, AtomicLong> versions = new ConcurrentHashMap<>();
+  // entries persisted by a cache must not match the versions of another instance
+  private final long initialVersion = ThreadLocalRandom.current().nextLong();
+
+  /**
+   * Gets the current versions of tables.
+   *
+   * @param tables
+   *          the normalized table names
+   *
+   * @return the versions, in the same order
+   */
+  public long[] snapshot(String[] tables) {
+    long[] snapshot = new long[tables.length];
+    for (int i = 0; i < tables.length; i++) {
+      snapshot[i] = version(tables[i]).get();
+    }
+    return snapshot;
+  }
+
+  /**
+   * Tells whether none of the tables was written since a snapshot was taken.
+   *
+   * @param tables
+   *          the normalized table names
+   * @param snapshot
+   *          the versions of the tables returned by {@link #snapshot(String[])}
+   *
+   * @return true if the snapshot is still current
+   */
+  public boolean isCurrent(String[] tables, long[] snapshot) {
+    for (int i = 0; i < tables.length; i++) {
+      AtomicLong version = versions.get(tables[i]);
+      if (version == null || version.get() != snapshot[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Records committed writes to tables.
+   *
+   * @param tables
+   *          the normalized table names
+   */
+  public void increment(Collection<String> tables) {
+    for (String table : tables) {
+      version(table).incrementAndGet();
+    }
+  }
+
+  /**
+   * Records committed writes to tables reported by another node. The tables no cache entry was read from are ignored,
+   * so that the versions cannot grow with the names other nodes send.
+   *
+   * @param tables
+   *          the normalized table names
+   */
+  public void incrementKnown(Collection<String> tables) {
+    for (String table : tables) {
+      AtomicLong version = versions.get(table);
+      if (version != null) {
+        version.incrementAndGet();
+      }
+    }
+  }
+
+  private AtomicLong version(String table) {
+    AtomicLong version = versions.get(table);
+    return version != null ? version : versions.computeIfAbsent(table, k -> new AtomicLong(initialVersion));
+  }
+
+}
@@ -15,10 +15,16 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.util.MapUtil;
 
 /**
@@ -27,6 +33,25 @@ import org.apache.ibatis.util.MapUtil;
 public class TransactionalCacheManager {
 
   private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<>();
+  private final CacheInvalidationBus invalidationBus;
+  private TableVersions tableVersions;
+  private final Set<String> writtenTables = new HashSet<>();
+
+  public TransactionalCacheManager() {
+    this(null);
+  }
+
+  /**
+   * Creates a manager that publishes the caches flushed by each commit.
+   *
+   * @param invalidationBus
+   *          the bus to publish flushes to, or null
+   *
+   * @since 3.5.12
+   */
+  public TransactionalCacheManager(CacheInvalidationBus invalidationBus) {
+    this.invalidationBus = invalidationBus;
+  }
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
@@ -40,13 +65,82 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  /**
+   * Gives up putting an entry missed in the cache, e.g. because the query failed.
+   *
+   * @param cache
+   *          the cache
+   * @param key
+   *          the key that was missed
+   *
+   * @since 3.5.12
+   */
+  public void release(Cache cache, CacheKey key) {
+    getTransactionalCache(cache).release(key);
+  }
+
+  /**
+   * Records that the transaction wrote tables. Their versions are incremented on commit.
+   *
+   * @param tableVersions
+   *          the table versions of the configuration
+   * @param tables
+   *          the normalized names of the written tables
+   *
+   * @since 3.5.12
+   */
+  public void writeTables(TableVersions tableVersions, String... tables) {
+    this.tableVersions = tableVersions;
+    Collections.addAll(writtenTables, tables);
+  }
+
+  /**
+   * Tells whether the transaction wrote any of the tables, in which case the cache entries read from them must not be
+   * used by this transaction.
+   *
+   * @param tables
+   *          the normalized table names
+   *
+   * @return true if any of the tables was written
+   *
+   * @since 3.5.12
+   */
+  public boolean isAnyTableWritten(String[] tables) {
+    if (!writtenTables.isEmpty()) {
+      for (String table : tables) {
+        if (writtenTables.contains(table)) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
   public void commit() {
+    if (!writtenTables.isEmpty()) {
+      tableVersions.increment(writtenTables);
+      if (invalidationBus != null) {
+        invalidationBus.invalidateTables(writtenTables);
+      }
+      writtenTables.clear();
+    }
+    List<String> clearedCacheIds = null;
     for (TransactionalCache txCache : transactionalCaches.values()) {
+      if (invalidationBus != null && txCache.isClearOnCommit()) {
+        if (clearedCacheIds == null) {
+          clearedCacheIds = new ArrayList<>();
+        }
+        clearedCacheIds.add(txCache.getId());
+      }
       txCache.commit();
     }
+    if (clearedCacheIds != null) {
+      invalidationBus.invalidate(clearedCacheIds);
+    }
   }
 
   public void rollback() {
+    writtenTables.clear();
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.rollback();
     }
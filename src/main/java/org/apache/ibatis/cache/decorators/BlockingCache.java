@@ -15,6 +15,8 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
@@ -24,13 +26,15 @@ import org.apache.ibatis.cache.CacheException;
 
 /**
  * <p>
- * Simple blocking decorator
+ * Blocking decorator
  * <p>
- * Simple and inefficient version of EhCache's BlockingCache decorator. It sets a lock over a cache key when the element
- * is not found in cache. This way, other threads will wait until this element is filled instead of hitting the
- * database.
+ * Lets a single thread load an element that is not found in cache. The first thread that misses a key registers a load
+ * for it and gets {@code null}; other threads that miss the same key wait until the element is put, or the load is
+ * abandoned by {@link #removeObject(Object)}, instead of hitting the database, and then read the cache again. Hits
+ * neither lock nor allocate. A thread that misses a key it is already loading is not blocked.
  * <p>
- * By its nature, this implementation can cause deadlock when used incorrectly.
+ * By its nature, this implementation can cause deadlock when used incorrectly, so waiting threads give up after the
+ * {@link #setTimeout(long) timeout} if one is set.
  *
  * @author Eduardo Macarron
  */
@@ -38,11 +42,11 @@ public class BlockingCache implements Cache {
 
   private long timeout;
   private final Cache delegate;
-  private final ConcurrentHashMap<Object, CountDownLatch> locks;
+  private final ConcurrentHashMap<Object, Load> loads;
 
   public BlockingCache(Cache delegate) {
     this.delegate = delegate;
-    this.locks = new ConcurrentHashMap<>();
+    this.loads = new ConcurrentHashMap<>();
   }
 
   @Override
@@ -60,61 +64,95 @@ public class BlockingCache implements Cache {
     try {
       delegate.putObject(key, value);
     } finally {
-      releaseLock(key);
+      completeLoad(key);
     }
   }
 
   @Override
   public Object getObject(Object key) {
-    acquireLock(key);
     Object value = delegate.getObject(key);
     if (value != null) {
-      releaseLock(key);
+      return value;
+    }
+    Load newLoad = null;
+    while (true) {
+      Load load = loads.get(key);
+      if (load == null) {
+        if (newLoad == null) {
+          newLoad = new Load();
+        }
+        load = loads.putIfAbsent(key, newLoad);
+        if (load == null) {
+          // the element may have been put since it was missed
+          value = delegate.getObject(key);
+          if (value != null) {
+            completeLoad(key);
+          }
+          return value;
+        }
+      }
+      if (load.owner == Thread.currentThread()) {
+        return null;
+      }
+      awaitLoad(key, load);
+      value = delegate.getObject(key);
+      if (value != null) {
+        return value;
+      }
     }
-    return value;
   }
 
   @Override
   public Object removeObject(Object key) {
-    // despite its name, this method is called only to release locks
-    releaseLock(key);
+    // despite its name, this method is called only to abandon loads
+    completeLoad(key);
     return null;
   }
 
+  @Override
+  public void putObjects(Map<?, ?> objects) {
+    try {
+      delegate.putObjects(objects);
+    } finally {
+      for (Object key : objects.keySet()) {
+        completeLoad(key);
+      }
+    }
+  }
+
+  @Override
+  public void removeObjects(Collection<?> keys) {
+    for (Object key : keys) {
+      completeLoad(key);
+    }
+  }
+
   @Override
   public void clear() {
     delegate.clear();
   }
 
-  private void acquireLock(Object key) {
-    CountDownLatch newLatch = new CountDownLatch(1);
-    while (true) {
-      CountDownLatch latch = locks.putIfAbsent(key, newLatch);
-      if (latch == null) {
-        break;
-      }
-      try {
-        if (timeout > 0) {
-          boolean acquired = latch.await(timeout, TimeUnit.MILLISECONDS);
-          if (!acquired) {
-            throw new CacheException(
-                "Couldn't get a lock in " + timeout + " for the key " + key + " at the cache " + delegate.getId());
-          }
-        } else {
-          latch.await();
+  private void awaitLoad(Object key, Load load) {
+    try {
+      if (timeout > 0) {
+        boolean completed = load.latch.await(timeout, TimeUnit.MILLISECONDS);
+        if (!completed) {
+          throw new CacheException(
+              "Couldn't get a lock in " + timeout + " for the key " + key + " at the cache " + delegate.getId());
         }
-      } catch (InterruptedException e) {
-        throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
+      } else {
+        load.latch.await();
       }
+    } catch (InterruptedException e) {
+      throw new CacheException("Got interrupted while trying to acquire lock for key " + key, e);
     }
   }
 
-  private void releaseLock(Object key) {
-    CountDownLatch latch = locks.remove(key);
-    if (latch == null) {
-      throw new IllegalStateException("Detected an attempt at releasing unacquired lock. This should never happen.");
+  private void completeLoad(Object key) {
+    Load load = loads.remove(key);
+    if (load != null) {
+      load.latch.countDown();
     }
-    latch.countDown();
   }
 
   public long getTimeout() {
@@ -124,4 +162,9 @@ public class BlockingCache implements Cache {
   public void setTimeout(long timeout) {
     this.timeout = timeout;
   }
+
+  private static final class Load {
+    private final Thread owner = Thread.currentThread();
+    private final CountDownLatch latch = new CountDownLatch(1);
+  }
 }
@@ -15,6 +15,10 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -26,8 +30,8 @@ public class LoggingCache implements Cache {
 
   private final Log log;
   private final Cache delegate;
-  protected int requests;
-  protected int hits;
+  protected final LongAdder requests = new LongAdder();
+  protected final LongAdder hits = new LongAdder();
 
   public LoggingCache(Cache delegate) {
     this.delegate = delegate;
@@ -51,10 +55,10 @@ public class LoggingCache implements Cache {
 
   @Override
   public Object getObject(Object key) {
-    requests++;
+    requests.increment();
     final Object value = delegate.getObject(key);
     if (value != null) {
-      hits++;
+      hits.increment();
     }
     if (log.isDebugEnabled()) {
       log.debug("Cache Hit Ratio [" + getId() + "]: " + getHitRatio());
@@ -67,11 +71,25 @@ public class LoggingCache implements Cache {
     return delegate.removeObject(key);
   }
 
+  @Override
+  public void putObjects(Map<?, ?> objects) {
+    delegate.putObjects(objects);
+  }
+
+  @Override
+  public void removeObjects(Collection<?> keys) {
+    delegate.removeObjects(keys);
+  }
+
   @Override
   public void clear() {
     delegate.clear();
   }
 
+  Cache getDelegate() {
+    return delegate;
+  }
+
   @Override
   public int hashCode() {
     return delegate.hashCode();
@@ -83,7 +101,7 @@ public class LoggingCache implements Cache {
   }
 
   private double getHitRatio() {
-    return (double) hits / (double) requests;
+    return (double) hits.sum() / (double) requests.sum();
   }
 
 }
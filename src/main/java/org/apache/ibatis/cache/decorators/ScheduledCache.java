@@ -25,8 +25,8 @@ import org.apache.ibatis.cache.Cache;
 public class ScheduledCache implements Cache {
 
   private final Cache delegate;
-  protected long clearInterval;
-  protected long lastClear;
+  protected volatile long clearInterval;
+  protected volatile long lastClear;
 
   public ScheduledCache(Cache delegate) {
     this.delegate = delegate;
@@ -84,7 +84,12 @@ public class ScheduledCache implements Cache {
 
   private boolean clearWhenStale() {
     if (System.currentTimeMillis() - lastClear > clearInterval) {
-      clear();
+      synchronized (this) {
+        // another thread may have cleared it meanwhile
+        if (System.currentTimeMillis() - lastClear > clearInterval) {
+          clear();
+        }
+      }
       return true;
     }
     return false;
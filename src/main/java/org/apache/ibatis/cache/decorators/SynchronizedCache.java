@@ -15,13 +15,22 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
 import org.apache.ibatis.cache.Cache;
 
 /**
+ * Serializes the access to a cache. A {@link ReentrantLock} is used rather than a monitor, so that virtual threads
+ * waiting for the cache do not pin their carrier threads.
+ *
  * @author Clinton Begin
  */
 public class SynchronizedCache implements Cache {
 
+  private final Lock lock = new ReentrantLock();
   private final Cache delegate;
 
   public SynchronizedCache(Cache delegate) {
@@ -34,28 +43,77 @@ public class SynchronizedCache implements Cache {
   }
 
   @Override
-  public synchronized int getSize() {
-    return delegate.getSize();
+  public int getSize() {
+    lock.lock();
+    try {
+      return delegate.getSize();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object object) {
+    lock.lock();
+    try {
+      delegate.putObject(key, object);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized void putObject(Object key, Object object) {
-    delegate.putObject(key, object);
+  public Object getObject(Object key) {
+    lock.lock();
+    try {
+      return delegate.getObject(key);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized Object getObject(Object key) {
-    return delegate.getObject(key);
+  public Object removeObject(Object key) {
+    lock.lock();
+    try {
+      return delegate.removeObject(key);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized Object removeObject(Object key) {
-    return delegate.removeObject(key);
+  public void putObjects(Map<?, ?> objects) {
+    lock.lock();
+    try {
+      delegate.putObjects(objects);
+    } finally {
+      lock.unlock();
+    }
   }
 
   @Override
-  public synchronized void clear() {
-    delegate.clear();
+  public void removeObjects(Collection<?> keys) {
+    lock.lock();
+    try {
+      delegate.removeObjects(keys);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      delegate.clear();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  Cache getDelegate() {
+    return delegate;
   }
 
   @Override
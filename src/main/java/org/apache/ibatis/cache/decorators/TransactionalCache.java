@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.Set;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 
@@ -28,9 +29,9 @@ import org.apache.ibatis.logging.LogFactory;
  * The 2nd level cache transactional buffer.
  * <p>
  * This class holds all cache entries that are to be added to the 2nd level cache during a Session. Entries are sent to
- * the cache when commit is called or discarded if the Session is rolled back. Blocking cache support has been added.
- * Therefore any get() that returns a cache miss will be followed by a put() so any lock associated with the key can be
- * released.
+ * the cache when commit is called, all at once, or discarded if the Session is rolled back. Blocking cache support has
+ * been added. Therefore any get() that returns a cache miss will be followed by a put() so any lock associated with the
+ * key can be released. Misses are not tracked for the caches built by MyBatis that do not block.
  *
  * @author Clinton Begin
  * @author Eduardo Macarron
@@ -48,7 +49,7 @@ public class TransactionalCache implements Cache {
     this.delegate = delegate;
     this.clearOnCommit = false;
     this.entriesToAddOnCommit = new HashMap<>();
-    this.entriesMissedInCache = new HashSet<>();
+    this.entriesMissedInCache = mayBlock(delegate) ? new HashSet<>() : null;
   }
 
   @Override
@@ -65,7 +66,7 @@ public class TransactionalCache implements Cache {
   public Object getObject(Object key) {
     // issue #116
     Object object = delegate.getObject(key);
-    if (object == null) {
+    if (object == null && entriesMissedInCache != null) {
       entriesMissedInCache.add(key);
     }
     // issue #146
@@ -91,6 +92,32 @@ public class TransactionalCache implements Cache {
     entriesToAddOnCommit.clear();
   }
 
+  /**
+   * Gives up putting an entry missed in the cache. A blocking cache is notified right away, so that other sessions do
+   * not wait for this one to end.
+   *
+   * @param key
+   *          the key that was missed
+   *
+   * @since 3.5.12
+   */
+  public void release(Object key) {
+    if (entriesMissedInCache != null && entriesMissedInCache.remove(key) && !entriesToAddOnCommit.containsKey(key)) {
+      unlockMissedEntry(key);
+    }
+  }
+
+  /**
+   * Tells whether this cache will be flushed on commit.
+   *
+   * @return true if the transaction flushed this cache
+   *
+   * @since 3.5.12
+   */
+  public boolean isClearOnCommit() {
+    return clearOnCommit;
+  }
+
   public void commit() {
     if (clearOnCommit) {
       delegate.clear();
@@ -107,29 +134,56 @@ public class TransactionalCache implements Cache {
   private void reset() {
     clearOnCommit = false;
     entriesToAddOnCommit.clear();
-    entriesMissedInCache.clear();
+    if (entriesMissedInCache != null) {
+      entriesMissedInCache.clear();
+    }
   }
 
   private void flushPendingEntries() {
-    for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
-      delegate.putObject(entry.getKey(), entry.getValue());
-    }
-    for (Object entry : entriesMissedInCache) {
-      if (!entriesToAddOnCommit.containsKey(entry)) {
-        delegate.putObject(entry, null);
+    if (entriesMissedInCache != null) {
+      for (Object entry : entriesMissedInCache) {
+        entriesToAddOnCommit.putIfAbsent(entry, null);
       }
     }
+    if (!entriesToAddOnCommit.isEmpty()) {
+      delegate.putObjects(entriesToAddOnCommit);
+    }
   }
 
   private void unlockMissedEntries() {
-    for (Object entry : entriesMissedInCache) {
-      try {
-        delegate.removeObject(entry);
-      } catch (Exception e) {
-        log.warn("Unexpected exception while notifying a rollback to the cache adapter. "
-            + "Consider upgrading your cache adapter to the latest version. Cause: " + e);
-      }
+    if (entriesMissedInCache == null || entriesMissedInCache.isEmpty()) {
+      return;
+    }
+    try {
+      delegate.removeObjects(entriesMissedInCache);
+    } catch (Exception e) {
+      log.warn("Unexpected exception while notifying a rollback to the cache adapter. "
+          + "Consider upgrading your cache adapter to the latest version. Cause: " + e);
+    }
+  }
+
+  private void unlockMissedEntry(Object entry) {
+    try {
+      delegate.removeObject(entry);
+    } catch (Exception e) {
+      log.warn("Unexpected exception while notifying a rollback to the cache adapter. "
+          + "Consider upgrading your cache adapter to the latest version. Cause: " + e);
+    }
+  }
+
+  /**
+   * Custom caches are assumed to block on misses, whereas caches built by MyBatis only do when decorated by
+   * {@link BlockingCache}.
+   */
+  private static boolean mayBlock(Cache cache) {
+    if (cache.getClass() == SynchronizedCache.class) {
+      cache = ((SynchronizedCache) cache).getDelegate();
+    }
+    if (cache.getClass() != LoggingCache.class) {
+      return true;
     }
+    Package pkg = ((LoggingCache) cache).getDelegate().getClass().getPackage();
+    return pkg != LoggingCache.class.getPackage() && pkg != PerpetualCache.class.getPackage();
   }
 
 }
@@ -0,0 +1,548 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.io.SerialFilterChecker;
+
+/**
+ * A binary serializer for the objects MyBatis caches: lists and maps of result objects, whose properties are mostly
+ * numbers, strings, dates and byte arrays.
+ * <p>
+ * These types are written with a one byte tag and a compact encoding of their value. A result object of a serializable
+ * class with a no-argument constructor, and none of the methods that customize Java serialization, is written as its
+ * non-transient fields, with its class name written once per serialized graph. Other objects are written by Java
+ * serialization. Shared and cyclic references between containers and result objects are preserved.
+ */
+final class CompactSerializer {
+
+  private static final byte NULL = 0;
+  private static final byte REFERENCE = 1;
+  private static final byte TRUE = 2;
+  private static final byte FALSE = 3;
+  private static final byte INTEGER = 4;
+  private static final byte LONG = 5;
+  private static final byte SHORT = 6;
+  private static final byte BYTE = 7;
+  private static final byte CHARACTER = 8;
+  private static final byte FLOAT = 9;
+  private static final byte DOUBLE = 10;
+  private static final byte STRING = 11;
+  private static final byte BIG_DECIMAL = 12;
+  private static final byte BIG_INTEGER = 13;
+  private static final byte DATE = 14;
+  private static final byte SQL_DATE = 15;
+  private static final byte SQL_TIME = 16;
+  private static final byte SQL_TIMESTAMP = 17;
+  private static final byte LOCAL_DATE = 18;
+  private static final byte LOCAL_TIME = 19;
+  private static final byte LOCAL_DATE_TIME = 20;
+  private static final byte BYTES = 21;
+  private static final byte ARRAY_LIST = 22;
+  private static final byte HASH_MAP = 23;
+  private static final byte LINKED_HASH_MAP = 24;
+  private static final byte HASH_SET = 25;
+  private static final byte LINKED_HASH_SET = 26;
+  private static final byte OBJECT_ARRAY = 27;
+  private static final byte ENUM = 28;
+  private static final byte BEAN = 29;
+  private static final byte JAVA = 30;
+
+  private static final Map<Class<?>, BeanType> beanTypes = new ConcurrentHashMap<>();
+  private static final BeanType NOT_A_BEAN = new BeanType(null, null);
+
+  private CompactSerializer() {
+    // Prevent Instantiation
+  }
+
+  static byte[] serialize(Object value) {
+    Output output = new Output();
+    try {
+      output.writeObject(value);
+    } catch (IOException | ReflectiveOperationException e) {
+      throw new CacheException("Error serializing object.  Cause: " + e, e);
+    }
+    return output.toByteArray();
+  }
+
+  static Object deserialize(byte[] bytes) {
+    Input input = new Input(bytes);
+    try {
+      return input.readObject();
+    } catch (IOException | ReflectiveOperationException | RuntimeException e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  private static BeanType beanType(Class<?> type) {
+    BeanType beanType = beanTypes.get(type);
+    if (beanType == null) {
+      beanType = inspect(type);
+      beanTypes.put(type, beanType);
+    }
+    return beanType;
+  }
+
+  private static BeanType inspect(Class<?> type) {
+    String name = type.getName();
+    if (!Serializable.class.isAssignableFrom(type) || type.isEnum() || type.isArray()
+        || Modifier.isAbstract(type.getModifiers()) || Collection.class.isAssignableFrom(type)
+        || Map.class.isAssignableFrom(type) || name.startsWith("java.") || name.startsWith("javax.")
+        || name.startsWith("jdk.") || name.startsWith("sun.") || name.startsWith("com.sun.")
+        || type.getSuperclass() != null && "java.lang.Record".equals(type.getSuperclass().getName())) {
+      return NOT_A_BEAN;
+    }
+    try {
+      List<Field> fields = new ArrayList<>();
+      for (Class<?> c = type; c != Object.class; c = c.getSuperclass()) {
+        if (Serializable.class.isAssignableFrom(c)) {
+          for (String method : new String[] { "writeObject", "readObject", "readObjectNoData", "writeReplace",
+              "readResolve" }) {
+            if (Arrays.stream(c.getDeclaredMethods()).anyMatch(m -> m.getName().equals(method))) {
+              return NOT_A_BEAN;
+            }
+          }
+        }
+        for (Field field : c.getDeclaredFields()) {
+          int modifiers = field.getModifiers();
+          if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+            field.setAccessible(true);
+            fields.add(field);
+          }
+        }
+      }
+      Constructor<?> constructor = type.getDeclaredConstructor();
+      constructor.setAccessible(true);
+      return new BeanType(constructor, fields.toArray(new Field[0]));
+    } catch (NoSuchMethodException | RuntimeException e) {
+      // no default constructor or inaccessible members
+      return NOT_A_BEAN;
+    }
+  }
+
+  private static final class BeanType {
+    private final Constructor<?> constructor;
+    private final Field[] fields;
+
+    BeanType(Constructor<?> constructor, Field[] fields) {
+      this.constructor = constructor;
+      this.fields = fields;
+    }
+  }
+
+  private static final class Output {
+    private byte[] buffer = new byte[256];
+    private int position;
+    private final Map<Object, Integer> references = new IdentityHashMap<>();
+    private final Map<Class<?>, Integer> classes = new HashMap<>();
+
+    void writeObject(Object value) throws IOException, ReflectiveOperationException {
+      if (value == null) {
+        writeByte(NULL);
+        return;
+      }
+      Class<?> type = value.getClass();
+      if (type == String.class) {
+        writeByte(STRING);
+        writeString((String) value);
+      } else if (type == Integer.class) {
+        writeByte(INTEGER);
+        writeVarLong(zigZag((Integer) value));
+      } else if (type == Long.class) {
+        writeByte(LONG);
+        writeVarLong(zigZag((Long) value));
+      } else if (type == Boolean.class) {
+        writeByte((Boolean) value ? TRUE : FALSE);
+      } else if (type == BigDecimal.class) {
+        BigDecimal decimal = (BigDecimal) value;
+        writeByte(BIG_DECIMAL);
+        writeVarLong(zigZag(decimal.scale()));
+        writeBytes(decimal.unscaledValue().toByteArray());
+      } else if (type == Double.class) {
+        writeByte(DOUBLE);
+        writeLong(Double.doubleToRawLongBits((Double) value));
+      } else if (type == java.sql.Timestamp.class) {
+        java.sql.Timestamp timestamp = (java.sql.Timestamp) value;
+        writeByte(SQL_TIMESTAMP);
+        writeVarLong(zigZag(timestamp.getTime()));
+        writeVarLong(timestamp.getNanos());
+      } else if (type == Date.class || type == java.sql.Date.class || type == java.sql.Time.class) {
+        writeByte(type == Date.class ? DATE : type == java.sql.Date.class ? SQL_DATE : SQL_TIME);
+        writeVarLong(zigZag(((Date) value).getTime()));
+      } else if (type == LocalDate.class) {
+        writeByte(LOCAL_DATE);
+        writeVarLong(zigZag(((LocalDate) value).toEpochDay()));
+      } else if (type == LocalTime.class) {
+        writeByte(LOCAL_TIME);
+        writeVarLong(((LocalTime) value).toNanoOfDay());
+      } else if (type == LocalDateTime.class) {
+        LocalDateTime dateTime = (LocalDateTime) value;
+        writeByte(LOCAL_DATE_TIME);
+        writeVarLong(zigZag(dateTime.toLocalDate().toEpochDay()));
+        writeVarLong(dateTime.toLocalTime().toNanoOfDay());
+      } else if (type == Short.class) {
+        writeByte(SHORT);
+        writeVarLong(zigZag((Short) value));
+      } else if (type == Byte.class) {
+        writeByte(BYTE);
+        writeByte((Byte) value);
+      } else if (type == Character.class) {
+        writeByte(CHARACTER);
+        writeVarLong((Character) value);
+      } else if (type == Float.class) {
+        writeByte(FLOAT);
+        writeVarLong(Float.floatToRawIntBits((Float) value) & 0xFFFFFFFFL);
+      } else if (type == BigInteger.class) {
+        writeByte(BIG_INTEGER);
+        writeBytes(((BigInteger) value).toByteArray());
+      } else if (type == byte[].class) {
+        writeByte(BYTES);
+        writeBytes((byte[]) value);
+      } else if (type.isEnum() || type.getSuperclass() != null && type.getSuperclass().isEnum()) {
+        writeByte(ENUM);
+        writeClass(((Enum<?>) value).getDeclaringClass());
+        writeString(((Enum<?>) value).name());
+      } else if (!writeReference(value)) {
+        writeContainer(value, type);
+      }
+    }
+
+    private boolean writeReference(Object value) {
+      Integer index = references.get(value);
+      if (index != null) {
+        writeByte(REFERENCE);
+        writeVarLong(index);
+        return true;
+      }
+      references.put(value, references.size());
+      return false;
+    }
+
+    private void writeContainer(Object value, Class<?> type) throws IOException, ReflectiveOperationException {
+      if (type == ArrayList.class) {
+        writeByte(ARRAY_LIST);
+        writeElements((Collection<?>) value);
+      } else if (type == HashMap.class || type == LinkedHashMap.class) {
+        writeByte(type == HashMap.class ? HASH_MAP : LINKED_HASH_MAP);
+        Map<?, ?> map = (Map<?, ?>) value;
+        writeVarLong(map.size());
+        for (Map.Entry<?, ?> entry : map.entrySet()) {
+          writeObject(entry.getKey());
+          writeObject(entry.getValue());
+        }
+      } else if (type == HashSet.class || type == LinkedHashSet.class) {
+        writeByte(type == HashSet.class ? HASH_SET : LINKED_HASH_SET);
+        writeElements((Collection<?>) value);
+      } else if (type.isArray() && !type.getComponentType().isPrimitive()) {
+        writeByte(OBJECT_ARRAY);
+        writeClass(type.getComponentType());
+        int length = Array.getLength(value);
+        writeVarLong(length);
+        for (int i = 0; i < length; i++) {
+          writeObject(Array.get(value, i));
+        }
+      } else {
+        BeanType beanType = beanType(type);
+        if (beanType == NOT_A_BEAN) {
+          writeByte(JAVA);
+          writeBytes(javaSerialize(value));
+        } else {
+          writeByte(BEAN);
+          writeClass(type);
+          for (Field field : beanType.fields) {
+            writeObject(field.get(value));
+          }
+        }
+      }
+    }
+
+    private void writeElements(Collection<?> collection) throws IOException, ReflectiveOperationException {
+      writeVarLong(collection.size());
+      for (Object element : collection) {
+        writeObject(element);
+      }
+    }
+
+    private void writeClass(Class<?> type) {
+      Integer index = classes.get(type);
+      if (index != null) {
+        writeVarLong(index + 1L);
+      } else {
+        classes.put(type, classes.size());
+        writeVarLong(0);
+        writeString(type.getName());
+      }
+    }
+
+    private static byte[] javaSerialize(Object value) throws IOException {
+      try (ByteArrayOutputStream bos = new ByteArrayOutputStream();
+          ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+        oos.writeObject(value);
+        oos.flush();
+        return bos.toByteArray();
+      }
+    }
+
+    private void writeString(String value) {
+      writeBytes(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void writeBytes(byte[] bytes) {
+      writeVarLong(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buffer, position, bytes.length);
+      position += bytes.length;
+    }
+
+    private void writeLong(long value) {
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        buffer[position++] = (byte) (value >>> shift);
+      }
+    }
+
+    private void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buffer[position++] = (byte) (value & 0x7F | 0x80);
+        value >>>= 7;
+      }
+      buffer[position++] = (byte) value;
+    }
+
+    private void writeByte(int value) {
+      ensureCapacity(1);
+      buffer[position++] = (byte) value;
+    }
+
+    private void ensureCapacity(int length) {
+      if (position + length > buffer.length) {
+        buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, position + length));
+      }
+    }
+
+    private static long zigZag(long value) {
+      return value << 1 ^ value >> 63;
+    }
+
+    byte[] toByteArray() {
+      return Arrays.copyOf(buffer, position);
+    }
+  }
+
+  private static final class Input {
+    private final byte[] buffer;
+    private int position;
+    private final List<Object> references = new ArrayList<>();
+    private final List<Class<?>> classes = new ArrayList<>();
+
+    Input(byte[] buffer) {
+      this.buffer = buffer;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    Object readObject() throws IOException, ReflectiveOperationException {
+      byte tag = buffer[position++];
+      switch (tag) {
+        case NULL:
+          return null;
+        case REFERENCE:
+          return references.get((int) readVarLong());
+        case TRUE:
+          return Boolean.TRUE;
+        case FALSE:
+          return Boolean.FALSE;
+        case INTEGER:
+          return (int) unZigZag(readVarLong());
+        case LONG:
+          return unZigZag(readVarLong());
+        case SHORT:
+          return (short) unZigZag(readVarLong());
+        case BYTE:
+          return buffer[position++];
+        case CHARACTER:
+          return (char) readVarLong();
+        case FLOAT:
+          return Float.intBitsToFloat((int) readVarLong());
+        case DOUBLE:
+          return Double.longBitsToDouble(readLong());
+        case STRING:
+          return readString();
+        case BIG_DECIMAL:
+          int scale = (int) unZigZag(readVarLong());
+          return new BigDecimal(new BigInteger(readBytes()), scale);
+        case BIG_INTEGER:
+          return new BigInteger(readBytes());
+        case DATE:
+          return new Date(unZigZag(readVarLong()));
+        case SQL_DATE:
+          return new java.sql.Date(unZigZag(readVarLong()));
+        case SQL_TIME:
+          return new java.sql.Time(unZigZag(readVarLong()));
+        case SQL_TIMESTAMP:
+          java.sql.Timestamp timestamp = new java.sql.Timestamp(unZigZag(readVarLong()));
+          timestamp.setNanos((int) readVarLong());
+          return timestamp;
+        case LOCAL_DATE:
+          return LocalDate.ofEpochDay(unZigZag(readVarLong()));
+        case LOCAL_TIME:
+          return LocalTime.ofNanoOfDay(readVarLong());
+        case LOCAL_DATE_TIME:
+          LocalDate date = LocalDate.ofEpochDay(unZigZag(readVarLong()));
+          return LocalDateTime.of(date, LocalTime.ofNanoOfDay(readVarLong()));
+        case BYTES:
+          return readBytes();
+        case ENUM:
+          Class<? extends Enum> enumType = (Class<? extends Enum>) readClass();
+          return Enum.valueOf(enumType, readString());
+        case ARRAY_LIST:
+          return readElements(new ArrayList<>());
+        case HASH_SET:
+          return readElements(new HashSet<>());
+        case LINKED_HASH_SET:
+          return readElements(new LinkedHashSet<>());
+        case HASH_MAP:
+        case LINKED_HASH_MAP:
+          Map<Object, Object> map = tag == HASH_MAP ? new HashMap<>() : new LinkedHashMap<>();
+          references.add(map);
+          for (int size = (int) readVarLong(); size > 0; size--) {
+            map.put(readObject(), readObject());
+          }
+          return map;
+        case OBJECT_ARRAY:
+          Class<?> componentType = readClass();
+          Object array = Array.newInstance(componentType, (int) readVarLong());
+          references.add(array);
+          for (int i = 0, length = Array.getLength(array); i < length; i++) {
+            Array.set(array, i, readObject());
+          }
+          return array;
+        case BEAN:
+          BeanType beanType = beanType(readClass());
+          Object bean = beanType.constructor.newInstance();
+          references.add(bean);
+          for (Field field : beanType.fields) {
+            field.set(bean, readObject());
+          }
+          return bean;
+        case JAVA:
+          int index = references.size();
+          references.add(null);
+          Object object = javaDeserialize(readBytes());
+          references.set(index, object);
+          return object;
+        default:
+          throw new IOException("Unknown tag " + tag + " at position " + (position - 1) + ".");
+      }
+    }
+
+    private Collection<Object> readElements(Collection<Object> collection)
+        throws IOException, ReflectiveOperationException {
+      references.add(collection);
+      for (int size = (int) readVarLong(); size > 0; size--) {
+        collection.add(readObject());
+      }
+      return collection;
+    }
+
+    private Class<?> readClass() throws ClassNotFoundException {
+      int index = (int) readVarLong();
+      if (index > 0) {
+        return classes.get(index - 1);
+      }
+      Class<?> type = Resources.classForName(readString());
+      classes.add(type);
+      return type;
+    }
+
+    private static Object javaDeserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+      SerialFilterChecker.check();
+      try (ByteArrayInputStream bis = new ByteArrayInputStream(bytes);
+          ObjectInputStream ois = new SerializedCache.CustomObjectInputStream(bis)) {
+        return ois.readObject();
+      }
+    }
+
+    private String readString() {
+      int length = (int) readVarLong();
+      String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+      position += length;
+      return value;
+    }
+
+    private byte[] readBytes() {
+      int length = (int) readVarLong();
+      byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+      position += length;
+      return bytes;
+    }
+
+    private long readLong() {
+      long value = 0;
+      for (int i = 0; i < 8; i++) {
+        value = value << 8 | buffer[position++] & 0xFFL;
+      }
+      return value;
+    }
+
+    private long readVarLong() {
+      long value = 0;
+      for (int shift = 0;; shift += 7) {
+        byte b = buffer[position++];
+        value |= (long) (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+    }
+
+    private static long unZigZag(long value) {
+      return value >>> 1 ^ -(value & 1);
+    }
+  }
+
+}
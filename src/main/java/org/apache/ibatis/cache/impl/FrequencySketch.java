@@ -0,0 +1,103 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+/**
+ * A count-min sketch of 4-bit counters estimating how often keys were used recently.
+ * <p>
+ * Each key has four counters in one 64-bit slot of the table. When the number of increments reaches ten times the
+ * capacity, all counters are halved so that the estimates favor recent usage. Not thread-safe.
+ */
+final class FrequencySketch {
+
+  private static final long[] SEEDS = { 0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL,
+      0xCBF29CE484222325L };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MAXIMUM_CAPACITY = 1 << 20;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  FrequencySketch(long capacity) {
+    int length = tableSizeFor((int) Math.max(16, Math.min(capacity, MAXIMUM_CAPACITY)));
+    this.table = new long[length];
+    this.tableMask = length - 1;
+    this.sampleSize = 10 * length;
+  }
+
+  int frequency(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    int frequency = Integer.MAX_VALUE;
+    for (int i = 0; i < 4; i++) {
+      int index = indexOf(hash, i);
+      int count = (int) (table[index] >>> (start + i << 2) & 0xFL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  void increment(Object key) {
+    int hash = spread(key.hashCode());
+    int start = (hash & 3) << 2;
+    boolean added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  private boolean incrementAt(int index, int counter) {
+    int offset = counter << 2;
+    long mask = 0xFL << offset;
+    if ((table[index] & mask) != mask) {
+      table[index] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  private void reset() {
+    int odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = table[i] >>> 1 & RESET_MASK;
+    }
+    size = (size >>> 1) - (odd >>> 2);
+  }
+
+  private int indexOf(int hash, int i) {
+    long h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h & tableMask;
+  }
+
+  private static int spread(int hash) {
+    hash = (hash >>> 16 ^ hash) * 0x45D9F3B;
+    hash = (hash >>> 16 ^ hash) * 0x45D9F3B;
+    return hash >>> 16 ^ hash;
+  }
+
+  private static int tableSizeFor(int capacity) {
+    return Integer.highestOneBit(capacity - 1) << 1;
+  }
+
+}
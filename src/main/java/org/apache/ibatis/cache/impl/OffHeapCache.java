@@ -0,0 +1,372 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+
+/**
+ * A thread-safe cache that keeps the cached objects out of the Java heap, so that they add neither to the heap size nor
+ * to the work of the garbage collector.
+ * <p>
+ * Objects are serialized by a compact serializer for result objects and copied into direct buffers, or into
+ * memory-mapped files when a directory is set. Only the keys and the location of the objects stay on the heap. The
+ * cache is divided into segments, chosen by the hash of the key, that share the capacity. Each segment is written as a
+ * ring: when an object does not fit, or the segment holds its share of the maximum number of entries, the oldest
+ * objects of the segment are evicted.
+ * <p>
+ * Like a read-write cache, each read returns a new copy of the cached object, so cached objects must be serializable.
+ *
+ * @since 3.5.12
+ */
+public class OffHeapCache implements Cache {
+
+  private static final long DEFAULT_CAPACITY = 64L * 1024 * 1024;
+  private static final int DEFAULT_SEGMENTS = 16;
+
+  private final String id;
+  private final ReentrantLock initializationLock = new ReentrantLock();
+  private long capacity = DEFAULT_CAPACITY;
+  private int segmentCount = DEFAULT_SEGMENTS;
+  private int size;
+  private String directory;
+  private volatile Segment[] segments;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * Sets the number of bytes of memory the cached objects may use. The default is 64 MiB.
+   *
+   * @param capacity
+   *          the capacity in bytes
+   */
+  public void setCapacity(long capacity) {
+    checkNotInitialized();
+    this.capacity = capacity;
+  }
+
+  /**
+   * Sets the number of segments, which can be written at the same time. The default is 16.
+   *
+   * @param segments
+   *          the number of segments
+   */
+  public void setSegments(int segments) {
+    checkNotInitialized();
+    this.segmentCount = segments;
+  }
+
+  /**
+   * Bounds the number of entries. By default, the cache is only bounded by its capacity.
+   *
+   * @param size
+   *          the maximum number of entries
+   */
+  public void setSize(int size) {
+    checkNotInitialized();
+    this.size = size;
+  }
+
+  /**
+   * Makes the cache keep the objects in memory-mapped files created in the given directory, instead of direct buffers.
+   * The files are deleted when they are no longer needed.
+   *
+   * @param directory
+   *          the directory
+   */
+  public void setDirectory(String directory) {
+    checkNotInitialized();
+    this.directory = directory;
+  }
+
+  @Override
+  public int getSize() {
+    Segment[] current = segments;
+    int count = 0;
+    if (current != null) {
+      for (Segment segment : current) {
+        count += segment.getSize();
+      }
+    }
+    return count;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    segmentFor(key).put(key, CompactSerializer.serialize(value));
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    byte[] bytes = segmentFor(key).get(key);
+    return bytes == null ? null : CompactSerializer.deserialize(bytes);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    byte[] bytes = segmentFor(key).remove(key);
+    return bytes == null ? null : CompactSerializer.deserialize(bytes);
+  }
+
+  @Override
+  public void clear() {
+    Segment[] current = segments;
+    if (current != null) {
+      for (Segment segment : current) {
+        segment.clear();
+      }
+    }
+  }
+
+  private Segment segmentFor(Object key) {
+    Segment[] current = segments;
+    if (current == null) {
+      current = initialize();
+    }
+    int hash = key.hashCode();
+    hash ^= hash >>> 16;
+    return current[Math.floorMod(hash * 0x9E3779B9, current.length)];
+  }
+
+  private Segment[] initialize() {
+    initializationLock.lock();
+    try {
+      if (segments == null) {
+        if (segmentCount <= 0 || capacity < segmentCount) {
+          throw new CacheException("Invalid capacity " + capacity + " or number of segments " + segmentCount
+              + " of off-heap cache " + id + ".");
+        }
+        long segmentCapacity = capacity / segmentCount;
+        if (segmentCapacity > Integer.MAX_VALUE) {
+          throw new CacheException("The segments of off-heap cache " + id
+              + " cannot hold more than 2 GiB each. Increase the number of segments.");
+        }
+        int maxEntries = size <= 0 ? Integer.MAX_VALUE : (size + segmentCount - 1) / segmentCount;
+        Segment[] created = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+          created[i] = new Segment(allocate((int) segmentCapacity), maxEntries);
+        }
+        segments = created;
+      }
+      return segments;
+    } finally {
+      initializationLock.unlock();
+    }
+  }
+
+  private ByteBuffer allocate(int segmentCapacity) {
+    if (directory == null) {
+      return ByteBuffer.allocateDirect(segmentCapacity);
+    }
+    try {
+      Path file = Files.createTempFile(Paths.get(directory), "mybatis-cache-", ".bin");
+      try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        return channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentCapacity);
+      } finally {
+        try {
+          // the mapping outlives the file on most platforms
+          Files.delete(file);
+        } catch (IOException e) {
+          file.toFile().deleteOnExit();
+        }
+      }
+    } catch (IOException e) {
+      throw new CacheException("Could not map a segment of off-heap cache " + id + " in " + directory + ". Cause: " + e,
+          e);
+    }
+  }
+
+  private void checkNotInitialized() {
+    if (segments != null) {
+      throw new IllegalStateException("Off-heap cache " + id + " cannot be configured once used.");
+    }
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private static final class Entry {
+    private final Object key;
+    private final int offset;
+    private final int length;
+
+    Entry(Object key, int offset, int length) {
+      this.key = key;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+
+  /**
+   * A ring of serialized objects in one buffer. The entries are kept in the order they were written, which is also the
+   * order of their offsets from the oldest one, wrapping around at the end of the buffer.
+   */
+  private static final class Segment {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ByteBuffer buffer;
+    private final int maxEntries;
+    private final Map<Object, Entry> index = new HashMap<>();
+    // includes the entries removed or replaced but not reclaimed yet
+    private final Deque<Entry> entries = new ArrayDeque<>();
+    private int tail;
+    private volatile int size;
+
+    Segment(ByteBuffer buffer, int maxEntries) {
+      this.buffer = buffer;
+      this.maxEntries = maxEntries;
+    }
+
+    int getSize() {
+      return size;
+    }
+
+    void put(Object key, byte[] bytes) {
+      lock.lock();
+      try {
+        index.remove(key);
+        if (bytes.length <= buffer.capacity()) {
+          while (index.size() >= maxEntries) {
+            evictOldest();
+          }
+          int offset = reserve(bytes.length);
+          ((Buffer) buffer).position(offset);
+          buffer.put(bytes);
+          Entry entry = new Entry(key, offset, bytes.length);
+          index.put(key, entry);
+          entries.addLast(entry);
+        }
+        size = index.size();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    byte[] get(Object key) {
+      lock.lock();
+      try {
+        Entry entry = index.get(key);
+        return entry == null ? null : read(entry);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    byte[] remove(Object key) {
+      lock.lock();
+      try {
+        Entry entry = index.remove(key);
+        size = index.size();
+        return entry == null ? null : read(entry);
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void clear() {
+      lock.lock();
+      try {
+        index.clear();
+        entries.clear();
+        tail = 0;
+        size = 0;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private byte[] read(Entry entry) {
+      byte[] bytes = new byte[entry.length];
+      ((Buffer) buffer).position(entry.offset);
+      buffer.get(bytes);
+      return bytes;
+    }
+
+    private int reserve(int length) {
+      while (true) {
+        if (entries.isEmpty()) {
+          tail = length;
+          return 0;
+        }
+        int head = entries.peekFirst().offset;
+        int offset = -1;
+        if (tail > head) {
+          if (tail + length <= buffer.capacity()) {
+            offset = tail;
+          } else if (length <= head) {
+            offset = 0;
+          }
+        } else if (tail + length <= head) {
+          offset = tail;
+        }
+        if (offset >= 0) {
+          tail = offset + length;
+          return offset;
+        }
+        evictOldest();
+      }
+    }
+
+    private void evictOldest() {
+      Entry entry = entries.pollFirst();
+      if (entry != null && index.get(entry.key) == entry) {
+        index.remove(entry.key);
+      }
+    }
+  }
+
+}
@@ -59,6 +59,11 @@ public class PerpetualCache implements Cache {
     return cache.remove(key);
   }
 
+  @Override
+  public void putObjects(Map<?, ?> objects) {
+    cache.putAll(objects);
+  }
+
   @Override
   public void clear() {
     cache.clear();
@@ -0,0 +1,623 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * A thread-safe cache bounded by entry count or by weight, that evicts with the W-TinyLFU policy.
+ * <p>
+ * New entries enter a small LRU window. An entry leaving the window is admitted to the main space only if it has been
+ * used more often than the entry it would replace there, as estimated by a {@link FrequencySketch}. The main space is a
+ * segmented LRU whose protected segment keeps the entries used again after their admission.
+ * <p>
+ * Reads do not lock: they are recorded in lossy striped buffers that are replayed on the policy under a lock by the
+ * next write, or by the read that finds its buffer full. Writes, removals and clears update the policy under that lock.
+ * <p>
+ * Entries can also expire a fixed time after they were written or last read. An expired entry is removed when it is
+ * read or when it reaches the least recently used end of its space.
+ *
+ * @since 3.5.12
+ */
+public class TinyLfuCache implements Cache {
+
+  private static final int DEFAULT_SIZE = 1024;
+  private static final int WINDOW_PERCENT = 1;
+  private static final int PROTECTED_PERCENT = 80;
+  private static final int READ_BUFFER_SIZE = 16;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+  private static final byte WINDOW = 0;
+  private static final byte PROBATION = 1;
+  private static final byte PROTECTED = 2;
+  private static final byte DEAD = 3;
+
+  private final String id;
+  private final ConcurrentHashMap<Object, Node> data = new ConcurrentHashMap<>();
+  private final ReentrantLock evictionLock = new ReentrantLock();
+  private final ReadBuffer[] readBuffers;
+
+  // guarded by evictionLock
+  private final AccessOrder window = new AccessOrder();
+  private final AccessOrder probation = new AccessOrder();
+  private final AccessOrder protectedSpace = new AccessOrder();
+  private long maximum;
+  private long windowMaximum;
+  private long protectedMaximum;
+  private long weight;
+  private long windowWeight;
+  private long protectedWeight;
+  private Weigher weigher;
+  private FrequencySketch sketch;
+
+  private volatile long expireAfterWriteNanos;
+  private volatile long expireAfterAccessNanos;
+
+  public TinyLfuCache(String id) {
+    this.id = id;
+    int stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    this.readBuffers = new ReadBuffer[Math.min(stripes, 64)];
+    for (int i = 0; i < readBuffers.length; i++) {
+      readBuffers[i] = new ReadBuffer();
+    }
+    setSize(DEFAULT_SIZE);
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public int getSize() {
+    return data.size();
+  }
+
+  /**
+   * Bounds the cache by number of entries.
+   *
+   * @param size
+   *          the maximum number of entries
+   */
+  public void setSize(int size) {
+    configure(size, null);
+  }
+
+  /**
+   * Bounds the cache by the sum of the weights of its entries, as given by the weigher.
+   *
+   * @param maximumWeight
+   *          the maximum weight
+   *
+   * @see #setWeigher(Weigher)
+   */
+  public void setMaximumWeight(long maximumWeight) {
+    configure(maximumWeight, weigher == null ? Weigher.ELEMENTS : weigher);
+  }
+
+  /**
+   * Sets the weigher of the entries when the cache is bounded by weight. The default weighs a collection or an array by
+   * its length, so that the weight of a cached result list is its number of elements.
+   *
+   * @param weigher
+   *          the weigher
+   */
+  public void setWeigher(Weigher weigher) {
+    if (weigher == null) {
+      throw new IllegalArgumentException("The weigher must not be null.");
+    }
+    configure(maximum, weigher);
+  }
+
+  /**
+   * Sets the weigher by its class name, for configuring it with a property of the cache element.
+   *
+   * @param weigherClass
+   *          the fully qualified name of a class implementing {@link Weigher}
+   */
+  public void setWeigherClass(String weigherClass) {
+    try {
+      setWeigher((Weigher) Resources.classForName(weigherClass).getDeclaredConstructor().newInstance());
+    } catch (ReflectiveOperationException | ClassCastException e) {
+      throw new CacheException("Could not instantiate weigher '" + weigherClass + "'.  Cause: " + e, e);
+    }
+  }
+
+  /**
+   * Makes entries expire the given number of milliseconds after they were written. Zero disables the expiration.
+   *
+   * @param expireAfterWrite
+   *          the time to live in milliseconds
+   */
+  public void setExpireAfterWrite(long expireAfterWrite) {
+    this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterWrite);
+  }
+
+  /**
+   * Makes entries expire the given number of milliseconds after they were last read or written. Zero disables the
+   * expiration.
+   *
+   * @param expireAfterAccess
+   *          the time to idle in milliseconds
+   */
+  public void setExpireAfterAccess(long expireAfterAccess) {
+    this.expireAfterAccessNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterAccess);
+  }
+
+  private void configure(long maximum, Weigher weigher) {
+    if (maximum < 0) {
+      throw new IllegalArgumentException("The cache bound must not be negative.");
+    }
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      if (weigher != this.weigher) {
+        this.weigher = weigher;
+        reweigh(window);
+        reweigh(probation);
+        reweigh(protectedSpace);
+      }
+      this.maximum = maximum;
+      this.windowMaximum = Math.max(1, maximum * WINDOW_PERCENT / 100);
+      this.protectedMaximum = (maximum - windowMaximum) * PROTECTED_PERCENT / 100;
+      this.sketch = new FrequencySketch(weigher == null ? maximum : DEFAULT_SIZE);
+      evict();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void reweigh(AccessOrder accessOrder) {
+    for (Node node = accessOrder.first; node != null; node = node.next) {
+      int newWeight = weigh(node.key, node.value);
+      adjustWeight(node, newWeight - node.weight);
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    long now = System.nanoTime();
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      put(key, value, now);
+      expireEntries(now);
+      evict();
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void putObjects(Map<?, ?> objects) {
+    long now = System.nanoTime();
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      for (Map.Entry<?, ?> entry : objects.entrySet()) {
+        put(entry.getKey(), entry.getValue(), now);
+        evict();
+      }
+      expireEntries(now);
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private void put(Object key, Object value, long now) {
+    int entryWeight = weigh(key, value);
+    Node node = data.get(key);
+    if (node == null) {
+      node = new Node(key, value, now);
+      node.weight = entryWeight;
+      data.put(key, node);
+      window.addLast(node);
+      windowWeight += entryWeight;
+      weight += entryWeight;
+      sketch.increment(key);
+    } else {
+      node.value = value;
+      node.writeTime = now;
+      node.accessTime = now;
+      adjustWeight(node, entryWeight - node.weight);
+      onAccess(node);
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Node node = data.get(key);
+    if (node == null) {
+      return null;
+    }
+    long now = expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0 ? System.nanoTime() : 0L;
+    if (hasExpired(node, now)) {
+      if (evictionLock.tryLock()) {
+        try {
+          if (node.queue != DEAD && hasExpired(node, System.nanoTime())) {
+            evictEntry(node);
+          }
+        } finally {
+          evictionLock.unlock();
+        }
+      }
+      return null;
+    }
+    if (expireAfterAccessNanos > 0) {
+      node.accessTime = now;
+    }
+    ReadBuffer readBuffer = readBuffers[stripe()];
+    if (readBuffer.offer(node) && evictionLock.tryLock()) {
+      try {
+        drainReadBuffers();
+      } finally {
+        evictionLock.unlock();
+      }
+    }
+    return node.value;
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    evictionLock.lock();
+    try {
+      Node node = data.get(key);
+      if (node == null) {
+        return null;
+      }
+      evictEntry(node);
+      return node.value;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    evictionLock.lock();
+    try {
+      drainReadBuffers();
+      for (Node node : data.values()) {
+        node.queue = DEAD;
+      }
+      data.clear();
+      window.clear();
+      probation.clear();
+      protectedSpace.clear();
+      weight = 0;
+      windowWeight = 0;
+      protectedWeight = 0;
+    } finally {
+      evictionLock.unlock();
+    }
+  }
+
+  private int weigh(Object key, Object value) {
+    if (weigher == null) {
+      return 1;
+    }
+    int entryWeight = weigher.weigh(key, value);
+    if (entryWeight < 0) {
+      throw new CacheException("Negative weight " + entryWeight + " of an entry of cache " + id + ".");
+    }
+    return entryWeight;
+  }
+
+  private boolean hasExpired(Node node, long now) {
+    long expireAfterWrite = expireAfterWriteNanos;
+    long expireAfterAccess = expireAfterAccessNanos;
+    return expireAfterWrite > 0 && now - node.writeTime >= expireAfterWrite
+        || expireAfterAccess > 0 && now - node.accessTime >= expireAfterAccess;
+  }
+
+  private int stripe() {
+    long threadId = Thread.currentThread().getId();
+    return (int) (threadId * 0x9E3779B97F4A7C15L >>> 32) & readBuffers.length - 1;
+  }
+
+  private void drainReadBuffers() {
+    for (ReadBuffer readBuffer : readBuffers) {
+      readBuffer.drain();
+    }
+  }
+
+  private void onAccess(Node node) {
+    switch (node.queue) {
+      case WINDOW:
+        sketch.increment(node.key);
+        window.moveToLast(node);
+        break;
+      case PROBATION:
+        sketch.increment(node.key);
+        probation.remove(node);
+        node.queue = PROTECTED;
+        protectedSpace.addLast(node);
+        protectedWeight += node.weight;
+        demoteProtected();
+        break;
+      case PROTECTED:
+        sketch.increment(node.key);
+        protectedSpace.moveToLast(node);
+        break;
+      default:
+        // removed since it was read
+        break;
+    }
+  }
+
+  private void adjustWeight(Node node, int delta) {
+    node.weight += delta;
+    weight += delta;
+    if (node.queue == WINDOW) {
+      windowWeight += delta;
+    } else if (node.queue == PROTECTED) {
+      protectedWeight += delta;
+    }
+  }
+
+  private void demoteProtected() {
+    while (protectedWeight > protectedMaximum) {
+      Node node = protectedSpace.first;
+      protectedSpace.remove(node);
+      protectedWeight -= node.weight;
+      node.queue = PROBATION;
+      probation.addLast(node);
+    }
+  }
+
+  private void expireEntries(long now) {
+    if (expireAfterWriteNanos > 0 || expireAfterAccessNanos > 0) {
+      expireEntries(window, now);
+      expireEntries(probation, now);
+      expireEntries(protectedSpace, now);
+    }
+  }
+
+  private void expireEntries(AccessOrder accessOrder, long now) {
+    while (accessOrder.first != null && hasExpired(accessOrder.first, now)) {
+      evictEntry(accessOrder.first);
+    }
+  }
+
+  private void evict() {
+    // the entries leaving the window become candidates at the most recently used end of the probation segment
+    Node candidate = null;
+    while (windowWeight > windowMaximum && window.first != null) {
+      Node node = window.first;
+      window.remove(node);
+      windowWeight -= node.weight;
+      node.queue = PROBATION;
+      probation.addLast(node);
+      if (candidate == null) {
+        candidate = node;
+      }
+    }
+    while (weight > maximum) {
+      Node victim = probation.first;
+      if (victim == null) {
+        victim = protectedSpace.first != null ? protectedSpace.first : window.first;
+      } else if (candidate != null && candidate != victim) {
+        if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+          evictEntry(victim);
+          continue;
+        }
+        victim = candidate;
+      }
+      if (victim == candidate) {
+        candidate = candidate.next;
+      }
+      evictEntry(victim);
+    }
+  }
+
+  private void evictEntry(Node node) {
+    data.remove(node.key, node);
+    switch (node.queue) {
+      case WINDOW:
+        window.remove(node);
+        windowWeight -= node.weight;
+        break;
+      case PROBATION:
+        probation.remove(node);
+        break;
+      case PROTECTED:
+        protectedSpace.remove(node);
+        protectedWeight -= node.weight;
+        break;
+      default:
+        return;
+    }
+    weight -= node.weight;
+    node.queue = DEAD;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  /**
+   * Calculates the weight of the entries of a cache bounded by weight.
+   */
+  @FunctionalInterface
+  public interface Weigher {
+
+    /**
+     * Weighs a collection or an array by its length, and any other value as 1.
+     */
+    Weigher ELEMENTS = (key, value) -> {
+      if (value instanceof Collection) {
+        return ((Collection<?>) value).size();
+      }
+      if (value != null && value.getClass().isArray()) {
+        return Array.getLength(value);
+      }
+      return 1;
+    };
+
+    /**
+     * Weighs an entry.
+     *
+     * @param key
+     *          the key
+     * @param value
+     *          the value
+     *
+     * @return the weight, not negative
+     */
+    int weigh(Object key, Object value);
+
+  }
+
+  private static final class Node {
+    final Object key;
+    volatile Object value;
+    volatile long writeTime;
+    volatile long accessTime;
+    // guarded by evictionLock
+    int weight;
+    byte queue;
+    Node previous;
+    Node next;
+
+    Node(Object key, Object value, long now) {
+      this.key = key;
+      this.value = value;
+      this.writeTime = now;
+      this.accessTime = now;
+    }
+  }
+
+  /**
+   * A doubly linked list of entries from the least to the most recently used.
+   */
+  private static final class AccessOrder {
+    Node first;
+    Node last;
+
+    void addLast(Node node) {
+      node.previous = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+    }
+
+    void remove(Node node) {
+      if (node.previous == null) {
+        first = node.next;
+      } else {
+        node.previous.next = node.next;
+      }
+      if (node.next == null) {
+        last = node.previous;
+      } else {
+        node.next.previous = node.previous;
+      }
+      node.previous = null;
+      node.next = null;
+    }
+
+    void moveToLast(Node node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+
+    void clear() {
+      first = null;
+      last = null;
+    }
+  }
+
+  /**
+   * A bounded buffer of reads that drops the reads it has no room for.
+   */
+  private final class ReadBuffer {
+    private final AtomicReferenceArray<Node> buffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+    private final AtomicLong writeCounter = new AtomicLong();
+    private volatile long readCounter;
+
+    /**
+     * Records a read.
+     *
+     * @return whether the buffer is full and should be drained
+     */
+    boolean offer(Node node) {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      if (tail - head >= READ_BUFFER_SIZE) {
+        return true;
+      }
+      if (writeCounter.compareAndSet(tail, tail + 1)) {
+        buffer.lazySet((int) tail & READ_BUFFER_MASK, node);
+      }
+      return false;
+    }
+
+    // guarded by evictionLock
+    void drain() {
+      long head = readCounter;
+      long tail = writeCounter.get();
+      for (; head < tail; head++) {
+        int index = (int) head & READ_BUFFER_MASK;
+        Node node = buffer.get(index);
+        if (node == null) {
+          // not published yet
+          break;
+        }
+        buffer.lazySet(index, null);
+        onAccess(node);
+      }
+      readCounter = head;
+    }
+  }
+
+}
@@ -0,0 +1,159 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Publishes the second level cache flushes committed by this node to the other nodes, and flushes the caches the other
+ * nodes report. When {@link Configuration#isTableLevelCacheInvalidation() table-level cache invalidation} is enabled,
+ * the tables written by the committed transactions are published as well.
+ * <p>
+ * Committing never waits for the transport: the flushed namespaces are queued and sent by a background thread, so the
+ * flushes committed while a batch is being sent are coalesced into the next one.
+ * <p>
+ * The configuration starts the bus when the first session is opened, and stops it on
+ * {@link Configuration#closeCacheInvalidationBus()}.
+ *
+ * @since 3.5.12
+ */
+public class CacheInvalidationBus {
+
+  private static final Log log = LogFactory.getLog(CacheInvalidationBus.class);
+  private static final String TABLE_PREFIX = "table:";
+
+  private final Configuration configuration;
+  private final InvalidationTransport transport;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition pendingNotEmpty = lock.newCondition();
+  private Set<String> pending = new LinkedHashSet<>();
+  private boolean closed;
+  private final Thread publisher;
+
+  public CacheInvalidationBus(Configuration configuration, InvalidationTransport transport) {
+    this.configuration = configuration;
+    this.transport = transport;
+    transport.start(this::onInvalidation);
+    this.publisher = new Thread(this::publishPending, "mybatis-cache-invalidation");
+    publisher.setDaemon(true);
+    publisher.start();
+  }
+
+  public InvalidationTransport getTransport() {
+    return transport;
+  }
+
+  /**
+   * Queues the invalidation of caches for the other nodes.
+   *
+   * @param cacheIds
+   *          the ids of the caches flushed by a commit
+   */
+  public void invalidate(Collection<String> cacheIds) {
+    lock.lock();
+    try {
+      if (!closed && pending.addAll(cacheIds)) {
+        pendingNotEmpty.signal();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Queues the invalidation of the cache entries read from tables for the other nodes.
+   *
+   * @param tables
+   *          the normalized names of the tables written by a commit
+   */
+  public void invalidateTables(Collection<String> tables) {
+    List<String> ids = new ArrayList<>(tables.size());
+    for (String table : tables) {
+      ids.add(TABLE_PREFIX + table);
+    }
+    invalidate(ids);
+  }
+
+  /**
+   * Sends the queued invalidations and stops the bus and its transport.
+   */
+  public void close() {
+    lock.lock();
+    try {
+      closed = true;
+      pendingNotEmpty.signal();
+    } finally {
+      lock.unlock();
+    }
+    try {
+      publisher.join();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } finally {
+      transport.close();
+    }
+  }
+
+  private void publishPending() {
+    while (true) {
+      Set<String> batch;
+      lock.lock();
+      try {
+        while (pending.isEmpty() && !closed) {
+          pendingNotEmpty.awaitUninterruptibly();
+        }
+        if (pending.isEmpty()) {
+          return;
+        }
+        batch = pending;
+        pending = new LinkedHashSet<>();
+      } finally {
+        lock.unlock();
+      }
+      try {
+        transport.publish(batch);
+      } catch (RuntimeException e) {
+        log.warn("Could not publish the invalidation of caches " + batch + ". Cause: " + e);
+      }
+    }
+  }
+
+  private void onInvalidation(Collection<String> cacheIds) {
+    for (String cacheId : cacheIds) {
+      if (cacheId.startsWith(TABLE_PREFIX)) {
+        configuration.getTableVersions()
+            .incrementKnown(Collections.singletonList(cacheId.substring(TABLE_PREFIX.length())));
+      } else if (configuration.hasCache(cacheId)) {
+        if (log.isDebugEnabled()) {
+          log.debug("Flushing cache " + cacheId + " invalidated by another node.");
+        }
+        configuration.getCache(cacheId).clear();
+      }
+    }
+  }
+
+}
@@ -0,0 +1,82 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Carries invalidations between the configurations of the same JVM, e.g. between several applications of a container
+ * that share a database.
+ * <p>
+ * The transports that use the same channel, set with the {@link #KEY_CHANNEL} variable, see each other's invalidations.
+ *
+ * @since 3.5.12
+ */
+public class InProcessInvalidationTransport implements InvalidationTransport {
+
+  private static final String KEY_PREFIX = "org.apache.ibatis.cache.invalidation.InProcessInvalidationTransport.";
+
+  /**
+   * The configuration variable that names the channel of the transport. The default channel is {@code "default"}.
+   */
+  public static final String KEY_CHANNEL = KEY_PREFIX + "channel";
+
+  private static final Map<String, Set<InProcessInvalidationTransport>> channels = new ConcurrentHashMap<>();
+
+  private String channel = "default";
+  private InvalidationListener listener;
+
+  @Override
+  public void setProperties(Properties properties) {
+    channel = properties.getProperty(KEY_CHANNEL, channel);
+  }
+
+  public void setChannel(String channel) {
+    this.channel = channel;
+  }
+
+  @Override
+  public void start(InvalidationListener listener) {
+    this.listener = listener;
+    channels.computeIfAbsent(channel, k -> new CopyOnWriteArraySet<>()).add(this);
+  }
+
+  @Override
+  public void publish(Collection<String> cacheIds) {
+    Set<InProcessInvalidationTransport> peers = channels.get(channel);
+    if (peers != null) {
+      for (InProcessInvalidationTransport peer : peers) {
+        if (peer != this) {
+          peer.listener.onInvalidation(cacheIds);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    Set<InProcessInvalidationTransport> peers = channels.get(channel);
+    if (peers != null) {
+      peers.remove(this);
+    }
+  }
+
+}
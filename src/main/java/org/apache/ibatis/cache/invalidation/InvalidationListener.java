@@ -0,0 +1,36 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.Collection;
+
+/**
+ * Receives the invalidations published by other nodes.
+ *
+ * @since 3.5.12
+ */
+@FunctionalInterface
+public interface InvalidationListener {
+
+  /**
+   * Called when another node flushed caches.
+   *
+   * @param cacheIds
+   *          the ids of the flushed caches, i.e. their namespaces
+   */
+  void onInvalidation(Collection<String> cacheIds);
+
+}
@@ -0,0 +1,64 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.util.Collection;
+import java.util.Properties;
+
+/**
+ * SPI for the transports that carry second level cache invalidations between nodes.
+ * <p>
+ * An implementation must have a public no-arg constructor. It is configured with the configuration variables, then
+ * started once, and must never deliver the invalidations it publishes to its own listener.
+ *
+ * @see CacheInvalidationBus
+ *
+ * @since 3.5.12
+ */
+public interface InvalidationTransport {
+
+  /**
+   * Configures the transport.
+   *
+   * @param properties
+   *          the configuration variables
+   */
+  default void setProperties(Properties properties) {
+    // NOP
+  }
+
+  /**
+   * Starts receiving the invalidations published by the other nodes.
+   *
+   * @param listener
+   *          the listener to notify
+   */
+  void start(InvalidationListener listener);
+
+  /**
+   * Sends invalidations to the other nodes.
+   *
+   * @param cacheIds
+   *          the ids of the flushed caches
+   */
+  void publish(Collection<String> cacheIds);
+
+  /**
+   * Stops the transport.
+   */
+  void close();
+
+}
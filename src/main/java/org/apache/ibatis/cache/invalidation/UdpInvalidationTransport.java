@@ -0,0 +1,243 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Carries invalidations between JVMs in UDP datagrams, by default on the loopback interface, e.g. between the nodes of
+ * an application that run on the same host.
+ * <p>
+ * Each node listens on the port set with the {@link #KEY_PORT} variable and sends its invalidations to the nodes listed
+ * in the {@link #KEY_PEERS} variable, and only accepts the invalidations they send. Datagrams may be lost, so caches
+ * should keep a flush interval as a safety net, albeit a much longer one.
+ *
+ * @since 3.5.12
+ */
+public class UdpInvalidationTransport implements InvalidationTransport {
+
+  private static final Log log = LogFactory.getLog(UdpInvalidationTransport.class);
+
+  private static final String KEY_PREFIX = "org.apache.ibatis.cache.invalidation.UdpInvalidationTransport.";
+
+  /**
+   * The configuration variable that sets the address to listen on. The default address is the loopback address.
+   */
+  public static final String KEY_ADDRESS = KEY_PREFIX + "address";
+
+  /**
+   * The configuration variable that sets the port to listen on. The default port is an ephemeral one.
+   */
+  public static final String KEY_PORT = KEY_PREFIX + "port";
+
+  /**
+   * The configuration variable that lists the {@code host:port} addresses of the other nodes, separated by commas. The
+   * datagrams received from other addresses are ignored.
+   */
+  public static final String KEY_PEERS = KEY_PREFIX + "peers";
+
+  private static final int MAGIC = 0x4D424349;
+  private static final int MAX_PACKET_SIZE = 1400;
+
+  private final long nodeId = ThreadLocalRandom.current().nextLong();
+  private String address;
+  private int port;
+  private volatile List<InetSocketAddress> peers = Collections.emptyList();
+  private DatagramSocket socket;
+
+  @Override
+  public void setProperties(Properties properties) {
+    address = properties.getProperty(KEY_ADDRESS, address);
+    String value = properties.getProperty(KEY_PORT);
+    if (value != null) {
+      port = Integer.parseInt(value);
+    }
+    value = properties.getProperty(KEY_PEERS);
+    if (value != null) {
+      setPeers(value);
+    }
+  }
+
+  public void setAddress(String address) {
+    this.address = address;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  /**
+   * Sets the nodes to send invalidations to and to accept invalidations from. They can be changed after the transport
+   * started.
+   *
+   * @param peers
+   *          the {@code host:port} addresses of the other nodes, separated by commas
+   */
+  public void setPeers(String peers) {
+    List<InetSocketAddress> addresses = new ArrayList<>();
+    for (String peer : peers.split(",")) {
+      peer = peer.trim();
+      if (!peer.isEmpty()) {
+        int colon = peer.lastIndexOf(':');
+        if (colon < 0) {
+          throw new CacheException("Invalid peer '" + peer + "'. Peers must be set as host:port.");
+        }
+        addresses.add(new InetSocketAddress(peer.substring(0, colon), Integer.parseInt(peer.substring(colon + 1))));
+      }
+    }
+    this.peers = addresses;
+  }
+
+  /**
+   * Gets the port this transport listens on, which is only known once it started if it is an ephemeral one.
+   *
+   * @return the local port
+   */
+  public int getLocalPort() {
+    return socket == null ? port : socket.getLocalPort();
+  }
+
+  @Override
+  public void start(InvalidationListener listener) {
+    try {
+      InetAddress bindAddress = address == null ? InetAddress.getLoopbackAddress() : InetAddress.getByName(address);
+      socket = new DatagramSocket(new InetSocketAddress(bindAddress, port));
+    } catch (IOException e) {
+      throw new CacheException("Could not listen for cache invalidations on port " + port + ". Cause: " + e, e);
+    }
+    Thread receiver = new Thread(() -> receive(listener), "mybatis-cache-invalidation-receiver");
+    receiver.setDaemon(true);
+    receiver.start();
+  }
+
+  @Override
+  public void publish(Collection<String> cacheIds) {
+    List<InetSocketAddress> currentPeers = peers;
+    if (currentPeers.isEmpty()) {
+      return;
+    }
+    try {
+      for (byte[] payload : encode(cacheIds)) {
+        for (InetSocketAddress peer : currentPeers) {
+          socket.send(new DatagramPacket(payload, payload.length, peer));
+        }
+      }
+    } catch (IOException e) {
+      throw new CacheException("Could not send cache invalidations. Cause: " + e, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    if (socket != null) {
+      socket.close();
+    }
+  }
+
+  private void receive(InvalidationListener listener) {
+    byte[] buffer = new byte[65536];
+    while (!socket.isClosed()) {
+      DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+      try {
+        socket.receive(packet);
+      } catch (SocketException e) {
+        // closed
+        return;
+      } catch (IOException e) {
+        log.warn("Could not receive cache invalidations. Cause: " + e);
+        continue;
+      }
+      if (!peers.contains(packet.getSocketAddress())) {
+        if (log.isDebugEnabled()) {
+          log.debug(
+              "Ignoring cache invalidations received from " + packet.getSocketAddress() + ", which is not a peer.");
+        }
+        continue;
+      }
+      try (DataInputStream in = new DataInputStream(
+          new ByteArrayInputStream(packet.getData(), packet.getOffset(), packet.getLength()))) {
+        if (in.readInt() != MAGIC || in.readLong() == nodeId) {
+          continue;
+        }
+        int count = in.readUnsignedShort();
+        List<String> cacheIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+          cacheIds.add(in.readUTF());
+        }
+        listener.onInvalidation(cacheIds);
+      } catch (IOException | RuntimeException e) {
+        log.warn("Could not process cache invalidations received from " + packet.getSocketAddress() + ". Cause: " + e);
+      }
+    }
+  }
+
+  private List<byte[]> encode(Collection<String> cacheIds) throws IOException {
+    List<byte[]> payloads = new ArrayList<>();
+    List<byte[]> encodedIds = new ArrayList<>();
+    int size = 14;
+    for (String cacheId : cacheIds) {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(bytes)) {
+        out.writeUTF(cacheId);
+      }
+      byte[] encodedId = bytes.toByteArray();
+      if (!encodedIds.isEmpty() && (size + encodedId.length > MAX_PACKET_SIZE || encodedIds.size() == 0xFFFF)) {
+        payloads.add(payload(encodedIds));
+        encodedIds.clear();
+        size = 14;
+      }
+      encodedIds.add(encodedId);
+      size += encodedId.length;
+    }
+    if (!encodedIds.isEmpty()) {
+      payloads.add(payload(encodedIds));
+    }
+    return payloads;
+  }
+
+  private byte[] payload(List<byte[]> encodedIds) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(MAX_PACKET_SIZE);
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      out.writeInt(MAGIC);
+      out.writeLong(nodeId);
+      out.writeShort(encodedIds.size());
+      for (byte[] encodedId : encodedIds) {
+        out.write(encodedId);
+      }
+    }
+    return bytes.toByteArray();
+  }
+
+}
@@ -0,0 +1,327 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.apache.ibatis.cursor.Cursor;
+
+/**
+ * Publishes the objects of a cursor as a {@code java.util.concurrent.Flow.Publisher}.
+ * <p>
+ * Each subscription opens its own cursor when the first objects are requested, and fetches rows only as they are
+ * requested: {@code request(n)} advances the result set by up to {@code n} objects on the requesting thread, and is
+ * passed to the driver as the fetch size of the result set unless the statement has a fetch size. {@code cancel()}
+ * closes the cursor and its statement. {@code null} objects are not published, as the Flow contract forbids them.
+ * <p>
+ * The {@code Flow} interfaces are implemented through reflection, so that this class also loads on Java 8, where
+ * {@link #create} fails.
+ *
+ * @since 3.5.12
+ */
+public final class CursorPublisher {
+
+  private static final int MAX_FETCH_SIZE = 1000;
+
+  private static final Class<?> PUBLISHER_TYPE;
+  private static final Class<?> SUBSCRIPTION_TYPE;
+  private static final Method ON_SUBSCRIBE;
+  private static final Method ON_NEXT;
+  private static final Method ON_ERROR;
+  private static final Method ON_COMPLETE;
+
+  static {
+    Class<?> publisherType = null;
+    Class<?> subscriptionType = null;
+    Method onSubscribe = null;
+    Method onNext = null;
+    Method onError = null;
+    Method onComplete = null;
+    try {
+      publisherType = Class.forName("java.util.concurrent.Flow$Publisher");
+      subscriptionType = Class.forName("java.util.concurrent.Flow$Subscription");
+      Class<?> subscriberType = Class.forName("java.util.concurrent.Flow$Subscriber");
+      onSubscribe = subscriberType.getMethod("onSubscribe", subscriptionType);
+      onNext = subscriberType.getMethod("onNext", Object.class);
+      onError = subscriberType.getMethod("onError", Throwable.class);
+      onComplete = subscriberType.getMethod("onComplete");
+    } catch (ReflectiveOperationException e) {
+      // Java 1.8
+      publisherType = null;
+    }
+    PUBLISHER_TYPE = publisherType;
+    SUBSCRIPTION_TYPE = subscriptionType;
+    ON_SUBSCRIBE = onSubscribe;
+    ON_NEXT = onNext;
+    ON_ERROR = onError;
+    ON_COMPLETE = onComplete;
+  }
+
+  private CursorPublisher() {
+    // Prevent Instantiation
+  }
+
+  /**
+   * Checks whether a type is {@code java.util.concurrent.Flow.Publisher}.
+   *
+   * @param type
+   *          the type
+   *
+   * @return {@code true} if the type is {@code Flow.Publisher}
+   */
+  public static boolean isPublisherType(Class<?> type) {
+    return PUBLISHER_TYPE != null && PUBLISHER_TYPE.equals(type);
+  }
+
+  /**
+   * Creates a publisher of the objects of the cursors created by a factory.
+   *
+   * @param <P>
+   *          the {@code Flow.Publisher} type
+   * @param cursorFactory
+   *          opens a cursor for each subscription
+   * @param adaptFetchSize
+   *          whether the fetch size of the result sets follows the requested number of objects
+   *
+   * @return a {@code java.util.concurrent.Flow.Publisher}
+   */
+  @SuppressWarnings("unchecked")
+  public static <P> P create(Supplier<? extends Cursor<?>> cursorFactory, boolean adaptFetchSize) {
+    if (PUBLISHER_TYPE == null) {
+      throw new UnsupportedOperationException("java.util.concurrent.Flow requires Java 9 or later.");
+    }
+    return (P) Proxy.newProxyInstance(CursorPublisher.class.getClassLoader(), new Class<?>[] { PUBLISHER_TYPE },
+        new PublisherHandler(cursorFactory, adaptFetchSize));
+  }
+
+  private static Object handleObjectMethod(Object proxy, Method method, Object[] args) {
+    switch (method.getName()) {
+      case "equals":
+        return proxy == args[0];
+      case "hashCode":
+        return System.identityHashCode(proxy);
+      default:
+        return proxy.getClass().getName() + "@" + Integer.toHexString(System.identityHashCode(proxy));
+    }
+  }
+
+  private static class PublisherHandler implements InvocationHandler {
+
+    private final Supplier<? extends Cursor<?>> cursorFactory;
+    private final boolean adaptFetchSize;
+
+    PublisherHandler(Supplier<? extends Cursor<?>> cursorFactory, boolean adaptFetchSize) {
+      this.cursorFactory = cursorFactory;
+      this.adaptFetchSize = adaptFetchSize;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (Object.class.equals(method.getDeclaringClass())) {
+        return handleObjectMethod(proxy, method, args);
+      }
+      // subscribe(Subscriber)
+      if (args[0] == null) {
+        throw new NullPointerException("The subscriber must not be null.");
+      }
+      new CursorSubscription(args[0], cursorFactory, adaptFetchSize).start();
+      return null;
+    }
+  }
+
+  private static class CursorSubscription implements InvocationHandler {
+
+    private final Object subscriber;
+    private final Supplier<? extends Cursor<?>> cursorFactory;
+    private final boolean adaptFetchSize;
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicInteger wip = new AtomicInteger();
+    private volatile boolean cancelled;
+    private volatile boolean invalidRequest;
+
+    // only accessed by the thread that drains, as guarded by wip
+    private Cursor<?> cursor;
+    private Iterator<?> iterator;
+    private int fetchSize;
+    private boolean done;
+
+    CursorSubscription(Object subscriber, Supplier<? extends Cursor<?>> cursorFactory, boolean adaptFetchSize) {
+      this.subscriber = subscriber;
+      this.cursorFactory = cursorFactory;
+      this.adaptFetchSize = adaptFetchSize;
+    }
+
+    void start() {
+      Object subscription = Proxy.newProxyInstance(CursorPublisher.class.getClassLoader(),
+          new Class<?>[] { SUBSCRIPTION_TYPE }, this);
+      signal(ON_SUBSCRIBE, subscription);
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      if (Object.class.equals(method.getDeclaringClass())) {
+        return handleObjectMethod(proxy, method, args);
+      }
+      if ("request".equals(method.getName())) {
+        request((Long) args[0]);
+      } else {
+        cancelled = true;
+        drain();
+      }
+      return null;
+    }
+
+    private void request(long n) {
+      if (n <= 0) {
+        invalidRequest = true;
+      } else {
+        long current;
+        do {
+          current = requested.get();
+          if (current == Long.MAX_VALUE) {
+            break;
+          }
+        } while (!requested.compareAndSet(current, current + n < 0 ? Long.MAX_VALUE : current + n));
+      }
+      drain();
+    }
+
+    /**
+     * Emits on one thread at a time. A thread that finds another one emitting makes it loop once more instead, which
+     * also bounds the recursion when a subscriber requests more from {@code onNext}.
+     */
+    private void drain() {
+      if (wip.getAndIncrement() != 0) {
+        return;
+      }
+      int missed = 1;
+      do {
+        emit();
+        missed = wip.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    private void emit() {
+      if (done) {
+        return;
+      }
+      if (cancelled) {
+        finish();
+        return;
+      }
+      if (invalidRequest) {
+        finish();
+        signal(ON_ERROR, new IllegalArgumentException("The number of requested objects must be positive (rule 3.9)."));
+        return;
+      }
+      long demand = requested.get();
+      if (demand == 0) {
+        return;
+      }
+      long emitted = 0;
+      try {
+        if (cursor == null) {
+          cursor = cursorFactory.get();
+          iterator = cursor.iterator();
+        }
+        adviseFetchSize(demand);
+        while (emitted != demand) {
+          if (cancelled) {
+            finish();
+            return;
+          }
+          if (!iterator.hasNext()) {
+            boolean consumed = cursor.isConsumed();
+            finish();
+            if (consumed) {
+              signal(ON_COMPLETE);
+            } else {
+              signal(ON_ERROR, new IllegalStateException("The cursor was closed before it was fully consumed."));
+            }
+            return;
+          }
+          Object next = iterator.next();
+          if (next != null) {
+            signal(ON_NEXT, next);
+            emitted++;
+          }
+        }
+      } catch (RuntimeException e) {
+        if (done) {
+          // thrown by the subscriber
+          throw e;
+        }
+        finish();
+        signal(ON_ERROR, e);
+        return;
+      }
+      if (demand != Long.MAX_VALUE) {
+        requested.addAndGet(-emitted);
+      }
+    }
+
+    private void adviseFetchSize(long demand) {
+      if (adaptFetchSize && cursor instanceof DefaultCursor) {
+        int size = (int) Math.min(demand, MAX_FETCH_SIZE);
+        if (size != fetchSize) {
+          fetchSize = size;
+          ((DefaultCursor<?>) cursor).setFetchSize(size);
+        }
+      }
+    }
+
+    private void finish() {
+      done = true;
+      if (cursor != null) {
+        try {
+          cursor.close();
+        } catch (Exception e) {
+          // ignore
+        }
+      }
+    }
+
+    /**
+     * Signals the subscriber. A subscriber that throws is considered to have cancelled its subscription, and the
+     * exception is rethrown.
+     */
+    private void signal(Method method, Object... args) {
+      try {
+        method.invoke(subscriber, args);
+      } catch (InvocationTargetException e) {
+        cancelled = true;
+        finish();
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+          throw (Error) cause;
+        }
+        throw new IllegalStateException(cause);
+      } catch (IllegalAccessException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+}
@@ -121,6 +121,20 @@ public class DefaultCursor<T> implements Cursor<T> {
     }
   }
 
+  /**
+   * Hints the driver to fetch the given number of rows when more rows are needed.
+   */
+  void setFetchSize(int fetchSize) {
+    try {
+      ResultSet rs = rsw.getResultSet();
+      if (!rs.isClosed()) {
+        rs.setFetchSize(fetchSize);
+      }
+    } catch (SQLException e) {
+      // ignore, the fetch size is only a hint
+    }
+  }
+
   protected T fetchNextUsingRowBound() {
     T result = fetchNextObjectFromDatabase();
     while (objectWrapperResultHandler.fetched && indexWithRowBound < rowBounds.getOffset()) {
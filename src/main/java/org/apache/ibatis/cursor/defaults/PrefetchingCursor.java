@@ -0,0 +1,295 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.session.RowBounds;
+
+/**
+ * A cursor that fetches and maps the rows of another cursor on a task of an {@link Executor}, ahead of the consumer.
+ * <p>
+ * Up to {@code prefetchSize} mapped objects are buffered. The task waits when the buffer is full, so that the consumer
+ * processes an object while the following ones are fetched and mapped. Objects are handed over through the buffer, so
+ * they are safely published to the consumer. If the executor rejects the task or runs it on the calling thread, the
+ * consumer fetches the objects itself. This implementation is not thread safe: it must be used by a single consumer
+ * thread, like {@link DefaultCursor}.
+ * <p>
+ * The task uses the connection of the session while the cursor is open, i.e. from the first object fetched until the
+ * cursor is consumed or closed, so the session must not be used meanwhile.
+ *
+ * @since 3.5.12
+ */
+public class PrefetchingCursor<T> implements Cursor<T> {
+
+  private static final Object END = new Object();
+  private static final Object NULL = new Object();
+  private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+  private final Cursor<T> delegate;
+  private final RowBounds rowBounds;
+  private final Executor taskExecutor;
+  private final BlockingQueue<Object> buffer;
+  private final PrefetchingIterator cursorIterator = new PrefetchingIterator();
+  // claimed by the task when it starts, or by close() if it has not started yet
+  private final AtomicBoolean producerClaimed = new AtomicBoolean();
+  private final CountDownLatch producerDone = new CountDownLatch(1);
+
+  private Iterator<T> delegateIterator;
+  private boolean producerSubmitted;
+  private boolean fetchingDirectly;
+  private volatile Thread submittingThread;
+  private volatile boolean closed;
+
+  private CursorStatus status = CursorStatus.CREATED;
+
+  private enum CursorStatus {
+    CREATED, OPEN, CLOSED, CONSUMED
+  }
+
+  public PrefetchingCursor(Cursor<T> delegate, RowBounds rowBounds, int prefetchSize, Executor taskExecutor) {
+    this.delegate = delegate;
+    this.rowBounds = rowBounds;
+    this.taskExecutor = taskExecutor;
+    this.buffer = new ArrayBlockingQueue<>(prefetchSize);
+  }
+
+  @Override
+  public boolean isOpen() {
+    return status == CursorStatus.OPEN;
+  }
+
+  @Override
+  public boolean isConsumed() {
+    return status == CursorStatus.CONSUMED;
+  }
+
+  @Override
+  public int getCurrentIndex() {
+    return rowBounds.getOffset() + cursorIterator.iteratorIndex;
+  }
+
+  @Override
+  public Iterator<T> iterator() {
+    if (delegateIterator != null) {
+      throw new IllegalStateException("Cannot open more than one iterator on a Cursor");
+    }
+    if (isClosed()) {
+      throw new IllegalStateException("A Cursor is already closed.");
+    }
+    delegateIterator = delegate.iterator();
+    return cursorIterator;
+  }
+
+  @Override
+  public void close() {
+    if (isClosed()) {
+      return;
+    }
+    closed = true;
+    status = CursorStatus.CLOSED;
+    cursorIterator.object = null;
+    if (producerSubmitted && !producerClaimed.compareAndSet(false, true)) {
+      buffer.clear();
+      awaitProducer();
+    }
+    try {
+      delegate.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
+  private void awaitProducer() {
+    boolean interrupted = false;
+    while (producerDone.getCount() > 0) {
+      try {
+        producerDone.await();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Tells whether the cursor was closed or consumed, so that it no longer uses the connection.
+   *
+   * @return true if the cursor was closed or consumed
+   */
+  public boolean isClosed() {
+    return status == CursorStatus.CLOSED || status == CursorStatus.CONSUMED;
+  }
+
+  private Object fetchNext() {
+    if (isClosed()) {
+      return END;
+    }
+    if (!producerSubmitted && !fetchingDirectly) {
+      submittingThread = Thread.currentThread();
+      try {
+        taskExecutor.execute(this::produce);
+        producerSubmitted = !fetchingDirectly;
+      } catch (RejectedExecutionException e) {
+        fetchingDirectly = true;
+      } finally {
+        submittingThread = null;
+      }
+    }
+    status = CursorStatus.OPEN;
+    Object next = fetchingDirectly ? fetchDirectly() : takeFromBuffer();
+    if (next == END) {
+      status = CursorStatus.CONSUMED;
+    } else if (next instanceof Failure) {
+      close();
+      Throwable cause = ((Failure) next).cause;
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new PersistenceException(cause);
+    }
+    return next;
+  }
+
+  private Object takeFromBuffer() {
+    try {
+      return buffer.take();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new PersistenceException("Interrupted while waiting for the next object of the cursor.", e);
+    }
+  }
+
+  private Object fetchDirectly() {
+    try {
+      if (!delegateIterator.hasNext()) {
+        return END;
+      }
+      T object = delegateIterator.next();
+      return object == null ? NULL : object;
+    } catch (Throwable t) {
+      return new Failure(t);
+    }
+  }
+
+  private void produce() {
+    if (Thread.currentThread() == submittingThread) {
+      // run by the executor on the consumer thread, which would wait for room in the buffer forever
+      fetchingDirectly = true;
+      return;
+    }
+    if (!producerClaimed.compareAndSet(false, true)) {
+      // closed before the task started
+      return;
+    }
+    try {
+      while (!closed && delegateIterator.hasNext()) {
+        T object = delegateIterator.next();
+        if (!offer(object == null ? NULL : object)) {
+          return;
+        }
+      }
+      offer(END);
+    } catch (Throwable t) {
+      try {
+        delegate.close();
+      } catch (Exception e) {
+        // ignore
+      }
+      offer(new Failure(t));
+    } finally {
+      producerDone.countDown();
+    }
+  }
+
+  /**
+   * Waits for room in the buffer, unless the cursor gets closed meanwhile.
+   */
+  private boolean offer(Object object) {
+    try {
+      while (!closed) {
+        if (buffer.offer(object, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return false;
+  }
+
+  private static class Failure {
+
+    private final Throwable cause;
+
+    Failure(Throwable cause) {
+      this.cause = cause;
+    }
+  }
+
+  protected class PrefetchingIterator implements Iterator<T> {
+
+    /**
+     * Holder for the next object to be returned, {@code null} if it has not been fetched.
+     */
+    Object object;
+
+    /**
+     * Index of objects returned using next(), and as such, visible to users.
+     */
+    int iteratorIndex = -1;
+
+    @Override
+    public boolean hasNext() {
+      if (object == null) {
+        object = fetchNext();
+      }
+      return object != END;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      T next = object == NULL ? null : (T) object;
+      object = null;
+      iteratorIndex++;
+      return next;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException("Cannot remove element from Cursor");
+    }
+  }
+}
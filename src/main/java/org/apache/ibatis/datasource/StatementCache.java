@@ -0,0 +1,201 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded cache of JDBC statements created on a single connection, evicting the least recently used statement when
+ * full. Evicted statements are closed.
+ * <p>
+ * The cache is meant to be used by one thread at a time, like the connection it belongs to, but its statistics may be
+ * read from any thread. Statements are closed outside of the lock, and the lock does not pin virtual threads.
+ *
+ * @since 3.5.12
+ */
+public class StatementCache {
+
+  private final Lock lock = new ReentrantLock();
+  private final int capacity;
+  private final LinkedHashMap<String, Statement> statements = new LinkedHashMap<>(16, 0.75f, true);
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+
+  /**
+   * Creates a statement cache.
+   *
+   * @param capacity
+   *          the maximum number of statements to keep open
+   */
+  public StatementCache(int capacity) {
+    if (capacity <= 0) {
+      throw new IllegalArgumentException("The capacity of a statement cache must be positive but was " + capacity);
+    }
+    this.capacity = capacity;
+  }
+
+  /**
+   * Gets the cached statement for the key. A statement that has been closed in the meantime is removed and reported as
+   * a miss.
+   *
+   * @param key
+   *          the key
+   *
+   * @return the open statement or {@code null}
+   */
+  public Statement get(String key) {
+    lock.lock();
+    try {
+      Statement statement = statements.get(key);
+      if (statement != null && isClosed(statement)) {
+        statements.remove(key);
+        statement = null;
+      }
+      if (statement == null) {
+        missCount++;
+      } else {
+        hitCount++;
+      }
+      return statement;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Puts a statement in the cache, closing the least recently used statement if the cache is full. A statement
+   * previously cached under the same key is closed as well.
+   *
+   * @param key
+   *          the key
+   * @param statement
+   *          the statement
+   */
+  public void put(String key, Statement statement) {
+    List<Statement> closing = new ArrayList<>();
+    lock.lock();
+    try {
+      Statement previous = statements.put(key, statement);
+      if (previous != null && previous != statement) {
+        closing.add(previous);
+      }
+      Iterator<Statement> iterator = statements.values().iterator();
+      while (statements.size() > capacity) {
+        closing.add(iterator.next());
+        iterator.remove();
+        evictionCount++;
+      }
+    } finally {
+      lock.unlock();
+    }
+    for (Statement evicted : closing) {
+      close(evicted);
+    }
+  }
+
+  /**
+   * Closes and removes all statements.
+   */
+  public void clear() {
+    List<Statement> closing;
+    lock.lock();
+    try {
+      closing = new ArrayList<>(statements.values());
+      statements.clear();
+    } finally {
+      lock.unlock();
+    }
+    for (Statement statement : closing) {
+      close(statement);
+    }
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getSize() {
+    lock.lock();
+    try {
+      return statements.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getHitCount() {
+    lock.lock();
+    try {
+      return hitCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getMissCount() {
+    lock.lock();
+    try {
+      return missCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public long getEvictionCount() {
+    lock.lock();
+    try {
+      return evictionCount;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public String toString() {
+    lock.lock();
+    try {
+      return "StatementCache[size=" + statements.size() + ", capacity=" + capacity + ", hits=" + hitCount + ", misses="
+          + missCount + ", evictions=" + evictionCount + "]";
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static void close(Statement statement) {
+    try {
+      statement.close();
+    } catch (SQLException e) {
+      // ignore
+    }
+  }
+
+  private static boolean isClosed(Statement statement) {
+    try {
+      return statement.isClosed() || statement.getConnection().isClosed();
+    } catch (SQLException e) {
+      return true;
+    }
+  }
+
+}
@@ -0,0 +1,40 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * Pool statistics of a {@link ConcurrentPooledDataSource}, whose connections are counted by the data source itself.
+ */
+class ConcurrentPoolState extends PoolState {
+
+  private final ConcurrentPooledDataSource concurrentDataSource;
+
+  ConcurrentPoolState(ConcurrentPooledDataSource dataSource) {
+    super(dataSource);
+    this.concurrentDataSource = dataSource;
+  }
+
+  @Override
+  public int getIdleConnectionCount() {
+    return concurrentDataSource.getIdleConnectionCount();
+  }
+
+  @Override
+  public int getActiveConnectionCount() {
+    return concurrentDataSource.getActiveConnectionCount();
+  }
+
+}
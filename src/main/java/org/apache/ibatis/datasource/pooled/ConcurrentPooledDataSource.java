@@ -0,0 +1,339 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A thread-safe database connection pool that does not serialize checkouts and returns on a global lock.
+ * <p>
+ * Connections are kept in a {@link ConnectionBag}: a thread first tries the connections it returned recently, then any
+ * idle connection, and only waits when the pool is exhausted, in which case returned connections are handed to the
+ * waiting threads in arrival order. Configuration, ping and overdue connection claiming behave as in
+ * {@link PooledDataSource}.
+ *
+ * @since 3.5.12
+ */
+public class ConcurrentPooledDataSource extends PooledDataSource {
+
+  private static final Log log = LogFactory.getLog(ConcurrentPooledDataSource.class);
+
+  private final ConnectionBag bag = new ConnectionBag();
+  private final AtomicInteger totalConnectionCount = new AtomicInteger();
+  private final ConcurrentPoolState state = new ConcurrentPoolState(this);
+
+  public ConcurrentPooledDataSource() {
+  }
+
+  public ConcurrentPooledDataSource(UnpooledDataSource dataSource) {
+    super(dataSource);
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, String username, String password) {
+    super(driver, url, username, password);
+  }
+
+  public ConcurrentPooledDataSource(String driver, String url, Properties driverProperties) {
+    super(driver, url, driverProperties);
+  }
+
+  public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url, String username,
+      String password) {
+    super(driverClassLoader, driver, url, username, password);
+  }
+
+  public ConcurrentPooledDataSource(ClassLoader driverClassLoader, String driver, String url,
+      Properties driverProperties) {
+    super(driverClassLoader, driver, url, driverProperties);
+  }
+
+  @Override
+  public PoolState getPoolState() {
+    return state;
+  }
+
+  int getIdleConnectionCount() {
+    return bag.getIdleCount();
+  }
+
+  int getActiveConnectionCount() {
+    return totalConnectionCount.get() - bag.getIdleCount();
+  }
+
+  /**
+   * Closes all active and idle connections in the pool.
+   */
+  @Override
+  public void forceCloseAll() {
+    resetExpectedConnectionTypeCode();
+    for (ConnectionBag.Entry entry : bag.values()) {
+      if (bag.evict(entry)) {
+        totalConnectionCount.decrementAndGet();
+        try {
+          Connection realConn = entry.getRealConnection();
+          if (!realConn.getAutoCommit()) {
+            realConn.rollback();
+          }
+          realConn.close();
+        } catch (Exception e) {
+          // ignore
+        }
+      }
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("ConcurrentPooledDataSource forcefully closed/removed all connections.");
+    }
+  }
+
+  @Override
+  protected void pushConnection(PooledConnection conn) throws SQLException {
+    final ConnectionBag.Entry entry = ((BagConnection) conn).entry;
+    if (!entry.detach(conn)) {
+      // claimed as overdue or removed by forceCloseAll()
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode()
+            + ") attempted to return to the pool, discarding connection.");
+      }
+      state.badConnections.increment();
+      return;
+    }
+    try {
+      if (conn.isValid()) {
+        state.checkoutMillis.add(conn.getCheckoutTime());
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        conn.invalidate();
+        if (bag.getIdleCount() < poolMaximumIdleConnections
+            && conn.getConnectionTypeCode() == getExpectedConnectionTypeCode()) {
+          entry.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+          if (bag.requite(entry)) {
+            if (log.isDebugEnabled()) {
+              log.debug("Returned connection " + conn.getRealHashCode() + " to pool.");
+            }
+          }
+        } else {
+          discard(entry);
+          if (log.isDebugEnabled()) {
+            log.debug("Closed connection " + conn.getRealHashCode() + ".");
+          }
+        }
+      } else {
+        if (log.isDebugEnabled()) {
+          log.debug("A bad connection (" + conn.getRealHashCode()
+              + ") attempted to return to the pool, discarding connection.");
+        }
+        state.badConnections.increment();
+        discard(entry);
+      }
+    } catch (SQLException | RuntimeException e) {
+      discard(entry);
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return popConnection(getUsername(), getPassword()).getProxyConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return popConnection(username, password).getProxyConnection();
+  }
+
+  private PooledConnection popConnection(String username, String password) throws SQLException {
+    boolean countedWait = false;
+    PooledConnection conn = null;
+    long t = System.nanoTime();
+    long waitTime = 0;
+    int localBadConnectionCount = 0;
+
+    while (conn == null) {
+      ConnectionBag.Entry entry = bag.poll();
+      if (entry != null) {
+        // Pool has available connection
+        if (log.isDebugEnabled()) {
+          log.debug("Checked out connection " + entry.getRealConnection().hashCode() + " from pool.");
+        }
+      } else if ((entry = createEntry()) != null) {
+        // Pool does not have available connection and can create a new connection
+        if (log.isDebugEnabled()) {
+          log.debug("Created connection " + entry.getRealConnection().hashCode() + ".");
+        }
+      } else if ((entry = claimOverdueEntry()) != null) {
+        if (log.isDebugEnabled()) {
+          log.debug("Claimed overdue connection " + entry.getRealConnection().hashCode() + ".");
+        }
+      } else {
+        // Must wait
+        try {
+          if (!countedWait) {
+            state.waits.increment();
+            countedWait = true;
+          }
+          if (log.isDebugEnabled()) {
+            log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+          }
+          long wt = System.nanoTime();
+          entry = bag.poll(poolTimeToWait, TimeUnit.MILLISECONDS);
+          wt = System.nanoTime() - wt;
+          waitTime += wt;
+          state.waitNanos.add(wt);
+        } catch (InterruptedException e) {
+          // set interrupt flag
+          Thread.currentThread().interrupt();
+          break;
+        }
+      }
+      if (entry != null) {
+        conn = checkout(entry, username, password);
+        if (conn != null) {
+          state.recordRequest(System.nanoTime() - t, waitTime);
+        } else {
+          state.badConnections.increment();
+          localBadConnectionCount++;
+          if (localBadConnectionCount > poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance) {
+            if (log.isDebugEnabled()) {
+              log.debug("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+            }
+            throw new SQLException("ConcurrentPooledDataSource: Could not get a good connection to the database.");
+          }
+        }
+      }
+    }
+
+    if (conn == null) {
+      if (log.isDebugEnabled()) {
+        log.debug(
+            "ConcurrentPooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+      }
+      throw new SQLException(
+          "ConcurrentPooledDataSource: Unknown severe error condition.  The connection pool returned a null connection.");
+    }
+
+    return conn;
+  }
+
+  private PooledConnection checkout(ConnectionBag.Entry entry, String username, String password) throws SQLException {
+    final PooledConnection conn = new BagConnection(entry, this);
+    try {
+      // ping to server and check the connection is valid or not
+      if (conn.isValid()) {
+        if (!conn.getRealConnection().getAutoCommit()) {
+          conn.getRealConnection().rollback();
+        }
+        conn.setConnectionTypeCode(getConnectionTypeCode(username, password));
+        conn.setCheckoutTimestamp(System.currentTimeMillis());
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+        if (entry.assign(conn)) {
+          return conn;
+        }
+      }
+    } catch (SQLException | RuntimeException e) {
+      discard(entry);
+      throw e;
+    }
+    if (log.isDebugEnabled()) {
+      log.debug(
+          "A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+    }
+    discard(entry);
+    return null;
+  }
+
+  private ConnectionBag.Entry createEntry() throws SQLException {
+    int total;
+    do {
+      total = totalConnectionCount.get();
+      if (total >= poolMaximumActiveConnections) {
+        return null;
+      }
+    } while (!totalConnectionCount.compareAndSet(total, total + 1));
+    try {
+      final ConnectionBag.Entry entry = new ConnectionBag.Entry(newRealConnection(), newStatementCache());
+      bag.add(entry);
+      return entry;
+    } catch (SQLException | RuntimeException e) {
+      totalConnectionCount.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private ConnectionBag.Entry claimOverdueEntry() {
+    ConnectionBag.Entry oldestEntry = null;
+    PooledConnection oldestActiveConnection = null;
+    long longestCheckoutTime = poolMaximumCheckoutTime;
+    for (ConnectionBag.Entry entry : bag.values()) {
+      final PooledConnection owner = entry.getOwner();
+      if (owner != null && owner.getCheckoutTime() > longestCheckoutTime) {
+        oldestEntry = entry;
+        oldestActiveConnection = owner;
+        longestCheckoutTime = owner.getCheckoutTime();
+      }
+    }
+    if (oldestEntry == null || !oldestEntry.detach(oldestActiveConnection)) {
+      return null;
+    }
+    // Can claim overdue connection
+    state.overdueClaims.increment();
+    state.overdueCheckoutMillis.add(longestCheckoutTime);
+    state.checkoutMillis.add(longestCheckoutTime);
+    oldestActiveConnection.invalidate();
+    try {
+      if (!oldestEntry.getRealConnection().getAutoCommit()) {
+        oldestEntry.getRealConnection().rollback();
+      }
+    } catch (SQLException e) {
+      // the connection will be discarded by the ping that follows the checkout if it is really broken
+      log.debug("Bad connection. Could not roll back");
+    }
+    oldestEntry.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
+    return oldestEntry;
+  }
+
+  private void discard(ConnectionBag.Entry entry) {
+    if (bag.remove(entry)) {
+      totalConnectionCount.decrementAndGet();
+      try {
+        entry.getRealConnection().close();
+      } catch (SQLException e) {
+        // ignore
+      }
+    }
+  }
+
+  private static class BagConnection extends PooledConnection {
+
+    private final ConnectionBag.Entry entry;
+
+    BagConnection(ConnectionBag.Entry entry, PooledDataSource dataSource) {
+      super(entry.getRealConnection(), dataSource);
+      this.entry = entry;
+      setCreatedTimestamp(entry.getCreatedTimestamp());
+      setLastUsedTimestamp(entry.getLastUsedTimestamp());
+      setStatementCache(entry.getStatementCache());
+    }
+  }
+}
@@ -0,0 +1,282 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.ibatis.datasource.StatementCache;
+
+/**
+ * A lock-free container of pooled connections used by {@link ConcurrentPooledDataSource}.
+ * <p>
+ * Every entry carries its own ownership state, so borrowing and returning a connection is a single compare-and-set on
+ * the entry. Connections returned by a thread are remembered in a small thread-local list and tried first the next time
+ * the same thread borrows. Threads that find no idle connection wait on a fair {@link SynchronousQueue} that returning
+ * threads hand connections to directly.
+ *
+ * @see ConcurrentPooledDataSource
+ */
+class ConnectionBag {
+
+  private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+
+  private final List<Entry> sharedList = new CopyOnWriteArrayList<>();
+  private final ThreadLocal<List<Entry>> threadList = ThreadLocal.withInitial(ArrayList::new);
+  private final SynchronousQueue<Entry> handoffQueue = new SynchronousQueue<>(true);
+  private final AtomicInteger waiters = new AtomicInteger();
+  private final AtomicInteger idleCount = new AtomicInteger();
+
+  /**
+   * Reserves an idle entry without blocking. The thread-local list is tried first, then all shared entries.
+   *
+   * @return the reserved entry or {@code null} if all entries are in use
+   */
+  Entry poll() {
+    final List<Entry> list = threadList.get();
+    for (int i = list.size() - 1; i >= 0; i--) {
+      final Entry entry = list.remove(i);
+      if (reserve(entry)) {
+        return entry;
+      }
+    }
+    for (Entry entry : sharedList) {
+      if (reserve(entry)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Waits for an entry to be handed off by a returning thread.
+   *
+   * @param timeout
+   *          the maximum time to wait
+   * @param unit
+   *          the unit of the timeout
+   *
+   * @return the reserved entry or {@code null} if none became available in time
+   *
+   * @throws InterruptedException
+   *           if the waiting thread is interrupted
+   */
+  Entry poll(long timeout, TimeUnit unit) throws InterruptedException {
+    waiters.incrementAndGet();
+    try {
+      // an entry returned before this thread registered as a waiter is not handed off, so look again
+      Entry entry = poll();
+      long remaining = unit.toNanos(timeout);
+      while (entry == null && remaining > 0) {
+        final long start = System.nanoTime();
+        final Entry offered = handoffQueue.poll(remaining, TimeUnit.NANOSECONDS);
+        if (offered == null) {
+          break;
+        }
+        if (reserve(offered)) {
+          entry = offered;
+        }
+        remaining -= System.nanoTime() - start;
+      }
+      return entry;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /**
+   * Adds a new entry that is reserved by the calling thread.
+   *
+   * @param entry
+   *          the new entry
+   */
+  void add(Entry entry) {
+    sharedList.add(entry);
+  }
+
+  /**
+   * Makes a reserved entry idle again and hands it to a waiting thread if there is one.
+   *
+   * @param entry
+   *          the reserved entry
+   *
+   * @return {@code false} if the entry was evicted in the meantime
+   */
+  boolean requite(Entry entry) {
+    // counted first, as the entry may be reserved again as soon as it is idle
+    idleCount.incrementAndGet();
+    if (!entry.owner.compareAndSet(Entry.RESERVED, Entry.IDLE)) {
+      idleCount.decrementAndGet();
+      return false;
+    }
+    for (int i = 0; waiters.get() > 0; i++) {
+      if (entry.owner.get() != Entry.IDLE || handoffQueue.offer(entry)) {
+        return true;
+      }
+      if ((i & 0xff) == 0xff) {
+        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(10));
+      } else {
+        Thread.yield();
+      }
+    }
+    final List<Entry> list = threadList.get();
+    if (list.size() < MAX_THREAD_LOCAL_ENTRIES) {
+      list.add(entry);
+    }
+    return true;
+  }
+
+  /**
+   * Removes a reserved entry.
+   *
+   * @param entry
+   *          the reserved entry
+   *
+   * @return {@code false} if the entry was evicted in the meantime
+   */
+  boolean remove(Entry entry) {
+    if (!entry.owner.compareAndSet(Entry.RESERVED, Entry.REMOVED)) {
+      return false;
+    }
+    sharedList.remove(entry);
+    return true;
+  }
+
+  /**
+   * Removes an entry whatever its state is. The connection owning the entry, if any, is invalidated.
+   *
+   * @param entry
+   *          the entry
+   *
+   * @return {@code false} if the entry had already been removed
+   */
+  boolean evict(Entry entry) {
+    final Object previous = entry.owner.getAndSet(Entry.REMOVED);
+    sharedList.remove(entry);
+    if (previous == Entry.REMOVED) {
+      return false;
+    }
+    if (previous == Entry.IDLE) {
+      idleCount.decrementAndGet();
+    } else if (previous instanceof PooledConnection) {
+      ((PooledConnection) previous).invalidate();
+    }
+    return true;
+  }
+
+  List<Entry> values() {
+    return Collections.unmodifiableList(sharedList);
+  }
+
+  int getIdleCount() {
+    return idleCount.get();
+  }
+
+  private boolean reserve(Entry entry) {
+    if (entry.owner.get() == Entry.IDLE && entry.owner.compareAndSet(Entry.IDLE, Entry.RESERVED)) {
+      idleCount.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * A physical connection held by the bag. It is owned either by a marker (idle, reserved, removed) or by the
+   * {@link PooledConnection} that currently wraps it.
+   */
+  static class Entry {
+
+    private static final Object IDLE = new Object();
+    private static final Object RESERVED = new Object();
+    private static final Object REMOVED = new Object();
+
+    private final Connection realConnection;
+    private final long createdTimestamp;
+    private final StatementCache statementCache;
+    private volatile long lastUsedTimestamp;
+    private final AtomicReference<Object> owner = new AtomicReference<>(RESERVED);
+
+    Entry(Connection realConnection, StatementCache statementCache) {
+      this.realConnection = realConnection;
+      this.statementCache = statementCache;
+      this.createdTimestamp = System.currentTimeMillis();
+      this.lastUsedTimestamp = createdTimestamp;
+    }
+
+    Connection getRealConnection() {
+      return realConnection;
+    }
+
+    StatementCache getStatementCache() {
+      return statementCache;
+    }
+
+    long getCreatedTimestamp() {
+      return createdTimestamp;
+    }
+
+    long getLastUsedTimestamp() {
+      return lastUsedTimestamp;
+    }
+
+    void setLastUsedTimestamp(long lastUsedTimestamp) {
+      this.lastUsedTimestamp = lastUsedTimestamp;
+    }
+
+    /**
+     * Hands a reserved entry over to the connection that wraps it.
+     *
+     * @param connection
+     *          the new owner
+     *
+     * @return {@code false} if the entry was removed in the meantime
+     */
+    boolean assign(PooledConnection connection) {
+      return owner.compareAndSet(RESERVED, connection);
+    }
+
+    /**
+     * Takes an entry away from the connection owning it, either because that connection is returned to the pool or
+     * because it is overdue and claimed by another thread.
+     *
+     * @param connection
+     *          the current owner
+     *
+     * @return {@code false} if the entry is not owned by the given connection anymore
+     */
+    boolean detach(PooledConnection connection) {
+      return owner.compareAndSet(connection, RESERVED);
+    }
+
+    /**
+     * Gets the connection that currently owns this entry.
+     *
+     * @return the owner or {@code null} if the entry is idle, reserved or removed
+     */
+    PooledConnection getOwner() {
+      final Object current = owner.get();
+      return current instanceof PooledConnection ? (PooledConnection) current : null;
+    }
+  }
+}
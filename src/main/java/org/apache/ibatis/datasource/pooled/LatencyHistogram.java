@@ -0,0 +1,98 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A concurrent histogram of non-negative durations with log-linear buckets.
+ * <p>
+ * Values below 16 are counted exactly, larger values fall into one of 8 buckets per power of two, so a percentile is
+ * never reported more than 12.5% above the recorded value. Recording is a single {@link LongAdder} increment.
+ */
+class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 3;
+  private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = SUB_BUCKET_COUNT << 1;
+  private static final int LINEAR_LIMIT_BITS = SUB_BUCKET_BITS + 1;
+  private static final int BUCKET_COUNT = LINEAR_LIMIT + (Long.SIZE - 1 - LINEAR_LIMIT_BITS) * SUB_BUCKET_COUNT;
+
+  private final LongAdder[] buckets = new LongAdder[BUCKET_COUNT];
+
+  LatencyHistogram() {
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      buckets[i] = new LongAdder();
+    }
+  }
+
+  void record(long value) {
+    buckets[bucketIndex(Math.max(value, 0))].increment();
+  }
+
+  /**
+   * Takes a copy of the bucket counts so that several percentiles can be computed from the same data.
+   *
+   * @return the bucket counts
+   */
+  long[] counts() {
+    final long[] counts = new long[BUCKET_COUNT];
+    for (int i = 0; i < BUCKET_COUNT; i++) {
+      counts[i] = buckets[i].sum();
+    }
+    return counts;
+  }
+
+  static long percentile(long[] counts, double percentile) {
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    if (total == 0) {
+      return 0;
+    }
+    final long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+    long cumulative = 0;
+    for (int i = 0; i < counts.length; i++) {
+      cumulative += counts[i];
+      if (cumulative >= rank) {
+        return highestValueIn(i);
+      }
+    }
+    return highestValueIn(counts.length - 1);
+  }
+
+  private static int bucketIndex(long value) {
+    if (value < LINEAR_LIMIT) {
+      return (int) value;
+    }
+    final int msb = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+    final int shift = msb - SUB_BUCKET_BITS;
+    return LINEAR_LIMIT + (msb - LINEAR_LIMIT_BITS) * SUB_BUCKET_COUNT + (int) (value >>> shift & SUB_BUCKET_COUNT - 1);
+  }
+
+  private static long highestValueIn(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    final int msb = (index - LINEAR_LIMIT) / SUB_BUCKET_COUNT + LINEAR_LIMIT_BITS;
+    final int subBucket = (index - LINEAR_LIMIT) % SUB_BUCKET_COUNT;
+    final int shift = msb - SUB_BUCKET_BITS;
+    final long lowest = (long) (SUB_BUCKET_COUNT + subBucket) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+
+}
@@ -17,8 +17,13 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
+ * Statistics of a pooled data source. Counters are striped {@link LongAdder}s so that neither updating nor reading them
+ * takes a lock.
+ *
  * @author Clinton Begin
  */
 public class PoolState {
@@ -27,63 +32,146 @@ public class PoolState {
 
   protected final List<PooledConnection> idleConnections = new ArrayList<>();
   protected final List<PooledConnection> activeConnections = new ArrayList<>();
+  /*
+   * The statistics below are no longer maintained, they are kept in the lock-free counters further down so that a
+   * subclass reading or writing them still compiles. Use the getters or snapshot() instead.
+   */
+  @Deprecated
   protected long requestCount;
+  @Deprecated
   protected long accumulatedRequestTime;
+  @Deprecated
   protected long accumulatedCheckoutTime;
+  @Deprecated
   protected long claimedOverdueConnectionCount;
+  @Deprecated
   protected long accumulatedCheckoutTimeOfOverdueConnections;
+  @Deprecated
   protected long accumulatedWaitTime;
+  @Deprecated
   protected long hadToWaitCount;
+  @Deprecated
   protected long badConnectionCount;
 
+  final LongAdder requests = new LongAdder();
+  final LongAdder requestNanos = new LongAdder();
+  final LongAdder checkoutMillis = new LongAdder();
+  final LongAdder overdueClaims = new LongAdder();
+  final LongAdder overdueCheckoutMillis = new LongAdder();
+  final LongAdder waits = new LongAdder();
+  final LongAdder waitNanos = new LongAdder();
+  final LongAdder badConnections = new LongAdder();
+  final LatencyHistogram requestTimeHistogram = new LatencyHistogram();
+  final LatencyHistogram waitTimeHistogram = new LatencyHistogram();
+
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
   }
 
-  public synchronized long getRequestCount() {
-    return requestCount;
+  /**
+   * Records a connection request that has been served.
+   *
+   * @param requestTime
+   *          the time in nanoseconds the request took to check out a connection
+   * @param waitTime
+   *          the time in nanoseconds the request spent waiting for a connection to be returned, 0 if it did not wait
+   */
+  void recordRequest(long requestTime, long waitTime) {
+    requests.increment();
+    requestNanos.add(requestTime);
+    requestTimeHistogram.record(TimeUnit.NANOSECONDS.toMicros(requestTime));
+    if (waitTime > 0) {
+      waitTimeHistogram.record(TimeUnit.NANOSECONDS.toMicros(waitTime));
+    }
   }
 
-  public synchronized long getAverageRequestTime() {
-    return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+  /**
+   * Takes an immutable copy of the statistics without taking any lock. Counters updated concurrently may or may not be
+   * reflected.
+   *
+   * @return the snapshot
+   *
+   * @since 3.5.12
+   */
+  public PoolStateSnapshot snapshot() {
+    return new PoolStateSnapshot(this);
   }
 
-  public synchronized long getAverageWaitTime() {
-    return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+  public long getRequestCount() {
+    return requests.sum();
+  }
+
+  public long getAverageRequestTime() {
+    final long count = requests.sum();
+    return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(requestNanos.sum() / count);
+  }
+
+  public long getAverageWaitTime() {
+    final long count = waits.sum();
+    return count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos.sum() / count);
+  }
+
+  public long getHadToWaitCount() {
+    return waits.sum();
+  }
 
+  public long getBadConnectionCount() {
+    return badConnections.sum();
   }
 
-  public synchronized long getHadToWaitCount() {
-    return hadToWaitCount;
+  public long getClaimedOverdueConnectionCount() {
+    return overdueClaims.sum();
   }
 
-  public synchronized long getBadConnectionCount() {
-    return badConnectionCount;
+  public long getAverageOverdueCheckoutTime() {
+    final long count = overdueClaims.sum();
+    return count == 0 ? 0 : overdueCheckoutMillis.sum() / count;
   }
 
-  public synchronized long getClaimedOverdueConnectionCount() {
-    return claimedOverdueConnectionCount;
+  public long getAverageCheckoutTime() {
+    final long count = requests.sum();
+    return count == 0 ? 0 : checkoutMillis.sum() / count;
   }
 
-  public synchronized long getAverageOverdueCheckoutTime() {
-    return claimedOverdueConnectionCount == 0 ? 0
-        : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
+  /**
+   * Gets the given percentile of the time threads spent to check out a connection.
+   *
+   * @param percentile
+   *          the percentile between 0 and 100, e.g. 99.9
+   *
+   * @return the request time in microseconds
+   *
+   * @since 3.5.12
+   */
+  public long getRequestTimePercentile(double percentile) {
+    return LatencyHistogram.percentile(requestTimeHistogram.counts(), percentile);
   }
 
-  public synchronized long getAverageCheckoutTime() {
-    return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
+  /**
+   * Gets the given percentile of the time threads that had to wait spent waiting for a connection to be returned.
+   *
+   * @param percentile
+   *          the percentile between 0 and 100, e.g. 99.9
+   *
+   * @return the wait time in microseconds
+   *
+   * @since 3.5.12
+   */
+  public long getWaitTimePercentile(double percentile) {
+    return LatencyHistogram.percentile(waitTimeHistogram.counts(), percentile);
   }
 
-  public synchronized int getIdleConnectionCount() {
+  public int getIdleConnectionCount() {
     return idleConnections.size();
   }
 
-  public synchronized int getActiveConnectionCount() {
+  public int getActiveConnectionCount() {
     return activeConnections.size();
   }
 
   @Override
-  public synchronized String toString() {
+  public String toString() {
+    final PoolStateSnapshot snapshot = snapshot();
     StringBuilder builder = new StringBuilder();
     builder.append("\n===CONFIGURATION==============================================");
     builder.append("\n jdbcDriver                     ").append(dataSource.getDriver());
@@ -98,17 +186,24 @@ public class PoolState {
     builder.append("\n poolPingEnabled                ").append(dataSource.poolPingEnabled);
     builder.append("\n poolPingQuery                  ").append(dataSource.poolPingQuery);
     builder.append("\n poolPingConnectionsNotUsedFor  ").append(dataSource.poolPingConnectionsNotUsedFor);
+    builder.append("\n poolMaxCachedStatements        ").append(dataSource.poolMaximumCachedStatements);
     builder.append("\n ---STATUS-----------------------------------------------------");
-    builder.append("\n activeConnections              ").append(getActiveConnectionCount());
-    builder.append("\n idleConnections                ").append(getIdleConnectionCount());
-    builder.append("\n requestCount                   ").append(getRequestCount());
-    builder.append("\n averageRequestTime             ").append(getAverageRequestTime());
-    builder.append("\n averageCheckoutTime            ").append(getAverageCheckoutTime());
-    builder.append("\n claimedOverdue                 ").append(getClaimedOverdueConnectionCount());
-    builder.append("\n averageOverdueCheckoutTime     ").append(getAverageOverdueCheckoutTime());
-    builder.append("\n hadToWait                      ").append(getHadToWaitCount());
-    builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
-    builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n activeConnections              ").append(snapshot.getActiveConnectionCount());
+    builder.append("\n idleConnections                ").append(snapshot.getIdleConnectionCount());
+    builder.append("\n requestCount                   ").append(snapshot.getRequestCount());
+    builder.append("\n averageRequestTime             ").append(snapshot.getAverageRequestTime());
+    builder.append("\n requestTimeP50Micros           ").append(snapshot.getRequestTime50thPercentile());
+    builder.append("\n requestTimeP99Micros           ").append(snapshot.getRequestTime99thPercentile());
+    builder.append("\n requestTimeP999Micros          ").append(snapshot.getRequestTime999thPercentile());
+    builder.append("\n averageCheckoutTime            ").append(snapshot.getAverageCheckoutTime());
+    builder.append("\n claimedOverdue                 ").append(snapshot.getClaimedOverdueConnectionCount());
+    builder.append("\n averageOverdueCheckoutTime     ").append(snapshot.getAverageOverdueCheckoutTime());
+    builder.append("\n hadToWait                      ").append(snapshot.getHadToWaitCount());
+    builder.append("\n averageWaitTime                ").append(snapshot.getAverageWaitTime());
+    builder.append("\n waitTimeP50Micros              ").append(snapshot.getWaitTime50thPercentile());
+    builder.append("\n waitTimeP99Micros              ").append(snapshot.getWaitTime99thPercentile());
+    builder.append("\n waitTimeP999Micros             ").append(snapshot.getWaitTime999thPercentile());
+    builder.append("\n badConnectionCount             ").append(snapshot.getBadConnectionCount());
     builder.append("\n===============================================================");
     return builder.toString();
   }
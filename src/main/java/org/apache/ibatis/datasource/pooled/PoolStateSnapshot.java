@@ -0,0 +1,180 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+/**
+ * An immutable copy of the statistics of a {@link PoolState}. Averages are in milliseconds, percentiles in
+ * microseconds.
+ *
+ * @see PoolState#snapshot()
+ *
+ * @since 3.5.12
+ */
+public final class PoolStateSnapshot {
+
+  private final int activeConnectionCount;
+  private final int idleConnectionCount;
+  private final long requestCount;
+  private final long averageRequestTime;
+  private final long averageCheckoutTime;
+  private final long claimedOverdueConnectionCount;
+  private final long averageOverdueCheckoutTime;
+  private final long hadToWaitCount;
+  private final long averageWaitTime;
+  private final long badConnectionCount;
+  private final long requestTime50thPercentile;
+  private final long requestTime99thPercentile;
+  private final long requestTime999thPercentile;
+  private final long waitTime50thPercentile;
+  private final long waitTime99thPercentile;
+  private final long waitTime999thPercentile;
+
+  PoolStateSnapshot(PoolState state) {
+    final long[] requestTimes = state.requestTimeHistogram.counts();
+    final long[] waitTimes = state.waitTimeHistogram.counts();
+    this.activeConnectionCount = state.getActiveConnectionCount();
+    this.idleConnectionCount = state.getIdleConnectionCount();
+    this.requestCount = state.getRequestCount();
+    this.averageRequestTime = state.getAverageRequestTime();
+    this.averageCheckoutTime = state.getAverageCheckoutTime();
+    this.claimedOverdueConnectionCount = state.getClaimedOverdueConnectionCount();
+    this.averageOverdueCheckoutTime = state.getAverageOverdueCheckoutTime();
+    this.hadToWaitCount = state.getHadToWaitCount();
+    this.averageWaitTime = state.getAverageWaitTime();
+    this.badConnectionCount = state.getBadConnectionCount();
+    this.requestTime50thPercentile = LatencyHistogram.percentile(requestTimes, 50);
+    this.requestTime99thPercentile = LatencyHistogram.percentile(requestTimes, 99);
+    this.requestTime999thPercentile = LatencyHistogram.percentile(requestTimes, 99.9);
+    this.waitTime50thPercentile = LatencyHistogram.percentile(waitTimes, 50);
+    this.waitTime99thPercentile = LatencyHistogram.percentile(waitTimes, 99);
+    this.waitTime999thPercentile = LatencyHistogram.percentile(waitTimes, 99.9);
+  }
+
+  public int getActiveConnectionCount() {
+    return activeConnectionCount;
+  }
+
+  public int getIdleConnectionCount() {
+    return idleConnectionCount;
+  }
+
+  public long getRequestCount() {
+    return requestCount;
+  }
+
+  /**
+   * Gets the average time threads spent to check out a connection.
+   *
+   * @return the time in milliseconds
+   */
+  public long getAverageRequestTime() {
+    return averageRequestTime;
+  }
+
+  /**
+   * Gets the average time a connection was checked out before it was returned or claimed.
+   *
+   * @return the time in milliseconds
+   */
+  public long getAverageCheckoutTime() {
+    return averageCheckoutTime;
+  }
+
+  public long getClaimedOverdueConnectionCount() {
+    return claimedOverdueConnectionCount;
+  }
+
+  /**
+   * Gets the average time an overdue connection was checked out before it was claimed.
+   *
+   * @return the time in milliseconds
+   */
+  public long getAverageOverdueCheckoutTime() {
+    return averageOverdueCheckoutTime;
+  }
+
+  public long getHadToWaitCount() {
+    return hadToWaitCount;
+  }
+
+  /**
+   * Gets the average time threads that had to wait spent waiting for a connection.
+   *
+   * @return the time in milliseconds
+   */
+  public long getAverageWaitTime() {
+    return averageWaitTime;
+  }
+
+  public long getBadConnectionCount() {
+    return badConnectionCount;
+  }
+
+  /**
+   * Gets the median time threads spent to check out a connection.
+   *
+   * @return the 50th percentile of the request time in microseconds
+   */
+  public long getRequestTime50thPercentile() {
+    return requestTime50thPercentile;
+  }
+
+  /**
+   * Gets the 99th percentile of the time threads spent to check out a connection.
+   *
+   * @return the 99th percentile of the request time in microseconds
+   */
+  public long getRequestTime99thPercentile() {
+    return requestTime99thPercentile;
+  }
+
+  /**
+   * Gets the 99.9th percentile of the time threads spent to check out a connection.
+   *
+   * @return the 99.9th percentile of the request time in microseconds
+   */
+  public long getRequestTime999thPercentile() {
+    return requestTime999thPercentile;
+  }
+
+  /**
+   * Gets the median time threads that had to wait spent waiting for a connection.
+   *
+   * @return the 50th percentile of the wait time in microseconds
+   */
+  public long getWaitTime50thPercentile() {
+    return waitTime50thPercentile;
+  }
+
+  /**
+   * Gets the 99th percentile of the time threads that had to wait spent waiting for a connection.
+   *
+   * @return the 99th percentile of the wait time in microseconds
+   */
+  public long getWaitTime99thPercentile() {
+    return waitTime99thPercentile;
+  }
+
+  /**
+   * Gets the 99.9th percentile of the time threads that had to wait spent waiting for a connection.
+   *
+   * @return the 99.9th percentile of the wait time in microseconds
+   */
+  public long getWaitTime999thPercentile() {
+    return waitTime999thPercentile;
+  }
+
+}
@@ -21,6 +21,7 @@ import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
 
+import org.apache.ibatis.datasource.StatementCache;
 import org.apache.ibatis.reflection.ExceptionUtil;
 
 /**
@@ -29,6 +30,8 @@ import org.apache.ibatis.reflection.ExceptionUtil;
 class PooledConnection implements InvocationHandler {
 
   private static final String CLOSE = "close";
+  private static final String IS_WRAPPER_FOR = "isWrapperFor";
+  private static final String UNWRAP = "unwrap";
   private static final Class<?>[] IFACES = { Connection.class };
 
   private final int hashCode;
@@ -40,6 +43,7 @@ class PooledConnection implements InvocationHandler {
   private long lastUsedTimestamp;
   private int connectionTypeCode;
   private boolean valid;
+  private StatementCache statementCache;
 
   /**
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in.
@@ -205,6 +209,25 @@ class PooledConnection implements InvocationHandler {
     return System.currentTimeMillis() - checkoutTimestamp;
   }
 
+  /**
+   * Getter for the cache of statements prepared on the real connection, shared by all the checkouts of it.
+   *
+   * @return the statement cache or {@code null} if statements are not cached
+   */
+  public StatementCache getStatementCache() {
+    return statementCache;
+  }
+
+  /**
+   * Setter for the cache of statements prepared on the real connection.
+   *
+   * @param statementCache
+   *          - the statement cache
+   */
+  public void setStatementCache(StatementCache statementCache) {
+    this.statementCache = statementCache;
+  }
+
   @Override
   public int hashCode() {
     return hashCode;
@@ -255,6 +278,14 @@ class PooledConnection implements InvocationHandler {
         // throw an SQLException instead of a Runtime
         checkConnection();
       }
+      if (statementCache != null && args != null && args[0] == StatementCache.class) {
+        if (IS_WRAPPER_FOR.equals(methodName)) {
+          return true;
+        }
+        if (UNWRAP.equals(methodName)) {
+          return statementCache;
+        }
+      }
       return method.invoke(realConnection, args);
     } catch (Throwable t) {
       throw ExceptionUtil.unwrapThrowable(t);
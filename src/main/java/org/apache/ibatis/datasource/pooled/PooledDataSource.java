@@ -31,6 +31,7 @@ import java.util.logging.Logger;
 
 import javax.sql.DataSource;
 
+import org.apache.ibatis.datasource.StatementCache;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -57,8 +58,9 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  protected int poolMaximumCachedStatements;
 
-  private int expectedConnectionTypeCode;
+  private volatile int expectedConnectionTypeCode;
 
   private final Lock lock = new ReentrantLock();
   private final Condition condition = lock.newCondition();
@@ -265,6 +267,22 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /**
+   * The maximum number of statements kept open on each connection for reuse by a
+   * {@link org.apache.ibatis.executor.ReuseExecutor}, across the sessions the connection is checked out to. The least
+   * recently used statement is closed when the limit is reached. Statements are not cached when this is zero, which is
+   * the default.
+   *
+   * @param poolMaximumCachedStatements
+   *          the maximum number of cached statements per connection
+   *
+   * @since 3.5.12
+   */
+  public void setPoolMaximumCachedStatements(int poolMaximumCachedStatements) {
+    this.poolMaximumCachedStatements = poolMaximumCachedStatements;
+    forceCloseAll();
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -336,6 +354,10 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolMaximumCachedStatements() {
+    return poolMaximumCachedStatements;
+  }
+
   /**
    * Closes all active and idle connections in the pool.
    */
@@ -384,6 +406,30 @@ public class PooledDataSource implements DataSource {
     return state;
   }
 
+  StatementCache newStatementCache() {
+    return poolMaximumCachedStatements > 0 ? new StatementCache(poolMaximumCachedStatements) : null;
+  }
+
+  /**
+   * Opens a new physical connection, for {@link ConcurrentPooledDataSource}, which keeps its own connections.
+   */
+  final Connection newRealConnection() throws SQLException {
+    return dataSource.getConnection();
+  }
+
+  final int getExpectedConnectionTypeCode() {
+    return expectedConnectionTypeCode;
+  }
+
+  final void resetExpectedConnectionTypeCode() {
+    expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(),
+        dataSource.getPassword());
+  }
+
+  final int getConnectionTypeCode(String username, String password) {
+    return assembleConnectionTypeCode(dataSource.getUrl(), username, password);
+  }
+
   private int assembleConnectionTypeCode(String url, String username, String password) {
     return ("" + url + username + password).hashCode();
   }
@@ -396,11 +442,12 @@ public class PooledDataSource implements DataSource {
       if (conn.isValid()) {
         if (state.idleConnections.size() < poolMaximumIdleConnections
             && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
-          state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          state.checkoutMillis.add(conn.getCheckoutTime());
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
           PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+          newConn.setStatementCache(conn.getStatementCache());
           state.idleConnections.add(newConn);
           newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
           newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
@@ -410,7 +457,7 @@ public class PooledDataSource implements DataSource {
           }
           condition.signal();
         } else {
-          state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          state.checkoutMillis.add(conn.getCheckoutTime());
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
@@ -425,7 +472,7 @@ public class PooledDataSource implements DataSource {
           log.debug("A bad connection (" + conn.getRealHashCode()
               + ") attempted to return to the pool, discarding connection.");
         }
-        state.badConnectionCount++;
+        state.badConnections.increment();
       }
     } finally {
       lock.unlock();
@@ -435,7 +482,8 @@ public class PooledDataSource implements DataSource {
   private PooledConnection popConnection(String username, String password) throws SQLException {
     boolean countedWait = false;
     PooledConnection conn = null;
-    long t = System.currentTimeMillis();
+    long t = System.nanoTime();
+    long waitTime = 0;
     int localBadConnectionCount = 0;
 
     while (conn == null) {
@@ -450,6 +498,7 @@ public class PooledDataSource implements DataSource {
         } else if (state.activeConnections.size() < poolMaximumActiveConnections) {
           // Pool does not have available connection and can create a new connection
           conn = new PooledConnection(dataSource.getConnection(), this);
+          conn.setStatementCache(newStatementCache());
           if (log.isDebugEnabled()) {
             log.debug("Created connection " + conn.getRealHashCode() + ".");
           }
@@ -459,9 +508,9 @@ public class PooledDataSource implements DataSource {
           long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
           if (longestCheckoutTime > poolMaximumCheckoutTime) {
             // Can claim overdue connection
-            state.claimedOverdueConnectionCount++;
-            state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
-            state.accumulatedCheckoutTime += longestCheckoutTime;
+            state.overdueClaims.increment();
+            state.overdueCheckoutMillis.add(longestCheckoutTime);
+            state.checkoutMillis.add(longestCheckoutTime);
             state.activeConnections.remove(oldestActiveConnection);
             if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
               try {
@@ -477,6 +526,7 @@ public class PooledDataSource implements DataSource {
               }
             }
             conn = new PooledConnection(oldestActiveConnection.getRealConnection(), this);
+            conn.setStatementCache(oldestActiveConnection.getStatementCache());
             conn.setCreatedTimestamp(oldestActiveConnection.getCreatedTimestamp());
             conn.setLastUsedTimestamp(oldestActiveConnection.getLastUsedTimestamp());
             oldestActiveConnection.invalidate();
@@ -487,15 +537,17 @@ public class PooledDataSource implements DataSource {
             // Must wait
             try {
               if (!countedWait) {
-                state.hadToWaitCount++;
+                state.waits.increment();
                 countedWait = true;
               }
               if (log.isDebugEnabled()) {
                 log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
               }
-              long wt = System.currentTimeMillis();
+              long wt = System.nanoTime();
               condition.await(poolTimeToWait, TimeUnit.MILLISECONDS);
-              state.accumulatedWaitTime += System.currentTimeMillis() - wt;
+              wt = System.nanoTime() - wt;
+              waitTime += wt;
+              state.waitNanos.add(wt);
             } catch (InterruptedException e) {
               // set interrupt flag
               Thread.currentThread().interrupt();
@@ -513,14 +565,13 @@ public class PooledDataSource implements DataSource {
             conn.setCheckoutTimestamp(System.currentTimeMillis());
             conn.setLastUsedTimestamp(System.currentTimeMillis());
             state.activeConnections.add(conn);
-            state.requestCount++;
-            state.accumulatedRequestTime += System.currentTimeMillis() - t;
+            state.recordRequest(System.nanoTime() - t, waitTime);
           } else {
             if (log.isDebugEnabled()) {
               log.debug("A bad connection (" + conn.getRealHashCode()
                   + ") was returned from the pool, getting another connection.");
             }
-            state.badConnectionCount++;
+            state.badConnections.increment();
             localBadConnectionCount++;
             conn = null;
             if (localBadConnectionCount > poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance) {
@@ -619,6 +670,26 @@ public class PooledDataSource implements DataSource {
     return conn;
   }
 
+  /**
+   * Gets the cache of statements prepared on the real connection of a pooled connection, without calling the driver.
+   *
+   * @param conn
+   *          - the pooled connection
+   *
+   * @return the statement cache or {@code null} if the connection is not pooled or statements are not cached
+   *
+   * @since 3.5.12
+   */
+  public static StatementCache getStatementCache(Connection conn) {
+    if (Proxy.isProxyClass(conn.getClass())) {
+      InvocationHandler handler = Proxy.getInvocationHandler(conn);
+      if (handler instanceof PooledConnection) {
+        return ((PooledConnection) handler).getStatementCache();
+      }
+    }
+    return null;
+  }
+
   @Override
   protected void finalize() throws Throwable {
     forceCloseAll();
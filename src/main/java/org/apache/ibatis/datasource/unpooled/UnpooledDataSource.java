@@ -26,6 +26,8 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Logger;
 
 import javax.sql.DataSource;
@@ -42,7 +44,9 @@ public class UnpooledDataSource implements DataSource {
   private Properties driverProperties;
   private static final Map<String, Driver> registeredDrivers = new ConcurrentHashMap<>();
 
-  private String driver;
+  private final Lock initializationLock = new ReentrantLock();
+
+  private volatile String driver;
   private String url;
   private String username;
   private String password;
@@ -137,11 +141,11 @@ public class UnpooledDataSource implements DataSource {
     this.driverProperties = driverProperties;
   }
 
-  public synchronized String getDriver() {
+  public String getDriver() {
     return driver;
   }
 
-  public synchronized void setDriver(String driver) {
+  public void setDriver(String driver) {
     this.driver = driver;
   }
 
@@ -230,23 +234,32 @@ public class UnpooledDataSource implements DataSource {
     return connection;
   }
 
-  private synchronized void initializeDriver() throws SQLException {
-    if (!registeredDrivers.containsKey(driver)) {
-      Class<?> driverType;
-      try {
-        if (driverClassLoader != null) {
-          driverType = Class.forName(driver, true, driverClassLoader);
-        } else {
-          driverType = Resources.classForName(driver);
+  private void initializeDriver() throws SQLException {
+    if (registeredDrivers.containsKey(driver)) {
+      return;
+    }
+    // a lock rather than a monitor, as loading the driver may block and would pin a virtual thread
+    initializationLock.lock();
+    try {
+      if (!registeredDrivers.containsKey(driver)) {
+        Class<?> driverType;
+        try {
+          if (driverClassLoader != null) {
+            driverType = Class.forName(driver, true, driverClassLoader);
+          } else {
+            driverType = Resources.classForName(driver);
+          }
+          // DriverManager requires the driver to be loaded via the system ClassLoader.
+          // https://www.kfu.com/~nsayer/Java/dyn-jdbc.html
+          Driver driverInstance = (Driver) driverType.getDeclaredConstructor().newInstance();
+          DriverManager.registerDriver(new DriverProxy(driverInstance));
+          registeredDrivers.put(driver, driverInstance);
+        } catch (Exception e) {
+          throw new SQLException("Error setting driver on UnpooledDataSource. Cause: " + e);
         }
-        // DriverManager requires the driver to be loaded via the system ClassLoader.
-        // https://www.kfu.com/~nsayer/Java/dyn-jdbc.html
-        Driver driverInstance = (Driver) driverType.getDeclaredConstructor().newInstance();
-        DriverManager.registerDriver(new DriverProxy(driverInstance));
-        registeredDrivers.put(driver, driverInstance);
-      } catch (Exception e) {
-        throw new SQLException("Error setting driver on UnpooledDataSource. Cause: " + e);
       }
+    } finally {
+      initializationLock.unlock();
     }
   }
 
@@ -20,12 +20,15 @@ import static org.apache.ibatis.executor.ExecutionPlaceholder.EXECUTION_PLACEHOL
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
@@ -61,6 +64,8 @@ public abstract class BaseExecutor implements Executor {
 
   protected int queryStack;
   private boolean closed;
+  private BoundSql updateBoundSql;
+  private final List<PrefetchingCursor<?>> prefetchingCursors = new ArrayList<>();
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
     this.transaction = transaction;
@@ -84,6 +89,7 @@ public abstract class BaseExecutor implements Executor {
   public void close(boolean forceRollback) {
     try {
       try {
+        closePrefetchingCursors();
         rollback(forceRollback);
       } finally {
         if (transaction != null) {
@@ -110,9 +116,11 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public int update(MappedStatement ms, Object parameter) throws SQLException {
     ErrorContext.instance().resource(ms.getResource()).activity("executing an update").object(ms.getId());
+    updateBoundSql = null;
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
+    ensureNoOpenPrefetchingCursor();
     clearLocalCache();
     return doUpdate(ms, parameter);
   }
@@ -126,6 +134,7 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
+    ensureNoOpenPrefetchingCursor();
     return doFlushStatements(isRollBack);
   }
 
@@ -145,6 +154,7 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
+    ensureNoOpenPrefetchingCursor();
     if (queryStack == 0 && ms.isFlushCacheRequired()) {
       clearLocalCache();
     }
@@ -176,8 +186,13 @@ public abstract class BaseExecutor implements Executor {
 
   @Override
   public <E> Cursor<E> queryCursor(MappedStatement ms, Object parameter, RowBounds rowBounds) throws SQLException {
+    ensureNoOpenPrefetchingCursor();
     BoundSql boundSql = ms.getBoundSql(parameter);
-    return doQueryCursor(ms, parameter, rowBounds, boundSql);
+    Cursor<E> cursor = doQueryCursor(ms, parameter, rowBounds, boundSql);
+    if (cursor instanceof PrefetchingCursor) {
+      prefetchingCursors.add((PrefetchingCursor<?>) cursor);
+    }
+    return cursor;
   }
 
   @Override
@@ -203,9 +218,14 @@ public abstract class BaseExecutor implements Executor {
     cacheKey.update(ms.getId());
     cacheKey.update(rowBounds.getOffset());
     cacheKey.update(rowBounds.getLimit());
-    cacheKey.update(boundSql.getSql());
+    String sql = boundSql.getSql();
+    if (sql != ms.getStaticSql()) {
+      // the statement id stands for its static SQL
+      cacheKey.update(sql);
+    }
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
+    MetaObject metaObject = null;
     // mimic DefaultParameterHandler logic
     for (ParameterMapping parameterMapping : parameterMappings) {
       if (parameterMapping.getMode() != ParameterMode.OUT) {
@@ -218,7 +238,9 @@ public abstract class BaseExecutor implements Executor {
         } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
           value = parameterObject;
         } else {
-          MetaObject metaObject = configuration.newMetaObject(parameterObject);
+          if (metaObject == null) {
+            metaObject = configuration.newMetaObject(parameterObject);
+          }
           value = metaObject.getValue(propertyName);
         }
         cacheKey.update(value);
@@ -251,6 +273,7 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public void rollback(boolean required) throws SQLException {
     if (!closed) {
+      ensureNoOpenPrefetchingCursor();
       try {
         clearLocalCache();
         flushStatements(true);
@@ -290,6 +313,56 @@ public abstract class BaseExecutor implements Executor {
     }
   }
 
+  /**
+   * Ensures that no prefetching cursor of this executor is open, as it uses the connection on another thread until it
+   * is consumed or closed.
+   *
+   * @since 3.5.12
+   */
+  protected void ensureNoOpenPrefetchingCursor() {
+    prefetchingCursors.removeIf(PrefetchingCursor::isClosed);
+    for (PrefetchingCursor<?> cursor : prefetchingCursors) {
+      if (cursor.isOpen()) {
+        throw new ExecutorException(
+            "The session cannot be used while a prefetching cursor is open. Consume or close the cursor first.");
+      }
+    }
+  }
+
+  private void closePrefetchingCursors() {
+    for (PrefetchingCursor<?> cursor : prefetchingCursors) {
+      cursor.close();
+    }
+    prefetchingCursors.clear();
+  }
+
+  /**
+   * Creates the statement handler of an update, and keeps its bound SQL so that the tables it writes can be found
+   * without building it again.
+   *
+   * @param ms
+   *          the mapped statement
+   * @param parameter
+   *          the parameter object
+   *
+   * @return the statement handler
+   *
+   * @since 3.5.12
+   */
+  protected StatementHandler newUpdateStatementHandler(MappedStatement ms, Object parameter) {
+    StatementHandler handler = ms.getConfiguration().newStatementHandler(this, ms, parameter, RowBounds.DEFAULT, null,
+        null);
+    updateBoundSql = handler.getBoundSql();
+    return handler;
+  }
+
+  /**
+   * Gets the bound SQL of the last update, or {@code null} if it was not built.
+   */
+  BoundSql getUpdateBoundSql() {
+    return updateBoundSql;
+  }
+
   /**
    * Apply a transaction timeout.
    *
@@ -17,11 +17,17 @@ package org.apache.ibatis.executor;
 
 import java.sql.BatchUpdateException;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
@@ -30,12 +36,35 @@ import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.StatementType;
+import org.apache.ibatis.scripting.defaults.DefaultParameterHandler;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
+ * An executor that batches updates, executing them when the statements are flushed.
+ * <p>
+ * By default, an update is added to the batch of the previous update when both have the same mapped statement and SQL,
+ * so interleaved updates each open a new statement. When {@link Configuration#isBatchReorderingEnabled()
+ * batchReorderingEnabled}, an update is added to the pending batch of its mapped statement and SQL wherever it is,
+ * unless a batch of a statement it {@linkplain MappedStatement#getBatchDependsOn() depends on} has been started after
+ * it. When {@link Configuration#getMaxBatchSize() maxBatchSize} is set, a batch reaching that size is executed along
+ * with all the batches started before it.
+ * <p>
+ * When {@link Configuration#getMultiRowInsertSize() multiRowInsertSize} is set, the rows batched on an
+ * {@code INSERT ... VALUES (...)} statement are inserted by multi-row {@code INSERT ... VALUES (...), (...)} statements
+ * instead of a JDBC batch.
+ * <p>
+ * {@link #flushStatementsAsync()} executes the pending batches on the {@link Configuration#getTaskExecutor() task
+ * executor} while the caller goes on. At most one flush is in progress at a time. As it uses the connection, the next
+ * update, query, flush, commit, rollback or close waits for it, and a failure of the flush is rethrown by that next
+ * call, unless it rolls back, whether or not the failure was observed through the returned future.
+ *
  * @author Jeff Butler
  */
 public class BatchExecutor extends BaseExecutor {
@@ -44,8 +73,8 @@ public class BatchExecutor extends BaseExecutor {
 
   private final List<Statement> statementList = new ArrayList<>();
   private final List<BatchResult> batchResultList = new ArrayList<>();
-  private String currentSql;
-  private MappedStatement currentStatement;
+  private final List<BatchResult> executedBatchResultList = new ArrayList<>();
+  private CompletableFuture<List<BatchResult>> pendingFlush;
 
   public BatchExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
@@ -53,32 +82,102 @@ public class BatchExecutor extends BaseExecutor {
 
   @Override
   public int doUpdate(MappedStatement ms, Object parameterObject) throws SQLException {
+    // the connection must not be used while a flush is in progress
+    awaitPendingFlush(false);
     final Configuration configuration = ms.getConfiguration();
-    final StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObject, RowBounds.DEFAULT,
-        null, null);
+    final StatementHandler handler = newUpdateStatementHandler(ms, parameterObject);
     final BoundSql boundSql = handler.getBoundSql();
     final String sql = boundSql.getSql();
     final Statement stmt;
-    if (sql.equals(currentSql) && ms.equals(currentStatement)) {
-      int last = statementList.size() - 1;
-      stmt = statementList.get(last);
-      applyTransactionTimeout(stmt);
-      handler.parameterize(stmt);// fix Issues 322
-      BatchResult batchResult = batchResultList.get(last);
-      batchResult.addParameterObject(parameterObject);
+    final BatchResult batchResult;
+    int index = indexOfBatch(ms, sql);
+    MultiRowInsert multiRowInsert;
+    if (index >= 0) {
+      stmt = statementList.get(index);
+      batchResult = batchResultList.get(index);
+      if (stmt == null) {
+        ((MultiRowInsertBatchResult) batchResult).addRow(parameterObject, boundSql,
+            DefaultParameterHandler.resolveParameterValues(configuration, boundSql, parameterObject));
+      } else {
+        applyTransactionTimeout(stmt);
+        handler.parameterize(stmt);// fix Issues 322
+        batchResult.addParameterObject(parameterObject);
+      }
+    } else if ((multiRowInsert = multiRowInsertOf(ms, boundSql)) != null) {
+      // rows are bound when the batch is executed
+      stmt = null;
+      index = statementList.size();
+      statementList.add(null);
+      MultiRowInsertBatchResult multiRowInsertBatchResult = new MultiRowInsertBatchResult(ms, sql, multiRowInsert,
+          configuration.getMultiRowInsertSize());
+      multiRowInsertBatchResult.addRow(parameterObject, boundSql,
+          DefaultParameterHandler.resolveParameterValues(configuration, boundSql, parameterObject));
+      batchResult = multiRowInsertBatchResult;
+      batchResultList.add(batchResult);
     } else {
       Connection connection = getConnection(ms.getStatementLog());
       stmt = handler.prepare(connection, transaction.getTimeout());
       handler.parameterize(stmt); // fix Issues 322
-      currentSql = sql;
-      currentStatement = ms;
+      index = statementList.size();
       statementList.add(stmt);
-      batchResultList.add(new BatchResult(ms, sql, parameterObject));
+      batchResult = new BatchResult(ms, sql, parameterObject);
+      batchResultList.add(batchResult);
+    }
+    if (stmt != null) {
+      handler.batch(stmt);
+    }
+    Integer maxBatchSize = configuration.getMaxBatchSize();
+    if (maxBatchSize != null && batchResult.getParameterObjects().size() >= maxBatchSize) {
+      executedBatchResultList
+          .addAll(executeBatches(statementList, batchResultList, index + 1, executedBatchResultList));
     }
-    handler.batch(stmt);
     return BATCH_UPDATE_RETURN_VALUE;
   }
 
+  private MultiRowInsert multiRowInsertOf(MappedStatement ms, BoundSql boundSql) {
+    Integer multiRowInsertSize = configuration.getMultiRowInsertSize();
+    if (multiRowInsertSize == null || multiRowInsertSize < 2 || ms.getSqlCommandType() != SqlCommandType.INSERT
+        || ms.getStatementType() != StatementType.PREPARED) {
+      return null;
+    }
+    Class<?> keyGeneratorType = ms.getKeyGenerator().getClass();
+    if (!NoKeyGenerator.class.equals(keyGeneratorType) && !Jdbc3KeyGenerator.class.equals(keyGeneratorType)) {
+      return null;
+    }
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    for (ParameterMapping parameterMapping : parameterMappings) {
+      if (parameterMapping.getMode() != ParameterMode.IN) {
+        return null;
+      }
+    }
+    MultiRowInsert multiRowInsert = MultiRowInsert.parse(boundSql.getSql());
+    return multiRowInsert != null && multiRowInsert.getParameterCount() == parameterMappings.size() ? multiRowInsert
+        : null;
+  }
+
+  private int indexOfBatch(MappedStatement ms, String sql) {
+    int last = batchResultList.size() - 1;
+    if (!configuration.isBatchReorderingEnabled()) {
+      return last >= 0 && isBatchOf(batchResultList.get(last), ms, sql) ? last : -1;
+    }
+    String[] dependsOn = ms.getBatchDependsOn();
+    for (int i = last; i >= 0; i--) {
+      BatchResult batchResult = batchResultList.get(i);
+      if (isBatchOf(batchResult, ms, sql)) {
+        return i;
+      }
+      if (dependsOn != null && Arrays.asList(dependsOn).contains(batchResult.getMappedStatement().getId())) {
+        // must be executed after the rows of that statement added so far
+        return -1;
+      }
+    }
+    return -1;
+  }
+
+  private static boolean isBatchOf(BatchResult batchResult, MappedStatement ms, String sql) {
+    return batchResult.getMappedStatement().equals(ms) && batchResult.getSql().equals(sql);
+  }
+
   @Override
   public <E> List<E> doQuery(MappedStatement ms, Object parameterObject, RowBounds rowBounds,
       ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
@@ -114,15 +213,112 @@ public class BatchExecutor extends BaseExecutor {
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) throws SQLException {
     try {
-      List<BatchResult> results = new ArrayList<>();
+      awaitPendingFlush(isRollback);
       if (isRollback) {
+        closeStatements(statementList, batchResultList, statementList.size());
         return Collections.emptyList();
       }
-      for (int i = 0, n = statementList.size(); i < n; i++) {
-        Statement stmt = statementList.get(i);
-        applyTransactionTimeout(stmt);
-        BatchResult batchResult = batchResultList.get(i);
+      List<BatchResult> results = new ArrayList<>(executedBatchResultList);
+      results.addAll(executeBatches(statementList, batchResultList, statementList.size(), results));
+      return results;
+    } finally {
+      executedBatchResultList.clear();
+    }
+  }
+
+  @Override
+  public CompletableFuture<List<BatchResult>> flushStatementsAsync() throws SQLException {
+    if (isClosed()) {
+      throw new ExecutorException("Executor was closed.");
+    }
+    ensureNoOpenPrefetchingCursor();
+    awaitPendingFlush(false);
+    final List<Statement> statements = new ArrayList<>(statementList);
+    final List<BatchResult> batchResults = new ArrayList<>(batchResultList);
+    final List<BatchResult> previousResults = new ArrayList<>(executedBatchResultList);
+    statementList.clear();
+    batchResultList.clear();
+    executedBatchResultList.clear();
+    if (statements.isEmpty()) {
+      return CompletableFuture.completedFuture(previousResults);
+    }
+    final CompletableFuture<List<BatchResult>> flush = new CompletableFuture<>();
+    final Runnable task = () -> {
+      try {
+        List<BatchResult> results = new ArrayList<>(previousResults);
+        results.addAll(executeBatches(statements, batchResults, statements.size(), previousResults));
+        flush.complete(results);
+      } catch (Throwable t) {
+        flush.completeExceptionally(t);
+      }
+    };
+    try {
+      configuration.getTaskExecutor().execute(task);
+    } catch (RejectedExecutionException e) {
+      task.run();
+    }
+    pendingFlush = flush;
+    // cancelling the returned future must not stop this executor from waiting for the flush
+    return flush.thenApply(Function.identity());
+  }
+
+  /**
+   * Waits for the statements flushed asynchronously to be executed.
+   *
+   * @param isRollback
+   *          whether a failure of the flush should be ignored because the transaction is rolled back
+   */
+  private void awaitPendingFlush(boolean isRollback) throws SQLException {
+    if (pendingFlush == null) {
+      return;
+    }
+    try {
+      pendingFlush.join();
+    } catch (CompletionException e) {
+      if (!isRollback) {
+        Throwable cause = e.getCause();
+        if (cause instanceof SQLException) {
+          throw (SQLException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+          throw (RuntimeException) cause;
+        }
+        throw new ExecutorException("Error executing batch statements.  Cause: " + cause, cause);
+      }
+    } finally {
+      pendingFlush = null;
+    }
+  }
+
+  /**
+   * Executes and closes the given number of oldest statements. All statements are closed if one of them fails.
+   *
+   * @param statements
+   *          the statements
+   * @param batchResults
+   *          the batches of the statements
+   * @param count
+   *          the number of statements to execute
+   * @param previousResults
+   *          the results of the batches executed since the last flush, reported if a statement fails
+   *
+   * @return the results of the executed statements
+   */
+  private List<BatchResult> executeBatches(List<Statement> statements, List<BatchResult> batchResults, int count,
+      List<BatchResult> previousResults) throws SQLException {
+    boolean failed = true;
+    try {
+      List<BatchResult> results = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        Statement stmt = statements.get(i);
+        BatchResult batchResult = batchResults.get(i);
         try {
+          if (stmt == null) {
+            executeMultiRowInserts((MultiRowInsertBatchResult) batchResult);
+            results.add(batchResult);
+            continue;
+          }
+          applyTransactionTimeout(stmt);
           batchResult.setUpdateCounts(stmt.executeBatch());
           MappedStatement ms = batchResult.getMappedStatement();
           List<Object> parameterObjects = batchResult.getParameterObjects();
@@ -138,25 +334,106 @@ public class BatchExecutor extends BaseExecutor {
           // Close statement to close cursor #1109
           closeStatement(stmt);
         } catch (BatchUpdateException e) {
+          int executed = previousResults.size() + i;
           StringBuilder message = new StringBuilder();
-          message.append(batchResult.getMappedStatement().getId()).append(" (batch index #").append(i + 1).append(")")
-              .append(" failed.");
-          if (i > 0) {
-            message.append(" ").append(i)
+          message.append(batchResult.getMappedStatement().getId()).append(" (batch index #").append(executed + 1)
+              .append(")").append(" failed.");
+          if (executed > 0) {
+            message.append(" ").append(executed)
                 .append(" prior sub executor(s) completed successfully, but will be rolled back.");
           }
-          throw new BatchExecutorException(message.toString(), e, results, batchResult);
+          List<BatchResult> successfulResults = new ArrayList<>(previousResults);
+          successfulResults.addAll(results);
+          throw new BatchExecutorException(message.toString(), e, successfulResults, batchResult);
         }
         results.add(batchResult);
       }
+      failed = false;
       return results;
     } finally {
-      for (Statement stmt : statementList) {
+      closeStatements(statements, batchResults, failed ? statements.size() : count);
+    }
+  }
+
+  private void executeMultiRowInserts(MultiRowInsertBatchResult batchResult) throws SQLException {
+    MappedStatement ms = batchResult.getMappedStatement();
+    List<Object> parameterObjects = batchResult.getParameterObjects();
+    int rows = parameterObjects.size();
+    int[] updateCounts = new int[rows];
+    Connection connection = getConnection(ms.getStatementLog());
+    for (int first = 0; first < rows; first += batchResult.rowsPerStatement) {
+      int last = Math.min(first + batchResult.rowsPerStatement, rows);
+      BoundSql boundSql = batchResult.getBoundSql(configuration, first, last);
+      StatementHandler handler = configuration.newStatementHandler(this, ms, parameterObjects.get(first),
+          RowBounds.DEFAULT, null, boundSql);
+      Statement stmt = null;
+      try {
+        stmt = handler.prepare(connection, transaction.getTimeout());
+        handler.parameterize(stmt);
+        int updateCount = ((PreparedStatement) stmt).executeUpdate();
+        Arrays.fill(updateCounts, first, last, updateCount == last - first ? 1 : Statement.SUCCESS_NO_INFO);
+        if (Jdbc3KeyGenerator.class.equals(ms.getKeyGenerator().getClass())) {
+          ((Jdbc3KeyGenerator) ms.getKeyGenerator()).processBatch(ms, stmt, parameterObjects.subList(first, last));
+        }
+      } catch (SQLException e) {
+        throw new BatchUpdateException(e.getMessage(), e.getSQLState(), e.getErrorCode(),
+            Arrays.copyOf(updateCounts, first), e);
+      } finally {
         closeStatement(stmt);
       }
-      currentSql = null;
-      statementList.clear();
-      batchResultList.clear();
+    }
+    batchResult.setUpdateCounts(updateCounts);
+  }
+
+  private void closeStatements(List<Statement> statements, List<BatchResult> batchResults, int count) {
+    List<Statement> closing = statements.subList(0, count);
+    for (Statement stmt : closing) {
+      closeStatement(stmt);
+    }
+    closing.clear();
+    batchResults.subList(0, count).clear();
+  }
+
+  /**
+   * The inserts of a mapped statement executed as multi-row inserts.
+   */
+  private static class MultiRowInsertBatchResult extends BatchResult {
+
+    private final MultiRowInsert multiRowInsert;
+    private final int rowsPerStatement;
+    private final List<List<ParameterMapping>> rowParameterMappings = new ArrayList<>();
+    private final List<Object[]> rowParameterValues = new ArrayList<>();
+
+    MultiRowInsertBatchResult(MappedStatement mappedStatement, String sql, MultiRowInsert multiRowInsert,
+        int rowsPerStatement) {
+      super(mappedStatement, sql);
+      this.multiRowInsert = multiRowInsert;
+      this.rowsPerStatement = rowsPerStatement;
+    }
+
+    void addRow(Object parameterObject, BoundSql boundSql, Object[] parameterValues) {
+      addParameterObject(parameterObject);
+      rowParameterMappings.add(boundSql.getParameterMappings());
+      rowParameterValues.add(parameterValues);
+    }
+
+    BoundSql getBoundSql(Configuration configuration, int first, int last) {
+      List<ParameterMapping> parameterMappings = new ArrayList<>((last - first) * multiRowInsert.getParameterCount());
+      BoundSql boundSql = new BoundSql(configuration, multiRowInsert.sql(last - first), parameterMappings,
+          getParameterObjects().get(first));
+      for (int row = first; row < last; row++) {
+        List<ParameterMapping> mappings = rowParameterMappings.get(row);
+        Object[] values = rowParameterValues.get(row);
+        for (int i = 0; i < values.length; i++) {
+          ParameterMapping mapping = mappings.get(i);
+          String property = "__row" + (row - first) + "_" + i;
+          parameterMappings.add(new ParameterMapping.Builder(configuration, property, mapping.getTypeHandler())
+              .javaType(mapping.getJavaType()).jdbcType(mapping.getJdbcType()).jdbcTypeName(mapping.getJdbcTypeName())
+              .numericScale(mapping.getNumericScale()).build());
+          boundSql.setAdditionalParameter(property, values[i]);
+        }
+      }
+      return boundSql;
     }
   }
 
@@ -17,10 +17,15 @@ package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.SqlTableExtractor;
+import org.apache.ibatis.cache.TableVersionedResult;
+import org.apache.ibatis.cache.TableVersions;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
@@ -39,10 +44,25 @@ import org.apache.ibatis.transaction.Transaction;
 public class CachingExecutor implements Executor {
 
   private final Executor delegate;
-  private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final TransactionalCacheManager tcm;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, null);
+  }
+
+  /**
+   * Creates an executor that publishes the caches flushed by each commit to other nodes.
+   *
+   * @param delegate
+   *          the executor to delegate to
+   * @param invalidationBus
+   *          the bus to publish flushes to, or null
+   *
+   * @since 3.5.12
+   */
+  public CachingExecutor(Executor delegate, CacheInvalidationBus invalidationBus) {
     this.delegate = delegate;
+    this.tcm = new TransactionalCacheManager(invalidationBus);
     delegate.setExecutorWrapper(this);
   }
 
@@ -72,8 +92,18 @@ public class CachingExecutor implements Executor {
 
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
-    flushCacheIfRequired(ms);
-    return delegate.update(ms, parameterObject);
+    if (!ms.isFlushCacheRequired() || !ms.getConfiguration().isTableLevelCacheInvalidation()) {
+      flushCacheIfRequired(ms);
+      return delegate.update(ms, parameterObject);
+    }
+    try {
+      return delegate.update(ms, parameterObject);
+    } finally {
+      // the SQL of a dynamic statement is only known once executed
+      if (!writeTables(ms, parameterObject)) {
+        flushCacheIfRequired(ms);
+      }
+    }
   }
 
   @Override
@@ -98,10 +128,19 @@ public class CachingExecutor implements Executor {
       flushCacheIfRequired(ms);
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
+        if (ms.getConfiguration().isTableLevelCacheInvalidation()) {
+          return queryTableVersioned(cache, ms, parameterObject, rowBounds, key, boundSql);
+        }
         @SuppressWarnings("unchecked")
         List<E> list = (List<E>) tcm.getObject(cache, key);
         if (list == null) {
-          list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          try {
+            list = delegate.query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
+          } catch (SQLException | RuntimeException e) {
+            // do not keep other sessions waiting for a result that will never be put
+            tcm.release(cache, key);
+            throw e;
+          }
           tcm.putObject(cache, key, list); // issue #578 and #116
         }
         return list;
@@ -115,6 +154,11 @@ public class CachingExecutor implements Executor {
     return delegate.flushStatements();
   }
 
+  @Override
+  public CompletableFuture<List<BatchResult>> flushStatementsAsync() throws SQLException {
+    return delegate.flushStatementsAsync();
+  }
+
   @Override
   public void commit(boolean required) throws SQLException {
     delegate.commit(required);
@@ -165,6 +209,73 @@ public class CachingExecutor implements Executor {
     delegate.clearLocalCache();
   }
 
+  private <E> List<E> queryTableVersioned(Cache cache, MappedStatement ms, Object parameterObject, RowBounds rowBounds,
+      CacheKey key, BoundSql boundSql) throws SQLException {
+    TableVersions tableVersions = ms.getConfiguration().getTableVersions();
+    Object cached = tcm.getObject(cache, key);
+    if (cached instanceof TableVersionedResult) {
+      TableVersionedResult result = (TableVersionedResult) cached;
+      if (tableVersions.isCurrent(result.getTables(), result.getVersions())
+          && !tcm.isAnyTableWritten(result.getTables())) {
+        @SuppressWarnings("unchecked")
+        List<E> list = (List<E>) result.getResult();
+        return list;
+      }
+    }
+    String[] tables = tablesOf(ms, boundSql);
+    if (tables == null) {
+      // any write to the namespace invalidates it
+      tables = new String[] { namespaceTable(cache) };
+    }
+    // taken before the query, so that a write committed meanwhile makes the result stale
+    long[] versions = tableVersions.snapshot(tables);
+    List<E> list;
+    try {
+      list = delegate.query(ms, parameterObject, rowBounds, null, key, boundSql);
+    } catch (SQLException | RuntimeException e) {
+      tcm.release(cache, key);
+      throw e;
+    }
+    tcm.putObject(cache, key, new TableVersionedResult(tables, versions, list));
+    return list;
+  }
+
+  /**
+   * Records the tables written by a statement instead of flushing the cache of its namespace, when the tables are
+   * known.
+   */
+  private boolean writeTables(MappedStatement ms, Object parameterObject) {
+    String[] tables = ms.getCacheTables();
+    if (tables == null && ms.getStaticSql() == null) {
+      BoundSql boundSql = delegate instanceof BaseExecutor ? ((BaseExecutor) delegate).getUpdateBoundSql() : null;
+      if (boundSql == null) {
+        boundSql = ms.getBoundSql(parameterObject);
+      }
+      tables = SqlTableExtractor.extract(boundSql.getSql());
+    }
+    if (tables == null || tables.length == 0) {
+      return false;
+    }
+    TableVersions tableVersions = ms.getConfiguration().getTableVersions();
+    tcm.writeTables(tableVersions, tables);
+    if (ms.getCache() != null) {
+      tcm.writeTables(tableVersions, namespaceTable(ms.getCache()));
+    }
+    return true;
+  }
+
+  private static String[] tablesOf(MappedStatement ms, BoundSql boundSql) {
+    String[] tables = ms.getCacheTables();
+    if (tables == null && ms.getStaticSql() == null) {
+      tables = SqlTableExtractor.extract(boundSql.getSql());
+    }
+    return tables == null || tables.length == 0 ? null : tables;
+  }
+
+  private static String namespaceTable(Cache cache) {
+    return "#" + cache.getId();
+  }
+
   private void flushCacheIfRequired(MappedStatement ms) {
     Cache cache = ms.getCache();
     if (cache != null && ms.isFlushCacheRequired()) {
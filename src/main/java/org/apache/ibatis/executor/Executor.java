@@ -17,6 +17,7 @@ package org.apache.ibatis.executor;
 
 import java.sql.SQLException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
@@ -46,6 +47,21 @@ public interface Executor {
 
   List<BatchResult> flushStatements() throws SQLException;
 
+  /**
+   * Flushes the batched statements without waiting for them to be executed. Executors that do not batch statements
+   * flush them synchronously.
+   *
+   * @return the future results of the flushed statements
+   *
+   * @throws SQLException
+   *           if the statements could not be handed over
+   *
+   * @since 3.5.12
+   */
+  default CompletableFuture<List<BatchResult>> flushStatementsAsync() throws SQLException {
+    return CompletableFuture.completedFuture(flushStatements());
+  }
+
   void commit(boolean required) throws SQLException;
 
   void rollback(boolean required) throws SQLException;
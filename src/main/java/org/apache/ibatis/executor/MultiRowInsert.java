@@ -0,0 +1,143 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+/**
+ * A single-row {@code INSERT ... VALUES (...)} statement that can be repeated as a multi-row insert.
+ *
+ * @since 3.5.12
+ */
+final class MultiRowInsert {
+
+  private static final String VALUES = "values";
+
+  private final String head;
+  private final String row;
+  private final int parameterCount;
+
+  private MultiRowInsert(String head, String row, int parameterCount) {
+    this.head = head;
+    this.row = row;
+    this.parameterCount = parameterCount;
+  }
+
+  /**
+   * Parses an insert statement. Only statements that end with a single row of values holding all the parameter markers
+   * can be repeated; statements with comments, a query, or any clause after the values are not.
+   *
+   * @param sql
+   *          the SQL
+   *
+   * @return the insert or {@code null} if the statement cannot be repeated
+   */
+  static MultiRowInsert parse(String sql) {
+    int start = 0;
+    int end = sql.length();
+    while (start < end && Character.isWhitespace(sql.charAt(start))) {
+      start++;
+    }
+    while (end > start && Character.isWhitespace(sql.charAt(end - 1))) {
+      end--;
+    }
+    if (!sql.regionMatches(true, start, "insert", 0, 6)) {
+      return null;
+    }
+    int depth = 0;
+    int parameterCount = 0;
+    int valuesEnd = -1;
+    int rowStart = -1;
+    int rowEnd = -1;
+    int rowParameterCount = 0;
+    for (int i = start; i < end; i++) {
+      char c = sql.charAt(i);
+      if (rowEnd >= 0) {
+        // anything after the row of values
+        return null;
+      }
+      if (c == '\'' || c == '"' || c == '`') {
+        i = sql.indexOf(c, i + 1);
+        if (i < 0) {
+          return null;
+        }
+      } else if (c == '-' && i + 1 < end && sql.charAt(i + 1) == '-'
+          || c == '/' && i + 1 < end && sql.charAt(i + 1) == '*') {
+        return null;
+      } else if (c == '?') {
+        parameterCount++;
+        if (rowStart >= 0) {
+          rowParameterCount++;
+        }
+      } else if (c == '(') {
+        if (depth == 0 && valuesEnd >= 0 && sql.substring(valuesEnd, i).trim().isEmpty()) {
+          rowStart = i;
+        }
+        depth++;
+      } else if (c == ')') {
+        depth--;
+        if (depth < 0) {
+          return null;
+        }
+        if (depth == 0 && rowStart >= 0) {
+          rowEnd = i;
+        }
+      } else if (depth == 0 && isKeywordAt(sql, i, VALUES)) {
+        if (valuesEnd >= 0) {
+          return null;
+        }
+        valuesEnd = i + VALUES.length();
+        i = valuesEnd - 1;
+      }
+    }
+    if (rowEnd != end - 1 || rowParameterCount != parameterCount) {
+      return null;
+    }
+    return new MultiRowInsert(sql.substring(start, rowStart), sql.substring(rowStart, end), parameterCount);
+  }
+
+  private static boolean isKeywordAt(String sql, int index, String keyword) {
+    int end = index + keyword.length();
+    return sql.regionMatches(true, index, keyword, 0, keyword.length())
+        && (index == 0 || !Character.isJavaIdentifierPart(sql.charAt(index - 1)))
+        && (end == sql.length() || !Character.isJavaIdentifierPart(sql.charAt(end)));
+  }
+
+  /**
+   * Gets the number of parameter markers of a row.
+   *
+   * @return the number of parameters
+   */
+  int getParameterCount() {
+    return parameterCount;
+  }
+
+  /**
+   * Builds the statement inserting the given number of rows.
+   *
+   * @param rows
+   *          the number of rows
+   *
+   * @return the SQL
+   */
+  String sql(int rows) {
+    StringBuilder sql = new StringBuilder(head.length() + rows * (row.length() + 1));
+    sql.append(head).append(row);
+    for (int i = 1; i < rows; i++) {
+      sql.append(',').append(row);
+    }
+    return sql.toString();
+  }
+
+}
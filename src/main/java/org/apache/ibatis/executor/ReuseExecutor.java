@@ -15,30 +15,50 @@
  */
 package org.apache.ibatis.executor;
 
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.datasource.StatementCache;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.executor.statement.StatementUtil;
 import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.jdbc.PreparedStatementLogger;
+import org.apache.ibatis.logging.jdbc.StatementLogger;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultSetType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 
 /**
+ * An executor that reuses the statements it prepares.
+ * <p>
+ * Statements are kept in the {@link StatementCache} of the connection when it provides one (see
+ * {@link org.apache.ibatis.datasource.pooled.PooledDataSource#setPoolMaximumCachedStatements(int)}), in which case they
+ * stay open for the next sessions that use the same connection. Otherwise they are kept until the statements are
+ * flushed, i.e. until the session is committed, rolled back or closed.
+ * <p>
+ * The statements are cached without their logging proxy, and the timeout, fetch size and logging of the mapped
+ * statement are applied again whenever a cached statement is reused, as it may have been prepared for another mapped
+ * statement with the same SQL.
+ *
  * @author Clinton Begin
  */
 public class ReuseExecutor extends BaseExecutor {
 
-  private final Map<String, Statement> statementMap = new HashMap<>();
+  private final StatementCache sessionStatementCache = new StatementCache(Integer.MAX_VALUE);
+  private StatementCache statementCache;
 
   public ReuseExecutor(Configuration configuration, Transaction transaction) {
     super(configuration, transaction);
@@ -46,9 +66,8 @@ public class ReuseExecutor extends BaseExecutor {
 
   @Override
   public int doUpdate(MappedStatement ms, Object parameter) throws SQLException {
-    Configuration configuration = ms.getConfiguration();
-    StatementHandler handler = configuration.newStatementHandler(this, ms, parameter, RowBounds.DEFAULT, null, null);
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    StatementHandler handler = newUpdateStatementHandler(ms, parameter);
+    Statement stmt = prepareStatement(handler, ms);
     return handler.update(stmt);
   }
 
@@ -58,7 +77,7 @@ public class ReuseExecutor extends BaseExecutor {
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, resultHandler,
         boundSql);
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     return handler.query(stmt, resultHandler);
   }
 
@@ -67,50 +86,98 @@ public class ReuseExecutor extends BaseExecutor {
       throws SQLException {
     Configuration configuration = ms.getConfiguration();
     StatementHandler handler = configuration.newStatementHandler(wrapper, ms, parameter, rowBounds, null, boundSql);
-    Statement stmt = prepareStatement(handler, ms.getStatementLog());
+    Statement stmt = prepareStatement(handler, ms);
     return handler.queryCursor(stmt);
   }
 
   @Override
   public List<BatchResult> doFlushStatements(boolean isRollback) {
-    for (Statement stmt : statementMap.values()) {
-      closeStatement(stmt);
-    }
-    statementMap.clear();
+    // statements cached by the connection outlive the session
+    sessionStatementCache.clear();
+    statementCache = null;
     return Collections.emptyList();
   }
 
-  private Statement prepareStatement(StatementHandler handler, Log statementLog) throws SQLException {
+  private Statement prepareStatement(StatementHandler handler, MappedStatement ms) throws SQLException {
     Statement stmt;
-    BoundSql boundSql = handler.getBoundSql();
-    String sql = boundSql.getSql();
-    if (hasStatementFor(sql)) {
-      stmt = getStatement(sql);
-      applyTransactionTimeout(stmt);
+    String key = statementKey(ms, handler.getBoundSql().getSql());
+    StatementCache cache = getStatementCache();
+    stmt = cache.get(key);
+    if (stmt != null) {
+      applyStatementSettings(stmt, ms);
+      stmt = logStatement(stmt, ms.getStatementLog());
     } else {
-      Connection connection = getConnection(statementLog);
+      Connection connection = getConnection(ms.getStatementLog());
       stmt = handler.prepare(connection, transaction.getTimeout());
-      putStatement(sql, stmt);
+      cache.put(key, unwrapStatement(stmt));
     }
     handler.parameterize(stmt);
     return stmt;
   }
 
-  private boolean hasStatementFor(String sql) {
-    try {
-      Statement statement = statementMap.get(sql);
-      return statement != null && !statement.getConnection().isClosed();
-    } catch (SQLException e) {
-      return false;
+  private void applyStatementSettings(Statement stmt, MappedStatement ms) throws SQLException {
+    Integer queryTimeout = ms.getTimeout() != null ? ms.getTimeout() : configuration.getDefaultStatementTimeout();
+    stmt.setQueryTimeout(queryTimeout != null ? queryTimeout : 0);
+    StatementUtil.applyTransactionTimeout(stmt, queryTimeout, transaction.getTimeout());
+    Integer fetchSize = ms.getFetchSize() != null ? ms.getFetchSize() : configuration.getDefaultFetchSize();
+    // zero lets the driver choose, as when no fetch size is set
+    stmt.setFetchSize(fetchSize != null ? fetchSize : 0);
+  }
+
+  private Statement logStatement(Statement stmt, Log statementLog) {
+    if (!statementLog.isDebugEnabled()) {
+      return stmt;
+    }
+    if (stmt instanceof PreparedStatement) {
+      return PreparedStatementLogger.newInstance((PreparedStatement) stmt, statementLog, queryStack);
+    }
+    return StatementLogger.newInstance(stmt, statementLog, queryStack);
+  }
+
+  private static Statement unwrapStatement(Statement stmt) {
+    if (Proxy.isProxyClass(stmt.getClass())) {
+      InvocationHandler handler = Proxy.getInvocationHandler(stmt);
+      if (handler instanceof PreparedStatementLogger) {
+        return ((PreparedStatementLogger) handler).getPreparedStatement();
+      }
+      if (handler instanceof StatementLogger) {
+        return ((StatementLogger) handler).getStatement();
+      }
     }
+    return stmt;
   }
 
-  private Statement getStatement(String s) {
-    return statementMap.get(s);
+  private StatementCache getStatementCache() throws SQLException {
+    if (statementCache == null) {
+      StatementCache connectionStatementCache = getConnectionStatementCache(transaction.getConnection());
+      statementCache = connectionStatementCache != null ? connectionStatementCache : sessionStatementCache;
+    }
+    return statementCache;
   }
 
-  private void putStatement(String sql, Statement stmt) {
-    statementMap.put(sql, stmt);
+  private static StatementCache getConnectionStatementCache(Connection connection) {
+    if (PooledDataSource.unwrapConnection(connection) != connection) {
+      return PooledDataSource.getStatementCache(connection);
+    }
+    // the connection may wrap a pooled one, but drivers without JDBC 4 support cannot tell
+    try {
+      return connection.isWrapperFor(StatementCache.class) ? connection.unwrap(StatementCache.class) : null;
+    } catch (SQLException | AbstractMethodError e) {
+      return null;
+    }
+  }
+
+  private String statementKey(MappedStatement ms, String sql) {
+    // the statement type, result set type and key generation determine how the statement is created
+    StringBuilder key = new StringBuilder(sql.length() + 32);
+    key.append(ms.getStatementType().ordinal()).append(':');
+    ResultSetType resultSetType = ms.getResultSetType();
+    key.append(resultSetType == null ? ResultSetType.DEFAULT.ordinal() : resultSetType.ordinal()).append(':');
+    if (ms.getKeyGenerator() instanceof Jdbc3KeyGenerator) {
+      String[] keyColumns = ms.getKeyColumns();
+      key.append(keyColumns == null ? "*" : String.join(",", keyColumns));
+    }
+    return key.append(':').append(sql).toString();
   }
 
 }
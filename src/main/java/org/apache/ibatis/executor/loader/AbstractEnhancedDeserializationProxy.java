@@ -19,6 +19,8 @@ import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.reflection.ExceptionUtil;
@@ -38,7 +40,7 @@ public abstract class AbstractEnhancedDeserializationProxy {
   private final ObjectFactory objectFactory;
   private final List<Class<?>> constructorArgTypes;
   private final List<Object> constructorArgs;
-  private final Object reloadingPropertyLock;
+  private final Lock reloadingPropertyLock;
   private boolean reloadingProperty;
 
   protected AbstractEnhancedDeserializationProxy(Class<?> type,
@@ -49,7 +51,7 @@ public abstract class AbstractEnhancedDeserializationProxy {
     this.objectFactory = objectFactory;
     this.constructorArgTypes = constructorArgTypes;
     this.constructorArgs = constructorArgs;
-    this.reloadingPropertyLock = new Object();
+    this.reloadingPropertyLock = new ReentrantLock();
     this.reloadingProperty = false;
   }
 
@@ -68,7 +70,8 @@ public abstract class AbstractEnhancedDeserializationProxy {
         return this.newSerialStateHolder(original, unloadedProperties, objectFactory, constructorArgTypes,
             constructorArgs);
       }
-      synchronized (this.reloadingPropertyLock) {
+      this.reloadingPropertyLock.lock();
+      try {
         if (!FINALIZE_METHOD.equals(methodName) && PropertyNamer.isProperty(methodName) && !reloadingProperty) {
           final String property = PropertyNamer.methodToProperty(methodName);
           final String propertyKey = property.toUpperCase(Locale.ENGLISH);
@@ -93,6 +96,8 @@ public abstract class AbstractEnhancedDeserializationProxy {
         }
 
         return enhanced;
+      } finally {
+        this.reloadingPropertyLock.unlock();
       }
     } catch (Throwable t) {
       throw ExceptionUtil.unwrapThrowable(t);
@@ -19,6 +19,8 @@ import java.lang.reflect.Method;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import net.sf.cglib.proxy.Callback;
 import net.sf.cglib.proxy.Enhancer;
@@ -104,6 +106,7 @@ public class CglibProxyFactory implements ProxyFactory {
 
     private final Class<?> type;
     private final ResultLoaderMap lazyLoader;
+    private final Lock lock = new ReentrantLock();
     private final boolean aggressive;
     private final Set<String> lazyLoadTriggerMethods;
     private final ObjectFactory objectFactory;
@@ -135,7 +138,8 @@ public class CglibProxyFactory implements ProxyFactory {
     public Object intercept(Object enhanced, Method method, Object[] args, MethodProxy methodProxy) throws Throwable {
       final String methodName = method.getName();
       try {
-        synchronized (lazyLoader) {
+        lock.lock();
+        try {
           if (WRITE_REPLACE_METHOD.equals(methodName)) {
             Object original;
             if (constructorArgTypes.isEmpty()) {
@@ -164,6 +168,8 @@ public class CglibProxyFactory implements ProxyFactory {
               }
             }
           }
+        } finally {
+          lock.unlock();
         }
         return methodProxy.invokeSuper(enhanced, args);
       } catch (Throwable t) {
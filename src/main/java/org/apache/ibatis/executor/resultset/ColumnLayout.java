@@ -0,0 +1,259 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.ObjectTypeHandler;
+import org.apache.ibatis.type.TypeHandler;
+import org.apache.ibatis.type.TypeHandlerRegistry;
+import org.apache.ibatis.type.UnknownTypeHandler;
+import org.apache.ibatis.util.MapUtil;
+
+/**
+ * The columns of a result set, i.e. their names, JDBC types and class names, and the type handlers resolved to read
+ * them, and which of them are mapped by the result maps. Instances are shared by the executions of a statement that
+ * return the same columns, of the same types.
+ *
+ * @see org.apache.ibatis.mapping.MappedStatement#getColumnLayout(String)
+ *
+ * @since 3.5.12
+ */
+public final class ColumnLayout {
+
+  private final TypeHandlerRegistry typeHandlerRegistry;
+  private final List<String> columnNames;
+  private final List<String> classNames;
+  private final List<JdbcType> jdbcTypes;
+  private final int[] columnTypes;
+  private final String signature;
+  private final Map<String, Integer> columnIndexes = new HashMap<>();
+  private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new ConcurrentHashMap<>();
+  private final Map<String, ColumnSplit> columnSplits = new ConcurrentHashMap<>();
+
+  ColumnLayout(TypeHandlerRegistry typeHandlerRegistry, List<String> columnNames, List<String> classNames,
+      int[] columnTypes) {
+    this.typeHandlerRegistry = typeHandlerRegistry;
+    this.columnNames = Collections.unmodifiableList(columnNames);
+    this.classNames = Collections.unmodifiableList(classNames);
+    final List<JdbcType> types = new ArrayList<>(columnTypes.length);
+    for (int columnType : columnTypes) {
+      types.add(JdbcType.forCode(columnType));
+    }
+    this.jdbcTypes = Collections.unmodifiableList(types);
+    this.columnTypes = columnTypes;
+    this.signature = signatureOf(columnNames, jdbcTypes);
+    for (int i = columnNames.size() - 1; i >= 0; i--) {
+      // a label that occurs more than once refers to its first column, as in ResultSet#findColumn()
+      if (columnNames.get(i) != null) {
+        columnIndexes.put(columnNames.get(i).toUpperCase(Locale.ENGLISH), i + 1);
+      }
+    }
+  }
+
+  static String signatureOf(List<String> columnNames, List<JdbcType> jdbcTypes) {
+    final StringBuilder signature = new StringBuilder();
+    for (int i = 0; i < columnNames.size(); i++) {
+      signature.append(columnNames.get(i)).append(':').append(jdbcTypes.get(i)).append(',');
+    }
+    return signature.toString();
+  }
+
+  /**
+   * Checks whether the columns of a result set have the names and the JDBC types of this layout. Their class names,
+   * which take longer to get from most drivers, are not compared.
+   */
+  boolean matches(ResultSetMetaData metaData, int columnCount, boolean useColumnLabel) throws SQLException {
+    if (columnCount != columnTypes.length) {
+      return false;
+    }
+    for (int i = 1; i <= columnCount; i++) {
+      if (metaData.getColumnType(i) != columnTypes[i - 1]
+          || !columnNames.get(i - 1).equals(useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets a string that identifies this layout, i.e. the column names and their JDBC types.
+   *
+   * @return the signature
+   */
+  public String getSignature() {
+    return signature;
+  }
+
+  List<String> getColumnNames() {
+    return columnNames;
+  }
+
+  List<String> getClassNames() {
+    return classNames;
+  }
+
+  List<JdbcType> getJdbcTypes() {
+    return jdbcTypes;
+  }
+
+  JdbcType getJdbcType(String columnName) {
+    for (int i = 0; i < columnNames.size(); i++) {
+      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+        return jdbcTypes.get(i);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Gets the index of a column, ignoring case.
+   *
+   * @return the index of the first column with the given name, or {@code 0} if there is none
+   */
+  int getColumnIndex(String columnName) {
+    final Integer index = columnName == null ? null : columnIndexes.get(columnName.toUpperCase(Locale.ENGLISH));
+    return index == null ? 0 : index;
+  }
+
+  TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
+    Map<Class<?>, TypeHandler<?>> columnHandlers = MapUtil.computeIfAbsent(typeHandlerMap, columnName,
+        k -> new ConcurrentHashMap<>());
+    TypeHandler<?> handler = columnHandlers.get(propertyType);
+    if (handler == null) {
+      handler = resolveTypeHandler(propertyType, columnName);
+      columnHandlers.put(propertyType, handler);
+    }
+    return handler;
+  }
+
+  private TypeHandler<?> resolveTypeHandler(Class<?> propertyType, String columnName) {
+    JdbcType jdbcType = getJdbcType(columnName);
+    TypeHandler<?> handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
+    // Replicate logic of UnknownTypeHandler#resolveTypeHandler
+    // See issue #59 comment 10
+    if (handler == null || handler instanceof UnknownTypeHandler) {
+      final int index = columnNames.indexOf(columnName);
+      final Class<?> javaType = resolveClass(classNames.get(index));
+      if (javaType != null && jdbcType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
+      } else if (javaType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(javaType);
+      } else if (jdbcType != null) {
+        handler = typeHandlerRegistry.getTypeHandler(jdbcType);
+      }
+    }
+    if (handler == null || handler instanceof UnknownTypeHandler) {
+      handler = new ObjectTypeHandler();
+    }
+    return handler;
+  }
+
+  List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) {
+    return getColumnSplit(resultMap, columnPrefix).mappedColumnNames;
+  }
+
+  List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) {
+    return getColumnSplit(resultMap, columnPrefix).unmappedColumnNames;
+  }
+
+  int[] getPropertyColumnIndexes(ResultMap resultMap, String columnPrefix) {
+    return getColumnSplit(resultMap, columnPrefix).propertyColumnIndexes;
+  }
+
+  private ColumnSplit getColumnSplit(ResultMap resultMap, String columnPrefix) {
+    return MapUtil.computeIfAbsent(columnSplits, resultMap.getId() + ":" + columnPrefix,
+        k -> new ColumnSplit(resultMap, columnPrefix));
+  }
+
+  private Class<?> resolveClass(String className) {
+    try {
+      // #699 className could be null
+      if (className != null) {
+        return Resources.classForName(className);
+      }
+    } catch (ClassNotFoundException e) {
+      // ignore
+    }
+    return null;
+  }
+
+  /**
+   * The columns of the layout that are mapped by a result map, upper cased, and the other columns, and the indexes of
+   * the columns of its property mappings.
+   */
+  private final class ColumnSplit {
+    private final List<String> mappedColumnNames;
+    private final List<String> unmappedColumnNames;
+    private final int[] propertyColumnIndexes;
+
+    ColumnSplit(ResultMap resultMap, String columnPrefix) {
+      List<String> mapped = new ArrayList<>();
+      List<String> unmapped = new ArrayList<>();
+      final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
+      final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
+      for (String columnName : columnNames) {
+        final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
+        if (mappedColumns.contains(upperColumnName)) {
+          mapped.add(upperColumnName);
+        } else {
+          unmapped.add(columnName);
+        }
+      }
+      this.mappedColumnNames = Collections.unmodifiableList(mapped);
+      this.unmappedColumnNames = Collections.unmodifiableList(unmapped);
+      this.propertyColumnIndexes = columnIndexesOf(resultMap.getPropertyResultMappings(), upperColumnPrefix);
+    }
+
+    private int[] columnIndexesOf(List<ResultMapping> resultMappings, String prefix) {
+      final int[] indexes = new int[resultMappings.size()];
+      for (int i = 0; i < indexes.length; i++) {
+        final ResultMapping resultMapping = resultMappings.get(i);
+        final String column = resultMapping.getColumn();
+        if (column != null && !resultMapping.isCompositeResult() && resultMapping.getNestedResultMapId() == null) {
+          indexes[i] = getColumnIndex(prefix == null ? column : prefix + column);
+        }
+      }
+      return indexes;
+    }
+
+    private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
+      if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
+        return columnNames;
+      }
+      final Set<String> prefixed = new HashSet<>();
+      for (String columnName : columnNames) {
+        prefixed.add(prefix + columnName);
+      }
+      return prefixed;
+    }
+  }
+
+}
@@ -0,0 +1,225 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ExceptionUtil;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Applies the property mappings and automatic mappings of a simple result map to a row, with the columns, type handlers
+ * and setters resolved once for a given column layout. Instances are immutable and shared between executions of the
+ * same statement.
+ *
+ * @see org.apache.ibatis.session.Configuration#isUseCompiledRowMappers()
+ */
+public final class CompiledRowMapper {
+
+  /**
+   * Marker for result maps that must be applied through the regular mapping path.
+   */
+  static final CompiledRowMapper UNSUPPORTED = new CompiledRowMapper(null, new String[0], new int[0],
+      new TypeHandler<?>[0], new PropertySetter[0], new boolean[0], false);
+
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final Class<?> resultType;
+  private final String[] columns;
+  private final int[] columnIndexes;
+  private final TypeHandler<?>[] typeHandlers;
+  private final PropertySetter[] setters;
+  private final boolean[] primitives;
+  private final boolean callSettersOnNulls;
+
+  private CompiledRowMapper(Class<?> resultType, String[] columns, int[] columnIndexes, TypeHandler<?>[] typeHandlers,
+      PropertySetter[] setters, boolean[] primitives, boolean callSettersOnNulls) {
+    this.resultType = resultType;
+    this.columns = columns;
+    this.columnIndexes = columnIndexes;
+    this.typeHandlers = typeHandlers;
+    this.setters = setters;
+    this.primitives = primitives;
+    this.callSettersOnNulls = callSettersOnNulls;
+  }
+
+  static boolean isCompilable(ResultMap resultMap) {
+    if (resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()) {
+      return false;
+    }
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      final String property = propertyMapping.getProperty();
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null
+          || property != null && (property.indexOf('.') > -1 || property.indexOf('[') > -1)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  boolean isApplicableTo(Object rowValue) {
+    return rowValue.getClass() == resultType;
+  }
+
+  boolean applyMappings(ResultSet rs, Object rowValue) throws SQLException {
+    boolean foundValues = false;
+    for (int i = 0; i < columns.length; i++) {
+      // a column that is not bound to an index is read by label
+      final Object value = columnIndexes[i] > 0 ? typeHandlers[i].getResult(rs, columnIndexes[i])
+          : typeHandlers[i].getResult(rs, columns[i]);
+      if (value != null) {
+        foundValues = true;
+      }
+      if (value != null || callSettersOnNulls && !primitives[i]) {
+        // gcode issue #377, call setter on nulls (value is not 'found')
+        setters[i].set(rowValue, value);
+      }
+    }
+    return foundValues;
+  }
+
+  static class Builder {
+    private final Class<?> resultType;
+    private final Reflector reflector;
+    private final boolean callSettersOnNulls;
+    private final List<String> columns = new ArrayList<>();
+    private final List<Integer> columnIndexes = new ArrayList<>();
+    private final List<TypeHandler<?>> typeHandlers = new ArrayList<>();
+    private final List<PropertySetter> setters = new ArrayList<>();
+    private final List<Boolean> primitives = new ArrayList<>();
+
+    Builder(Reflector reflector, boolean callSettersOnNulls) {
+      this.resultType = reflector.getType();
+      this.reflector = reflector;
+      this.callSettersOnNulls = callSettersOnNulls;
+    }
+
+    boolean addMapping(String column, int columnIndex, TypeHandler<?> typeHandler, String property) {
+      if (!reflector.hasSetter(property)) {
+        return false;
+      }
+      final Class<?> setterType = reflector.getSetterType(property);
+      columns.add(column);
+      columnIndexes.add(columnIndex);
+      typeHandlers.add(typeHandler);
+      setters.add(resolveSetter(property, setterType));
+      primitives.add(setterType.isPrimitive());
+      return true;
+    }
+
+    CompiledRowMapper build() {
+      final boolean[] primitiveFlags = new boolean[primitives.size()];
+      final int[] indexes = new int[columnIndexes.size()];
+      for (int i = 0; i < primitiveFlags.length; i++) {
+        primitiveFlags[i] = primitives.get(i);
+        indexes[i] = columnIndexes.get(i);
+      }
+      return new CompiledRowMapper(resultType, columns.toArray(new String[0]), indexes,
+          typeHandlers.toArray(new TypeHandler[0]), setters.toArray(new PropertySetter[0]), primitiveFlags,
+          callSettersOnNulls);
+    }
+
+    private PropertySetter resolveSetter(String property, Class<?> setterType) {
+      final Invoker invoker = reflector.getSetInvoker(property);
+      final MethodHandle methodHandle = findPublicSetter(invoker, property, setterType);
+      if (methodHandle != null) {
+        return new MethodHandleSetter(property, methodHandle);
+      }
+      return new InvokerSetter(property, invoker);
+    }
+
+    private MethodHandle findPublicSetter(Invoker invoker, String property, Class<?> setterType) {
+      // field invokers and ambiguous setters keep their reflective semantics
+      if (!(invoker instanceof MethodInvoker) || invoker instanceof AmbiguousMethodInvoker
+          || !Modifier.isPublic(resultType.getModifiers())) {
+        return null;
+      }
+      final String setterName = "set" + Character.toUpperCase(property.charAt(0)) + property.substring(1);
+      try {
+        final Method method = resultType.getMethod(setterName, setterType);
+        return MethodHandles.publicLookup().unreflect(method).asType(SETTER_TYPE);
+      } catch (NoSuchMethodException | IllegalAccessException e) {
+        return null;
+      }
+    }
+  }
+
+  private abstract static class PropertySetter {
+    private final String property;
+
+    PropertySetter(String property) {
+      this.property = property;
+    }
+
+    void set(Object target, Object value) {
+      try {
+        doSet(target, value);
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + property + "' of '" + target.getClass()
+            + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+
+    abstract void doSet(Object target, Object value) throws Throwable;
+  }
+
+  private static class MethodHandleSetter extends PropertySetter {
+    private final MethodHandle methodHandle;
+
+    MethodHandleSetter(String property, MethodHandle methodHandle) {
+      super(property);
+      this.methodHandle = methodHandle;
+    }
+
+    @Override
+    void doSet(Object target, Object value) throws Throwable {
+      methodHandle.invokeExact(target, value);
+    }
+  }
+
+  private static class InvokerSetter extends PropertySetter {
+    private final Invoker invoker;
+
+    InvokerSetter(String property, Invoker invoker) {
+      super(property);
+      this.invoker = invoker;
+    }
+
+    @Override
+    void doSet(Object target, Object value) throws Throwable {
+      try {
+        invoker.invoke(target, new Object[] { value });
+      } catch (Throwable t) {
+        throw ExceptionUtil.unwrapThrowable(t);
+      }
+    }
+  }
+}
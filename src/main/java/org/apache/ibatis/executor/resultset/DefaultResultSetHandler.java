@@ -24,6 +24,7 @@ import java.sql.Statement;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
@@ -38,6 +39,7 @@ import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.cursor.defaults.DefaultCursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.ExecutorException;
@@ -154,7 +156,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           handleRefCursorOutputParameter((ResultSet) cs.getObject(i + 1), parameterMapping, metaParam);
         } else {
           final TypeHandler<?> typeHandler = parameterMapping.getTypeHandler();
-          metaParam.setValue(parameterMapping.getProperty(), typeHandler.getResult(cs, i + 1));
+          parameterMapping.getPropertyPath().setValue(metaParam, typeHandler.getResult(cs, i + 1));
         }
       }
     }
@@ -172,7 +174,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (this.resultHandler == null) {
         final DefaultResultHandler resultHandler = new DefaultResultHandler(objectFactory);
         handleRowValues(rsw, resultMap, resultHandler, new RowBounds(), null);
-        metaParam.setValue(parameterMapping.getProperty(), resultHandler.getResultList());
+        parameterMapping.getPropertyPath().setValue(metaParam, resultHandler.getResultList());
       } else {
         handleRowValues(rsw, resultMap, resultHandler, new RowBounds(), null);
       }
@@ -238,7 +240,37 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
-    return new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Cursor<E> cursor = new DefaultCursor<>(this, resultMap, rsw, rowBounds);
+    Integer prefetchSize = configuration.getCursorPrefetchSize();
+    if (prefetchSize != null && prefetchSize > 0 && !hasNestedQueries(resultMap, new HashSet<>())) {
+      // nested queries would use the executor of the session on the prefetching thread
+      return new PrefetchingCursor<>(cursor, rowBounds, prefetchSize, configuration.getTaskExecutor());
+    }
+    return cursor;
+  }
+
+  private boolean hasNestedQueries(ResultMap resultMap, Set<String> visited) {
+    if (!visited.add(resultMap.getId())) {
+      return false;
+    }
+    if (resultMap.hasNestedQueries()) {
+      return true;
+    }
+    for (ResultMapping resultMapping : resultMap.getResultMappings()) {
+      String nestedResultMapId = resultMapping.getNestedResultMapId();
+      if (nestedResultMapId != null && hasNestedQueries(configuration.getResultMap(nestedResultMapId), visited)) {
+        return true;
+      }
+    }
+    Discriminator discriminator = resultMap.getDiscriminator();
+    if (discriminator != null) {
+      for (String caseResultMapId : discriminator.getDiscriminatorMap().values()) {
+        if (hasNestedQueries(configuration.getResultMap(caseResultMapId), visited)) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   private ResultSetWrapper getFirstResultSet(Statement stmt) throws SQLException {
@@ -253,7 +285,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         break;
       }
     }
-    return rs != null ? new ResultSetWrapper(rs, configuration) : null;
+    return rs != null ? new ResultSetWrapper(rs, configuration, mappedStatement) : null;
   }
 
   private ResultSetWrapper getNextResultSet(Statement stmt) {
@@ -266,7 +298,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (rs == null) {
           return getNextResultSet(stmt);
         }
-        return new ResultSetWrapper(rs, configuration);
+        return new ResultSetWrapper(rs, configuration, mappedStatement);
       }
     } catch (Exception e) {
       // Intentionally ignored.
@@ -406,18 +438,76 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
     if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
-      final MetaObject metaObject = configuration.newMetaObject(rowValue);
       boolean foundValues = this.useConstructorMappings;
-      if (shouldApplyAutomaticMappings(resultMap, false)) {
-        foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+      final CompiledRowMapper compiledRowMapper = getCompiledRowMapper(rsw, resultMap, rowValue, columnPrefix);
+      if (compiledRowMapper != null) {
+        foundValues = compiledRowMapper.applyMappings(rsw.getResultSet(), rowValue) || foundValues;
+      } else {
+        final MetaObject metaObject = configuration.newMetaObject(rowValue);
+        if (shouldApplyAutomaticMappings(resultMap, false)) {
+          foundValues = applyAutomaticMappings(rsw, resultMap, metaObject, columnPrefix) || foundValues;
+        }
+        foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
+        foundValues = lazyLoader.size() > 0 || foundValues;
       }
-      foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
-      foundValues = lazyLoader.size() > 0 || foundValues;
       rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
     }
     return rowValue;
   }
 
+  //
+  // COMPILED ROW MAPPERS
+  //
+
+  private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue,
+      String columnPrefix) throws SQLException {
+    if (!configuration.isUseCompiledRowMappers()) {
+      return null;
+    }
+    final String mapKey = resultMap.getId() + ":" + columnPrefix;
+    CompiledRowMapper rowMapper = rsw.getCompiledRowMapper(mapKey);
+    if (rowMapper == null) {
+      final String layoutKey = mapKey + ":" + rsw.getColumnSignature();
+      rowMapper = mappedStatement.getCompiledRowMapper(layoutKey);
+      if (rowMapper == null) {
+        rowMapper = compileRowMapper(rsw, resultMap, rowValue, columnPrefix);
+        mappedStatement.putCompiledRowMapper(layoutKey, rowMapper);
+      }
+      rsw.putCompiledRowMapper(mapKey, rowMapper);
+    }
+    return rowMapper.isApplicableTo(rowValue) ? rowMapper : null;
+  }
+
+  private CompiledRowMapper compileRowMapper(ResultSetWrapper rsw, ResultMap resultMap, Object rowValue,
+      String columnPrefix) throws SQLException {
+    if (!CompiledRowMapper.isCompilable(resultMap) || rowValue instanceof Map || rowValue instanceof Collection
+        || configuration.getObjectWrapperFactory().hasWrapperFor(rowValue)) {
+      return CompiledRowMapper.UNSUPPORTED;
+    }
+    final CompiledRowMapper.Builder builder = new CompiledRowMapper.Builder(
+        reflectorFactory.findForClass(rowValue.getClass()), configuration.isCallSettersOnNulls());
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      final MetaObject metaObject = configuration.newMetaObject(rowValue);
+      for (UnMappedColumnAutoMapping mapping : createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix)) {
+        if (!builder.addMapping(mapping.column, rsw.getColumnIndex(mapping.column), mapping.typeHandler,
+            mapping.property)) {
+          return CompiledRowMapper.UNSUPPORTED;
+        }
+      }
+    }
+    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+      final String property = propertyMapping.getProperty();
+      // issue #541 make property optional
+      if (property != null && column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))
+          && !builder.addMapping(column, rsw.getColumnIndex(column), propertyMapping.getTypeHandler(), property)) {
+        return CompiledRowMapper.UNSUPPORTED;
+      }
+    }
+    return builder.build();
+  }
+
   //
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
@@ -477,9 +567,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject,
       ResultLoaderMap lazyLoader, String columnPrefix) throws SQLException {
     final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
+    final int[] columnIndexes = rsw.getPropertyColumnIndexes(resultMap, columnPrefix);
     boolean foundValues = false;
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
+    for (int i = 0; i < propertyMappings.size(); i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
       String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
       if (propertyMapping.getNestedResultMapId() != null) {
         // the user added a column attribute to a nested result map, ignore it
@@ -488,8 +580,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       if (propertyMapping.isCompositeResult()
           || column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))
           || propertyMapping.getResultSet() != null) {
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader,
-            columnPrefix);
+        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping,
+            columnIndexes == null ? 0 : columnIndexes[i], lazyLoader, columnPrefix);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -505,7 +597,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (value != null
             || configuration.isCallSettersOnNulls() && !metaObject.getSetterType(property).isPrimitive()) {
           // gcode issue #377, call setter on nulls (value is not 'found')
-          metaObject.setValue(property, value);
+          propertyMapping.getPropertyPath().setValue(metaObject, value);
         }
       }
     }
@@ -513,7 +605,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping,
-      ResultLoaderMap lazyLoader, String columnPrefix) throws SQLException {
+      int columnIndex, ResultLoaderMap lazyLoader, String columnPrefix) throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
       return getNestedQueryMappingValue(rs, metaResultObject, propertyMapping, lazyLoader, columnPrefix);
     }
@@ -523,10 +615,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     } else {
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
       final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
-      return typeHandler.getResult(rs, column);
+      return getColumnValue(typeHandler, rs, columnIndex, column);
     }
   }
 
+  private static Object getColumnValue(TypeHandler<?> typeHandler, ResultSet rs, int columnIndex, String column)
+      throws SQLException {
+    // columns that are not bound to an index are read by label
+    return columnIndex > 0 ? typeHandler.getResult(rs, columnIndex) : typeHandler.getResult(rs, column);
+  }
+
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap,
       MetaObject metaObject, String columnPrefix) throws SQLException {
     final String mapKey = resultMap.getId() + ":" + columnPrefix;
@@ -578,8 +676,10 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     List<UnMappedColumnAutoMapping> autoMapping = createAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
     boolean foundValues = false;
     if (!autoMapping.isEmpty()) {
-      for (UnMappedColumnAutoMapping mapping : autoMapping) {
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+      final int[] columnIndexes = getAutoMappingColumnIndexes(rsw, resultMap, columnPrefix, autoMapping);
+      for (int i = 0; i < autoMapping.size(); i++) {
+        final UnMappedColumnAutoMapping mapping = autoMapping.get(i);
+        final Object value = getColumnValue(mapping.typeHandler, rsw.getResultSet(), columnIndexes[i], mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -592,6 +692,21 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
+  private int[] getAutoMappingColumnIndexes(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix,
+      List<UnMappedColumnAutoMapping> autoMapping) {
+    // bound per result set, as the automatic mappings are shared by all the result sets
+    final String mapKey = resultMap.getId() + ":" + columnPrefix;
+    int[] columnIndexes = rsw.getAutoMappingColumnIndexes(mapKey);
+    if (columnIndexes == null) {
+      columnIndexes = new int[autoMapping.size()];
+      for (int i = 0; i < columnIndexes.length; i++) {
+        columnIndexes[i] = rsw.getColumnIndex(autoMapping.get(i).column);
+      }
+      rsw.putAutoMappingColumnIndexes(mapKey, columnIndexes);
+    }
+    return columnIndexes;
+  }
+
   // MULTIPLE RESULT SETS
 
   private void linkToParents(ResultSet rs, ResultMapping parentMapping, Object rowValue) throws SQLException {
@@ -704,7 +819,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           value = getRowValue(rsw, resultMap, getColumnPrefix(columnPrefix, constructorMapping));
         } else {
           final TypeHandler<?> typeHandler = constructorMapping.getTypeHandler();
-          value = typeHandler.getResult(rsw.getResultSet(), prependPrefix(column, columnPrefix));
+          final String prefixedColumn = prependPrefix(column, columnPrefix);
+          value = getColumnValue(typeHandler, rsw.getResultSet(), rsw.getColumnIndex(prefixedColumn), prefixedColumn);
         }
       } catch (ResultMapException | SQLException e) {
         throw new ExecutorException("Could not process result for mapping: " + constructorMapping, e);
@@ -780,7 +896,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       Class<?> parameterType = constructor.getParameterTypes()[i];
       String columnName = rsw.getColumnNames().get(i);
       TypeHandler<?> typeHandler = rsw.getTypeHandler(parameterType, columnName);
-      Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
+      Object value = getColumnValue(typeHandler, rsw.getResultSet(), rsw.getColumnIndex(columnName), columnName);
       constructorArgTypes.add(parameterType);
       constructorArgs.add(value);
       foundValues = value != null || foundValues;
@@ -801,7 +917,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         if (columnMatchesParam(columnName, paramName, columnPrefix)) {
           Class<?> paramType = param.getType();
           TypeHandler<?> typeHandler = rsw.getTypeHandler(paramType, columnName);
-          Object value = typeHandler.getResult(rsw.getResultSet(), columnName);
+          Object value = getColumnValue(typeHandler, rsw.getResultSet(), rsw.getColumnIndex(columnName), columnName);
           constructorArgTypes.add(paramType);
           constructorArgs.add(value);
           final String mapKey = resultMap.getId() + ":" + columnPrefix;
@@ -851,7 +967,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       columnName = rsw.getColumnNames().get(0);
     }
     final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    return getColumnValue(typeHandler, rsw.getResultSet(), rsw.getColumnIndex(columnName), columnName);
   }
 
   //
@@ -1221,13 +1337,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       final MetaObject targetMetaObject = configuration.newMetaObject(collectionProperty);
       targetMetaObject.add(rowValue);
     } else {
-      metaObject.setValue(resultMapping.getProperty(), rowValue);
+      resultMapping.getPropertyPath().setValue(metaObject, rowValue);
     }
   }
 
   private Object instantiateCollectionPropertyIfAppropriate(ResultMapping resultMapping, MetaObject metaObject) {
     final String propertyName = resultMapping.getProperty();
-    Object propertyValue = metaObject.getValue(propertyName);
+    Object propertyValue = resultMapping.getPropertyPath().getValue(metaObject);
     if (propertyValue == null) {
       Class<?> type = resultMapping.getJavaType();
       if (type == null) {
@@ -1236,7 +1352,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       try {
         if (objectFactory.isCollection(type)) {
           propertyValue = objectFactory.create(type);
-          metaObject.setValue(propertyName, propertyValue);
+          resultMapping.getPropertyPath().setValue(metaObject, propertyValue);
           return propertyValue;
         }
       } catch (Exception e) {
@@ -19,22 +19,16 @@ import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
-import java.util.Set;
 
-import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
-import org.apache.ibatis.type.ObjectTypeHandler;
 import org.apache.ibatis.type.TypeHandler;
-import org.apache.ibatis.type.TypeHandlerRegistry;
-import org.apache.ibatis.type.UnknownTypeHandler;
+import org.apache.ibatis.util.MapUtil;
 
 /**
  * @author Iwao AVE!
@@ -42,24 +36,64 @@ import org.apache.ibatis.type.UnknownTypeHandler;
 public class ResultSetWrapper {
 
   private final ResultSet resultSet;
-  private final TypeHandlerRegistry typeHandlerRegistry;
-  private final List<String> columnNames = new ArrayList<>();
-  private final List<String> classNames = new ArrayList<>();
-  private final List<JdbcType> jdbcTypes = new ArrayList<>();
-  private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<>();
-  private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<>();
+  private final ColumnLayout layout;
+  private final boolean useColumnIndexes;
   private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<>();
+  private final Map<String, CompiledRowMapper> compiledRowMappers = new HashMap<>();
+  private final Map<String, int[]> autoMappingColumnIndexes = new HashMap<>();
 
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
-    this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    this(rs, configuration, null);
+  }
+
+  /**
+   * Instantiates a new result set wrapper that shares the column layout, i.e. the column metadata, the type handlers
+   * resolved for the columns and the columns mapped by each result map, with the other executions of the statement that
+   * return the same columns. When the columns have the names and JDBC types of the previous execution, their other
+   * metadata is not read.
+   *
+   * @param rs
+   *          the result set
+   * @param configuration
+   *          the configuration
+   * @param mappedStatement
+   *          the statement that returned the result set, or {@code null}
+   *
+   * @throws SQLException
+   *           if the result set metadata cannot be read
+   *
+   * @since 3.5.12
+   */
+  public ResultSetWrapper(ResultSet rs, Configuration configuration, MappedStatement mappedStatement)
+      throws SQLException {
     this.resultSet = rs;
+    this.useColumnIndexes = configuration.isUseColumnIndexes();
     final ResultSetMetaData metaData = rs.getMetaData();
     final int columnCount = metaData.getColumnCount();
+    final boolean useColumnLabel = configuration.isUseColumnLabel();
+    final ColumnLayout recentLayout = mappedStatement == null ? null : mappedStatement.getRecentColumnLayout();
+    if (recentLayout != null && recentLayout.matches(metaData, columnCount, useColumnLabel)) {
+      this.layout = recentLayout;
+      return;
+    }
+    final List<String> columnNames = new ArrayList<>();
+    final List<String> classNames = new ArrayList<>();
+    final int[] columnTypes = new int[columnCount];
     for (int i = 1; i <= columnCount; i++) {
-      columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
-      jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
+      columnNames.add(useColumnLabel ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
+      columnTypes[i - 1] = metaData.getColumnType(i);
       classNames.add(metaData.getColumnClassName(i));
     }
+    ColumnLayout newLayout = new ColumnLayout(configuration.getTypeHandlerRegistry(), columnNames, classNames,
+        columnTypes);
+    if (mappedStatement != null) {
+      final ColumnLayout cachedLayout = mappedStatement.getColumnLayout(newLayout.getSignature());
+      if (cachedLayout != null && cachedLayout.getClassNames().equals(classNames)) {
+        newLayout = cachedLayout;
+      }
+      mappedStatement.putColumnLayout(newLayout);
+    }
+    this.layout = newLayout;
   }
 
   public ResultSet getResultSet() {
@@ -67,29 +101,36 @@ public class ResultSetWrapper {
   }
 
   public List<String> getColumnNames() {
-    return this.columnNames;
+    return layout.getColumnNames();
   }
 
   public List<String> getClassNames() {
-    return Collections.unmodifiableList(classNames);
+    return layout.getClassNames();
   }
 
   public List<JdbcType> getJdbcTypes() {
-    return jdbcTypes;
+    return layout.getJdbcTypes();
+  }
+
+  /**
+   * Gets a string that identifies the column layout of the result set, i.e. the column names and their JDBC types.
+   *
+   * @return the column signature
+   *
+   * @since 3.5.12
+   */
+  public String getColumnSignature() {
+    return layout.getSignature();
   }
 
   public JdbcType getJdbcType(String columnName) {
-    for (int i = 0; i < columnNames.size(); i++) {
-      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
-        return jdbcTypes.get(i);
-      }
-    }
-    return null;
+    return layout.getJdbcType(columnName);
   }
 
   /**
    * Gets the type handler to use when reading the result set. Tries to get from the TypeHandlerRegistry by searching
-   * for the property type. If not found it gets the column JDBC type and tries to get a handler for it.
+   * for the property type. If not found it gets the column JDBC type and tries to get a handler for it. The handlers
+   * are resolved once per column layout of the statement.
    *
    * @param propertyType
    *          the property type
@@ -99,98 +140,54 @@ public class ResultSetWrapper {
    * @return the type handler
    */
   public TypeHandler<?> getTypeHandler(Class<?> propertyType, String columnName) {
-    TypeHandler<?> handler = null;
-    Map<Class<?>, TypeHandler<?>> columnHandlers = typeHandlerMap.get(columnName);
-    if (columnHandlers == null) {
-      columnHandlers = new HashMap<>();
-      typeHandlerMap.put(columnName, columnHandlers);
-    } else {
-      handler = columnHandlers.get(propertyType);
-    }
-    if (handler == null) {
-      JdbcType jdbcType = getJdbcType(columnName);
-      handler = typeHandlerRegistry.getTypeHandler(propertyType, jdbcType);
-      // Replicate logic of UnknownTypeHandler#resolveTypeHandler
-      // See issue #59 comment 10
-      if (handler == null || handler instanceof UnknownTypeHandler) {
-        final int index = columnNames.indexOf(columnName);
-        final Class<?> javaType = resolveClass(classNames.get(index));
-        if (javaType != null && jdbcType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(javaType, jdbcType);
-        } else if (javaType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(javaType);
-        } else if (jdbcType != null) {
-          handler = typeHandlerRegistry.getTypeHandler(jdbcType);
-        }
-      }
-      if (handler == null || handler instanceof UnknownTypeHandler) {
-        handler = new ObjectTypeHandler();
-      }
-      columnHandlers.put(propertyType, handler);
-    }
-    return handler;
-  }
-
-  private Class<?> resolveClass(String className) {
-    try {
-      // #699 className could be null
-      if (className != null) {
-        return Resources.classForName(className);
-      }
-    } catch (ClassNotFoundException e) {
-      // ignore
-    }
-    return null;
-  }
-
-  private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-    List<String> mappedColumnNames = new ArrayList<>();
-    List<String> unmappedColumnNames = new ArrayList<>();
-    final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
-    final Set<String> mappedColumns = prependPrefixes(resultMap.getMappedColumns(), upperColumnPrefix);
-    for (String columnName : columnNames) {
-      final String upperColumnName = columnName.toUpperCase(Locale.ENGLISH);
-      if (mappedColumns.contains(upperColumnName)) {
-        mappedColumnNames.add(upperColumnName);
-      } else {
-        unmappedColumnNames.add(columnName);
-      }
-    }
-    mappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), mappedColumnNames);
-    unMappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), unmappedColumnNames);
+    return layout.getTypeHandler(propertyType, columnName);
   }
 
   public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-    List<String> mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    if (mappedColumnNames == null) {
-      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-      mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    }
-    return mappedColumnNames;
+    return layout.getMappedColumnNames(resultMap, columnPrefix);
   }
 
   public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-    List<String> unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    if (unMappedColumnNames == null) {
-      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-      unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    }
-    return unMappedColumnNames;
+    // a copy, as the columns mapped by constructor auto-mapping are removed from it
+    return MapUtil.computeIfAbsent(unMappedColumnNamesMap, resultMap.getId() + ":" + columnPrefix,
+        k -> new ArrayList<>(layout.getUnmappedColumnNames(resultMap, columnPrefix)));
+  }
+
+  /**
+   * Gets the index of a column, ignoring case, when columns are read by index.
+   *
+   * @param columnName
+   *          the column name
+   *
+   * @return the index of the first column with the given name, or {@code 0} if there is none or columns are read by
+   *         label
+   *
+   * @see Configuration#isUseColumnIndexes()
+   *
+   * @since 3.5.12
+   */
+  public int getColumnIndex(String columnName) {
+    return useColumnIndexes ? layout.getColumnIndex(columnName) : 0;
   }
 
-  private String getMapKey(ResultMap resultMap, String columnPrefix) {
-    return resultMap.getId() + ":" + columnPrefix;
+  int[] getPropertyColumnIndexes(ResultMap resultMap, String columnPrefix) {
+    return useColumnIndexes ? layout.getPropertyColumnIndexes(resultMap, columnPrefix) : null;
   }
 
-  private Set<String> prependPrefixes(Set<String> columnNames, String prefix) {
-    if (columnNames == null || columnNames.isEmpty() || prefix == null || prefix.length() == 0) {
-      return columnNames;
-    }
-    final Set<String> prefixed = new HashSet<>();
-    for (String columnName : columnNames) {
-      prefixed.add(prefix + columnName);
-    }
-    return prefixed;
+  int[] getAutoMappingColumnIndexes(String mapKey) {
+    return autoMappingColumnIndexes.get(mapKey);
+  }
+
+  void putAutoMappingColumnIndexes(String mapKey, int[] columnIndexes) {
+    autoMappingColumnIndexes.put(mapKey, columnIndexes);
+  }
+
+  CompiledRowMapper getCompiledRowMapper(String mapKey) {
+    return compiledRowMappers.get(mapKey);
+  }
+
+  void putCompiledRowMapper(String mapKey, CompiledRowMapper rowMapper) {
+    compiledRowMappers.put(mapKey, rowMapper);
   }
 
 }
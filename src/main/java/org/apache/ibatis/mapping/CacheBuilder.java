@@ -17,6 +17,7 @@ package org.apache.ibatis.mapping;
 
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -30,7 +31,9 @@ import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -91,6 +94,12 @@ public class CacheBuilder {
 
   public Cache build() {
     setDefaultImplementations();
+    if (PerpetualCache.class.equals(implementation)
+        && decorators.equals(Collections.singletonList(TinyLfuCache.class))) {
+      // the TINYLFU eviction stores the entries itself
+      implementation = TinyLfuCache.class;
+      decorators.clear();
+    }
     Cache cache = newBaseCacheInstance(implementation, id);
     setCacheProperties(cache);
     // issue #352, do not apply decorators to custom caches
@@ -99,7 +108,13 @@ public class CacheBuilder {
         cache = newCacheDecoratorInstance(decorator, cache);
         setCacheProperties(cache);
       }
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, true, readWrite);
+    } else if (TinyLfuCache.class.equals(cache.getClass())) {
+      // thread-safe and bounded by itself, the standard decorators are thread-safe as well
+      cache = setStandardDecorators(cache, false, readWrite);
+    } else if (OffHeapCache.class.equals(cache.getClass())) {
+      // thread-safe, and returns copies of the cached objects
+      cache = setStandardDecorators(cache, false, false);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
       cache = new LoggingCache(cache);
     }
@@ -115,7 +130,7 @@ public class CacheBuilder {
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, boolean synchronize, boolean serialize) {
     try {
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
@@ -125,13 +140,17 @@ public class CacheBuilder {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
       }
-      if (readWrite) {
+      if (serialize) {
         cache = new SerializedCache(cache);
       }
       cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
+      if (synchronize) {
+        cache = new SynchronizedCache(cache);
+      }
       if (blocking) {
         cache = new BlockingCache(cache);
+        // the timeout may differ between namespaces
+        setCacheProperties(cache);
       }
       return cache;
     } catch (Exception e) {
@@ -18,14 +18,21 @@ package org.apache.ibatis.mapping;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.SqlTableExtractor;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
+import org.apache.ibatis.executor.resultset.ColumnLayout;
+import org.apache.ibatis.executor.resultset.CompiledRowMapper;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.session.Configuration;
 
 /**
@@ -33,6 +40,9 @@ import org.apache.ibatis.session.Configuration;
  */
 public final class MappedStatement {
 
+  private static final int MAX_COMPILED_ROW_MAPPERS = 64;
+  private static final int MAX_COLUMN_LAYOUTS = 64;
+
   private String resource;
   private Configuration configuration;
   private String id;
@@ -41,6 +51,7 @@ public final class MappedStatement {
   private StatementType statementType;
   private ResultSetType resultSetType;
   private SqlSource sqlSource;
+  private String staticSql;
   private Cache cache;
   private ParameterMap parameterMap;
   private List<ResultMap> resultMaps;
@@ -57,6 +68,11 @@ public final class MappedStatement {
   private LanguageDriver lang;
   private String[] resultSets;
   private boolean dirtySelect;
+  private String[] batchDependsOn;
+  private String[] cacheTables;
+  private final Map<String, CompiledRowMapper> compiledRowMappers = new ConcurrentHashMap<>();
+  private final Map<String, ColumnLayout> columnLayouts = new ConcurrentHashMap<>();
+  private volatile ColumnLayout recentColumnLayout;
 
   MappedStatement() {
     // constructor disabled
@@ -182,6 +198,22 @@ public final class MappedStatement {
       return this;
     }
 
+    public Builder batchDependsOn(String batchDependsOn) {
+      mappedStatement.batchDependsOn = delimitedStringToArray(batchDependsOn);
+      return this;
+    }
+
+    public Builder cacheTables(String cacheTables) {
+      String[] tables = delimitedStringToArray(cacheTables);
+      if (tables != null) {
+        for (int i = 0; i < tables.length; i++) {
+          tables[i] = SqlTableExtractor.normalize(tables[i]);
+        }
+      }
+      mappedStatement.cacheTables = tables;
+      return this;
+    }
+
     /**
      * Resul sets.
      *
@@ -204,6 +236,12 @@ public final class MappedStatement {
       assert mappedStatement.sqlSource != null;
       assert mappedStatement.lang != null;
       mappedStatement.resultMaps = Collections.unmodifiableList(mappedStatement.resultMaps);
+      if (mappedStatement.sqlSource instanceof RawSqlSource || mappedStatement.sqlSource instanceof StaticSqlSource) {
+        mappedStatement.staticSql = mappedStatement.sqlSource.getBoundSql(null).getSql();
+        if (mappedStatement.cacheTables == null && mappedStatement.configuration.isTableLevelCacheInvalidation()) {
+          mappedStatement.cacheTables = SqlTableExtractor.extract(mappedStatement.staticSql);
+        }
+      }
       return mappedStatement;
     }
   }
@@ -252,6 +290,18 @@ public final class MappedStatement {
     return sqlSource;
   }
 
+  /**
+   * Gets the SQL of a statement whose SQL does not depend on its parameter. Bound SQL of such a statement holds this
+   * very string instance, unless it was rewritten.
+   *
+   * @return the SQL or {@code null} if the SQL is dynamic
+   *
+   * @since 3.5.12
+   */
+  public String getStaticSql() {
+    return staticSql;
+  }
+
   public ParameterMap getParameterMap() {
     return parameterMap;
   }
@@ -304,6 +354,32 @@ public final class MappedStatement {
     return dirtySelect;
   }
 
+  /**
+   * Gets the tables this statement reads or writes, for table-level cache invalidation. They are either set explicitly
+   * or, when {@link Configuration#isTableLevelCacheInvalidation() table-level cache invalidation} is enabled, found in
+   * the {@link #getStaticSql() static SQL}.
+   *
+   * @return the normalized table names or {@code null} if they are unknown
+   *
+   * @since 3.5.12
+   */
+  public String[] getCacheTables() {
+    return cacheTables;
+  }
+
+  /**
+   * Gets the ids of the statements whose batched updates must be executed before the updates of this statement batched
+   * after them, e.g. the insert of the rows this statement references through a foreign key. Only relevant when
+   * {@link Configuration#isBatchReorderingEnabled() batch reordering} is enabled.
+   *
+   * @return the statement ids or {@code null}
+   *
+   * @since 3.5.12
+   */
+  public String[] getBatchDependsOn() {
+    return batchDependsOn;
+  }
+
   /**
    * Gets the resul sets.
    *
@@ -316,6 +392,78 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * Gets the row mapper compiled for the given result map and column layout.
+   *
+   * @param layoutKey
+   *          the key identifying the result map, the column prefix and the column layout
+   *
+   * @return the compiled row mapper or {@code null} if none was compiled yet
+   *
+   * @since 3.5.12
+   */
+  public CompiledRowMapper getCompiledRowMapper(String layoutKey) {
+    return compiledRowMappers.get(layoutKey);
+  }
+
+  /**
+   * Caches a row mapper compiled for the given result map and column layout. Statements returning an unbounded number
+   * of different column layouts stop caching once the limit is reached.
+   *
+   * @param layoutKey
+   *          the key identifying the result map, the column prefix and the column layout
+   * @param rowMapper
+   *          the compiled row mapper
+   *
+   * @since 3.5.12
+   */
+  public void putCompiledRowMapper(String layoutKey, CompiledRowMapper rowMapper) {
+    if (compiledRowMappers.size() < MAX_COMPILED_ROW_MAPPERS) {
+      compiledRowMappers.putIfAbsent(layoutKey, rowMapper);
+    }
+  }
+
+  /**
+   * Gets a column layout of the result sets returned by this statement.
+   *
+   * @param signature
+   *          the signature of the layout
+   *
+   * @return the column layout or {@code null} if no result set with these columns was returned yet
+   *
+   * @since 3.5.12
+   */
+  public ColumnLayout getColumnLayout(String signature) {
+    return columnLayouts.get(signature);
+  }
+
+  /**
+   * Gets the column layout of the last result set returned by this statement.
+   *
+   * @return the column layout or {@code null} if no result set was returned yet
+   *
+   * @since 3.5.12
+   */
+  public ColumnLayout getRecentColumnLayout() {
+    return recentColumnLayout;
+  }
+
+  /**
+   * Caches a column layout of the result sets returned by this statement and makes it the recent one. Statements
+   * returning an unbounded number of different column layouts stop caching once the limit is reached.
+   *
+   * @param layout
+   *          the column layout
+   *
+   * @since 3.5.12
+   */
+  public void putColumnLayout(ColumnLayout layout) {
+    if (columnLayouts.size() < MAX_COLUMN_LAYOUTS) {
+      columnLayouts.putIfAbsent(layout.getSignature(), layout);
+    }
+    recentColumnLayout = layout;
+  }
+
   public BoundSql getBoundSql(Object parameterObject) {
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
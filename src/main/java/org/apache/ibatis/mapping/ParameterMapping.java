@@ -17,6 +17,7 @@ package org.apache.ibatis.mapping;
 
 import java.sql.ResultSet;
 
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -30,6 +31,7 @@ public class ParameterMapping {
   private Configuration configuration;
 
   private String property;
+  private PropertyPath propertyPath;
   private ParameterMode mode;
   private Class<?> javaType = Object.class;
   private JdbcType jdbcType;
@@ -102,6 +104,8 @@ public class ParameterMapping {
     public ParameterMapping build() {
       resolveTypeHandler();
       validate();
+      parameterMapping.propertyPath = parameterMapping.property == null ? null
+          : PropertyPath.compile(parameterMapping.property);
       return parameterMapping;
     }
 
@@ -133,6 +137,17 @@ public class ParameterMapping {
     return property;
   }
 
+  /**
+   * Gets the parsed property.
+   *
+   * @return the property path, or {@code null} if there is no property
+   *
+   * @since 3.5.12
+   */
+  public PropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   /**
    * Used for handling output of callable statements.
    *
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
+import org.apache.ibatis.reflection.PropertyPath;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -32,6 +33,7 @@ public class ResultMapping {
 
   private Configuration configuration;
   private String property;
+  private PropertyPath propertyPath;
   private String column;
   private Class<?> javaType;
   private JdbcType jdbcType;
@@ -138,6 +140,7 @@ public class ResultMapping {
       resultMapping.composites = Collections.unmodifiableList(resultMapping.composites);
       resolveTypeHandler();
       validate();
+      resultMapping.propertyPath = resultMapping.property == null ? null : PropertyPath.compile(resultMapping.property);
       return resultMapping;
     }
 
@@ -191,6 +194,17 @@ public class ResultMapping {
     return property;
   }
 
+  /**
+   * Gets the parsed property.
+   *
+   * @return the property path, or {@code null} if there is no property
+   *
+   * @since 3.5.12
+   */
+  public PropertyPath getPropertyPath() {
+    return propertyPath;
+  }
+
   public String getColumn() {
     return column;
   }
@@ -18,13 +18,29 @@ package org.apache.ibatis.reflection;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
+import org.apache.ibatis.reflection.invoker.LambdaInvokerFactory;
 import org.apache.ibatis.util.MapUtil;
 
 public class DefaultReflectorFactory implements ReflectorFactory {
   private boolean classCacheEnabled = true;
   private final ConcurrentMap<Class<?>, Reflector> reflectorMap = new ConcurrentHashMap<>();
+  private final InvokerFactory invokerFactory;
 
   public DefaultReflectorFactory() {
+    this(new LambdaInvokerFactory());
+  }
+
+  /**
+   * Instantiates a new reflector factory whose reflectors invoke getters and setters through the given invokers.
+   *
+   * @param invokerFactory
+   *          the invoker factory, e.g. a {@link org.apache.ibatis.reflection.invoker.ReflectiveInvokerFactory}
+   *
+   * @since 3.5.12
+   */
+  public DefaultReflectorFactory(InvokerFactory invokerFactory) {
+    this.invokerFactory = invokerFactory;
   }
 
   @Override
@@ -41,9 +57,9 @@ public class DefaultReflectorFactory implements ReflectorFactory {
   public Reflector findForClass(Class<?> type) {
     if (classCacheEnabled) {
       // synchronized (type) removed see issue #461
-      return MapUtil.computeIfAbsent(reflectorMap, type, Reflector::new);
+      return MapUtil.computeIfAbsent(reflectorMap, type, t -> new Reflector(t, invokerFactory));
     }
-    return new Reflector(type);
+    return new Reflector(type, invokerFactory);
   }
 
 }
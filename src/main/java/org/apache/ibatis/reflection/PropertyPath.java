@@ -0,0 +1,263 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.property.PropertyTokenizer;
+import org.apache.ibatis.reflection.wrapper.BeanWrapper;
+import org.apache.ibatis.reflection.wrapper.MapWrapper;
+import org.apache.ibatis.reflection.wrapper.ObjectWrapper;
+
+/**
+ * A property path, e.g. {@code order.customer.address.city}, parsed once to get and set the property of many objects.
+ * <p>
+ * {@link #getValue(MetaObject)} and {@link #setValue(MetaObject, Object)} behave as {@link MetaObject#getValue(String)}
+ * and {@link MetaObject#setValue(String, Object)}, but walk through beans with the getters and setters resolved for
+ * their classes on previous calls, without creating a meta object per bean. The first property of a map, e.g. of the
+ * parameters of a mapper method, is looked up with {@link Map#get(Object)}. Indexed properties, nested maps,
+ * collections and objects with custom wrappers are handed over to meta objects.
+ *
+ * @since 3.5.12
+ */
+public final class PropertyPath {
+
+  private static final Object[] NO_ARGUMENTS = {};
+
+  private final String path;
+  private final Segment[] segments;
+
+  private PropertyPath(String path) {
+    List<Segment> list = new ArrayList<>();
+    PropertyTokenizer prop = new PropertyTokenizer(path);
+    String remainingPath = path;
+    while (true) {
+      list.add(new Segment(prop, remainingPath));
+      if (!prop.hasNext()) {
+        break;
+      }
+      remainingPath = prop.getChildren();
+      prop = prop.next();
+    }
+    this.path = path;
+    this.segments = list.toArray(new Segment[0]);
+  }
+
+  /**
+   * Parses a property path.
+   *
+   * @param path
+   *          the property path
+   *
+   * @return the parsed path
+   */
+  public static PropertyPath compile(String path) {
+    return new PropertyPath(path);
+  }
+
+  public String getPath() {
+    return path;
+  }
+
+  /**
+   * Gets the value of this property.
+   *
+   * @param metaObject
+   *          the meta object of the object that has the property
+   *
+   * @return the value, or {@code null} if the value or one of the objects on the path is {@code null}
+   */
+  public Object getValue(MetaObject metaObject) {
+    Object object = metaObject.getOriginalObject();
+    int first = 0;
+    if (isMapEntry(metaObject)) {
+      // as MapWrapper does, so that a ParamMap reports a missing parameter
+      object = ((Map<?, ?>) object).get(segments[0].name);
+      if (object == null) {
+        return null;
+      }
+      first = 1;
+    } else if (metaObject.getObjectWrapper().getClass() != BeanWrapper.class) {
+      return metaObject.getValue(path);
+    }
+    for (int i = first; i < segments.length; i++) {
+      Segment segment = segments[i];
+      if (!isBeanProperty(i, segment, object, metaObject)) {
+        return metaObjectFor(i, object, metaObject).getValue(segment.path);
+      }
+      object = segment.get(object, metaObject.getReflectorFactory());
+      if (object == null) {
+        return null;
+      }
+    }
+    return object;
+  }
+
+  /**
+   * Sets the value of this property. The {@code null} objects on the path are instantiated, unless the value is
+   * {@code null}.
+   *
+   * @param metaObject
+   *          the meta object of the object that has the property
+   * @param value
+   *          the value
+   */
+  public void setValue(MetaObject metaObject, Object value) {
+    Object object = metaObject.getOriginalObject();
+    int first = 0;
+    if (segments.length > 1 && isMapEntry(metaObject)) {
+      object = ((Map<?, ?>) object).get(segments[0].name);
+      if (object == null) {
+        if (value != null) {
+          metaObject.setValue(path, value);
+        }
+        return;
+      }
+      first = 1;
+    } else if (metaObject.getObjectWrapper().getClass() != BeanWrapper.class) {
+      metaObject.setValue(path, value);
+      return;
+    }
+    final int last = segments.length - 1;
+    for (int i = first; i < last; i++) {
+      Segment segment = segments[i];
+      if (!isBeanProperty(i, segment, object, metaObject)) {
+        metaObjectFor(i, object, metaObject).setValue(segment.path, value);
+        return;
+      }
+      Object child = segment.get(object, metaObject.getReflectorFactory());
+      if (child == null) {
+        if (value != null) {
+          // the meta object instantiates the missing objects
+          metaObjectFor(i, object, metaObject).setValue(segment.path, value);
+        }
+        // don't instantiate child path if value is null
+        return;
+      }
+      object = child;
+    }
+    Segment segment = segments[last];
+    if (isBeanProperty(last, segment, object, metaObject)) {
+      segment.set(object, metaObject.getReflectorFactory(), value);
+    } else {
+      metaObjectFor(last, object, metaObject).setValue(segment.path, value);
+    }
+  }
+
+  /**
+   * Whether the first segment is a key of a map wrapped by a {@link MapWrapper}.
+   */
+  private boolean isMapEntry(MetaObject metaObject) {
+    return segments[0].index == null && metaObject.getObjectWrapper().getClass() == MapWrapper.class;
+  }
+
+  /**
+   * Whether a meta object for the object would get the property of the segment through a {@link BeanWrapper}.
+   */
+  private static boolean isBeanProperty(int i, Segment segment, Object object, MetaObject root) {
+    return segment.index == null && !(object instanceof ObjectWrapper) && !(object instanceof Map)
+        && !(object instanceof Collection) && (i == 0 || !root.getObjectWrapperFactory().hasWrapperFor(object));
+  }
+
+  private static MetaObject metaObjectFor(int i, Object object, MetaObject root) {
+    if (i == 0) {
+      return root;
+    }
+    return MetaObject.forObject(object, root.getObjectFactory(), root.getObjectWrapperFactory(),
+        root.getReflectorFactory());
+  }
+
+  @Override
+  public String toString() {
+    return path;
+  }
+
+  private static final class Segment {
+    private final String name;
+    private final String index;
+    // the path from this segment on
+    private final String path;
+    private volatile Accessor getter;
+    private volatile Accessor setter;
+
+    Segment(PropertyTokenizer prop, String path) {
+      this.name = prop.getName();
+      this.index = prop.getIndex();
+      this.path = path;
+    }
+
+    Object get(Object object, ReflectorFactory reflectorFactory) {
+      Accessor accessor = getter;
+      if (accessor == null || !accessor.isFor(object.getClass(), reflectorFactory)) {
+        accessor = new Accessor(object.getClass(), reflectorFactory,
+            reflectorFactory.findForClass(object.getClass()).getGetInvoker(name));
+        getter = accessor;
+      }
+      try {
+        try {
+          return accessor.invoker.invoke(object, NO_ARGUMENTS);
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (RuntimeException e) {
+        throw e;
+      } catch (Throwable t) {
+        throw new ReflectionException(
+            "Could not get property '" + name + "' from " + object.getClass() + ".  Cause: " + t.toString(), t);
+      }
+    }
+
+    void set(Object object, ReflectorFactory reflectorFactory, Object value) {
+      try {
+        Accessor accessor = setter;
+        if (accessor == null || !accessor.isFor(object.getClass(), reflectorFactory)) {
+          accessor = new Accessor(object.getClass(), reflectorFactory,
+              reflectorFactory.findForClass(object.getClass()).getSetInvoker(name));
+          setter = accessor;
+        }
+        try {
+          accessor.invoker.invoke(object, new Object[] { value });
+        } catch (Throwable t) {
+          throw ExceptionUtil.unwrapThrowable(t);
+        }
+      } catch (Throwable t) {
+        throw new ReflectionException("Could not set property '" + name + "' of '" + object.getClass()
+            + "' with value '" + value + "' Cause: " + t.toString(), t);
+      }
+    }
+  }
+
+  private static final class Accessor {
+    private final Class<?> type;
+    private final ReflectorFactory reflectorFactory;
+    private final Invoker invoker;
+
+    Accessor(Class<?> type, ReflectorFactory reflectorFactory, Invoker invoker) {
+      this.type = type;
+      this.reflectorFactory = reflectorFactory;
+      this.invoker = invoker;
+    }
+
+    boolean isFor(Class<?> type, ReflectorFactory reflectorFactory) {
+      return this.type == type && this.reflectorFactory == reflectorFactory;
+    }
+  }
+
+}
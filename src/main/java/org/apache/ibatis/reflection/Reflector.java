@@ -40,6 +40,8 @@ import java.util.Map.Entry;
 import org.apache.ibatis.reflection.invoker.AmbiguousMethodInvoker;
 import org.apache.ibatis.reflection.invoker.GetFieldInvoker;
 import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.InvokerFactory;
+import org.apache.ibatis.reflection.invoker.LambdaInvokerFactory;
 import org.apache.ibatis.reflection.invoker.MethodInvoker;
 import org.apache.ibatis.reflection.invoker.SetFieldInvoker;
 import org.apache.ibatis.reflection.property.PropertyNamer;
@@ -54,7 +56,9 @@ import org.apache.ibatis.util.MapUtil;
 public class Reflector {
 
   private static final MethodHandle isRecordMethodHandle = getIsRecordMethodHandle();
+  private static final InvokerFactory DEFAULT_INVOKER_FACTORY = new LambdaInvokerFactory();
   private final Class<?> type;
+  private final InvokerFactory invokerFactory;
   private final String[] readablePropertyNames;
   private final String[] writablePropertyNames;
   private final Map<String, Invoker> setMethods = new HashMap<>();
@@ -66,7 +70,22 @@ public class Reflector {
   private final Map<String, String> caseInsensitivePropertyMap = new HashMap<>();
 
   public Reflector(Class<?> clazz) {
+    this(clazz, DEFAULT_INVOKER_FACTORY);
+  }
+
+  /**
+   * Instantiates a new reflector.
+   *
+   * @param clazz
+   *          the class
+   * @param invokerFactory
+   *          the factory of the invokers of the getter and setter methods
+   *
+   * @since 3.5.12
+   */
+  public Reflector(Class<?> clazz, InvokerFactory invokerFactory) {
     type = clazz;
+    this.invokerFactory = invokerFactory;
     addDefaultConstructor(clazz);
     Method[] classMethods = getClassMethods(clazz);
     if (isRecord(type)) {
@@ -140,7 +159,7 @@ public class Reflector {
   private void addGetMethod(String name, Method method, boolean isAmbiguous) {
     MethodInvoker invoker = isAmbiguous ? new AmbiguousMethodInvoker(method, MessageFormat.format(
         "Illegal overloaded getter method with ambiguous type for property ''{0}'' in class ''{1}''. This breaks the JavaBeans specification and can cause unpredictable results.",
-        name, method.getDeclaringClass().getName())) : new MethodInvoker(method);
+        name, method.getDeclaringClass().getName())) : invokerFactory.createMethodInvoker(method);
     getMethods.put(name, invoker);
     Type returnType = TypeParameterResolver.resolveReturnType(method, type);
     getTypes.put(name, typeToClass(returnType));
@@ -208,7 +227,7 @@ public class Reflector {
   }
 
   private void addSetMethod(String name, Method method) {
-    MethodInvoker invoker = new MethodInvoker(method);
+    MethodInvoker invoker = invokerFactory.createMethodInvoker(method);
     setMethods.put(name, invoker);
     Type[] paramTypes = TypeParameterResolver.resolveParamTypes(method, type);
     setTypes.put(name, typeToClass(paramTypes[0]));
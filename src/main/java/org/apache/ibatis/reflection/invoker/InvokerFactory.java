@@ -0,0 +1,39 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.reflect.Method;
+
+/**
+ * Creates the invokers of the getter and setter methods found by a {@link org.apache.ibatis.reflection.Reflector}.
+ *
+ * @see org.apache.ibatis.reflection.DefaultReflectorFactory#DefaultReflectorFactory(InvokerFactory)
+ *
+ * @since 3.5.12
+ */
+public interface InvokerFactory {
+
+  /**
+   * Creates the invoker of a getter, which has no parameters, or of a setter, which has one parameter.
+   *
+   * @param method
+   *          the getter or setter
+   *
+   * @return the invoker, whose {@link Invoker#getType()} is the type of the property
+   */
+  MethodInvoker createMethodInvoker(Method method);
+
+}
@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Creates invokers that call public getters and setters through functions generated by {@link LambdaMetafactory}, which
+ * the JIT compiler inlines like direct calls, instead of {@link Method#invoke(Object, Object...)}.
+ * <p>
+ * Methods that cannot be linked this way, e.g. because they are static, or because they or the types they use are not
+ * public or not visible from the class loader of MyBatis, are invoked reflectively. So are the calls whose target or
+ * argument does not fit the method exactly, e.g. an {@code Integer} passed to a {@code long} setter, so that the
+ * invokers behave as those of {@link ReflectiveInvokerFactory}.
+ *
+ * @since 3.5.12
+ */
+public class LambdaInvokerFactory implements InvokerFactory {
+
+  private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  @Override
+  public MethodInvoker createMethodInvoker(Method method) {
+    if (isLinkable(method)) {
+      try {
+        return method.getParameterCount() == 0 ? createGetterInvoker(method) : createSetterInvoker(method);
+      } catch (Throwable t) {
+        // Ignored, the method is invoked reflectively
+      }
+    }
+    return new MethodInvoker(method);
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MethodInvoker createGetterInvoker(Method method) throws Throwable {
+    Class<?> returnType = wrap(method.getReturnType());
+    CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply", MethodType.methodType(Function.class),
+        GETTER_TYPE, LOOKUP.unreflect(method), MethodType.methodType(returnType, method.getDeclaringClass()));
+    return new GetterInvoker(method, (Function<Object, Object>) callSite.getTarget().invoke());
+  }
+
+  @SuppressWarnings("unchecked")
+  private static MethodInvoker createSetterInvoker(Method method) throws Throwable {
+    Class<?> parameterType = wrap(method.getParameterTypes()[0]);
+    CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept", MethodType.methodType(BiConsumer.class),
+        SETTER_TYPE, LOOKUP.unreflect(method),
+        MethodType.methodType(void.class, method.getDeclaringClass(), parameterType));
+    return new SetterInvoker(method, parameterType, (BiConsumer<Object, Object>) callSite.getTarget().invoke());
+  }
+
+  private static boolean isLinkable(Method method) {
+    int modifiers = method.getModifiers();
+    if (!Modifier.isPublic(modifiers) || Modifier.isStatic(modifiers) || method.getParameterCount() > 1
+        || method.getParameterCount() == 0 == (method.getReturnType() == void.class)) {
+      // setters returning a value are invoked reflectively for the sake of that value
+      return false;
+    }
+    for (Class<?> parameterType : method.getParameterTypes()) {
+      if (!isAccessible(parameterType)) {
+        return false;
+      }
+    }
+    return isAccessible(method.getDeclaringClass()) && isAccessible(method.getReturnType());
+  }
+
+  /**
+   * The generated functions are defined by the class loader of MyBatis, which must access the types of the method.
+   */
+  private static boolean isAccessible(Class<?> type) {
+    while (type.isArray()) {
+      type = type.getComponentType();
+    }
+    if (type.isPrimitive()) {
+      return true;
+    }
+    if (!Modifier.isPublic(type.getModifiers())) {
+      return false;
+    }
+    try {
+      return Class.forName(type.getName(), false, LambdaInvokerFactory.class.getClassLoader()) == type;
+    } catch (ClassNotFoundException | LinkageError e) {
+      return false;
+    }
+  }
+
+  private static Class<?> wrap(Class<?> type) {
+    return MethodType.methodType(type).wrap().returnType();
+  }
+
+  private static final class GetterInvoker extends MethodInvoker {
+    private final Class<?> declaringClass;
+    private final Function<Object, Object> getter;
+
+    GetterInvoker(Method method, Function<Object, Object> getter) {
+      super(method);
+      this.declaringClass = method.getDeclaringClass();
+      this.getter = getter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      if (!declaringClass.isInstance(target) || args != null && args.length != 0) {
+        return super.invoke(target, args);
+      }
+      try {
+        return getter.apply(target);
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+  private static final class SetterInvoker extends MethodInvoker {
+    private final Class<?> declaringClass;
+    private final Class<?> parameterType;
+    private final BiConsumer<Object, Object> setter;
+
+    SetterInvoker(Method method, Class<?> parameterType, BiConsumer<Object, Object> setter) {
+      super(method);
+      this.declaringClass = method.getDeclaringClass();
+      this.parameterType = parameterType;
+      this.setter = setter;
+    }
+
+    @Override
+    public Object invoke(Object target, Object[] args) throws IllegalAccessException, InvocationTargetException {
+      if (!declaringClass.isInstance(target) || args == null || args.length != 1
+          || !(parameterType.isInstance(args[0]) || args[0] == null && !getType().isPrimitive())) {
+        return super.invoke(target, args);
+      }
+      try {
+        setter.accept(target, args[0]);
+        return null;
+      } catch (Throwable t) {
+        throw new InvocationTargetException(t);
+      }
+    }
+  }
+
+}
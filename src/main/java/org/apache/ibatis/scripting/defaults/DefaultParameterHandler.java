@@ -30,7 +30,6 @@ import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeException;
 import org.apache.ibatis.type.TypeHandler;
-import org.apache.ibatis.type.TypeHandlerRegistry;
 
 /**
  * @author Clinton Begin
@@ -38,8 +37,6 @@ import org.apache.ibatis.type.TypeHandlerRegistry;
  */
 public class DefaultParameterHandler implements ParameterHandler {
 
-  private final TypeHandlerRegistry typeHandlerRegistry;
-
   private final MappedStatement mappedStatement;
   private final Object parameterObject;
   private final BoundSql boundSql;
@@ -48,7 +45,6 @@ public class DefaultParameterHandler implements ParameterHandler {
   public DefaultParameterHandler(MappedStatement mappedStatement, Object parameterObject, BoundSql boundSql) {
     this.mappedStatement = mappedStatement;
     this.configuration = mappedStatement.getConfiguration();
-    this.typeHandlerRegistry = mappedStatement.getConfiguration().getTypeHandlerRegistry();
     this.parameterObject = parameterObject;
     this.boundSql = boundSql;
   }
@@ -63,21 +59,11 @@ public class DefaultParameterHandler implements ParameterHandler {
     ErrorContext.instance().activity("setting parameters").object(mappedStatement.getParameterMap().getId());
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     if (parameterMappings != null) {
+      Object[] values = resolveParameterValues(configuration, boundSql, parameterObject);
       for (int i = 0; i < parameterMappings.size(); i++) {
         ParameterMapping parameterMapping = parameterMappings.get(i);
         if (parameterMapping.getMode() != ParameterMode.OUT) {
-          Object value;
-          String propertyName = parameterMapping.getProperty();
-          if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
-            value = boundSql.getAdditionalParameter(propertyName);
-          } else if (parameterObject == null) {
-            value = null;
-          } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
-            value = parameterObject;
-          } else {
-            MetaObject metaObject = configuration.newMetaObject(parameterObject);
-            value = metaObject.getValue(propertyName);
-          }
+          Object value = values[i];
           TypeHandler typeHandler = parameterMapping.getTypeHandler();
           JdbcType jdbcType = parameterMapping.getJdbcType();
           if (value == null && jdbcType == null) {
@@ -93,4 +79,46 @@ public class DefaultParameterHandler implements ParameterHandler {
     }
   }
 
+  /**
+   * Resolves the values of the parameters of a statement, i.e. of the additional parameters of the bound SQL, of the
+   * parameter object itself or of its properties.
+   *
+   * @param configuration
+   *          the configuration
+   * @param boundSql
+   *          the bound SQL
+   * @param parameterObject
+   *          the parameter object
+   *
+   * @return the values, in the order of the parameter mappings, with {@code null} for {@code OUT} parameters
+   *
+   * @since 3.5.12
+   */
+  public static Object[] resolveParameterValues(Configuration configuration, BoundSql boundSql,
+      Object parameterObject) {
+    List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
+    Object[] values = new Object[parameterMappings.size()];
+    MetaObject metaObject = null;
+    for (int i = 0; i < values.length; i++) {
+      ParameterMapping parameterMapping = parameterMappings.get(i);
+      if (parameterMapping.getMode() == ParameterMode.OUT) {
+        continue;
+      }
+      String propertyName = parameterMapping.getProperty();
+      if (boundSql.hasAdditionalParameter(propertyName)) { // issue #448 ask first for additional params
+        values[i] = boundSql.getAdditionalParameter(propertyName);
+      } else if (parameterObject == null) {
+        values[i] = null;
+      } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+        values[i] = parameterObject;
+      } else {
+        if (metaObject == null) {
+          metaObject = configuration.newMetaObject(parameterObject);
+        }
+        values[i] = parameterMapping.getPropertyPath().getValue(metaObject);
+      }
+    }
+    return values;
+  }
+
 }
@@ -0,0 +1,527 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import ognl.OgnlOps;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * An OGNL expression of the subset commonly used in mapper scripts, compiled into nodes that evaluate it without an
+ * OGNL context: property paths, the {@code size()}, {@code isEmpty()} and {@code length()} methods, {@code null},
+ * boolean, integer, character and string literals, comparisons and the boolean operators. The operators are those of
+ * {@link OgnlOps}, and properties are read as the OGNL property accessors read them, with a getter cached per type of
+ * the object read.
+ * <p>
+ * Expressions out of this subset are not compiled. When a value is out of it, e.g. the property of a list or of a
+ * {@code null} object, or when reading a value fails, {@link #evaluate(Object)} returns {@link #UNSUPPORTED} and the
+ * expression must be evaluated by OGNL, which reproduces the value or the error.
+ *
+ * @since 3.5.12
+ */
+final class CompiledExpression {
+
+  static final Object UNSUPPORTED = new Object();
+
+  private static final Set<String> KEYWORDS = new HashSet<>(Arrays.asList("and", "or", "not", "eq", "neq", "lt", "gt",
+      "lte", "gte", "in", "instanceof", "new", "true", "false", "null", "shl", "shr", "ushr", "band", "bor", "xor"));
+  private static final ReflectorFactory REFLECTOR_FACTORY = new DefaultReflectorFactory();
+  private static final DynamicContext.ContextAccessor CONTEXT_ACCESSOR = new DynamicContext.ContextAccessor();
+
+  private final Node node;
+
+  private CompiledExpression(Node node) {
+    this.node = node;
+  }
+
+  /**
+   * Compiles an expression.
+   *
+   * @param expression
+   *          the OGNL expression
+   *
+   * @return the compiled expression, or {@code null} if the expression is out of the supported subset
+   */
+  static CompiledExpression compile(String expression) {
+    try {
+      return new CompiledExpression(new Parser(expression).parse());
+    } catch (Unsupported e) {
+      return null;
+    }
+  }
+
+  /**
+   * Evaluates the expression.
+   *
+   * @param root
+   *          the root object
+   *
+   * @return the value, or {@link #UNSUPPORTED} if OGNL must evaluate the expression
+   */
+  Object evaluate(Object root) {
+    try {
+      return node.evaluate(root);
+    } catch (RuntimeException e) {
+      return UNSUPPORTED;
+    }
+  }
+
+  private interface Node {
+    Object evaluate(Object root);
+  }
+
+  /**
+   * Thrown where OGNL would have to evaluate the expression, without a stack trace.
+   */
+  private static final class Unsupported extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+    private static final Unsupported INSTANCE = new Unsupported();
+
+    private Unsupported() {
+      super(null, null, false, false);
+    }
+  }
+
+  private static final class Constant implements Node {
+
+    private final Object value;
+
+    Constant(Object value) {
+      this.value = value;
+    }
+
+    @Override
+    public Object evaluate(Object root) {
+      return value;
+    }
+  }
+
+  private static final class Path implements Node {
+
+    private final String[] properties;
+    private final GetterCache[] getters;
+    private final String method;
+
+    Path(List<String> properties, String method) {
+      this.properties = properties.toArray(new String[0]);
+      this.getters = new GetterCache[this.properties.length];
+      for (int i = 0; i < getters.length; i++) {
+        getters[i] = new GetterCache(this.properties[i]);
+      }
+      this.method = method;
+    }
+
+    @Override
+    public Object evaluate(Object root) {
+      Object value = root;
+      for (GetterCache getter : getters) {
+        value = getter.get(value);
+      }
+      return method == null ? value : invoke(value);
+    }
+
+    private Object invoke(Object target) {
+      if ("size".equals(method)) {
+        if (target instanceof Collection) {
+          return ((Collection<?>) target).size();
+        }
+        if (target instanceof Map) {
+          return ((Map<?, ?>) target).size();
+        }
+      } else if ("isEmpty".equals(method)) {
+        if (target instanceof Collection) {
+          return ((Collection<?>) target).isEmpty();
+        }
+        if (target instanceof Map) {
+          return ((Map<?, ?>) target).isEmpty();
+        }
+        if (target instanceof String) {
+          return ((String) target).isEmpty();
+        }
+      } else if (target instanceof CharSequence) {
+        return ((CharSequence) target).length();
+      }
+      throw Unsupported.INSTANCE;
+    }
+  }
+
+  /**
+   * Reads a property like the OGNL property accessors of MyBatis contexts, of maps and of other objects do.
+   */
+  private static final class GetterCache {
+
+    private final String property;
+    private volatile Getter getter;
+
+    GetterCache(String property) {
+      this.property = property;
+    }
+
+    Object get(Object target) {
+      if (target instanceof DynamicContext.ContextMap) {
+        return CONTEXT_ACCESSOR.getProperty(null, target, property);
+      }
+      if (target instanceof Map) {
+        Map<?, ?> map = (Map<?, ?>) target;
+        switch (property) {
+          case "size":
+            return map.size();
+          case "keys":
+          case "keySet":
+            return map.keySet();
+          case "values":
+            return map.values();
+          case "isEmpty":
+            return map.isEmpty() ? Boolean.TRUE : Boolean.FALSE;
+          default:
+            return map.get(property);
+        }
+      }
+      if (target == null || target instanceof Collection || target instanceof Iterator || target instanceof Enumeration
+          || target.getClass().isArray()) {
+        throw Unsupported.INSTANCE;
+      }
+      Getter current = getter;
+      if (current == null || current.type != target.getClass()) {
+        current = new Getter(target.getClass(), property);
+        getter = current;
+      }
+      if (current.invoker == null) {
+        throw Unsupported.INSTANCE;
+      }
+      try {
+        return current.invoker.invoke(target, null);
+      } catch (ReflectiveOperationException e) {
+        throw Unsupported.INSTANCE;
+      }
+    }
+  }
+
+  private static final class Getter {
+
+    private final Class<?> type;
+    private final Invoker invoker;
+
+    Getter(Class<?> type, String property) {
+      this.type = type;
+      Reflector reflector = REFLECTOR_FACTORY.findForClass(type);
+      this.invoker = reflector.hasGetter(property) ? reflector.getGetInvoker(property) : null;
+    }
+  }
+
+  private static final class Not implements Node {
+
+    private final Node operand;
+
+    Not(Node operand) {
+      this.operand = operand;
+    }
+
+    @Override
+    public Object evaluate(Object root) {
+      return OgnlOps.booleanValue(operand.evaluate(root)) ? Boolean.FALSE : Boolean.TRUE;
+    }
+  }
+
+  private static final class Logical implements Node {
+
+    private final Node[] operands;
+    private final boolean and;
+
+    Logical(List<Node> operands, boolean and) {
+      this.operands = operands.toArray(new Node[0]);
+      this.and = and;
+    }
+
+    @Override
+    public Object evaluate(Object root) {
+      Object value = null;
+      for (int i = 0; i < operands.length; i++) {
+        value = operands[i].evaluate(root);
+        if (i < operands.length - 1 && OgnlOps.booleanValue(value) != and) {
+          break;
+        }
+      }
+      return value;
+    }
+  }
+
+  private enum Operator {
+    EQ, NEQ, LT, GT, LTE, GTE
+  }
+
+  private static final class Comparison implements Node {
+
+    private final Operator operator;
+    private final Node left;
+    private final Node right;
+
+    Comparison(Operator operator, Node left, Node right) {
+      this.operator = operator;
+      this.left = left;
+      this.right = right;
+    }
+
+    @Override
+    public Object evaluate(Object root) {
+      Object v1 = left.evaluate(root);
+      Object v2 = right.evaluate(root);
+      boolean result;
+      switch (operator) {
+        case EQ:
+          result = OgnlOps.equal(v1, v2);
+          break;
+        case NEQ:
+          result = !OgnlOps.equal(v1, v2);
+          break;
+        case LT:
+          result = OgnlOps.less(v1, v2);
+          break;
+        case GT:
+          result = OgnlOps.greater(v1, v2);
+          break;
+        case LTE:
+          result = !OgnlOps.greater(v1, v2);
+          break;
+        default:
+          result = !OgnlOps.less(v1, v2);
+          break;
+      }
+      return result ? Boolean.TRUE : Boolean.FALSE;
+    }
+  }
+
+  /**
+   * A recursive descent parser following the precedence of the OGNL grammar: {@code or}, {@code and}, equality,
+   * relational and unary operators.
+   */
+  private static final class Parser {
+
+    private final String text;
+    private int position;
+
+    Parser(String text) {
+      this.text = text;
+    }
+
+    Node parse() {
+      Node node = or();
+      skipWhitespace();
+      if (position != text.length()) {
+        throw Unsupported.INSTANCE;
+      }
+      return node;
+    }
+
+    private Node or() {
+      List<Node> operands = new ArrayList<>();
+      operands.add(and());
+      while (operator("||") || keyword("or")) {
+        operands.add(and());
+      }
+      return operands.size() == 1 ? operands.get(0) : new Logical(operands, false);
+    }
+
+    private Node and() {
+      List<Node> operands = new ArrayList<>();
+      operands.add(equality());
+      while (operator("&&") || keyword("and")) {
+        operands.add(equality());
+      }
+      return operands.size() == 1 ? operands.get(0) : new Logical(operands, true);
+    }
+
+    private Node equality() {
+      Node node = relational();
+      while (true) {
+        if (operator("==") || keyword("eq")) {
+          node = new Comparison(Operator.EQ, node, relational());
+        } else if (operator("!=") || keyword("neq")) {
+          node = new Comparison(Operator.NEQ, node, relational());
+        } else {
+          return node;
+        }
+      }
+    }
+
+    private Node relational() {
+      Node node = unary();
+      while (true) {
+        if (operator("<=") || keyword("lte")) {
+          node = new Comparison(Operator.LTE, node, unary());
+        } else if (operator(">=") || keyword("gte")) {
+          node = new Comparison(Operator.GTE, node, unary());
+        } else if (operator("<") || keyword("lt")) {
+          node = new Comparison(Operator.LT, node, unary());
+        } else if (operator(">") || keyword("gt")) {
+          node = new Comparison(Operator.GT, node, unary());
+        } else {
+          return node;
+        }
+      }
+    }
+
+    private Node unary() {
+      if (operator("!") || keyword("not")) {
+        return new Not(unary());
+      }
+      return primary();
+    }
+
+    private Node primary() {
+      skipWhitespace();
+      if (position == text.length()) {
+        throw Unsupported.INSTANCE;
+      }
+      char c = text.charAt(position);
+      if (c == '(') {
+        position++;
+        Node node = or();
+        if (!operator(")")) {
+          throw Unsupported.INSTANCE;
+        }
+        return node;
+      }
+      if (c == '\'' || c == '"') {
+        return new Constant(string(c));
+      }
+      if (c >= '0' && c <= '9') {
+        return new Constant(integer());
+      }
+      String identifier = identifier();
+      if ("null".equals(identifier)) {
+        return new Constant(null);
+      }
+      if ("true".equals(identifier) || "false".equals(identifier)) {
+        return new Constant(Boolean.valueOf(identifier));
+      }
+      if (KEYWORDS.contains(identifier)) {
+        throw Unsupported.INSTANCE;
+      }
+      List<String> properties = new ArrayList<>();
+      properties.add(identifier);
+      String method = null;
+      while (position < text.length() && text.charAt(position) == '.') {
+        position++;
+        String name = identifier();
+        if (KEYWORDS.contains(name)) {
+          throw Unsupported.INSTANCE;
+        }
+        if (position < text.length() && text.charAt(position) == '(') {
+          position++;
+          if (!operator(")") || !("size".equals(name) || "isEmpty".equals(name) || "length".equals(name))) {
+            throw Unsupported.INSTANCE;
+          }
+          method = name;
+          break;
+        }
+        properties.add(name);
+      }
+      if (position < text.length() && (text.charAt(position) == '(' || text.charAt(position) == '.')) {
+        throw Unsupported.INSTANCE;
+      }
+      return new Path(properties, method);
+    }
+
+    private Object string(char quote) {
+      int end = text.indexOf(quote, position + 1);
+      if (end < 0) {
+        throw Unsupported.INSTANCE;
+      }
+      String value = text.substring(position + 1, end);
+      if (value.indexOf('\\') >= 0) {
+        throw Unsupported.INSTANCE;
+      }
+      position = end + 1;
+      // OGNL reads a single character between single quotes as a character
+      return quote == '\'' && value.length() == 1 ? (Object) value.charAt(0) : value;
+    }
+
+    private Integer integer() {
+      int start = position;
+      while (position < text.length() && text.charAt(position) >= '0' && text.charAt(position) <= '9') {
+        position++;
+      }
+      if (position < text.length()
+          && (Character.isJavaIdentifierPart(text.charAt(position)) || text.charAt(position) == '.')
+          || position - start > 9 || position - start > 1 && text.charAt(start) == '0') {
+        // a long, a decimal or an octal number
+        throw Unsupported.INSTANCE;
+      }
+      return Integer.valueOf(text.substring(start, position));
+    }
+
+    private String identifier() {
+      int start = position;
+      if (position < text.length() && Character.isJavaIdentifierStart(text.charAt(position))) {
+        position++;
+        while (position < text.length() && Character.isJavaIdentifierPart(text.charAt(position))) {
+          position++;
+        }
+      }
+      if (start == position) {
+        throw Unsupported.INSTANCE;
+      }
+      return text.substring(start, position);
+    }
+
+    private boolean operator(String operator) {
+      skipWhitespace();
+      if (!text.startsWith(operator, position)) {
+        return false;
+      }
+      int end = position + operator.length();
+      if (end < text.length() && "=<>&|".indexOf(text.charAt(end)) >= 0 && !")".equals(operator)) {
+        // a longer operator, e.g. "<<" or "!="
+        return false;
+      }
+      position = end;
+      return true;
+    }
+
+    private boolean keyword(String keyword) {
+      skipWhitespace();
+      int end = position + keyword.length();
+      if (!text.startsWith(keyword, position)
+          || end < text.length() && Character.isJavaIdentifierPart(text.charAt(end))) {
+        return false;
+      }
+      position = end;
+      return true;
+    }
+
+    private void skipWhitespace() {
+      while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+        position++;
+      }
+    }
+  }
+
+}
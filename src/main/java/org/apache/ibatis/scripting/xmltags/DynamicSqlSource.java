@@ -15,7 +15,11 @@
  */
 package org.apache.ibatis.scripting.xmltags;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.apache.ibatis.builder.SqlSourceBuilder;
+import org.apache.ibatis.builder.SqlTemplate;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.SqlSource;
 import org.apache.ibatis.session.Configuration;
@@ -25,8 +29,15 @@ import org.apache.ibatis.session.Configuration;
  */
 public class DynamicSqlSource implements SqlSource {
 
+  /**
+   * The number of rendered SQL variants whose templates are kept, which bounds the memory used by statements whose SQL
+   * varies without limit, e.g. with <code>${...}</code> substitutions.
+   */
+  private static final int MAX_TEMPLATES = 128;
+
   private final Configuration configuration;
   private final SqlNode rootSqlNode;
+  private final Map<String, SqlTemplate> templates = new ConcurrentHashMap<>();
 
   public DynamicSqlSource(Configuration configuration, SqlNode rootSqlNode) {
     this.configuration = configuration;
@@ -39,10 +50,29 @@ public class DynamicSqlSource implements SqlSource {
     rootSqlNode.apply(context);
     SqlSourceBuilder sqlSourceParser = new SqlSourceBuilder(configuration);
     Class<?> parameterType = parameterObject == null ? Object.class : parameterObject.getClass();
-    SqlSource sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+    SqlSource sqlSource;
+    if (configuration.isDynamicSqlCacheEnabled()) {
+      sqlSource = sqlSourceParser.bind(getTemplate(sqlSourceParser, context, parameterType), context.getBindings());
+    } else {
+      sqlSource = sqlSourceParser.parse(context.getSql(), parameterType, context.getBindings());
+    }
     BoundSql boundSql = sqlSource.getBoundSql(parameterObject);
     context.getBindings().forEach(boundSql::setAdditionalParameter);
     return boundSql;
   }
 
+  private SqlTemplate getTemplate(SqlSourceBuilder sqlSourceParser, DynamicContext context, Class<?> parameterType) {
+    String sql = context.getSql();
+    SqlTemplate template = templates.get(sql);
+    if (template != null && template.getParameterType() == parameterType) {
+      return template;
+    }
+    boolean replace = template != null;
+    template = sqlSourceParser.compile(sql, parameterType, context.getBindings());
+    if (replace || templates.size() < MAX_TEMPLATES) {
+      templates.put(sql, template);
+    }
+    return template;
+  }
+
 }
@@ -17,6 +17,7 @@ package org.apache.ibatis.scripting.xmltags;
 
 import java.util.Map;
 import java.util.Optional;
+import java.util.regex.Pattern;
 
 import org.apache.ibatis.parsing.GenericTokenParser;
 import org.apache.ibatis.session.Configuration;
@@ -37,6 +38,8 @@ public class ForEachSqlNode implements SqlNode {
   private final String item;
   private final String index;
   private final Configuration configuration;
+  private final Pattern itemPattern;
+  private final Pattern indexPattern;
 
   /**
    * @deprecated Since 3.5.9, use the
@@ -63,6 +66,8 @@ public class ForEachSqlNode implements SqlNode {
     this.index = index;
     this.item = item;
     this.configuration = configuration;
+    this.itemPattern = placeholderPattern(item);
+    this.indexPattern = placeholderPattern(index);
   }
 
   @Override
@@ -133,11 +138,15 @@ public class ForEachSqlNode implements SqlNode {
     }
   }
 
+  private static Pattern placeholderPattern(String name) {
+    return Pattern.compile("^\\s*" + name + "(?![^.,:\\s])");
+  }
+
   private static String itemizeItem(String item, int i) {
     return ITEM_PREFIX + item + "_" + i;
   }
 
-  private static class FilteredDynamicContext extends DynamicContext {
+  private class FilteredDynamicContext extends DynamicContext {
     private final DynamicContext delegate;
     private final int index;
     private final String itemIndex;
@@ -170,9 +179,9 @@ public class ForEachSqlNode implements SqlNode {
     @Override
     public void appendSql(String sql) {
       GenericTokenParser parser = new GenericTokenParser("#{", "}", content -> {
-        String newContent = content.replaceFirst("^\\s*" + item + "(?![^.,:\\s])", itemizeItem(item, index));
+        String newContent = itemPattern.matcher(content).replaceFirst(itemizeItem(item, index));
         if (itemIndex != null && newContent.equals(content)) {
-          newContent = content.replaceFirst("^\\s*" + itemIndex + "(?![^.,:\\s])", itemizeItem(itemIndex, index));
+          newContent = indexPattern.matcher(content).replaceFirst(itemizeItem(itemIndex, index));
         }
         return "#{" + newContent + "}";
       });
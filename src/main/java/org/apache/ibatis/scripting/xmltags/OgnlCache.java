@@ -22,9 +22,13 @@ import ognl.Ognl;
 import ognl.OgnlException;
 
 import org.apache.ibatis.builder.BuilderException;
+import org.apache.ibatis.util.MapUtil;
 
 /**
  * Caches OGNL parsed expressions.
+ * <p>
+ * Expressions of the subset that {@link CompiledExpression} supports are also compiled, and are only evaluated by OGNL
+ * when their compiled form cannot evaluate them.
  *
  * @author Eduardo Macarron
  *
@@ -35,12 +39,24 @@ public final class OgnlCache {
   private static final OgnlMemberAccess MEMBER_ACCESS = new OgnlMemberAccess();
   private static final OgnlClassResolver CLASS_RESOLVER = new OgnlClassResolver();
   private static final Map<String, Object> expressionCache = new ConcurrentHashMap<>();
+  private static final Map<String, Object> compiledExpressionCache = new ConcurrentHashMap<>();
+  private static final Object NOT_COMPILED = new Object();
 
   private OgnlCache() {
     // Prevent Instantiation of Static Class
   }
 
   public static Object getValue(String expression, Object root) {
+    Object compiled = MapUtil.computeIfAbsent(compiledExpressionCache, expression, key -> {
+      CompiledExpression compiledExpression = CompiledExpression.compile(key);
+      return compiledExpression == null ? NOT_COMPILED : compiledExpression;
+    });
+    if (compiled != NOT_COMPILED) {
+      Object value = ((CompiledExpression) compiled).evaluate(root);
+      if (value != CompiledExpression.UNSUPPORTED) {
+        return value;
+      }
+    }
     try {
       Map context = Ognl.createDefaultContext(root, MEMBER_ACCESS, CLASS_RESOLVER, null);
       return Ognl.getValue(parseExpression(expression), context, root);
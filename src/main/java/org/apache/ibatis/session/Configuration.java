@@ -26,6 +26,9 @@ import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiFunction;
 
 import org.apache.ibatis.binding.MapperRegistry;
@@ -35,12 +38,21 @@ import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.TableVersions;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
+import org.apache.ibatis.cache.invalidation.CacheInvalidationBus;
+import org.apache.ibatis.cache.invalidation.InProcessInvalidationTransport;
+import org.apache.ibatis.cache.invalidation.InvalidationTransport;
+import org.apache.ibatis.cache.invalidation.UdpInvalidationTransport;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.BatchExecutor;
@@ -117,6 +129,9 @@ public class Configuration {
   protected boolean shrinkWhitespacesInSql;
   protected boolean nullableOnForEach;
   protected boolean argNameBasedConstructorAutoMapping;
+  protected boolean useCompiledRowMappers;
+  protected boolean useColumnIndexes;
+  protected boolean batchReorderingEnabled;
 
   protected String logPrefix;
   protected Class<? extends Log> logImpl;
@@ -128,6 +143,15 @@ public class Configuration {
       Arrays.asList("equals", "clone", "hashCode", "toString"));
   protected Integer defaultStatementTimeout;
   protected Integer defaultFetchSize;
+  protected Integer maxBatchSize;
+  protected Integer multiRowInsertSize;
+  protected Integer cursorPrefetchSize;
+  protected java.util.concurrent.Executor taskExecutor;
+  protected Class<? extends InvalidationTransport> cacheInvalidationTransport;
+  protected volatile CacheInvalidationBus cacheInvalidationBus;
+  protected boolean tableLevelCacheInvalidation;
+  protected final TableVersions tableVersions = new TableVersions();
+  protected boolean dynamicSqlCacheEnabled = true;
   protected ResultSetType defaultResultSetType;
   protected ExecutorType defaultExecutorType = ExecutorType.SIMPLE;
   protected AutoMappingBehavior autoMappingBehavior = AutoMappingBehavior.PARTIAL;
@@ -189,6 +213,7 @@ public class Configuration {
 
     typeAliasRegistry.registerAlias("JNDI", JndiDataSourceFactory.class);
     typeAliasRegistry.registerAlias("POOLED", PooledDataSourceFactory.class);
+    typeAliasRegistry.registerAlias("CONCURRENT_POOLED", ConcurrentPooledDataSourceFactory.class);
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
@@ -196,6 +221,11 @@ public class Configuration {
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
+    typeAliasRegistry.registerAlias("TINYLFU", TinyLfuCache.class);
+    typeAliasRegistry.registerAlias("OFFHEAP", OffHeapCache.class);
+
+    typeAliasRegistry.registerAlias("IN_PROCESS", InProcessInvalidationTransport.class);
+    typeAliasRegistry.registerAlias("UDP", UdpInvalidationTransport.class);
 
     typeAliasRegistry.registerAlias("DB_VENDOR", VendorDatabaseIdProvider.class);
 
@@ -337,6 +367,86 @@ public class Configuration {
     this.argNameBasedConstructorAutoMapping = argNameBasedConstructorAutoMapping;
   }
 
+  /**
+   * Returns whether simple result maps are applied through row mappers that are compiled once per column layout.
+   * <p>
+   * Default is {@code false}.
+   *
+   * @return If enabled, {@code true}
+   *
+   * @since 3.5.12
+   */
+  public boolean isUseCompiledRowMappers() {
+    return useCompiledRowMappers;
+  }
+
+  /**
+   * Sets whether simple result maps are applied through row mappers that are compiled once per column layout.
+   *
+   * @param useCompiledRowMappers
+   *          If enabled, set to {@code true}
+   *
+   * @since 3.5.12
+   */
+  public void setUseCompiledRowMappers(boolean useCompiledRowMappers) {
+    this.useCompiledRowMappers = useCompiledRowMappers;
+  }
+
+  /**
+   * Returns whether mapped columns are read by their index in the result set rather than by their label. The indexes
+   * are resolved once per column layout; columns that are not found there are still read by label.
+   * <p>
+   * Default is {@code false}.
+   *
+   * @return If enabled, {@code true}
+   *
+   * @since 3.5.12
+   */
+  public boolean isUseColumnIndexes() {
+    return useColumnIndexes;
+  }
+
+  /**
+   * Sets whether mapped columns are read by their index in the result set rather than by their label.
+   *
+   * @param useColumnIndexes
+   *          If enabled, set to {@code true}
+   *
+   * @since 3.5.12
+   */
+  public void setUseColumnIndexes(boolean useColumnIndexes) {
+    this.useColumnIndexes = useColumnIndexes;
+  }
+
+  /**
+   * Returns whether the batch executor adds an update to the pending batch of the same statement and SQL even when
+   * other updates have been batched in between.
+   * <p>
+   * Default is {@code false}.
+   *
+   * @return If enabled, {@code true}
+   *
+   * @see MappedStatement#getBatchDependsOn()
+   *
+   * @since 3.5.12
+   */
+  public boolean isBatchReorderingEnabled() {
+    return batchReorderingEnabled;
+  }
+
+  /**
+   * Sets whether the batch executor adds an update to the pending batch of the same statement and SQL even when other
+   * updates have been batched in between.
+   *
+   * @param batchReorderingEnabled
+   *          If enabled, set to {@code true}
+   *
+   * @since 3.5.12
+   */
+  public void setBatchReorderingEnabled(boolean batchReorderingEnabled) {
+    this.batchReorderingEnabled = batchReorderingEnabled;
+  }
+
   public String getDatabaseId() {
     return databaseId;
   }
@@ -522,6 +632,234 @@ public class Configuration {
     this.defaultFetchSize = defaultFetchSize;
   }
 
+  /**
+   * Gets the maximum number of updates batched on a statement before the batch executor executes it.
+   *
+   * @return the maximum batch size or {@code null} if batches are only executed when the statements are flushed
+   *
+   * @since 3.5.12
+   */
+  public Integer getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Sets the maximum number of updates batched on a statement before the batch executor executes it.
+   *
+   * @param maxBatchSize
+   *          the maximum batch size
+   *
+   * @since 3.5.12
+   */
+  public void setMaxBatchSize(Integer maxBatchSize) {
+    this.maxBatchSize = maxBatchSize;
+  }
+
+  /**
+   * Gets the maximum number of rows the batch executor inserts with one multi-row insert statement.
+   *
+   * @return the maximum number of rows per insert statement or {@code null} if batched inserts are not rewritten
+   *
+   * @since 3.5.12
+   */
+  public Integer getMultiRowInsertSize() {
+    return multiRowInsertSize;
+  }
+
+  /**
+   * Sets the maximum number of rows the batch executor inserts with one multi-row insert statement.
+   *
+   * @param multiRowInsertSize
+   *          the maximum number of rows per insert statement
+   *
+   * @since 3.5.12
+   */
+  public void setMultiRowInsertSize(Integer multiRowInsertSize) {
+    this.multiRowInsertSize = multiRowInsertSize;
+  }
+
+  /**
+   * Gets the number of objects a cursor fetches and maps ahead of its consumer on a background thread.
+   *
+   * @return the number of objects fetched ahead or {@code null} if cursors fetch on the consumer thread
+   *
+   * @since 3.5.12
+   */
+  public Integer getCursorPrefetchSize() {
+    return cursorPrefetchSize;
+  }
+
+  /**
+   * Sets the number of objects a cursor fetches and maps ahead of its consumer on a background thread. Cursors whose
+   * result maps run nested queries always fetch on the consumer thread. The session cannot run other statements, commit
+   * or roll back while such a cursor is open, i.e. from its first object until it is consumed or closed.
+   *
+   * @param cursorPrefetchSize
+   *          the number of objects fetched ahead
+   *
+   * @since 3.5.12
+   */
+  public void setCursorPrefetchSize(Integer cursorPrefetchSize) {
+    this.cursorPrefetchSize = cursorPrefetchSize;
+  }
+
+  /**
+   * Gets the executor that runs background tasks, i.e. asynchronous batch flushes and prefetching cursors. Unless one
+   * is set, a pool of daemon threads shared by all configurations is used, whose threads end when they have been idle
+   * for a minute.
+   *
+   * @return the executor
+   *
+   * @since 3.5.12
+   */
+  public java.util.concurrent.Executor getTaskExecutor() {
+    return taskExecutor != null ? taskExecutor : DefaultTaskExecutorHolder.INSTANCE;
+  }
+
+  /**
+   * Sets the executor that runs background tasks. A prefetching cursor occupies a thread until it is closed or drained,
+   * so the executor must not queue tasks indefinitely.
+   *
+   * @param taskExecutor
+   *          the executor or {@code null} to use the shared pool
+   *
+   * @since 3.5.12
+   */
+  public void setTaskExecutor(java.util.concurrent.Executor taskExecutor) {
+    this.taskExecutor = taskExecutor;
+  }
+
+  /**
+   * Gets the transport that carries second level cache flushes to other nodes.
+   *
+   * @return the transport type or {@code null} if flushes are not published
+   *
+   * @since 3.5.12
+   */
+  public Class<? extends InvalidationTransport> getCacheInvalidationTransport() {
+    return cacheInvalidationTransport;
+  }
+
+  /**
+   * Sets the transport that carries second level cache flushes to other nodes. The {@link CacheInvalidationBus} is
+   * started on it, configured with the current variables, when the first session is opened.
+   *
+   * @param cacheInvalidationTransport
+   *          the transport type or {@code null} to stop publishing flushes
+   *
+   * @since 3.5.12
+   */
+  public void setCacheInvalidationTransport(Class<? extends InvalidationTransport> cacheInvalidationTransport) {
+    closeCacheInvalidationBus();
+    this.cacheInvalidationTransport = cacheInvalidationTransport;
+  }
+
+  /**
+   * Gets the bus that publishes second level cache flushes to other nodes, and starts it if it is not running.
+   *
+   * @return the bus or {@code null} if no transport is set
+   *
+   * @since 3.5.12
+   */
+  public CacheInvalidationBus getCacheInvalidationBus() {
+    CacheInvalidationBus bus = cacheInvalidationBus;
+    if (bus == null && cacheInvalidationTransport != null) {
+      synchronized (this) {
+        bus = cacheInvalidationBus;
+        if (bus == null && cacheInvalidationTransport != null) {
+          InvalidationTransport transport;
+          try {
+            transport = cacheInvalidationTransport.getDeclaredConstructor().newInstance();
+          } catch (Exception e) {
+            throw new CacheException(
+                "Error creating cache invalidation transport " + cacheInvalidationTransport + ". Cause: " + e, e);
+          }
+          transport.setProperties(variables);
+          bus = new CacheInvalidationBus(this, transport);
+          cacheInvalidationBus = bus;
+        }
+      }
+    }
+    return bus;
+  }
+
+  /**
+   * Stops the bus that publishes second level cache flushes to other nodes, with its thread and transport. The owner of
+   * the configuration should call it when the application shuts down. The bus is started again if another session is
+   * opened.
+   *
+   * @since 3.5.12
+   */
+  public void closeCacheInvalidationBus() {
+    CacheInvalidationBus bus;
+    synchronized (this) {
+      bus = cacheInvalidationBus;
+      cacheInvalidationBus = null;
+    }
+    if (bus != null) {
+      bus.close();
+    }
+  }
+
+  /**
+   * Tells whether writes only invalidate the second level cache entries read from the tables they write, instead of
+   * flushing the caches of their namespaces.
+   *
+   * @return true if table-level cache invalidation is enabled
+   *
+   * @since 3.5.12
+   */
+  public boolean isTableLevelCacheInvalidation() {
+    return tableLevelCacheInvalidation;
+  }
+
+  /**
+   * Sets whether writes only invalidate the second level cache entries read from the tables they write. It must be set
+   * before statements are added, so that the tables of static statements are found once.
+   *
+   * @param tableLevelCacheInvalidation
+   *          true to enable table-level cache invalidation
+   *
+   * @since 3.5.12
+   */
+  public void setTableLevelCacheInvalidation(boolean tableLevelCacheInvalidation) {
+    this.tableLevelCacheInvalidation = tableLevelCacheInvalidation;
+  }
+
+  /**
+   * Gets the versions of the tables written by committed transactions, for table-level cache invalidation.
+   *
+   * @return the table versions
+   *
+   * @since 3.5.12
+   */
+  public TableVersions getTableVersions() {
+    return tableVersions;
+  }
+
+  /**
+   * Tells whether dynamic SQL statements reuse the parameter mappings parsed for the same SQL by previous executions.
+   *
+   * @return true if the parsed dynamic SQL is cached
+   *
+   * @since 3.5.12
+   */
+  public boolean isDynamicSqlCacheEnabled() {
+    return dynamicSqlCacheEnabled;
+  }
+
+  /**
+   * Sets whether dynamic SQL statements reuse the parameter mappings parsed for the same SQL by previous executions.
+   *
+   * @param dynamicSqlCacheEnabled
+   *          true to cache the parsed dynamic SQL
+   *
+   * @since 3.5.12
+   */
+  public void setDynamicSqlCacheEnabled(boolean dynamicSqlCacheEnabled) {
+    this.dynamicSqlCacheEnabled = dynamicSqlCacheEnabled;
+  }
+
   /**
    * Gets the default result set type.
    *
@@ -731,7 +1069,7 @@ public class Configuration {
       executor = new SimpleExecutor(this, transaction);
     }
     if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor, getCacheInvalidationBus());
     }
     return (Executor) interceptorChain.pluginAll(executor);
   }
@@ -1022,6 +1360,15 @@ public class Configuration {
     }
   }
 
+  private static final class DefaultTaskExecutorHolder {
+    private static final AtomicInteger threadCount = new AtomicInteger();
+    private static final ExecutorService INSTANCE = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "mybatis-task-" + threadCount.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
   protected static class StrictMap<V> extends ConcurrentHashMap<String, V> {
 
     private static final long serialVersionUID = -4950446264854982944L;
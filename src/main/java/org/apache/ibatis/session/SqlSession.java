@@ -19,9 +19,12 @@ import java.io.Closeable;
 import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.CursorPublisher;
 import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.mapping.MappedStatement;
 
 /**
  * The primary Java interface for working with MyBatis. Through this interface you can execute commands, get mappers and
@@ -198,6 +201,69 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * A Publisher offers the same results as a Cursor, except it fetches data as a subscriber requests it. The rows are
+   * fetched on the thread that requests them, when they are requested, and the session must stay open until the
+   * subscription completes.
+   *
+   * @param <P>
+   *          the returned {@code java.util.concurrent.Flow.Publisher} type.
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   *
+   * @return {@code java.util.concurrent.Flow.Publisher} of mapped objects
+   *
+   * @since 3.5.12
+   */
+  default <P> P selectPublisher(String statement) {
+    return selectPublisher(statement, null);
+  }
+
+  /**
+   * A Publisher offers the same results as a Cursor, except it fetches data as a subscriber requests it. The rows are
+   * fetched on the thread that requests them, when they are requested, and the session must stay open until the
+   * subscription completes.
+   *
+   * @param <P>
+   *          the returned {@code java.util.concurrent.Flow.Publisher} type.
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   *
+   * @return {@code java.util.concurrent.Flow.Publisher} of mapped objects
+   *
+   * @since 3.5.12
+   */
+  default <P> P selectPublisher(String statement, Object parameter) {
+    return selectPublisher(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  /**
+   * A Publisher offers the same results as a Cursor, except it fetches data as a subscriber requests it. The rows are
+   * fetched on the thread that requests them, when they are requested, and the session must stay open until the
+   * subscription completes.
+   *
+   * @param <P>
+   *          the returned {@code java.util.concurrent.Flow.Publisher} type.
+   * @param statement
+   *          Unique identifier matching the statement to use.
+   * @param parameter
+   *          A parameter object to pass to the statement.
+   * @param rowBounds
+   *          Bounds to limit object retrieval
+   *
+   * @return {@code java.util.concurrent.Flow.Publisher} of mapped objects
+   *
+   * @since 3.5.12
+   */
+  default <P> P selectPublisher(String statement, Object parameter, RowBounds rowBounds) {
+    Configuration configuration = getConfiguration();
+    MappedStatement ms = configuration.getMappedStatement(statement);
+    boolean adaptFetchSize = ms.getFetchSize() == null && configuration.getDefaultFetchSize() == null;
+    return CursorPublisher.create(() -> selectCursor(statement, parameter, rowBounds), adaptFetchSize);
+  }
+
   /**
    * Retrieve a single row mapped from the statement key and parameter using a {@code ResultHandler}.
    *
@@ -341,6 +407,20 @@ public interface SqlSession extends Closeable {
    */
   List<BatchResult> flushStatements();
 
+  /**
+   * Flushes batch statements without waiting for them to be executed. With a {@code BATCH} executor, the statements are
+   * executed by the {@link Configuration#getTaskExecutor() task executor} while the caller goes on; the next update,
+   * flush, query, commit, rollback or close waits for them, and rethrows their failure unless it rolls back. The
+   * connection of the session must not be used directly in the meantime. Other executors flush synchronously.
+   *
+   * @return the future BatchResult list of updated records
+   *
+   * @since 3.5.12
+   */
+  default CompletableFuture<List<BatchResult>> flushStatementsAsync() {
+    return CompletableFuture.completedFuture(flushStatements());
+  }
+
   /**
    * Closes the session.
    */
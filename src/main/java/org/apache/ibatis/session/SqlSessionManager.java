@@ -24,6 +24,7 @@ import java.sql.Connection;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
 
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.executor.BatchResult;
@@ -322,6 +323,15 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSession.flushStatements();
   }
 
+  @Override
+  public CompletableFuture<List<BatchResult>> flushStatementsAsync() {
+    final SqlSession sqlSession = localSqlSession.get();
+    if (sqlSession == null) {
+      throw new SqlSessionException("Error:  Cannot flush statements.  No managed session is started.");
+    }
+    return sqlSession.flushStatementsAsync();
+  }
+
   @Override
   public void close() {
     final SqlSession sqlSession = localSqlSession.get();
@@ -22,6 +22,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import org.apache.ibatis.binding.BindingException;
 import org.apache.ibatis.cursor.Cursor;
@@ -257,6 +259,32 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public CompletableFuture<List<BatchResult>> flushStatementsAsync() {
+    try {
+      CompletableFuture<List<BatchResult>> results = new CompletableFuture<>();
+      executor.flushStatementsAsync().whenComplete((batchResults, e) -> {
+        if (e == null) {
+          results.complete(batchResults);
+        } else {
+          Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+          try {
+            results.completeExceptionally(cause instanceof Exception
+                ? ExceptionFactory.wrapException("Error flushing statements.  Cause: " + cause, (Exception) cause)
+                : cause);
+          } finally {
+            ErrorContext.instance().reset();
+          }
+        }
+      });
+      return results;
+    } catch (Exception e) {
+      throw ExceptionFactory.wrapException("Error flushing statements.  Cause: " + e, e);
+    } finally {
+      ErrorContext.instance().reset();
+    }
+  }
+
   @Override
   public void close() {
     try {
@@ -42,11 +42,13 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.ibatis.binding.MapperMethod.ParamMap;
 import org.apache.ibatis.io.ResolverUtil;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.util.MapUtil;
 
 /**
  * @author Clinton Begin
@@ -60,6 +62,14 @@ public final class TypeHandlerRegistry {
   private final Map<Class<?>, TypeHandler<?>> allTypeHandlersMap = new HashMap<>();
 
   private static final Map<JdbcType, TypeHandler<?>> NULL_TYPE_HANDLER_MAP = Collections.emptyMap();
+  private static final Object NO_TYPE_HANDLER = new Object();
+  private static final int JDBC_TYPE_COUNT = JdbcType.values().length;
+
+  /**
+   * The handlers resolved by {@link #getTypeHandler(Type, JdbcType)}, or {@link #NO_TYPE_HANDLER}, per java type and
+   * per jdbc type (indexed by ordinal + 1, at 0 for {@code null}). Replaced on every registration.
+   */
+  private volatile Map<Type, AtomicReferenceArray<Object>> resolvedTypeHandlers = new ConcurrentHashMap<>();
 
   private Class<? extends TypeHandler> defaultEnumTypeHandler = EnumTypeHandler.class;
 
@@ -192,6 +202,7 @@ public final class TypeHandlerRegistry {
    */
   public void setDefaultEnumTypeHandler(Class<? extends TypeHandler> typeHandler) {
     this.defaultEnumTypeHandler = typeHandler;
+    resolvedTypeHandlers = new ConcurrentHashMap<>();
   }
 
   public boolean hasTypeHandler(Class<?> javaType) {
@@ -239,6 +250,25 @@ public final class TypeHandlerRegistry {
     if (ParamMap.class.equals(type)) {
       return null;
     }
+    final Map<Type, AtomicReferenceArray<Object>> resolved = resolvedTypeHandlers;
+    final int slot = jdbcType == null ? 0 : jdbcType.ordinal() + 1;
+    AtomicReferenceArray<Object> handlers = resolved.get(type);
+    if (handlers != null) {
+      Object handler = handlers.get(slot);
+      if (handler != null) {
+        return handler == NO_TYPE_HANDLER ? null : (TypeHandler<T>) handler;
+      }
+    } else {
+      handlers = MapUtil.computeIfAbsent(resolved, type, k -> new AtomicReferenceArray<>(JDBC_TYPE_COUNT + 1));
+    }
+    TypeHandler<T> handler = resolveTypeHandler(type, jdbcType);
+    // stored in discarded handlers if a registration replaced them meanwhile
+    handlers.set(slot, handler == null ? NO_TYPE_HANDLER : handler);
+    return handler;
+  }
+
+  @SuppressWarnings("unchecked")
+  private <T> TypeHandler<T> resolveTypeHandler(Type type, JdbcType jdbcType) {
     Map<JdbcType, TypeHandler<?>> jdbcHandlerMap = getJdbcHandlerMap(type);
     TypeHandler<?> handler = null;
     if (jdbcHandlerMap != null) {
@@ -400,6 +430,7 @@ public final class TypeHandlerRegistry {
       }
       map.put(jdbcType, handler);
       typeHandlerMap.put(javaType, map);
+      resolvedTypeHandlers = new ConcurrentHashMap<>();
     }
     allTypeHandlersMap.put(handler.getClass(), handler);
   }
@@ -0,0 +1,183 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Compares two CSV result files written by {@link BenchmarkRunner} (or by JMH with {@code -rf csv}) and reports the
+ * benchmarks that got slower.
+ * <p>
+ * Usage: {@code BenchmarkComparison <baseline.csv> <current.csv> [threshold percent]}. A benchmark regresses when its
+ * score is worse than the baseline by more than the threshold (10% by default) and by more than the sum of both score
+ * errors. The allocation rate per operation reported by the GC profiler is compared too. The process exits with status
+ * 1 when a benchmark regresses.
+ */
+public final class BenchmarkComparison {
+
+  private static final String ALLOCATION_METRIC = "gc.alloc.rate.norm";
+
+  private BenchmarkComparison() {
+    // Prevent Instantiation
+  }
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 2) {
+      System.err.println("Usage: BenchmarkComparison <baseline.csv> <current.csv> [threshold percent]");
+      System.exit(2);
+    }
+    double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+    Map<String, Score> baseline = read(args[0]);
+    Map<String, Score> current = read(args[1]);
+    int regressions = compare(baseline, current, threshold, System.out);
+    System.exit(regressions > 0 ? 1 : 0);
+  }
+
+  /**
+   * Prints the comparison of the scores and returns the number of regressions.
+   */
+  static int compare(Map<String, Score> baseline, Map<String, Score> current, double threshold, PrintStream out) {
+    int regressions = 0;
+    out.printf(Locale.ENGLISH, "%-80s %24s %24s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+    for (Map.Entry<String, Score> entry : current.entrySet()) {
+      Score after = entry.getValue();
+      Score before = baseline.get(entry.getKey());
+      if (before == null) {
+        out.printf(Locale.ENGLISH, "%-80s %24s %24s%n", entry.getKey(), "-", after);
+        continue;
+      }
+      double change = (after.value - before.value) / before.value * 100;
+      double worsening = after.higherIsBetter ? -change : change;
+      boolean regressed = worsening > threshold && Math.abs(after.value - before.value) > before.error + after.error;
+      if (regressed) {
+        regressions++;
+      }
+      out.printf(Locale.ENGLISH, "%-80s %24s %24s %+8.1f%%%s%n", entry.getKey(), before, after, change,
+          regressed ? "  REGRESSION" : "");
+    }
+    for (String name : baseline.keySet()) {
+      if (!current.containsKey(name)) {
+        out.printf(Locale.ENGLISH, "%-80s %24s %24s%n", name, baseline.get(name), "-");
+      }
+    }
+    out.printf(Locale.ENGLISH, "%d regression(s) over %.1f%%%n", regressions, threshold);
+    return regressions;
+  }
+
+  /**
+   * Reads the scores of a CSV result file, keyed by benchmark name and parameters.
+   */
+  static Map<String, Score> read(String file) throws IOException {
+    List<String> lines = Files.readAllLines(Paths.get(file), StandardCharsets.UTF_8);
+    Map<String, Score> scores = new LinkedHashMap<>();
+    if (lines.isEmpty()) {
+      return scores;
+    }
+    List<String> header = split(lines.get(0));
+    int mode = header.indexOf("Mode");
+    int score = header.indexOf("Score");
+    int error = header.indexOf("Score Error (99.9%)");
+    int unit = header.indexOf("Unit");
+    for (String line : lines.subList(1, lines.size())) {
+      if (line.trim().isEmpty()) {
+        continue;
+      }
+      List<String> columns = split(line);
+      String benchmark = columns.get(0);
+      int metric = benchmark.indexOf(':');
+      if (metric >= 0 && !benchmark.endsWith(ALLOCATION_METRIC)) {
+        // other secondary metrics of the profilers
+        continue;
+      }
+      StringBuilder key = new StringBuilder(benchmark);
+      for (int i = 0; i < header.size(); i++) {
+        if (header.get(i).startsWith("Param: ") && i < columns.size() && !columns.get(i).isEmpty()) {
+          key.append(key.indexOf("(") < 0 ? " (" : ", ").append(header.get(i).substring(7)).append('=')
+              .append(columns.get(i));
+        }
+      }
+      if (key.indexOf("(") >= 0) {
+        key.append(')');
+      }
+      boolean higherIsBetter = metric < 0 && "thrpt".equals(columns.get(mode));
+      scores.put(key.toString(),
+          new Score(parse(columns.get(score)), parse(columns.get(error)), columns.get(unit), higherIsBetter));
+    }
+    return scores;
+  }
+
+  private static double parse(String number) {
+    try {
+      return Double.parseDouble(number);
+    } catch (NumberFormatException e) {
+      return Double.NaN;
+    }
+  }
+
+  private static List<String> split(String line) {
+    List<String> columns = new ArrayList<>();
+    StringBuilder column = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (c == '"') {
+        if (quoted && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          column.append(c);
+          i++;
+        } else {
+          quoted = !quoted;
+        }
+      } else if (c == ',' && !quoted) {
+        columns.add(column.toString());
+        column.setLength(0);
+      } else {
+        column.append(c);
+      }
+    }
+    columns.add(column.toString());
+    return columns;
+  }
+
+  static final class Score {
+
+    private final double value;
+    private final double error;
+    private final String unit;
+    private final boolean higherIsBetter;
+
+    Score(double value, double error, String unit, boolean higherIsBetter) {
+      this.value = value;
+      this.error = Double.isNaN(error) ? 0 : error;
+      this.unit = unit;
+      this.higherIsBetter = higherIsBetter;
+    }
+
+    @Override
+    public String toString() {
+      return String.format(Locale.ENGLISH, "%.3f +- %.3f %s", value, error, unit);
+    }
+  }
+
+}
@@ -0,0 +1,45 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the GC profiler and writes their results to a CSV file, which {@link BenchmarkComparison}
+ * compares with the results of another run.
+ * <p>
+ * Build the benchmarks with {@code ./mvnw test-compile}, then run this class with the test classpath, e.g.
+ * {@code java -cp target/classes:target/test-classes:<dependencies> org.apache.ibatis.benchmarks.BenchmarkRunner
+ * target/benchmarks.csv}. The optional second argument is a regular expression that selects the benchmarks to run.
+ */
+public final class BenchmarkRunner {
+
+  private BenchmarkRunner() {
+    // Prevent Instantiation
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    String result = args.length > 0 ? args[0] : "target/benchmarks.csv";
+    String include = args.length > 1 ? args[1] : BenchmarkRunner.class.getPackage().getName() + "\\..*Benchmark";
+    new Runner(new OptionsBuilder().include(include).addProfiler(GCProfiler.class).resultFormat(ResultFormatType.CSV)
+        .result(result).build()).run();
+  }
+
+}
@@ -0,0 +1,114 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.binding;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the dispatch of mapper method calls to a session, which is stubbed so that only the work of the mapper proxy
+ * and of the mapper method is measured. {@link #sqlSession()} calls the stub directly, as a baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperProxyBenchmark {
+
+  private static final String STATEMENT = Mapper.class.getName() + ".selectName";
+
+  private SqlSession sqlSession;
+  private Mapper mapper;
+
+  @Setup
+  public void setup() {
+    Configuration configuration = new Configuration();
+    configuration.addMapper(Mapper.class);
+    sqlSession = (SqlSession) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { SqlSession.class },
+        (proxy, method, args) -> {
+          switch (method.getName()) {
+            case "getConfiguration":
+              return configuration;
+            case "selectOne":
+              return "jim";
+            default:
+              throw new UnsupportedOperationException(method.getName());
+          }
+        });
+    mapper = configuration.getMapper(Mapper.class, sqlSession);
+  }
+
+  @Benchmark
+  public String sqlSession() {
+    return sqlSession.selectOne(STATEMENT, 1);
+  }
+
+  @Benchmark
+  public String oneParameter() {
+    return mapper.selectName(1);
+  }
+
+  @Benchmark
+  public String namedParameters() {
+    return mapper.selectNameByIdAndEmail(1, "jim@example.com");
+  }
+
+  @Benchmark
+  public String defaultMethod() {
+    return mapper.selectDefaultName();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(MapperProxyBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build())
+            .run();
+  }
+
+  public interface Mapper {
+
+    @Select("select username from author where id = #{id}")
+    String selectName(int id);
+
+    @Select("select username from author where id = #{id} and email = #{email}")
+    String selectNameByIdAndEmail(@Param("id") int id, @Param("email") String email);
+
+    default String selectDefaultName() {
+      return selectName(1);
+    }
+  }
+
+}
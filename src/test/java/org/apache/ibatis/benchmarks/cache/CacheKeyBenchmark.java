@@ -0,0 +1,128 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the creation of the cache key of a query and its lookup in a cache.
+ * <p>
+ * Run with the GC profiler (as {@link #main(String[])} does) to report the bytes allocated per lookup in
+ * {@code gc.alloc.rate.norm}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheKeyBenchmark {
+
+  private Executor executor;
+  private MappedStatement staticStatement;
+  private MappedStatement dynamicStatement;
+  private Map<String, Object> parameter;
+  private BoundSql staticBoundSql;
+  private BoundSql dynamicBoundSql;
+  private Cache cache;
+
+  @Setup
+  public void setup() {
+    Configuration configuration = new Configuration(
+        new Environment("development", new JdbcTransactionFactory(), new UnpooledDataSource()));
+    List<ParameterMapping> parameterMappings = new ArrayList<>();
+    parameterMappings.add(new ParameterMapping.Builder(configuration, "id", Integer.class).build());
+    parameterMappings.add(new ParameterMapping.Builder(configuration, "name", String.class).build());
+    String sql = "select id, name, email, bio, favourite_section from author where id = ? and name = ?";
+    staticStatement = new MappedStatement.Builder(configuration, "selectAuthor",
+        new StaticSqlSource(configuration, sql, parameterMappings), SqlCommandType.SELECT).build();
+    SqlSource dynamicSqlSource = parameterObject -> new BoundSql(configuration, new String(sql), parameterMappings,
+        parameterObject);
+    dynamicStatement = new MappedStatement.Builder(configuration, "selectAuthorDynamic", dynamicSqlSource,
+        SqlCommandType.SELECT).build();
+    executor = new SimpleExecutor(configuration, null);
+    parameter = new HashMap<>();
+    parameter.put("id", 101);
+    parameter.put("name", "jim");
+    staticBoundSql = staticStatement.getBoundSql(parameter);
+    dynamicBoundSql = dynamicStatement.getBoundSql(parameter);
+    cache = new PerpetualCache("benchmark");
+    cache.putObject(createStaticKey(), "static");
+    cache.putObject(createDynamicKey(), "dynamic");
+  }
+
+  @Benchmark
+  public CacheKey createStaticKey() {
+    return executor.createCacheKey(staticStatement, parameter, RowBounds.DEFAULT, staticBoundSql);
+  }
+
+  @Benchmark
+  public CacheKey createDynamicKey() {
+    return executor.createCacheKey(dynamicStatement, parameter, RowBounds.DEFAULT, dynamicBoundSql);
+  }
+
+  @Benchmark
+  public Object lookupStaticKey() {
+    return cache.getObject(createStaticKey());
+  }
+
+  @Benchmark
+  public Object lookupDynamicKey() {
+    return cache.getObject(createDynamicKey());
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(CacheKeyBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build())
+            .run();
+  }
+
+}
@@ -0,0 +1,92 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.datasource.pooled.ConcurrentPooledDataSource;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the checkout and return of a pooled connection by 16 threads sharing a pool of 8 connections to an in-memory
+ * HSQLDB database.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(16)
+@Fork(1)
+public class PooledDataSourceBenchmark {
+
+  @Param({ "pooled", "concurrent" })
+  public String pool;
+
+  private PooledDataSource dataSource;
+
+  @Setup
+  public void setup() throws SQLException {
+    String url = "jdbc:hsqldb:mem:pooleddatasource";
+    dataSource = "concurrent".equals(pool) ? new ConcurrentPooledDataSource("org.hsqldb.jdbcDriver", url, "sa", "")
+        : new PooledDataSource("org.hsqldb.jdbcDriver", url, "sa", "");
+    dataSource.setPoolMaximumActiveConnections(8);
+    dataSource.setPoolMaximumIdleConnections(8);
+    // open the connections up front, so that only checkouts are measured
+    Connection[] connections = new Connection[8];
+    for (int i = 0; i < connections.length; i++) {
+      connections[i] = dataSource.getConnection();
+    }
+    for (Connection connection : connections) {
+      connection.close();
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    dataSource.forceCloseAll();
+  }
+
+  @Benchmark
+  public boolean checkout() throws SQLException {
+    try (Connection connection = dataSource.getConnection()) {
+      return connection.getAutoCommit();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PooledDataSourceBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
@@ -0,0 +1,277 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.mapping;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.annotations.Arg;
+import org.apache.ibatis.annotations.ConstructorArgs;
+import org.apache.ibatis.annotations.Many;
+import org.apache.ibatis.annotations.Result;
+import org.apache.ibatis.annotations.Results;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the mapping of 500 rows of an in-memory HSQLDB database with an explicit result map, with auto-mapping,
+ * through a constructor and into 100 objects with nested collections.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultMappingBenchmark {
+
+  private static final int AUTHORS = 100;
+  private static final int POSTS_PER_AUTHOR = 5;
+
+  private PooledDataSource dataSource;
+  private SqlSession sqlSession;
+  private AuthorMapper mapper;
+
+  @Setup
+  public void setup() throws Exception {
+    dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:resultmapping", "sa", "");
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists post");
+      statement.execute("drop table if exists author");
+      statement.execute(
+          "create table author (id int primary key, username varchar(20), email varchar(40), bio varchar(80))");
+      statement.execute("create table post (id int primary key, author_id int, subject varchar(40), body varchar(80))");
+      int postId = 0;
+      for (int i = 0; i < AUTHORS; i++) {
+        statement.execute("insert into author values (" + i + ", 'user" + i + "', 'user" + i
+            + "@example.com', 'The bio of user " + i + "')");
+        for (int j = 0; j < POSTS_PER_AUTHOR; j++, postId++) {
+          statement.execute("insert into post values (" + postId + ", " + i + ", 'Subject " + postId
+              + "', 'The body of post " + postId + "')");
+        }
+      }
+    }
+    Configuration configuration = new Configuration(
+        new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    // every select must map its rows rather than return the list of the previous one
+    configuration.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    configuration.addMapper(AuthorMapper.class);
+    sqlSession = new SqlSessionFactoryBuilder().build(configuration).openSession();
+    mapper = sqlSession.getMapper(AuthorMapper.class);
+  }
+
+  @TearDown
+  public void tearDown() {
+    sqlSession.close();
+    dataSource.forceCloseAll();
+  }
+
+  @Benchmark
+  public List<Post> simple() {
+    return mapper.selectPosts();
+  }
+
+  @Benchmark
+  public List<Post> autoMapping() {
+    return mapper.selectAutoMappedPosts();
+  }
+
+  @Benchmark
+  public List<ImmutablePost> constructor() {
+    return mapper.selectImmutablePosts();
+  }
+
+  @Benchmark
+  public List<Author> nested() {
+    return mapper.selectAuthorsWithPosts();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(ResultMappingBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class)
+        .build()).run();
+  }
+
+  public interface AuthorMapper {
+
+    @Results(id = "post", value = { @Result(property = "id", column = "id", id = true),
+        @Result(property = "authorId", column = "author_id"), @Result(property = "subject", column = "subject"),
+        @Result(property = "body", column = "body") })
+    @Select("select id, author_id, subject, body from post")
+    List<Post> selectPosts();
+
+    @Select("select id, author_id as authorId, subject, body from post")
+    List<Post> selectAutoMappedPosts();
+
+    @ConstructorArgs({ @Arg(column = "id", javaType = int.class, id = true),
+        @Arg(column = "author_id", javaType = int.class), @Arg(column = "subject", javaType = String.class),
+        @Arg(column = "body", javaType = String.class) })
+    @Select("select id, author_id, subject, body from post")
+    List<ImmutablePost> selectImmutablePosts();
+
+    @Results(id = "authorWithPosts", value = { @Result(property = "id", column = "id", id = true),
+        @Result(property = "username", column = "username"), @Result(property = "email", column = "email"),
+        @Result(property = "bio", column = "bio"),
+        @Result(property = "posts", many = @Many(resultMap = "post", columnPrefix = "post_")) })
+    @Select("select a.id, a.username, a.email, a.bio, p.id as post_id, p.author_id as post_author_id,"
+        + " p.subject as post_subject, p.body as post_body from author a join post p on p.author_id = a.id"
+        + " order by a.id, p.id")
+    List<Author> selectAuthorsWithPosts();
+  }
+
+  public static class Author {
+
+    private int id;
+    private String username;
+    private String email;
+    private String bio;
+    private List<Post> posts;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getEmail() {
+      return email;
+    }
+
+    public void setEmail(String email) {
+      this.email = email;
+    }
+
+    public String getBio() {
+      return bio;
+    }
+
+    public void setBio(String bio) {
+      this.bio = bio;
+    }
+
+    public List<Post> getPosts() {
+      return posts;
+    }
+
+    public void setPosts(List<Post> posts) {
+      this.posts = posts;
+    }
+  }
+
+  public static class Post {
+
+    private int id;
+    private int authorId;
+    private String subject;
+    private String body;
+
+    public int getId() {
+      return id;
+    }
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public int getAuthorId() {
+      return authorId;
+    }
+
+    public void setAuthorId(int authorId) {
+      this.authorId = authorId;
+    }
+
+    public String getSubject() {
+      return subject;
+    }
+
+    public void setSubject(String subject) {
+      this.subject = subject;
+    }
+
+    public String getBody() {
+      return body;
+    }
+
+    public void setBody(String body) {
+      this.body = body;
+    }
+  }
+
+  public static class ImmutablePost {
+
+    private final int id;
+    private final int authorId;
+    private final String subject;
+    private final String body;
+
+    public ImmutablePost(int id, int authorId, String subject, String body) {
+      this.id = id;
+      this.authorId = authorId;
+      this.subject = subject;
+      this.body = body;
+    }
+
+    public int getId() {
+      return id;
+    }
+
+    public int getAuthorId() {
+      return authorId;
+    }
+
+    public String getSubject() {
+      return subject;
+    }
+
+    public String getBody() {
+      return body;
+    }
+  }
+
+}
@@ -0,0 +1,116 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.plugin;
+
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.InterceptorChain;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the overhead of plugins on the calls of an intercepted method and of a method that no plugin intercepts, for
+ * a growing number of plugins.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PluginBenchmark {
+
+  @Param({ "0", "1", "5" })
+  public int plugins;
+
+  private Target target;
+  private int value;
+
+  @Setup
+  public void setup() {
+    InterceptorChain chain = new InterceptorChain();
+    for (int i = 0; i < plugins; i++) {
+      chain.addInterceptor(new CountingInterceptor());
+    }
+    target = (Target) chain.pluginAll(new SimpleTarget());
+  }
+
+  @Benchmark
+  public int intercepted() {
+    return target.intercepted(value++);
+  }
+
+  @Benchmark
+  public int notIntercepted() {
+    return target.notIntercepted(value++);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(PluginBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build())
+            .run();
+  }
+
+  public interface Target {
+
+    int intercepted(int value);
+
+    int notIntercepted(int value);
+  }
+
+  public static class SimpleTarget implements Target {
+
+    @Override
+    public int intercepted(int value) {
+      return value + 1;
+    }
+
+    @Override
+    public int notIntercepted(int value) {
+      return value - 1;
+    }
+  }
+
+  @Intercepts(@Signature(type = Target.class, method = "intercepted", args = int.class))
+  public static class CountingInterceptor implements Interceptor {
+
+    private long count;
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      count++;
+      return invocation.proceed();
+    }
+  }
+
+}
@@ -0,0 +1,100 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.scripting;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.scripting.xmltags.XMLLanguageDriver;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the rendering of a dynamic statement with {@code <where>}, {@code <if>} and {@code <foreach>} elements, with
+ * all its conditions met and with none of them.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DynamicSqlBenchmark {
+
+  private static final String SCRIPT = "<script>select id, username, email, bio from author"
+      + "<where><if test=\"username != null\">username = #{username}</if>"
+      + "<if test=\"email != null and email != ''\"> and email like #{email}</if>"
+      + "<if test=\"ids != null and !ids.isEmpty()\"> and id in"
+      + "<foreach item=\"id\" collection=\"ids\" open=\"(\" separator=\",\" close=\")\">#{id}</foreach></if>"
+      + "</where> order by id</script>";
+
+  private SqlSource sqlSource;
+  private Map<String, Object> fullParameter;
+  private Map<String, Object> emptyParameter;
+
+  @Setup
+  public void setup() {
+    Configuration configuration = new Configuration();
+    sqlSource = new XMLLanguageDriver().createSqlSource(configuration, SCRIPT, Map.class);
+    List<Integer> ids = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      ids.add(i);
+    }
+    fullParameter = new HashMap<>();
+    fullParameter.put("username", "jim");
+    fullParameter.put("email", "%@example.com");
+    fullParameter.put("ids", ids);
+    emptyParameter = new HashMap<>();
+    emptyParameter.put("username", null);
+    emptyParameter.put("email", null);
+    emptyParameter.put("ids", null);
+  }
+
+  @Benchmark
+  public BoundSql allConditions() {
+    return sqlSource.getBoundSql(fullParameter);
+  }
+
+  @Benchmark
+  public BoundSql noConditions() {
+    return sqlSource.getBoundSql(emptyParameter);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(DynamicSqlBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build())
+            .run();
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.scripting;
+
+import java.lang.reflect.Member;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import ognl.AbstractMemberAccess;
+import ognl.MemberAccess;
+import ognl.Ognl;
+import ognl.OgnlException;
+
+import org.apache.ibatis.scripting.xmltags.DynamicContext;
+import org.apache.ibatis.scripting.xmltags.ExpressionEvaluator;
+import org.apache.ibatis.session.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the evaluation of {@code <if test>} expressions by {@link ExpressionEvaluator}, which evaluates compiled
+ * expressions, with their interpretation by OGNL, as {@code OgnlCache} did for every expression before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+  @Param({ "name != null and name != ''", "ids != null and ids.size() > 0", "author.id >= 100 or !active" })
+  public String expression;
+
+  private static final MemberAccess MEMBER_ACCESS = new AbstractMemberAccess() {
+    @Override
+    public boolean isAccessible(Map context, Object target, Member member, String propertyName) {
+      return true;
+    }
+  };
+
+  private final ExpressionEvaluator evaluator = new ExpressionEvaluator();
+  private Map<String, Object> bindings;
+  private Object parsedExpression;
+
+  @Setup
+  public void setup() throws OgnlException {
+    Map<String, Object> author = new HashMap<>();
+    author.put("id", 101);
+    Map<String, Object> parameter = new HashMap<>();
+    parameter.put("name", "jim");
+    parameter.put("ids", Arrays.asList(1, 2, 3));
+    parameter.put("author", Collections.unmodifiableMap(author));
+    parameter.put("active", true);
+    bindings = new DynamicContext(new Configuration(), parameter).getBindings();
+    parsedExpression = Ognl.parseExpression(expression);
+  }
+
+  @Benchmark
+  public boolean compiled() {
+    return evaluator.evaluateBoolean(expression, bindings);
+  }
+
+  @Benchmark
+  public Object ognl() throws OgnlException {
+    Map<?, ?> context = Ognl.createDefaultContext(bindings, MEMBER_ACCESS);
+    return Ognl.getValue(parsedExpression, context, bindings);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+        new OptionsBuilder().include(ExpressionBenchmark.class.getSimpleName()).addProfiler(GCProfiler.class).build())
+            .run();
+  }
+
+}
@@ -0,0 +1,188 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmarks.virtualthreads;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs 10,000 concurrent requests, each opening a session and running a select, on a virtual-thread-per-task executor
+ * and on a pool of platform threads.
+ * <p>
+ * Every query waits a millisecond, as a query sent to a remote database would, and the pool holds fewer connections
+ * than there are requests. When a thread blocks while holding a monitor, virtual threads are pinned to their carrier
+ * threads and the virtual run degrades to the throughput of the carrier threads. The {@code virtual} executor requires
+ * JDK 21 or later.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VirtualThreadBenchmark {
+
+  private static final int REQUESTS = 10_000;
+  private static final int ROWS = 1_000;
+
+  @Param({ "virtual", "platform" })
+  public String executor;
+
+  private ExecutorService executorService;
+  private SqlSessionFactory sqlSessionFactory;
+  private PooledDataSource dataSource;
+
+  @Setup
+  public void setup() throws Exception {
+    if ("virtual".equals(executor)) {
+      try {
+        executorService = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+      } catch (NoSuchMethodException e) {
+        throw new IllegalStateException("Virtual threads require JDK 21 or later.", e);
+      }
+    } else {
+      executorService = Executors.newFixedThreadPool(200);
+    }
+    dataSource = new PooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:virtualthreads", "sa", "");
+    dataSource.setPoolMaximumActiveConnections(50);
+    dataSource.setPoolMaximumIdleConnections(50);
+    try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+      statement.execute("drop table if exists item");
+      statement.execute("create table item (id int primary key, name varchar(20))");
+      for (int i = 0; i < ROWS; i++) {
+        statement.execute("insert into item (id, name) values (" + i + ", 'item" + i + "')");
+      }
+    }
+    Configuration configuration = new Configuration(
+        new Environment("benchmark", new JdbcTransactionFactory(), dataSource));
+    configuration.addInterceptor(new LatencyInterceptor());
+    configuration.addMapper(ItemMapper.class);
+    configuration.addMapper(CachedItemMapper.class);
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+  }
+
+  @TearDown
+  public void tearDown() throws InterruptedException {
+    executorService.shutdown();
+    executorService.awaitTermination(1, TimeUnit.MINUTES);
+    dataSource.forceCloseAll();
+  }
+
+  @Benchmark
+  public int select() throws Exception {
+    return run(ItemMapper.class);
+  }
+
+  @Benchmark
+  public int selectCached() throws Exception {
+    return run(CachedItemMapper.class);
+  }
+
+  private int run(Class<? extends Mapper> type) throws Exception {
+    List<Future<String>> futures = new ArrayList<>(REQUESTS);
+    for (int i = 0; i < REQUESTS; i++) {
+      final int id = i % ROWS;
+      futures.add(executorService.submit(() -> {
+        try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+          return sqlSession.getMapper(type).selectName(id);
+        }
+      }));
+    }
+    int count = 0;
+    for (Future<String> future : futures) {
+      if (future.get() != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  public interface Mapper {
+    String selectName(int id);
+  }
+
+  public interface ItemMapper extends Mapper {
+    @Override
+    @Select("select name from item where id = #{id}")
+    String selectName(int id);
+  }
+
+  @CacheNamespace
+  public interface CachedItemMapper extends Mapper {
+    @Override
+    @Select("select name from item where id = #{id}")
+    String selectName(int id);
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "query", args = { Statement.class,
+      ResultHandler.class }))
+  public static class LatencyInterceptor implements Interceptor {
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      Thread.sleep(1);
+      return invocation.proceed();
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+      // nothing to configure
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(VirtualThreadBenchmark.class.getSimpleName()).build()).run();
+  }
+
+}
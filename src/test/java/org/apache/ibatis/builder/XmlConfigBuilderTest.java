@@ -40,6 +40,7 @@ import java.util.Properties;
 import org.apache.ibatis.builder.mapper.CustomMapper;
 import org.apache.ibatis.builder.typehandler.CustomIntegerTypeHandler;
 import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.cache.invalidation.InProcessInvalidationTransport;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
@@ -111,6 +112,16 @@ class XmlConfigBuilderTest {
       assertThat(config.isArgNameBasedConstructorAutoMapping()).isFalse();
       assertThat(config.getDefaultSqlProviderType()).isNull();
       assertThat(config.isNullableOnForEach()).isFalse();
+      assertThat(config.isUseCompiledRowMappers()).isFalse();
+      assertThat(config.isUseColumnIndexes()).isFalse();
+      assertThat(config.isBatchReorderingEnabled()).isFalse();
+      assertThat(config.getMaxBatchSize()).isNull();
+      assertThat(config.getMultiRowInsertSize()).isNull();
+      assertThat(config.getCursorPrefetchSize()).isNull();
+      assertThat(config.getCacheInvalidationTransport()).isNull();
+      assertThat(config.isTableLevelCacheInvalidation()).isFalse();
+      assertThat(config.isDynamicSqlCacheEnabled()).isTrue();
+      assertThat(config.getCacheInvalidationBus()).isNull();
     }
   }
 
@@ -217,6 +228,17 @@ class XmlConfigBuilderTest {
       assertThat(config.isArgNameBasedConstructorAutoMapping()).isTrue();
       assertThat(config.getDefaultSqlProviderType().getName()).isEqualTo(MySqlProvider.class.getName());
       assertThat(config.isNullableOnForEach()).isTrue();
+      assertThat(config.isUseCompiledRowMappers()).isTrue();
+      assertThat(config.isUseColumnIndexes()).isTrue();
+      assertThat(config.isBatchReorderingEnabled()).isTrue();
+      assertThat(config.getMaxBatchSize()).isEqualTo(500);
+      assertThat(config.getMultiRowInsertSize()).isEqualTo(100);
+      assertThat(config.getCursorPrefetchSize()).isEqualTo(64);
+      assertThat(config.getCacheInvalidationTransport()).isEqualTo(InProcessInvalidationTransport.class);
+      assertThat(config.isTableLevelCacheInvalidation()).isTrue();
+      assertThat(config.isDynamicSqlCacheEnabled()).isFalse();
+      assertThat(config.getCacheInvalidationBus()).isNotNull();
+      config.setCacheInvalidationTransport(null);
 
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blogauthor")).isEqualTo(Author.class);
       assertThat(config.getTypeAliasRegistry().getTypeAliases().get("blog")).isEqualTo(Blog.class);
@@ -16,12 +16,15 @@
 package org.apache.ibatis.builder.xml.dynamic;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
 
 import java.io.IOException;
 import java.io.Reader;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -338,6 +341,48 @@ class DynamicSqlSourceTest extends BaseDataTest {
     assertEquals("__frch_u_0", boundSql.getParameterMappings().get(3).getProperty());
   }
 
+  @Test
+  void shouldReuseParameterMappingsOfTheSameSql() {
+    DynamicSqlSource source = new DynamicSqlSource(new Configuration(),
+        mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}"),
+            new IfSqlNode(mixedContents(new TextSqlNode("AND NAME = #{name}")), "name != null")));
+    BoundSql first = source.getBoundSql(new HashMap<>(Collections.singletonMap("name", "Steve")));
+    BoundSql second = source.getBoundSql(new HashMap<>(Collections.singletonMap("name", "Bob")));
+    BoundSql other = source.getBoundSql(new HashMap<>());
+    assertEquals("SELECT * FROM BLOG WHERE ID = ? AND NAME = ?", second.getSql());
+    assertEquals(2, second.getParameterMappings().size());
+    assertNotSame(first.getParameterMappings(), second.getParameterMappings());
+    assertSame(first.getParameterMappings().get(0), second.getParameterMappings().get(0));
+    assertSame(first.getParameterMappings().get(1), second.getParameterMappings().get(1));
+    assertEquals("SELECT * FROM BLOG WHERE ID = ?", other.getSql());
+    assertEquals(1, other.getParameterMappings().size());
+  }
+
+  @Test
+  void shouldRebuildParameterMappingsWhenThePropertyTypeChanges() {
+    DynamicSqlSource source = new DynamicSqlSource(new Configuration(),
+        mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE ID in"), new ForEachSqlNode(new Configuration(),
+            mixedContents(new TextSqlNode("#{item}")), "list", null, "item", "(", ")", ",")));
+    BoundSql integers = source.getBoundSql(Collections.singletonMap("list", Arrays.asList(1, 2)));
+    BoundSql strings = source.getBoundSql(Collections.singletonMap("list", Arrays.asList("1", "2")));
+    assertEquals(integers.getSql(), strings.getSql());
+    assertEquals(Integer.class, integers.getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, strings.getParameterMappings().get(0).getJavaType());
+    assertEquals(String.class, strings.getParameterMappings().get(1).getJavaType());
+  }
+
+  @Test
+  void shouldParseEachTimeWhenTheDynamicSqlCacheIsDisabled() {
+    Configuration configuration = new Configuration();
+    configuration.setDynamicSqlCacheEnabled(false);
+    DynamicSqlSource source = new DynamicSqlSource(configuration,
+        mixedContents(new TextSqlNode("SELECT * FROM BLOG WHERE ID = #{id}")));
+    BoundSql first = source.getBoundSql(null);
+    BoundSql second = source.getBoundSql(null);
+    assertEquals("SELECT * FROM BLOG WHERE ID = ?", second.getSql());
+    assertNotSame(first.getParameterMappings().get(0), second.getParameterMappings().get(0));
+  }
+
   private DynamicSqlSource createDynamicSqlSource(SqlNode... contents) throws IOException, SQLException {
     createBlogDataSource();
     final String resource = "org/apache/ibatis/builder/MapperConfig.xml";
@@ -0,0 +1,118 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.junit.jupiter.api.Test;
+
+class BlockingCacheTest {
+
+  @Test
+  void shouldLetOneThreadLoadAMissedKey() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    AtomicInteger loads = new AtomicInteger();
+    CountDownLatch started = new CountDownLatch(8);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Object>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> {
+          started.countDown();
+          started.await();
+          Object value = cache.getObject("key");
+          if (value == null) {
+            loads.incrementAndGet();
+            Thread.sleep(100);
+            value = "value";
+            cache.putObject("key", value);
+          }
+          return value;
+        }));
+      }
+      for (Future<Object> result : results) {
+        assertEquals("value", result.get(5, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, loads.get());
+  }
+
+  @Test
+  void shouldLetAnotherThreadLoadWhenALoadIsAbandoned() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> waiter = executor.submit(() -> cache.getObject("key"));
+      Thread.sleep(50);
+      cache.removeObject("key");
+      assertNull(waiter.get(5, TimeUnit.SECONDS));
+      assertNull(executor.submit(() -> cache.getObject("other")).get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldNotBlockTheLoadingThread() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    assertNull(cache.getObject("key"));
+    assertNull(cache.getObject("key"));
+    cache.putObject("key", "value");
+    assertEquals("value", cache.getObject("key"));
+  }
+
+  @Test
+  void shouldTimeOutWaitingForALoad() throws Exception {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.setTimeout(50);
+    assertNull(cache.getObject("key"));
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<Object> waiter = executor.submit(() -> {
+        assertThrows(CacheException.class, () -> cache.getObject("key"));
+        return cache.getObject("other");
+      });
+      assertNull(waiter.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  void shouldIgnoreReleasingKeysThatAreNotLoaded() {
+    BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    cache.putObject("key", "value");
+    assertNull(cache.removeObject("key"));
+    assertEquals("value", cache.getObject("key"));
+  }
+
+}
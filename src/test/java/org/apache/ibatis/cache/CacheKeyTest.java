@@ -88,10 +88,55 @@ class CacheKeyTest {
     assertEquals(key1, key2);
   }
 
+  @Test
+  void shouldTestCacheKeysWithUnboxedValues() {
+    CacheKey key1 = new CacheKey();
+    CacheKey key2 = new CacheKey();
+    for (int i = 0; i < 20; i++) {
+      key1.update("component");
+      key1.update(i);
+      key2.update("component");
+      key2.update((long) i);
+    }
+    assertEquals(40, key1.getUpdateCount());
+    assertEquals(key1, key2);
+    assertEquals(key1.hashCode(), key2.hashCode());
+    assertEquals(key1.toString(), key2.toString());
+    key2.update(Integer.MAX_VALUE);
+    key1.update(Integer.valueOf(Integer.MAX_VALUE));
+    assertNotEquals(key1, key2);
+  }
+
+  @Test
+  void shouldTestCacheKeysNotEqualDueToUnboxedValueDifference() {
+    CacheKey key1 = new CacheKey(new Object[] { "hello" });
+    CacheKey key2 = new CacheKey(new Object[] { "hello" });
+    key1.update(1);
+    key2.update(2);
+    assertNotEquals(key1, key2);
+    assertNotEquals(key1.hashCode(), key2.hashCode());
+  }
+
+  @Test
+  void shouldNotShareComponentsWithClone() throws Exception {
+    CacheKey cacheKey = new CacheKey(new Object[] { "hello" });
+    cacheKey.update(1);
+    CacheKey clonedCacheKey = cacheKey.clone();
+    assertEquals(cacheKey, clonedCacheKey);
+    clonedCacheKey.update(2);
+    clonedCacheKey.update("world");
+    assertEquals(2, cacheKey.getUpdateCount());
+    assertNotEquals(cacheKey, clonedCacheKey);
+    cacheKey.update(2);
+    cacheKey.update("world");
+    assertEquals(cacheKey, clonedCacheKey);
+  }
+
   @Test
   void throwExceptionWhenTryingToUpdateNullCacheKey() {
     CacheKey cacheKey = CacheKey.NULL_CACHE_KEY;
     assertThrows(CacheException.class, () -> cacheKey.update("null"));
+    assertThrows(CacheException.class, () -> cacheKey.update(1));
   }
 
   @Test
@@ -121,6 +166,8 @@ class CacheKeyTest {
   void serializationTest() throws Exception {
     CacheKey cacheKey = new CacheKey();
     cacheKey.update("serializable");
+    cacheKey.update(1);
+    cacheKey.update(Long.MAX_VALUE);
     assertEquals(cacheKey, serialize(cacheKey));
   }
 
@@ -0,0 +1,224 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.blog.Section;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OffHeapCacheTest {
+
+  @Test
+  void shouldReturnCopiesOfResultLists() {
+    OffHeapCache cache = new OffHeapCache("default");
+    List<Object> authors = new ArrayList<>();
+    authors.add(new Author(101, "jim", "********", "jim@ibatis.apache.org", "", Section.NEWS));
+    authors.add(new Author(102, "sally", "********", "sally@ibatis.apache.org", null, Section.VIDEOS));
+    cache.putObject(0, authors);
+    Object cached = cache.getObject(0);
+    assertEquals(authors, cached);
+    assertNotSame(authors, cached);
+    assertNotSame(cached, cache.getObject(0));
+  }
+
+  @Test
+  void shouldSerializeResultValues() {
+    OffHeapCache cache = new OffHeapCache("default");
+    Timestamp timestamp = new Timestamp(1234567890123L);
+    timestamp.setNanos(123456789);
+    Map<String, Object> row = new LinkedHashMap<>();
+    row.put("int", -42);
+    row.put("long", Long.MIN_VALUE);
+    row.put("short", (short) 7);
+    row.put("byte", (byte) -1);
+    row.put("char", 'x');
+    row.put("float", 1.5f);
+    row.put("double", Math.PI);
+    row.put("boolean", true);
+    row.put("string", "café 😀");
+    row.put("decimal", new BigDecimal("-12345.6789"));
+    row.put("integer", new BigInteger("123456789012345678901234567890"));
+    row.put("date", new Date(1234567890123L));
+    row.put("sqlDate", new java.sql.Date(1234567890123L));
+    row.put("sqlTime", new java.sql.Time(1234567890123L));
+    row.put("timestamp", timestamp);
+    row.put("localDate", LocalDate.of(2023, 2, 28));
+    row.put("localTime", LocalTime.of(23, 59, 59, 999999999));
+    row.put("localDateTime", LocalDateTime.of(1969, 12, 31, 23, 59));
+    row.put("section", Section.IMAGES);
+    row.put("array", new String[] { "a", null });
+    row.put("null", null);
+    row.put("unmodifiable", Collections.unmodifiableList(Arrays.asList(1, 2)));
+    cache.putObject(0, row);
+    @SuppressWarnings("unchecked")
+    Map<String, Object> cached = (Map<String, Object>) cache.getObject(0);
+    assertEquals(LinkedHashMap.class, cached.getClass());
+    assertEquals(new ArrayList<>(row.keySet()), new ArrayList<>(cached.keySet()));
+    for (Map.Entry<String, Object> entry : row.entrySet()) {
+      if (entry.getValue() instanceof Object[]) {
+        assertArrayEquals((Object[]) entry.getValue(), (Object[]) cached.get(entry.getKey()));
+      } else {
+        assertEquals(entry.getValue(), cached.get(entry.getKey()), entry.getKey());
+      }
+    }
+    assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) roundTrip(new byte[] { 1, 2, 3 }));
+  }
+
+  @Test
+  void shouldPreserveSharedAndCyclicReferences() {
+    Node parent = new Node("parent");
+    Node child = new Node("child");
+    parent.children.add(child);
+    child.parent = parent;
+    List<Node> nodes = new ArrayList<>(Arrays.asList(parent, child));
+    @SuppressWarnings("unchecked")
+    List<Node> cached = (List<Node>) roundTrip(nodes);
+    Node cachedParent = cached.get(0);
+    Node cachedChild = cached.get(1);
+    assertEquals("parent", cachedParent.name);
+    assertSame(cachedChild, cachedParent.children.get(0));
+    assertSame(cachedParent, cachedChild.parent);
+  }
+
+  @Test
+  void shouldRejectObjectsThatAreNotSerializable() {
+    OffHeapCache cache = new OffHeapCache("default");
+    assertThrows(CacheException.class, () -> cache.putObject(0, new ArrayList<>(Arrays.asList(new Object()))));
+  }
+
+  @Test
+  void shouldEvictOldestEntriesWhenFull() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(1024);
+    cache.setSegments(1);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, new byte[100]);
+    }
+    assertTrue(cache.getSize() <= 10);
+    assertNull(cache.getObject(0));
+    assertArrayEquals(new byte[100], (byte[]) cache.getObject(99));
+    cache.putObject("too big", new byte[2048]);
+    assertNull(cache.getObject("too big"));
+  }
+
+  @Test
+  void shouldNotExceedSize() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setSegments(4);
+    cache.setSize(100);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+    }
+    assertTrue(cache.getSize() <= 100);
+  }
+
+  @Test
+  void shouldReplaceValue() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, "a");
+    cache.putObject(0, "b");
+    assertEquals("b", cache.getObject(0));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    Cache cache = new OffHeapCache("default");
+    cache.putObject(0, 0);
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    Cache cache = new OffHeapCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldStoreObjectsInMappedFiles(@TempDir Path directory) {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setDirectory(directory.toString());
+    cache.setCapacity(1024 * 1024);
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, "value" + i);
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals("value" + i, cache.getObject(i));
+    }
+  }
+
+  @Test
+  void shouldNotBeConfiguredOnceUsed() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, 0);
+    assertThrows(IllegalStateException.class, () -> cache.setCapacity(1024));
+  }
+
+  private static Object roundTrip(Object value) {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(0, value);
+    return cache.getObject(0);
+  }
+
+  static class Node implements Serializable {
+    private static final long serialVersionUID = 1L;
+    String name;
+    Node parent;
+    final List<Node> children = new ArrayList<>();
+
+    Node() {
+    }
+
+    Node(String name) {
+      this.name = name;
+    }
+  }
+
+}
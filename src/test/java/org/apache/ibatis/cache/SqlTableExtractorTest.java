@@ -0,0 +1,92 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class SqlTableExtractorTest {
+
+  @Test
+  void shouldFindTablesOfSelects() {
+    assertThat(SqlTableExtractor.extract("select * from users where id = ?")).containsExactly("users");
+    assertThat(SqlTableExtractor.extract(
+        "SELECT u.name, r.name FROM app.Users u INNER JOIN \"Roles\" AS r ON r.id = u.role_id, groups g WHERE g.id = ?"))
+            .containsExactly("users", "roles", "groups");
+    assertThat(SqlTableExtractor
+        .extract("select * from (select id from orders where total > ?) o where o.id in (select id from items)"))
+            .containsExactly("orders", "items");
+    assertThat(SqlTableExtractor.extract("select count(*) from users -- from comments\n /* join logs */"))
+        .containsExactly("users");
+    assertThat(SqlTableExtractor.extract("select 'from strings' from dual")).containsExactly("dual");
+    assertThat(SqlTableExtractor.extract("(select a, b from x group by a, b) union (select c, d from y)"))
+        .containsExactly("x", "y");
+  }
+
+  @Test
+  void shouldFindTablesOfWrites() {
+    assertThat(SqlTableExtractor.extract("insert into users (id, name) values (?, ?)")).containsExactly("users");
+    assertThat(SqlTableExtractor.extract("INSERT INTO archive SELECT * FROM orders WHERE id = ?"))
+        .containsExactly("archive", "orders");
+    assertThat(SqlTableExtractor.extract("update users u set name = (select name from people p where p.id = u.id)"))
+        .containsExactly("users", "people");
+    assertThat(SqlTableExtractor.extract("delete from users where id = ?")).containsExactly("users");
+    assertThat(SqlTableExtractor
+        .extract("MERGE INTO users u USING people p ON (u.id = p.id) WHEN MATCHED THEN UPDATE SET u.name = p.name"))
+            .containsExactly("users", "people");
+  }
+
+  @Test
+  void shouldFindTablesOfStatementsWithCommonTableExpressions() {
+    assertThat(SqlTableExtractor.extract("with t as (select id from src) select * from t join users u on u.id = t.id"))
+        .containsExactlyInAnyOrder("src", "t", "users");
+    assertThat(SqlTableExtractor
+        .extract("WITH t AS (SELECT id FROM src) UPDATE orders SET status = ? WHERE id IN (SELECT id FROM t)"))
+            .containsExactlyInAnyOrder("orders", "src", "t");
+    assertThat(SqlTableExtractor
+        .extract("WITH t (id) AS (SELECT id FROM src), u AS (SELECT id FROM t) INSERT INTO orders SELECT id FROM u"))
+            .containsExactlyInAnyOrder("orders", "src", "t", "u");
+    assertThat(SqlTableExtractor
+        .extract("with recursive t as (select id from src) delete from orders where id in " + "(select id from t)"))
+            .containsExactlyInAnyOrder("orders", "src", "t");
+    assertThat(SqlTableExtractor.extract(
+        "with t as materialized (select id from src) merge into orders o using t on (o.id = t.id) when matched then "
+            + "delete")).containsExactlyInAnyOrder("orders", "src", "t");
+    assertThat(SqlTableExtractor.extract("with t as (select id from src)")).isNull();
+    assertThat(SqlTableExtractor.extract("with t (select id from src) update orders set status = ?")).isNull();
+    assertThat(SqlTableExtractor.extract("with t as (select id from src) call refresh(?)")).isNull();
+  }
+
+  @Test
+  void shouldNotGuessTablesOfUnknownStatements() {
+    assertThat(SqlTableExtractor.extract("{call refresh_users(?)}")).isNull();
+    assertThat(SqlTableExtractor.extract("call refresh_users(?)")).isNull();
+    assertThat(SqlTableExtractor.extract("select * from table(user_function(?))")).isNull();
+    assertThat(SqlTableExtractor.extract("select * from user_function(?)")).isNull();
+    assertThat(SqlTableExtractor.extract("insert all into a values (1) into b values (2) select * from dual")).isNull();
+    assertThat(SqlTableExtractor.extract("")).isNull();
+    assertThat(SqlTableExtractor.extract("select nextval('users_seq')")).isNull();
+  }
+
+  @Test
+  void shouldNormalizeNames() {
+    assertThat(SqlTableExtractor.normalize(" Schema.\"Users\" ")).isEqualTo("users");
+    assertThat(SqlTableExtractor.normalize("`orders`")).isEqualTo("orders");
+    assertThat(SqlTableExtractor.normalize("[Items]")).isEqualTo("items");
+  }
+
+}
@@ -0,0 +1,49 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+
+class TableVersionsTest {
+
+  @Test
+  void shouldTellSnapshotStaleOnceATableIsWritten() {
+    TableVersions versions = new TableVersions();
+    String[] tables = { "author", "blog" };
+    long[] snapshot = versions.snapshot(tables);
+    assertTrue(versions.isCurrent(tables, snapshot));
+    versions.increment(Collections.singletonList("blog"));
+    assertFalse(versions.isCurrent(tables, snapshot));
+  }
+
+  @Test
+  void shouldOnlyIncrementTheKnownTablesReportedByOtherNodes() {
+    TableVersions versions = new TableVersions();
+    String[] tables = { "author" };
+    long[] snapshot = versions.snapshot(tables);
+    versions.incrementKnown(Arrays.asList("author", "unknown"));
+    assertFalse(versions.isCurrent(tables, snapshot));
+    assertArrayEquals(versions.snapshot(new String[] { "never_read" }), versions.snapshot(new String[] { "unknown" }));
+  }
+
+}
@@ -0,0 +1,184 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.ibatis.cache.impl.TinyLfuCache;
+import org.junit.jupiter.api.Test;
+
+class TinyLfuCacheTest {
+
+  @Test
+  void shouldNotExceedSize() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setSize(100);
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(100, cache.getSize());
+  }
+
+  @Test
+  void shouldKeepFrequentlyUsedItemsDuringScan() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setSize(100);
+    for (int i = 0; i < 50; i++) {
+      cache.putObject("hot" + i, i);
+    }
+    for (int round = 0; round < 5; round++) {
+      for (int i = 0; i < 50; i++) {
+        assertNotNull(cache.getObject("hot" + i));
+      }
+      // forces the reads to be applied
+      cache.removeObject("none");
+    }
+    for (int i = 0; i < 1000; i++) {
+      cache.putObject("cold" + i, i);
+    }
+    for (int i = 0; i < 50; i++) {
+      assertEquals(i, cache.getObject("hot" + i));
+    }
+    assertEquals(100, cache.getSize());
+  }
+
+  @Test
+  void shouldReplaceValue() {
+    Cache cache = new TinyLfuCache("default");
+    cache.putObject(0, "a");
+    cache.putObject(0, "b");
+    assertEquals("b", cache.getObject(0));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  void shouldNotExceedMaximumWeight() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setMaximumWeight(10);
+    cache.putObject(0, Arrays.asList(1, 2, 3, 4, 5, 6));
+    cache.putObject(1, Arrays.asList(1, 2, 3));
+    assertEquals(2, cache.getSize());
+    cache.putObject(2, Arrays.asList(1, 2, 3));
+    assertEquals(2, cache.getSize());
+    cache.putObject(3, Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11));
+    assertNull(cache.getObject(3));
+  }
+
+  @Test
+  void shouldUseWeigher() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setMaximumWeight(10);
+    cache.setWeigher((key, value) -> ((String) value).length());
+    cache.putObject(0, "aaaa");
+    cache.putObject(1, "bbbb");
+    assertEquals(2, cache.getSize());
+    cache.putObject(2, "cccc");
+    assertEquals(2, cache.getSize());
+  }
+
+  @Test
+  void shouldExpireAfterWrite() throws Exception {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setExpireAfterWrite(50);
+    cache.putObject(0, 0);
+    assertEquals(0, cache.getObject(0));
+    Thread.sleep(100);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldExpireAfterAccess() throws Exception {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setExpireAfterAccess(200);
+    cache.putObject(0, 0);
+    cache.putObject(1, 1);
+    for (int i = 0; i < 4; i++) {
+      Thread.sleep(100);
+      assertEquals(0, cache.getObject(0));
+    }
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  void shouldRemoveItemOnDemand() {
+    Cache cache = new TinyLfuCache("default");
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    assertEquals(0, cache.removeObject(0));
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldFlushAllItemsOnDemand() {
+    Cache cache = new TinyLfuCache("default");
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  void shouldStayBoundedUnderConcurrentAccess() throws Exception {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setSize(64);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          ThreadLocalRandom random = ThreadLocalRandom.current();
+          for (int i = 0; i < 20000; i++) {
+            Integer key = random.nextInt(256);
+            Object value = cache.getObject(key);
+            if (value == null) {
+              cache.putObject(key, key);
+            } else {
+              assertEquals(key, value);
+            }
+            if (i % 1000 == 0) {
+              cache.removeObject(random.nextInt(256));
+            }
+          }
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    assertTrue(cache.getSize() <= 64);
+  }
+
+}
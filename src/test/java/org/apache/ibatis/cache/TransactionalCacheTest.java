@@ -0,0 +1,125 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.jupiter.api.Test;
+
+class TransactionalCacheTest {
+
+  @Test
+  void shouldPutAllEntriesAtOnceOnCommit() {
+    RecordingCache cache = new RecordingCache("default");
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    assertNull(transactionalCache.getObject(0));
+    assertNull(transactionalCache.getObject(1));
+    transactionalCache.putObject(0, "zero");
+    transactionalCache.commit();
+    assertEquals(1, cache.bulkPuts.size());
+    Map<Object, Object> expected = new HashMap<>();
+    expected.put(0, "zero");
+    expected.put(1, null);
+    assertEquals(expected, cache.bulkPuts.get(0));
+    assertEquals(0, cache.puts);
+  }
+
+  @Test
+  void shouldRemoveAllMissedEntriesAtOnceOnRollback() {
+    RecordingCache cache = new RecordingCache("default");
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    assertNull(transactionalCache.getObject(0));
+    assertNull(transactionalCache.getObject(1));
+    transactionalCache.rollback();
+    assertEquals(1, cache.bulkRemoves.size());
+    assertEquals(2, cache.bulkRemoves.get(0).size());
+    assertTrue(cache.bulkPuts.isEmpty());
+  }
+
+  @Test
+  void shouldNotTrackMissesOfCachesThatDoNotBlock() {
+    Cache cache = new CacheBuilder("default").build();
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    assertNull(transactionalCache.getObject(0));
+    transactionalCache.putObject(1, "one");
+    transactionalCache.commit();
+    assertEquals(1, cache.getSize());
+    assertEquals("one", cache.getObject(1));
+  }
+
+  @Test
+  void shouldTrackMissesOfBlockingCaches() {
+    Cache cache = new CacheBuilder("default").blocking(true).build();
+    TransactionalCache transactionalCache = new TransactionalCache(cache);
+    assertNull(transactionalCache.getObject(0));
+    transactionalCache.putObject(1, "one");
+    transactionalCache.commit();
+    assertEquals(2, cache.getSize());
+  }
+
+  @Test
+  void shouldPutObjectsInTinyLfuCache() {
+    TinyLfuCache cache = new TinyLfuCache("default");
+    cache.setSize(10);
+    Map<Object, Object> objects = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      objects.put(i, i);
+    }
+    cache.putObjects(objects);
+    assertEquals(10, cache.getSize());
+  }
+
+  private static class RecordingCache extends PerpetualCache {
+
+    private final List<Map<?, ?>> bulkPuts = new ArrayList<>();
+    private final List<Collection<?>> bulkRemoves = new ArrayList<>();
+    private int puts;
+
+    RecordingCache(String id) {
+      super(id);
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+      puts++;
+      super.putObject(key, value);
+    }
+
+    @Override
+    public void putObjects(Map<?, ?> objects) {
+      bulkPuts.add(new HashMap<>(objects));
+      super.putObjects(objects);
+    }
+
+    @Override
+    public void removeObjects(Collection<?> keys) {
+      bulkRemoves.add(new ArrayList<>(keys));
+    }
+  }
+
+}
@@ -0,0 +1,44 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CacheInvalidationBusTest {
+
+  @Test
+  void shouldStartOnFirstUseAndStopWhenClosed() {
+    Configuration configuration = new Configuration();
+    configuration.setCacheInvalidationTransport(UdpInvalidationTransport.class);
+    CacheInvalidationBus bus = configuration.getCacheInvalidationBus();
+    UdpInvalidationTransport transport = (UdpInvalidationTransport) bus.getTransport();
+    assertTrue(transport.getLocalPort() > 0);
+
+    configuration.closeCacheInvalidationBus();
+    assertEquals(-1, transport.getLocalPort());
+
+    CacheInvalidationBus restarted = configuration.getCacheInvalidationBus();
+    assertNotSame(bus, restarted);
+    configuration.setCacheInvalidationTransport(null);
+    assertEquals(-1, ((UdpInvalidationTransport) restarted.getTransport()).getLocalPort());
+  }
+
+}
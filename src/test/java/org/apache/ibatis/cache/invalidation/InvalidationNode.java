@@ -0,0 +1,75 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A node run in another JVM by {@link MultiJvmInvalidationTest}. It has a cache named {@value #CACHE_ID}, sends
+ * invalidations to the peers given as first argument and answers the commands read from its standard input on its
+ * standard output, prefixing the answers with {@value #ANSWER}.
+ */
+class InvalidationNode {
+
+  static final String CACHE_ID = "org.apache.ibatis.cache.invalidation.Mapper";
+  static final String ANSWER = "> ";
+
+  public static void main(String[] args) throws Exception {
+    Configuration configuration = new Configuration();
+    Cache cache = new CacheBuilder(CACHE_ID).build();
+    configuration.addCache(cache);
+    configuration.getVariables().setProperty(UdpInvalidationTransport.KEY_PEERS, args[0]);
+    configuration.setCacheInvalidationTransport(UdpInvalidationTransport.class);
+    CacheInvalidationBus bus = configuration.getCacheInvalidationBus();
+    answer(((UdpInvalidationTransport) bus.getTransport()).getLocalPort());
+
+    BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+    String command;
+    while ((command = in.readLine()) != null) {
+      switch (command) {
+        case "put":
+          cache.putObject("key", "value");
+          answer("ok");
+          break;
+        case "size":
+          answer(cache.getSize());
+          break;
+        case "invalidate":
+          bus.invalidate(Collections.singletonList(CACHE_ID));
+          answer("ok");
+          break;
+        case "exit":
+          bus.close();
+          return;
+        default:
+          answer("unknown command " + command);
+      }
+    }
+  }
+
+  private static void answer(Object answer) {
+    System.out.println(ANSWER + answer);
+    System.out.flush();
+  }
+
+}
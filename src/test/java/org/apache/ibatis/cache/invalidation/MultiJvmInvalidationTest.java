@@ -0,0 +1,115 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs an {@link InvalidationNode} in another JVM and exchanges invalidations with it over loopback UDP.
+ */
+class MultiJvmInvalidationTest {
+
+  private Configuration configuration;
+  private Cache cache;
+  private Process node;
+  private BufferedReader nodeOut;
+  private PrintWriter nodeIn;
+  private int nodePort;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    configuration = new Configuration();
+    cache = new CacheBuilder(InvalidationNode.CACHE_ID).build();
+    configuration.addCache(cache);
+    configuration.setCacheInvalidationTransport(UdpInvalidationTransport.class);
+    UdpInvalidationTransport transport = (UdpInvalidationTransport) configuration.getCacheInvalidationBus()
+        .getTransport();
+
+    String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+    node = new ProcessBuilder(java, "-cp", System.getProperty("java.class.path"), InvalidationNode.class.getName(),
+        "127.0.0.1:" + transport.getLocalPort()).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    nodeOut = new BufferedReader(new InputStreamReader(node.getInputStream(), StandardCharsets.UTF_8));
+    nodeIn = new PrintWriter(new OutputStreamWriter(node.getOutputStream(), StandardCharsets.UTF_8), true);
+    nodePort = Integer.parseInt(readAnswer());
+    transport.setPeers("127.0.0.1:" + nodePort);
+  }
+
+  @AfterEach
+  void tearDown() throws Exception {
+    configuration.setCacheInvalidationTransport(null);
+    nodeIn.println("exit");
+    if (!node.waitFor(10, TimeUnit.SECONDS)) {
+      node.destroyForcibly();
+    }
+  }
+
+  @Test
+  void shouldFlushTheCacheOfTheOtherJvm() throws Exception {
+    assertEquals("ok", ask("put"));
+    assertEquals("1", ask("size"));
+    configuration.getCacheInvalidationBus().invalidate(Collections.singletonList(InvalidationNode.CACHE_ID));
+    long deadline = System.currentTimeMillis() + 10000;
+    String size;
+    while (!"0".equals(size = ask("size")) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals("0", size);
+  }
+
+  @Test
+  void shouldBeFlushedByTheOtherJvm() throws Exception {
+    cache.putObject("key", "value");
+    assertEquals("ok", ask("invalidate"));
+    long deadline = System.currentTimeMillis() + 10000;
+    while (cache.getSize() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, cache.getSize());
+  }
+
+  private String ask(String command) throws IOException {
+    nodeIn.println(command);
+    return readAnswer();
+  }
+
+  private String readAnswer() throws IOException {
+    String line;
+    while ((line = nodeOut.readLine()) != null) {
+      if (line.startsWith(InvalidationNode.ANSWER)) {
+        return line.substring(InvalidationNode.ANSWER.length());
+      }
+    }
+    throw new IOException("The node exited with " + node.exitValue());
+  }
+
+}
@@ -0,0 +1,108 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class UdpInvalidationTransportTest {
+
+  private final BlockingQueue<String> received1 = new LinkedBlockingQueue<>();
+  private final BlockingQueue<String> received2 = new LinkedBlockingQueue<>();
+  private UdpInvalidationTransport transport1;
+  private UdpInvalidationTransport transport2;
+
+  @BeforeEach
+  void setUp() {
+    transport1 = new UdpInvalidationTransport();
+    transport1.start(received1::addAll);
+    transport2 = new UdpInvalidationTransport();
+    transport2.start(received2::addAll);
+    transport1.setPeers("127.0.0.1:" + transport2.getLocalPort());
+    transport2.setPeers("127.0.0.1:" + transport1.getLocalPort() + ", 127.0.0.1:" + transport2.getLocalPort());
+  }
+
+  @AfterEach
+  void tearDown() {
+    transport1.close();
+    transport2.close();
+  }
+
+  @Test
+  void shouldDeliverInvalidationsToPeers() throws Exception {
+    transport1.publish(Collections.singletonList("org.apache.ibatis.Mapper"));
+    assertEquals("org.apache.ibatis.Mapper", received2.poll(5, TimeUnit.SECONDS));
+    assertNull(received1.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void shouldNotDeliverInvalidationsToItself() throws Exception {
+    transport2.publish(Collections.singletonList("org.apache.ibatis.Mapper"));
+    assertEquals("org.apache.ibatis.Mapper", received1.poll(5, TimeUnit.SECONDS));
+    assertNull(received2.poll(100, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void shouldSplitLargeBatches() throws Exception {
+    List<String> cacheIds = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      cacheIds.add("org.apache.ibatis.domain.mappers.Mapper" + i);
+    }
+    transport1.publish(cacheIds);
+    List<String> received = new ArrayList<>();
+    while (received.size() < cacheIds.size()) {
+      String cacheId = received2.poll(5, TimeUnit.SECONDS);
+      if (cacheId == null) {
+        break;
+      }
+      received.add(cacheId);
+    }
+    assertEquals(cacheIds, received);
+  }
+
+  @Test
+  void shouldIgnoreInvalidationsFromOtherAddresses() throws Exception {
+    UdpInvalidationTransport stranger = new UdpInvalidationTransport();
+    stranger.start(cacheIds -> {
+    });
+    try {
+      stranger.setPeers("127.0.0.1:" + transport1.getLocalPort());
+      stranger.publish(Collections.singletonList("org.apache.ibatis.Mapper"));
+      assertNull(received1.poll(100, TimeUnit.MILLISECONDS));
+    } finally {
+      stranger.close();
+    }
+  }
+
+  @Test
+  void shouldRejectInvalidPeers() {
+    assertThrows(CacheException.class, () -> transport1.setPeers("localhost"));
+  }
+
+}
@@ -0,0 +1,218 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cursor.defaults;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.jupiter.api.Test;
+
+class PrefetchingCursorTest {
+
+  private static final Executor EXECUTOR = task -> new Thread(task).start();
+
+  @Test
+  void shouldFetchAheadOnAnotherThreadUpToThePrefetchSize() throws Exception {
+    CountingCursor delegate = new CountingCursor(100, -1);
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, RowBounds.DEFAULT, 2, EXECUTOR)) {
+      Iterator<Integer> iterator = cursor.iterator();
+      assertEquals(0, iterator.next());
+      Thread.sleep(200);
+      // one consumed, two buffered and one waiting for room in the buffer
+      assertEquals(4, delegate.fetched.get());
+      assertNotEquals(Thread.currentThread(), delegate.fetchingThread);
+
+      for (int i = 1; i < 100; i++) {
+        assertEquals(i, iterator.next());
+        assertEquals(i, cursor.getCurrentIndex());
+      }
+      assertFalse(iterator.hasNext());
+      assertTrue(cursor.isConsumed());
+      assertThrows(NoSuchElementException.class, iterator::next);
+    }
+  }
+
+  @Test
+  void shouldHandOverNullObjects() {
+    CountingCursor delegate = new CountingCursor(3, -1) {
+      @Override
+      Integer map(int i) {
+        return i == 1 ? null : i;
+      }
+    };
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, RowBounds.DEFAULT, 1, EXECUTOR)) {
+      Iterator<Integer> iterator = cursor.iterator();
+      assertEquals(0, iterator.next());
+      assertTrue(iterator.hasNext());
+      assertNull(iterator.next());
+      assertEquals(2, iterator.next());
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  @Test
+  void shouldRethrowFailuresToTheConsumer() {
+    CountingCursor delegate = new CountingCursor(10, 3);
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, RowBounds.DEFAULT, 4, EXECUTOR);
+    Iterator<Integer> iterator = cursor.iterator();
+    for (int i = 0; i < 3; i++) {
+      assertEquals(i, iterator.next());
+    }
+    RuntimeException e = assertThrows(RuntimeException.class, iterator::hasNext);
+    assertSame(CountingCursor.FAILURE, e);
+    assertFalse(cursor.isOpen());
+    assertFalse(cursor.isConsumed());
+    assertTrue(delegate.closed);
+    assertFalse(iterator.hasNext());
+  }
+
+  @Test
+  void shouldStopFetchingWhenClosed() throws Exception {
+    CountingCursor delegate = new CountingCursor(1000, -1);
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, RowBounds.DEFAULT, 2, EXECUTOR);
+    Iterator<Integer> iterator = cursor.iterator();
+    assertEquals(0, iterator.next());
+    cursor.close();
+
+    assertTrue(delegate.closed);
+    int fetched = delegate.fetched.get();
+    Thread.sleep(100);
+    assertEquals(fetched, delegate.fetched.get());
+    assertTrue(fetched < 1000);
+    assertFalse(iterator.hasNext());
+    assertFalse(cursor.isOpen());
+    assertFalse(cursor.isConsumed());
+    assertEquals(0, cursor.getCurrentIndex());
+  }
+
+  @Test
+  void shouldNotStartFetchingBeforeIteration() {
+    CountingCursor delegate = new CountingCursor(10, -1);
+    PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, RowBounds.DEFAULT, 2, EXECUTOR);
+    assertFalse(cursor.isOpen());
+    assertEquals(-1, cursor.getCurrentIndex());
+    cursor.close();
+
+    assertEquals(0, delegate.fetched.get());
+    assertTrue(delegate.closed);
+    assertThrows(IllegalStateException.class, cursor::iterator);
+  }
+
+  @Test
+  void shouldFetchOnTheConsumerThreadWhenTheTaskIsRejected() {
+    CountingCursor delegate = new CountingCursor(3, -1);
+    Executor rejecting = task -> {
+      throw new RejectedExecutionException();
+    };
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, RowBounds.DEFAULT, 2, rejecting)) {
+      Iterator<Integer> iterator = cursor.iterator();
+      assertEquals(0, iterator.next());
+      assertEquals(Thread.currentThread(), delegate.fetchingThread);
+      assertEquals(1, delegate.fetched.get());
+      assertEquals(1, iterator.next());
+      assertEquals(2, iterator.next());
+      assertFalse(iterator.hasNext());
+      assertTrue(cursor.isConsumed());
+    }
+  }
+
+  @Test
+  void shouldFetchOnTheConsumerThreadWhenTheTaskRunsOnIt() {
+    CountingCursor delegate = new CountingCursor(3, -1);
+    try (PrefetchingCursor<Integer> cursor = new PrefetchingCursor<>(delegate, RowBounds.DEFAULT, 1, Runnable::run)) {
+      Iterator<Integer> iterator = cursor.iterator();
+      for (int i = 0; i < 3; i++) {
+        assertEquals(i, iterator.next());
+      }
+      assertEquals(Thread.currentThread(), delegate.fetchingThread);
+      assertFalse(iterator.hasNext());
+    }
+  }
+
+  private static class CountingCursor implements Cursor<Integer> {
+
+    static final RuntimeException FAILURE = new IllegalStateException("broken row");
+
+    final AtomicInteger fetched = new AtomicInteger();
+    final int size;
+    final int failAt;
+    volatile Thread fetchingThread;
+    volatile boolean closed;
+
+    CountingCursor(int size, int failAt) {
+      this.size = size;
+      this.failAt = failAt;
+    }
+
+    Integer map(int i) {
+      return i;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return !closed;
+    }
+
+    @Override
+    public boolean isConsumed() {
+      return fetched.get() == size;
+    }
+
+    @Override
+    public int getCurrentIndex() {
+      return fetched.get() - 1;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+      return new Iterator<Integer>() {
+        @Override
+        public boolean hasNext() {
+          return !closed && fetched.get() < size;
+        }
+
+        @Override
+        public Integer next() {
+          fetchingThread = Thread.currentThread();
+          int i = fetched.getAndIncrement();
+          if (i == failAt) {
+            throw FAILURE;
+          }
+          return map(i);
+        }
+      };
+    }
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.Test;
+
+class StatementCacheTest {
+
+  private final Connection connection = mock(Connection.class);
+
+  @Test
+  void shouldCountHitsAndMisses() throws SQLException {
+    StatementCache cache = new StatementCache(2);
+    Statement statement = newStatement();
+    assertNull(cache.get("a"));
+    cache.put("a", statement);
+    assertSame(statement, cache.get("a"));
+    assertSame(statement, cache.get("a"));
+    assertEquals(2, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0, cache.getEvictionCount());
+  }
+
+  @Test
+  void shouldCloseLeastRecentlyUsedStatementWhenFull() throws SQLException {
+    StatementCache cache = new StatementCache(2);
+    Statement a = newStatement();
+    Statement b = newStatement();
+    Statement c = newStatement();
+    cache.put("a", a);
+    cache.put("b", b);
+    cache.get("a");
+    cache.put("c", c);
+    assertEquals(2, cache.getSize());
+    assertEquals(1, cache.getEvictionCount());
+    verify(b).close();
+    verify(a, never()).close();
+    assertSame(a, cache.get("a"));
+    assertSame(c, cache.get("c"));
+    assertNull(cache.get("b"));
+  }
+
+  @Test
+  void shouldDropClosedStatements() throws SQLException {
+    StatementCache cache = new StatementCache(2);
+    Statement statement = newStatement();
+    cache.put("a", statement);
+    when(statement.isClosed()).thenReturn(true);
+    assertNull(cache.get("a"));
+    assertEquals(0, cache.getSize());
+    assertEquals(1, cache.getMissCount());
+  }
+
+  @Test
+  void shouldCloseAllStatementsOnClear() throws SQLException {
+    StatementCache cache = new StatementCache(2);
+    Statement a = newStatement();
+    Statement b = newStatement();
+    cache.put("a", a);
+    cache.put("b", b);
+    cache.clear();
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getEvictionCount());
+    verify(a).close();
+    verify(b).close();
+  }
+
+  @Test
+  void shouldRejectNonPositiveCapacity() {
+    assertThrows(IllegalArgumentException.class, () -> new StatementCache(0));
+  }
+
+  private Statement newStatement() throws SQLException {
+    Statement statement = mock(Statement.class);
+    when(statement.getConnection()).thenReturn(connection);
+    return statement;
+  }
+
+}
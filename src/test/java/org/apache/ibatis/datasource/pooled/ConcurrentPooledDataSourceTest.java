@@ -0,0 +1,220 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.datasource.DataSourceFactory;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentPooledDataSourceTest {
+
+  ConcurrentPooledDataSource dataSource;
+
+  @BeforeEach
+  void beforeEach() {
+    dataSource = new ConcurrentPooledDataSource("org.hsqldb.jdbcDriver", "jdbc:hsqldb:mem:concurrentpool", "sa", "");
+  }
+
+  @AfterEach
+  void afterEach() {
+    dataSource.forceCloseAll();
+  }
+
+  @Test
+  void shouldBeRegisteredAsTypeAlias() {
+    Configuration configuration = new Configuration();
+    assertEquals(ConcurrentPooledDataSourceFactory.class,
+        configuration.getTypeAliasRegistry().resolveAlias("CONCURRENT_POOLED"));
+    DataSourceFactory factory = new ConcurrentPooledDataSourceFactory();
+    assertTrue(factory.getDataSource() instanceof ConcurrentPooledDataSource);
+  }
+
+  @Test
+  void shouldBlockUntilConnectionIsAvailable() throws Exception {
+    dataSource.setPoolMaximumCheckoutTime(20000);
+
+    List<Connection> connections = new ArrayList<>();
+    CountDownLatch latch = new CountDownLatch(1);
+
+    for (int i = 0; i < dataSource.getPoolMaximumActiveConnections(); i++) {
+      connections.add(dataSource.getConnection());
+    }
+
+    new Thread(() -> {
+      try {
+        dataSource.getConnection();
+        latch.countDown();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }).start();
+
+    assertFalse(latch.await(1000, TimeUnit.MILLISECONDS));
+    connections.get(0).close();
+    assertTrue(latch.await(1000, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  void shouldInvalidateClosedConnection() throws Exception {
+    Connection connectionToClose = dataSource.getConnection();
+    connectionToClose.close();
+
+    Connection connection = dataSource.getConnection();
+    assertNotSame(connectionToClose, connection);
+    assertEquals(PooledDataSource.unwrapConnection(connectionToClose), PooledDataSource.unwrapConnection(connection));
+    assertThrows(SQLException.class, connectionToClose::createStatement);
+    connection.createStatement().close();
+    connection.close();
+  }
+
+  @Test
+  void shouldEnsureCorrectIdleConnectionCount() throws Exception {
+    dataSource.setPoolMaximumActiveConnections(10);
+    dataSource.setPoolMaximumIdleConnections(5);
+
+    PoolState poolState = dataSource.getPoolState();
+    List<Connection> connections = new ArrayList<>();
+
+    for (int i = 0; i < dataSource.getPoolMaximumActiveConnections(); i++) {
+      connections.add(dataSource.getConnection());
+    }
+
+    assertEquals(0, poolState.getIdleConnectionCount());
+
+    for (int i = 0; i < dataSource.getPoolMaximumActiveConnections(); i++) {
+      connections.get(i).close();
+    }
+
+    assertEquals(dataSource.getPoolMaximumIdleConnections(), poolState.getIdleConnectionCount());
+    assertEquals(0, poolState.getActiveConnectionCount());
+
+    for (int i = 0; i < dataSource.getPoolMaximumIdleConnections(); i++) {
+      dataSource.getConnection();
+    }
+
+    assertEquals(0, poolState.getIdleConnectionCount());
+  }
+
+  @Test
+  void connectionShouldBeAvailableAfterMaximumCheckoutTime() throws Exception {
+    dataSource.setPoolMaximumCheckoutTime(1000);
+    dataSource.setPoolTimeToWait(500);
+
+    int poolMaximumActiveConnections = dataSource.getPoolMaximumActiveConnections();
+    CountDownLatch latch = new CountDownLatch(1);
+
+    List<Connection> connections = new ArrayList<>();
+    for (int i = 0; i < poolMaximumActiveConnections; i++) {
+      connections.add(dataSource.getConnection());
+    }
+
+    new Thread(() -> {
+      try {
+        dataSource.getConnection();
+        latch.countDown();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }).start();
+
+    assertTrue(latch.await(5000, TimeUnit.MILLISECONDS));
+    assertEquals(1, dataSource.getPoolState().getClaimedOverdueConnectionCount());
+
+    // the claimed connection cannot be used nor returned by its former owner
+    connections.get(0).close();
+    assertEquals(1, dataSource.getPoolState().getBadConnectionCount());
+    assertEquals(poolMaximumActiveConnections, dataSource.getPoolState().getActiveConnectionCount());
+  }
+
+  @Test
+  void forceCloseAllShouldRemoveAllActiveAndIdleConnection() throws SQLException {
+    dataSource.setPoolMaximumActiveConnections(10);
+    dataSource.setPoolMaximumIdleConnections(5);
+
+    PoolState poolState = dataSource.getPoolState();
+    List<Connection> connections = new ArrayList<>();
+
+    for (int i = 0; i < dataSource.getPoolMaximumActiveConnections(); i++) {
+      connections.add(dataSource.getConnection());
+    }
+
+    for (int i = 0; i < dataSource.getPoolMaximumIdleConnections(); i++) {
+      connections.get(i).close();
+    }
+
+    assertEquals(dataSource.getPoolMaximumActiveConnections() - poolState.getIdleConnectionCount(),
+        poolState.getActiveConnectionCount());
+    assertEquals(dataSource.getPoolMaximumIdleConnections(), poolState.getIdleConnectionCount());
+
+    dataSource.forceCloseAll();
+
+    assertEquals(0, poolState.getActiveConnectionCount());
+    assertEquals(0, poolState.getIdleConnectionCount());
+  }
+
+  @Test
+  void shouldNeverExceedMaximumActiveConnectionsUnderContention() throws Exception {
+    dataSource.setPoolMaximumActiveConnections(4);
+    dataSource.setPoolMaximumIdleConnections(4);
+
+    int threads = 16;
+    int iterations = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          for (int j = 0; j < iterations; j++) {
+            try (Connection connection = dataSource.getConnection()) {
+              assertTrue(dataSource.getPoolState().getActiveConnectionCount() <= 4);
+              connection.createStatement().close();
+            }
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    PoolState poolState = dataSource.getPoolState();
+    assertEquals((long) threads * iterations, poolState.getRequestCount());
+    assertEquals(0, poolState.getActiveConnectionCount());
+    assertEquals(4, poolState.getIdleConnectionCount());
+    assertEquals(0, poolState.getBadConnectionCount());
+  }
+}
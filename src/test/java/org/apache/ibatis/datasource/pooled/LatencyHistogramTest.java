@@ -0,0 +1,65 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void shouldReportZeroWhenEmpty() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    assertEquals(0, LatencyHistogram.percentile(histogram.counts(), 99.9));
+  }
+
+  @Test
+  void shouldReportSmallValuesExactly() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10; i++) {
+      histogram.record(i);
+    }
+    long[] counts = histogram.counts();
+    assertEquals(5, LatencyHistogram.percentile(counts, 50));
+    assertEquals(10, LatencyHistogram.percentile(counts, 99));
+    assertEquals(1, LatencyHistogram.percentile(counts, 0));
+  }
+
+  @Test
+  void shouldReportLargeValuesWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 0; i < 998; i++) {
+      histogram.record(3);
+    }
+    histogram.record(1000);
+    histogram.record(Long.MAX_VALUE);
+    long[] counts = histogram.counts();
+    assertEquals(3, LatencyHistogram.percentile(counts, 99));
+    long p999 = LatencyHistogram.percentile(counts, 99.9);
+    assertTrue(p999 >= 1000 && p999 <= 1000 * 1.125, String.valueOf(p999));
+    assertEquals(Long.MAX_VALUE, LatencyHistogram.percentile(counts, 100));
+  }
+
+  @Test
+  void shouldTreatNegativeValuesAsZero() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(-5);
+    assertEquals(0, LatencyHistogram.percentile(histogram.counts(), 50));
+  }
+
+}
@@ -64,6 +64,32 @@ class PooledDataSourceTest {
     assertTrue(latch.await(1000, TimeUnit.MILLISECONDS));
   }
 
+  @Test
+  void shouldRecordTimeSpentWaitingForAConnection() throws Exception {
+    dataSource.setPoolMaximumActiveConnections(1);
+    dataSource.setPoolMaximumCheckoutTime(20000);
+    Connection connection = dataSource.getConnection();
+    CountDownLatch latch = new CountDownLatch(1);
+
+    new Thread(() -> {
+      try {
+        dataSource.getConnection().close();
+        latch.countDown();
+      } catch (Exception e) {
+        throw new RuntimeException(e);
+      }
+    }).start();
+
+    Thread.sleep(200);
+    connection.close();
+    assertTrue(latch.await(1000, TimeUnit.MILLISECONDS));
+    PoolStateSnapshot snapshot = dataSource.getPoolState().snapshot();
+    assertEquals(1, snapshot.getHadToWaitCount());
+    assertTrue(snapshot.getWaitTime50thPercentile() >= TimeUnit.MILLISECONDS.toMicros(100));
+    assertTrue(snapshot.getRequestTime50thPercentile() <= snapshot.getWaitTime50thPercentile());
+    assertEquals(snapshot.getWaitTime50thPercentile(), dataSource.getPoolState().getWaitTimePercentile(50));
+  }
+
   @Test
   void PoppedConnectionShouldBeNotEqualToClosedConnection() throws Exception {
     Connection connectionToClose = dataSource.getConnection();
@@ -155,4 +181,25 @@ class PooledDataSourceTest {
     assertEquals(0, poolState.getActiveConnectionCount());
     assertEquals(0, poolState.getIdleConnectionCount());
   }
+
+  @Test
+  void snapshotShouldNotChangeWhenPoolIsUsed() throws SQLException {
+    Connection connection = dataSource.getConnection();
+    PoolStateSnapshot snapshot = dataSource.getPoolState().snapshot();
+
+    assertEquals(1, snapshot.getRequestCount());
+    assertEquals(1, snapshot.getActiveConnectionCount());
+    assertEquals(0, snapshot.getIdleConnectionCount());
+    assertTrue(snapshot.getRequestTime50thPercentile() > 0);
+    assertTrue(snapshot.getRequestTime50thPercentile() <= snapshot.getRequestTime99thPercentile());
+    assertTrue(snapshot.getRequestTime99thPercentile() <= snapshot.getRequestTime999thPercentile());
+
+    connection.close();
+    dataSource.getConnection().close();
+
+    assertEquals(1, snapshot.getRequestCount());
+    assertEquals(1, snapshot.getActiveConnectionCount());
+    assertEquals(2, dataSource.getPoolState().snapshot().getRequestCount());
+    assertEquals(1, dataSource.getPoolState().snapshot().getIdleConnectionCount());
+  }
 }
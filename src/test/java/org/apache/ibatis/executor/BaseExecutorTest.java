@@ -16,6 +16,7 @@
 package org.apache.ibatis.executor;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -29,10 +30,12 @@ import javassist.util.proxy.Proxy;
 import javax.sql.DataSource;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.Post;
 import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.RowBounds;
@@ -131,6 +134,25 @@ class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  void shouldNotAddStaticSqlToCacheKey() throws Exception {
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      BoundSql boundSql = selectStatement.getBoundSql(101);
+      CacheKey key = executor.createCacheKey(selectStatement, 101, RowBounds.DEFAULT, boundSql);
+      assertEquals(key,
+          executor.createCacheKey(selectStatement, 101, RowBounds.DEFAULT, selectStatement.getBoundSql(101)));
+      BoundSql rewrittenSql = new BoundSql(config, new String(boundSql.getSql()), boundSql.getParameterMappings(), 101);
+      CacheKey rewrittenKey = executor.createCacheKey(selectStatement, 101, RowBounds.DEFAULT, rewrittenSql);
+      assertEquals(key.getUpdateCount() + 1, rewrittenKey.getUpdateCount());
+      assertNotEquals(key, rewrittenKey);
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
   @Test
   void shouldInsertNewAuthorWithAutoKey() throws Exception {
 
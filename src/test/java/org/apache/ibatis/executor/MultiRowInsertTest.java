@@ -0,0 +1,52 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  @Test
+  void shouldRepeatRowOfValues() {
+    MultiRowInsert insert = MultiRowInsert.parse("  INSERT INTO t (a, b) VALUES (?, lower(?))\n");
+    assertEquals(2, insert.getParameterCount());
+    assertEquals("INSERT INTO t (a, b) VALUES (?, lower(?))", insert.sql(1));
+    assertEquals("INSERT INTO t (a, b) VALUES (?, lower(?)),(?, lower(?)),(?, lower(?))", insert.sql(3));
+  }
+
+  @Test
+  void shouldIgnoreQuotedText() {
+    MultiRowInsert insert = MultiRowInsert.parse("insert into t (\"values\", b) values ('a)?''', ?)");
+    assertEquals(1, insert.getParameterCount());
+    assertEquals("insert into t (\"values\", b) values ('a)?''', ?),('a)?''', ?)", insert.sql(2));
+  }
+
+  @Test
+  void shouldNotRepeatStatementsOtherThanSingleRowInserts() {
+    assertNull(MultiRowInsert.parse("update t set a = ?"));
+    assertNull(MultiRowInsert.parse("insert into t (a) select ? from dual"));
+    assertNull(MultiRowInsert.parse("insert into t (a) values (?), (?)"));
+    assertNull(MultiRowInsert.parse("insert into t (a) values (?) on duplicate key update a = ?"));
+    assertNull(MultiRowInsert.parse("insert into t (a) values (?) returning id"));
+    assertNull(MultiRowInsert.parse("insert into t (a) values (?) -- comment"));
+    assertNull(MultiRowInsert.parse("insert /* hint */ into t (a) values (?)"));
+    assertNull(MultiRowInsert.parse("insert into t (a) values ('unterminated)"));
+  }
+
+}
@@ -15,7 +15,26 @@
  */
 package org.apache.ibatis.executor;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+
+import org.apache.ibatis.datasource.StatementCache;
+import org.apache.ibatis.datasource.pooled.PooledDataSource;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
 import org.junit.jupiter.api.Test;
 
 class ReuseExecutorTest extends BaseExecutorTest {
@@ -30,6 +49,93 @@ class ReuseExecutorTest extends BaseExecutorTest {
     super.shouldFetchPostWithBlogWithCompositeKey();
   }
 
+  @Test
+  void shouldReuseStatementsCachedByPooledConnectionAcrossSessions() throws Exception {
+    PooledDataSource pooledDataSource = createPooledDataSource(BLOG_PROPERTIES);
+    pooledDataSource.setPoolMaximumActiveConnections(1);
+    pooledDataSource.setPoolMaximumCachedStatements(1);
+    MappedStatement selectOne = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+    MappedStatement selectAll = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+    try {
+      assertEquals(1, query(pooledDataSource, selectOne, 101).size());
+      assertEquals(1, query(pooledDataSource, selectOne, 102).size());
+
+      StatementCache statementCache;
+      try (Connection connection = pooledDataSource.getConnection()) {
+        statementCache = connection.unwrap(StatementCache.class);
+      }
+      assertEquals(1, statementCache.getSize());
+      assertEquals(1, statementCache.getMissCount());
+      assertEquals(1, statementCache.getHitCount());
+      assertEquals(0, statementCache.getEvictionCount());
+
+      assertEquals(2, query(pooledDataSource, selectAll, null).size());
+      assertEquals(1, statementCache.getSize());
+      assertEquals(1, statementCache.getEvictionCount());
+    } finally {
+      pooledDataSource.forceCloseAll();
+    }
+  }
+
+  @Test
+  void shouldApplySettingsOfMappedStatementToReusedStatement() throws Exception {
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.getConnection()).thenReturn(connection);
+    Transaction transaction = mock(Transaction.class);
+    when(transaction.getConnection()).thenReturn(connection);
+    when(transaction.getTimeout()).thenReturn(null);
+    MappedStatement delete = ExecutorTestHelper.prepareDeleteAuthorMappedStatement(config);
+    MappedStatement deleteWithSettings = new MappedStatement.Builder(config, "deleteAuthorWithSettings",
+        delete.getSqlSource(), delete.getSqlCommandType()).parameterMap(delete.getParameterMap()).fetchSize(7)
+            .timeout(3).build();
+    Executor executor = createExecutor(transaction);
+    try {
+      executor.update(delete, new Author(101));
+      executor.update(deleteWithSettings, new Author(102));
+      executor.update(delete, new Author(103));
+    } finally {
+      executor.close(false);
+    }
+    verify(connection, times(1)).prepareStatement(anyString());
+    // the defaults of the configuration are applied again after the settings of the other statement
+    verify(statement).setFetchSize(7);
+    verify(statement).setQueryTimeout(3);
+    verify(statement, times(2)).setFetchSize(config.getDefaultFetchSize());
+    verify(statement, times(2)).setQueryTimeout(config.getDefaultStatementTimeout());
+  }
+
+  @Test
+  void shouldKeepStatementsInSessionWhenConnectionCannotTellItsWrappers() throws Exception {
+    Connection connection = mock(Connection.class);
+    PreparedStatement statement = mock(PreparedStatement.class);
+    when(connection.isWrapperFor(any())).thenThrow(new SQLFeatureNotSupportedException());
+    when(connection.prepareStatement(anyString())).thenReturn(statement);
+    when(statement.getConnection()).thenReturn(connection);
+    Transaction transaction = mock(Transaction.class);
+    when(transaction.getConnection()).thenReturn(connection);
+    MappedStatement delete = ExecutorTestHelper.prepareDeleteAuthorMappedStatement(config);
+    Executor executor = createExecutor(transaction);
+    try {
+      executor.update(delete, new Author(101));
+      executor.update(delete, new Author(102));
+    } finally {
+      executor.close(false);
+    }
+    verify(connection, times(1)).prepareStatement(anyString());
+    verify(statement).close();
+  }
+
+  private List<Author> query(PooledDataSource dataSource, MappedStatement ms, Object parameter) throws Exception {
+    Executor executor = createExecutor(new JdbcTransaction(dataSource, null, false));
+    try {
+      return executor.query(ms, parameter, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    } finally {
+      executor.close(false);
+    }
+  }
+
   @Override
   protected Executor createExecutor(Transaction transaction) {
     return new ReuseExecutor(config, transaction);
@@ -16,8 +16,11 @@
 package org.apache.ibatis.executor.resultset;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.sql.Connection;
@@ -44,6 +47,7 @@ import org.apache.ibatis.mapping.SqlCommandType;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 import org.junit.jupiter.api.Assertions;
@@ -130,6 +134,30 @@ class DefaultResultSetHandlerTest {
     }
   }
 
+  @Test
+  void shouldReuseColumnLayoutOfPreviousExecution() throws Exception {
+    final MappedStatement ms = getMappedStatement();
+    when(rs.getMetaData()).thenReturn(rsmd);
+    when(rsmd.getColumnCount()).thenReturn(1);
+    when(rsmd.getColumnLabel(1)).thenReturn("CoLuMn1");
+    when(rsmd.getColumnType(1)).thenReturn(Types.INTEGER);
+    when(rsmd.getColumnClassName(1)).thenReturn(Integer.class.getCanonicalName());
+
+    final ResultSetWrapper rsw = new ResultSetWrapper(rs, ms.getConfiguration(), ms);
+    final ResultSetWrapper reusingRsw = new ResultSetWrapper(rs, ms.getConfiguration(), ms);
+    verify(rsmd, times(1)).getColumnClassName(1);
+    assertSame(ms.getRecentColumnLayout(), ms.getColumnLayout(rsw.getColumnSignature()));
+    assertSame(rsw.getTypeHandler(Integer.class, "CoLuMn1"), reusingRsw.getTypeHandler(Integer.class, "CoLuMn1"));
+    assertSame(rsw.getMappedColumnNames(ms.getResultMaps().get(0), null),
+        reusingRsw.getMappedColumnNames(ms.getResultMaps().get(0), null));
+
+    when(rsmd.getColumnType(1)).thenReturn(Types.BIGINT);
+    when(rsmd.getColumnClassName(1)).thenReturn(Long.class.getCanonicalName());
+    final ResultSetWrapper otherRsw = new ResultSetWrapper(rs, ms.getConfiguration(), ms);
+    assertEquals(Collections.singletonList(JdbcType.BIGINT), otherRsw.getJdbcTypes());
+    assertSame(ms.getRecentColumnLayout(), ms.getColumnLayout(otherRsw.getColumnSignature()));
+  }
+
   MappedStatement getMappedStatement() {
     final Configuration config = new Configuration();
     final TypeHandlerRegistry registry = config.getTypeHandlerRegistry();
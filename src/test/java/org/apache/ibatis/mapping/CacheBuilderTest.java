@@ -20,11 +20,15 @@ import static com.googlecode.catchexception.apis.BDDCatchException.when;
 import static org.assertj.core.api.BDDAssertions.then;
 
 import java.lang.reflect.Field;
+import java.util.Properties;
 
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.TinyLfuCache;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -44,6 +48,26 @@ class CacheBuilderTest {
         "Failed cache initialization for 'test' on 'org.apache.ibatis.mapping.CacheBuilderTest$InitializingFailureCache'");
   }
 
+  @Test
+  void testTinyLfuCacheIsNotSynchronized() {
+    Cache cache = new CacheBuilder("test").addDecorator(TinyLfuCache.class).size(10).build();
+    Assertions.assertThat(cache).isInstanceOf(LoggingCache.class);
+    TinyLfuCache tinyLfuCache = unwrap(cache);
+    for (int i = 0; i < 20; i++) {
+      tinyLfuCache.putObject(i, i);
+    }
+    Assertions.assertThat(tinyLfuCache.getSize()).isEqualTo(10);
+  }
+
+  @Test
+  void testBlockingCacheTimeout() {
+    Properties properties = new Properties();
+    properties.setProperty("timeout", "500");
+    Cache cache = new CacheBuilder("test").blocking(true).properties(properties).build();
+    Assertions.assertThat(cache).isInstanceOf(BlockingCache.class);
+    Assertions.assertThat(((BlockingCache) cache).getTimeout()).isEqualTo(500L);
+  }
+
   @SuppressWarnings("unchecked")
   private <T> T unwrap(Cache cache) {
     Field field;
@@ -0,0 +1,139 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.ibatis.binding.BindingException;
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.domain.misc.CustomBeanWrapperFactory;
+import org.apache.ibatis.domain.misc.RichType;
+import org.junit.jupiter.api.Test;
+
+class PropertyPathTest {
+
+  @Test
+  void shouldGetAndSetNestedProperties() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    PropertyPath path = PropertyPath.compile("richType.richType.richProperty");
+    assertNull(path.getValue(meta));
+    path.setValue(meta, null);
+    assertNull(rich.getRichType());
+
+    path.setValue(meta, "foo");
+    assertEquals("foo", rich.getRichType().getRichType().getRichProperty());
+    assertEquals("foo", path.getValue(meta));
+    assertEquals("foo", path.getValue(SystemMetaObject.forObject(rich)));
+    assertEquals("richType.richType.richProperty", path.getPath());
+  }
+
+  @Test
+  void shouldGetAndSetFields() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    PropertyPath path = PropertyPath.compile("richType.richField");
+    path.setValue(meta, "foo");
+    assertEquals("foo", meta.getValue("richType.richField"));
+    assertEquals("foo", path.getValue(meta));
+  }
+
+  @Test
+  void shouldHandOverMapsAndIndexedProperties() {
+    RichType rich = new RichType();
+    MetaObject meta = SystemMetaObject.forObject(rich);
+    PropertyPath.compile("richType.richMap.key").setValue(meta, "foo");
+    assertEquals("foo", rich.getRichType().getRichMap().get("key"));
+    assertEquals("foo", PropertyPath.compile("richType.richMap.key").getValue(meta));
+    assertEquals("foo", PropertyPath.compile("richType.richMap[key]").getValue(meta));
+    assertEquals("bar", PropertyPath.compile("richList[0]").getValue(meta));
+    PropertyPath.compile("richList[0]").setValue(meta, "baz");
+    assertEquals("baz", rich.getRichList().get(0));
+
+    Map<String, Object> map = new HashMap<>();
+    map.put("rich", rich);
+    MetaObject mapMeta = SystemMetaObject.forObject(map);
+    assertEquals("foo", PropertyPath.compile("rich.richType.richMap.key").getValue(mapMeta));
+    PropertyPath.compile("rich.richProperty").setValue(mapMeta, "qux");
+    assertEquals("qux", rich.getRichProperty());
+  }
+
+  @Test
+  void shouldWalkFromTheParametersOfAMapperMethod() {
+    RichType rich = new RichType();
+    ParamMap<Object> params = new ParamMap<>();
+    params.put("rich", rich);
+    params.put("none", null);
+    MetaObject meta = SystemMetaObject.forObject(params);
+
+    PropertyPath path = PropertyPath.compile("rich.richType.richProperty");
+    assertNull(path.getValue(meta));
+    path.setValue(meta, "foo");
+    assertEquals("foo", rich.getRichType().getRichProperty());
+    assertEquals("foo", path.getValue(meta));
+    assertEquals(rich, PropertyPath.compile("rich").getValue(meta));
+    assertNull(PropertyPath.compile("none.richProperty").getValue(meta));
+
+    BindingException e = assertThrows(BindingException.class,
+        () -> PropertyPath.compile("missing.richProperty").getValue(meta));
+    assertEquals(assertThrows(BindingException.class, () -> meta.getValue("missing.richProperty")).getMessage(),
+        e.getMessage());
+  }
+
+  @Test
+  void shouldUseTheClassOfEachObject() {
+    PropertyPath path = PropertyPath.compile("id");
+    Author author = new Author(1);
+    assertEquals(1, path.getValue(SystemMetaObject.forObject(author)));
+    Map<String, Object> map = new HashMap<>();
+    map.put("id", 2);
+    assertEquals(2, path.getValue(SystemMetaObject.forObject(map)));
+    RichType rich = new RichType();
+    assertThrows(ReflectionException.class, () -> path.getValue(SystemMetaObject.forObject(rich)));
+    assertEquals(1, path.getValue(SystemMetaObject.forObject(author)));
+  }
+
+  @Test
+  void shouldUseCustomWrappers() {
+    Map<String, Object> map = new HashMap<>();
+    map.put("author", new Author(3));
+    MetaObject meta = MetaObject.forObject(map, SystemMetaObject.DEFAULT_OBJECT_FACTORY, new CustomBeanWrapperFactory(),
+        new DefaultReflectorFactory());
+    assertEquals(3, PropertyPath.compile("author.id").getValue(meta));
+    PropertyPath.compile("author.username").setValue(meta, "jim");
+    assertEquals("jim", ((Author) map.get("author")).getUsername());
+  }
+
+  @Test
+  void shouldFailLikeMetaObject() {
+    MetaObject meta = SystemMetaObject.forObject(new RichType());
+    ReflectionException e = assertThrows(ReflectionException.class,
+        () -> PropertyPath.compile("richType.unknown").setValue(meta, "foo"));
+    assertNotNull(e.getMessage());
+    assertEquals(assertThrows(ReflectionException.class, () -> meta.setValue("richType.unknown", "foo")).getMessage(),
+        e.getMessage());
+    assertEquals(assertThrows(ReflectionException.class, () -> meta.getValue("unknown")).getMessage(),
+        assertThrows(ReflectionException.class, () -> PropertyPath.compile("unknown").getValue(meta)).getMessage());
+  }
+
+}
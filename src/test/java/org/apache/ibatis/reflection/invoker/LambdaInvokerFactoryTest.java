@@ -0,0 +1,122 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.reflection.invoker;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.lang.reflect.InvocationTargetException;
+
+import org.junit.jupiter.api.Test;
+
+class LambdaInvokerFactoryTest {
+
+  private final InvokerFactory invokerFactory = new LambdaInvokerFactory();
+
+  @Test
+  void shouldLinkPublicGettersAndSetters() throws Exception {
+    MethodInvoker getter = invokerFactory.createMethodInvoker(Bean.class.getMethod("getCount"));
+    MethodInvoker setter = invokerFactory.createMethodInvoker(Bean.class.getMethod("setCount", long.class));
+    assertNotEquals(MethodInvoker.class, getter.getClass());
+    assertNotEquals(MethodInvoker.class, setter.getClass());
+    assertEquals(long.class, getter.getType());
+    assertEquals(long.class, setter.getType());
+
+    Bean bean = new Bean();
+    assertNull(setter.invoke(bean, new Object[] { 3L }));
+    assertEquals(3L, getter.invoke(bean, null));
+    // converted as by reflection
+    setter.invoke(bean, new Object[] { 4 });
+    assertEquals(4L, getter.invoke(bean, new Object[0]));
+  }
+
+  @Test
+  void shouldInvokeOtherMethodsReflectively() throws Exception {
+    assertEquals(MethodInvoker.class,
+        invokerFactory.createMethodInvoker(Bean.class.getDeclaredMethod("getSecret")).getClass());
+    assertEquals(MethodInvoker.class,
+        invokerFactory.createMethodInvoker(Bean.class.getMethod("getDefaultName")).getClass());
+    assertEquals(MethodInvoker.class,
+        invokerFactory.createMethodInvoker(Bean.class.getMethod("setName", String.class)).getClass());
+    assertEquals(MethodInvoker.class,
+        invokerFactory.createMethodInvoker(Hidden.class.getMethod("getValue")).getClass());
+    assertEquals(MethodInvoker.class,
+        invokerFactory.createMethodInvoker(Bean.class.getMethod("setHidden", Hidden.class)).getClass());
+    assertEquals("secret", invokerFactory.createMethodInvoker(Bean.class.getDeclaredMethod("getSecret"))
+        .invoke(new Bean(), new Object[0]));
+  }
+
+  @Test
+  void shouldFailLikeReflection() throws Exception {
+    MethodInvoker getter = invokerFactory.createMethodInvoker(Bean.class.getMethod("getFailure"));
+    MethodInvoker setter = invokerFactory.createMethodInvoker(Bean.class.getMethod("setCount", long.class));
+    Bean bean = new Bean();
+    InvocationTargetException e = assertThrows(InvocationTargetException.class, () -> getter.invoke(bean, null));
+    assertSame(IllegalStateException.class, e.getTargetException().getClass());
+    assertThrows(IllegalArgumentException.class, () -> setter.invoke(bean, new Object[] { null }));
+    assertThrows(IllegalArgumentException.class, () -> setter.invoke(bean, new Object[] { "1" }));
+    assertThrows(IllegalArgumentException.class, () -> getter.invoke("bean", null));
+    assertThrows(NullPointerException.class, () -> getter.invoke(null, null));
+  }
+
+  public static class Bean {
+    private long count;
+    private String name;
+
+    public long getCount() {
+      return count;
+    }
+
+    public void setCount(long count) {
+      this.count = count;
+    }
+
+    public String getFailure() {
+      throw new IllegalStateException();
+    }
+
+    public Bean setName(String name) {
+      this.name = name;
+      return this;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setHidden(Hidden hidden) {
+      // not a property
+    }
+
+    public static String getDefaultName() {
+      return "bean";
+    }
+
+    private String getSecret() {
+      return "secret";
+    }
+  }
+
+  static class Hidden {
+    public int getValue() {
+      return 1;
+    }
+  }
+
+}
@@ -0,0 +1,177 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.scripting.xmltags;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import ognl.Ognl;
+
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+class CompiledExpressionTest {
+
+  private static final List<String> COMPILED = Arrays.asList("name != null", "name == null",
+      "name != null and name != ''", "name == 'A'", "name == \"A\"", "id == 1", "id > 0", "id >= 1", "id < 10",
+      "id <= 1", "id lt 2", "id gte 1", "age == 0", "age != ''", "age == ''", "active", "!active", "not active",
+      "tags != null and tags.size() > 0", "tags.isEmpty()", "!tags.isEmpty()", "nested.name", "nested.nested",
+      "name.length() > 2", "status == 'OPEN'", "(id == 1 or id == 2) and name != null", "id == 1 || id == 2 && false",
+      "empty == ''", "name eq 'abc'", "id neq 1", "1 == 1", "'a' == 'a'", "'ab' == \"ab\"", "null == null",
+      "true and 'x'", "0 or ''", "_parameter != null", "_databaseId == null", "map.size", "map.key", "map.isEmpty",
+      "map.size() == 1", "map.key.length() == 5", "nothing == null", "missing == null", "nested.nested.name",
+      "tags.size", "name.length", "2 > 1 == true");
+
+  private static final List<String> NOT_COMPILED = Arrays.asList("status.name() == 'OPEN'", "id in {1,2}",
+      "name.toUpperCase() == 'A'", "tags[0]", "@java.lang.Math@max(1,2)", "id + 1 > 1", "-1 < id", "id == 007",
+      "id == 10L", "id == 1.5", "name == 'a\\'b'", "id = 1", "id & 1", "id << 1", "#this", "id > 0 ? 1 : 2",
+      "name not in {'a'}", "size()", "tags.size(1)", "nested .name", "");
+
+  @Test
+  void shouldCompileTheCommonSubset() {
+    for (String expression : COMPILED) {
+      assertNotNull(CompiledExpression.compile(expression), expression);
+    }
+    for (String expression : NOT_COMPILED) {
+      assertNull(CompiledExpression.compile(expression), expression);
+    }
+  }
+
+  @Test
+  void shouldEvaluateLikeOgnl() throws Exception {
+    Configuration configuration = new Configuration();
+    Bean bean = new Bean();
+    bean.nested = new Bean();
+    bean.nested.name = "nested";
+    Map<String, Object> map = new HashMap<>();
+    map.put("name", "A");
+    map.put("id", 2);
+    map.put("tags", Collections.emptyList());
+    map.put("map", Collections.singletonMap("key", "value"));
+    map.put("nested", bean);
+    List<Object> roots = new ArrayList<>();
+    roots.add(new DynamicContext(configuration, bean).getBindings());
+    roots.add(new DynamicContext(configuration, map).getBindings());
+    roots.add(new DynamicContext(configuration, null).getBindings());
+    roots.add(bean);
+    roots.add(map);
+    List<String> expressions = new ArrayList<>(COMPILED);
+    expressions.addAll(NOT_COMPILED.subList(0, NOT_COMPILED.size() - 1));
+    int compared = 0;
+    for (Object root : roots) {
+      for (String expression : expressions) {
+        Object expected;
+        try {
+          expected = Ognl.getValue(Ognl.parseExpression(expression),
+              Ognl.createDefaultContext(root, new OgnlMemberAccess(), new OgnlClassResolver(), null), root);
+        } catch (Exception e) {
+          expected = e;
+        }
+        CompiledExpression compiled = CompiledExpression.compile(expression);
+        Object actual = compiled == null ? CompiledExpression.UNSUPPORTED : compiled.evaluate(root);
+        if (actual == CompiledExpression.UNSUPPORTED) {
+          continue;
+        }
+        compared++;
+        String message = expression + " on " + root.getClass().getSimpleName();
+        assertFalse(expected instanceof Exception, message);
+        assertEquals(expected, actual, message);
+        if (expected != null) {
+          assertEquals(expected.getClass(), actual.getClass(), message);
+        }
+      }
+    }
+    // most values must be in the compiled subset
+    assertTrue(compared > roots.size() * COMPILED.size() * 3 / 4);
+  }
+
+  @Test
+  void shouldNotEvaluateThePropertiesOfNullValues() {
+    Map<String, Object> root = new HashMap<>();
+    assertEquals(CompiledExpression.UNSUPPORTED, CompiledExpression.compile("nested.name").evaluate(root));
+    assertEquals(CompiledExpression.UNSUPPORTED, CompiledExpression.compile("name.length()").evaluate(root));
+  }
+
+  @Test
+  void shouldFallBackToOgnl() {
+    Map<String, Object> root = new HashMap<>();
+    root.put("status", Status.OPEN);
+    root.put("tags", Arrays.asList("a", "b"));
+    assertEquals(Boolean.TRUE, OgnlCache.getValue("status.name() == 'OPEN'", root));
+    assertEquals(2, OgnlCache.getValue("tags.size", root));
+    assertThrows(IllegalArgumentException.class, () -> OgnlCache.getValue("status == 'OPEN'", root));
+    assertEquals(Boolean.TRUE, OgnlCache.getValue("tags.size() == 2 and status.name() == 'OPEN'", root));
+  }
+
+  public enum Status {
+    OPEN, CLOSED
+  }
+
+  public static class Bean {
+    private String name = "A";
+    private Integer id = 1;
+    private int age;
+    private boolean active = true;
+    private List<String> tags = Arrays.asList("x", "y");
+    private Bean nested;
+    private Status status = Status.OPEN;
+    private String empty = "";
+
+    public String getName() {
+      return name;
+    }
+
+    public Integer getId() {
+      return id;
+    }
+
+    public int getAge() {
+      return age;
+    }
+
+    public boolean isActive() {
+      return active;
+    }
+
+    public List<String> getTags() {
+      return tags;
+    }
+
+    public Bean getNested() {
+      return nested;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public String getEmpty() {
+      return empty;
+    }
+  }
+
+}
@@ -0,0 +1,163 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_async;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchAsyncTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batch_async/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_async/CreateDB.sql");
+  }
+
+  @Test
+  void shouldExecuteBatchOnAnotherThread() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user1 = new User(null, "User1");
+      User user2 = new User(null, "User2");
+      mapper.insertUser(user1);
+      mapper.insertUser(user2);
+      CompletableFuture<List<BatchResult>> future = sqlSession.flushStatementsAsync();
+      List<BatchResult> results = future.get();
+      assertEquals(1, results.size());
+      assertEquals(2, results.get(0).getParameterObjects().size());
+      assertEquals(100, user1.getId());
+      assertEquals(101, user2.getId());
+      sqlSession.commit();
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertEquals(2, sqlSession.getMapper(Mapper.class).countUsers());
+    }
+  }
+
+  @Test
+  void shouldBatchNextUpdatesWhileFlushing() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      CompletableFuture<List<BatchResult>> previous = null;
+      int flushes = 0;
+      for (int i = 0; i < 1000; i++) {
+        mapper.insertUserWithId(new User(i, "User" + i));
+        if (i % 100 == 99) {
+          CompletableFuture<List<BatchResult>> flush = sqlSession.flushStatementsAsync();
+          assertNotEquals(previous, flush);
+          previous = flush;
+          flushes++;
+        }
+      }
+      assertEquals(10, flushes);
+      // waits for the last flush
+      assertEquals(1000, mapper.countUsers());
+      assertTrue(previous.isDone());
+      assertEquals(100, previous.get().get(0).getParameterObjects().size());
+      sqlSession.commit();
+    }
+  }
+
+  @Test
+  void shouldWaitForFlushBeforeNextUpdate() throws Exception {
+    AtomicInteger tasks = new AtomicInteger();
+    sqlSessionFactory.getConfiguration().setTaskExecutor(task -> {
+      tasks.incrementAndGet();
+      new Thread(() -> {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        task.run();
+      }).start();
+    });
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUserWithId(new User(1, "User1"));
+      CompletableFuture<List<BatchResult>> flush = sqlSession.flushStatementsAsync();
+      mapper.insertUserWithId(new User(2, "User2"));
+      assertTrue(flush.isDone());
+      assertEquals(1, tasks.get());
+      sqlSession.commit();
+      assertEquals(2, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldCompleteExceptionallyWhenBatchFails() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUserWithId(new User(1, "User1"));
+      mapper.insertUserWithId(new User(1, "User1"));
+      CompletableFuture<List<BatchResult>> future = sqlSession.flushStatementsAsync();
+      ExecutionException e = assertThrows(ExecutionException.class, future::get);
+      assertInstanceOf(PersistenceException.class, e.getCause());
+      assertInstanceOf(BatchExecutorException.class, e.getCause().getCause());
+      sqlSession.rollback();
+      assertEquals(0, mapper.countUsers());
+    }
+  }
+
+  @Test
+  void shouldReportFailureOfUnobservedFlushOnCommit() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertUserWithId(new User(1, "User1"));
+      mapper.insertUserWithId(new User(1, "User1"));
+      sqlSession.flushStatementsAsync();
+      PersistenceException e = assertThrows(PersistenceException.class, sqlSession::commit);
+      assertInstanceOf(BatchExecutorException.class, e.getCause());
+    }
+  }
+
+  @Test
+  void shouldFlushSynchronouslyWithoutBatchExecutor() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.SIMPLE)) {
+      sqlSession.getMapper(Mapper.class).insertUser(new User(null, "User1"));
+      CompletableFuture<List<BatchResult>> future = sqlSession.flushStatementsAsync();
+      assertTrue(future.isDone());
+      assertTrue(future.get().isEmpty());
+    }
+  }
+
+}
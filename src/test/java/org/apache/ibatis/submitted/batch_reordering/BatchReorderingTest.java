@@ -0,0 +1,159 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batch_reordering;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class BatchReorderingTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/batch_reordering/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/batch_reordering/CreateDB.sql");
+  }
+
+  @AfterEach
+  void tearDown() {
+    Configuration configuration = sqlSessionFactory.getConfiguration();
+    configuration.setBatchReorderingEnabled(true);
+    configuration.setMaxBatchSize(null);
+  }
+
+  @Test
+  void shouldDeclareDependenciesWithNamespace() {
+    String[] batchDependsOn = sqlSessionFactory.getConfiguration()
+        .getMappedStatement(Mapper.class.getName() + ".insertLine").getBatchDependsOn();
+    assertArrayEquals(new String[] { Mapper.class.getName() + ".insertOrder" }, batchDependsOn);
+  }
+
+  @Test
+  void shouldGroupInterleavedStatements() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int id = 10; id < 13; id++) {
+        mapper.insertOrder(id, "Order " + id);
+        mapper.insertLine(id, 1);
+        mapper.insertLine(id, 2);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(2, results.size());
+      assertEquals("insertOrder", results.get(0).getMappedStatement().getId().replaceAll(".*\\.", ""));
+      assertEquals(3, results.get(0).getParameterObjects().size());
+      assertEquals(6, results.get(1).getParameterObjects().size());
+      assertEquals(6, mapper.countLines());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  void shouldKeepDependentStatementsAfterTheirDependencies() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertLine(1, 1);
+      mapper.insertOrder(20, "Order 20");
+      mapper.insertLine(20, 1);
+      mapper.insertOrder(21, "Order 21");
+      mapper.insertLine(1, 2);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals(1, results.get(0).getParameterObjects().size());
+      assertEquals(2, results.get(1).getParameterObjects().size());
+      assertEquals(2, results.get(2).getParameterObjects().size());
+      assertEquals(3, mapper.countLines());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  void shouldNotGroupInterleavedStatementsByDefault() {
+    sqlSessionFactory.getConfiguration().setBatchReorderingEnabled(false);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int id = 10; id < 13; id++) {
+        mapper.insertOrder(id, "Order " + id);
+        mapper.insertLine(id, 1);
+        mapper.insertLine(id, 2);
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(6, results.size());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  void shouldExecuteBatchReachingMaxBatchSize() {
+    sqlSessionFactory.getConfiguration().setMaxBatchSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertOrder(30, "Order 30");
+      mapper.insertLine(30, 1);
+      // executes the order batch only
+      mapper.insertOrder(31, "Order 31");
+      // executes the line batch
+      mapper.insertLine(31, 1);
+      mapper.insertLine(31, 2);
+      mapper.insertLine(31, 3);
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals(2, results.get(0).getParameterObjects().size());
+      assertEquals(2, results.get(1).getParameterObjects().size());
+      assertEquals(2, results.get(2).getParameterObjects().size());
+      assertEquals(4, mapper.countLines());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  void shouldExecuteBatchesStartedBeforeBatchReachingMaxBatchSize() {
+    sqlSessionFactory.getConfiguration().setMaxBatchSize(2);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      mapper.insertOrder(40, "Order 40");
+      mapper.insertLine(40, 1);
+      mapper.insertLine(40, 2);
+      mapper.insertOrder(41, "Order 41");
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(3, results.size());
+      assertEquals(1, results.get(0).getParameterObjects().size());
+      assertEquals(2, results.get(1).getParameterObjects().size());
+      assertEquals(1, results.get(2).getParameterObjects().size());
+      sqlSession.rollback();
+    }
+  }
+
+}
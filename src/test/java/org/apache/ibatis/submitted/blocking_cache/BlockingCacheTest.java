@@ -18,8 +18,11 @@ package org.apache.ibatis.submitted.blocking_cache;
 import java.io.Reader;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.session.SqlSession;
 import org.apache.ibatis.session.SqlSessionFactory;
@@ -101,4 +104,23 @@ class BlockingCacheTest {
       mapper.findAll();
     }
   }
+
+  @Test
+  void ensureLockIsReleasedWhenQueryFails() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      PersonMapper mapper = sqlSession.getMapper(PersonMapper.class);
+      Assertions.assertThrows(PersistenceException.class, mapper::findMissing);
+      // the session is still open, but does not block the others
+      Future<?> other = executor.submit(() -> {
+        try (SqlSession otherSession = sqlSessionFactory.openSession()) {
+          Assertions.assertThrows(PersistenceException.class,
+              () -> otherSession.getMapper(PersonMapper.class).findMissing());
+        }
+      });
+      other.get(5, TimeUnit.SECONDS);
+    } finally {
+      executor.shutdownNow();
+    }
+  }
 }
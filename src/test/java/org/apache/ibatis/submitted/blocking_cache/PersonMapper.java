@@ -27,6 +27,9 @@ public interface PersonMapper {
   @Select("select id, firstname, lastname from person")
   List<Person> findAll();
 
+  @Select("select id, firstname, lastname from missing_table")
+  List<Person> findMissing();
+
   @Delete("delete from person where id = #{id}")
   int delete(int id);
 }
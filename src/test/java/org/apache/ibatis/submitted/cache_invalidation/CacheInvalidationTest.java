@@ -0,0 +1,84 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cache_invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.Reader;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CacheInvalidationTest {
+
+  private static SqlSessionFactory node1;
+  private static SqlSessionFactory node2;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    node1 = build();
+    node2 = build();
+    BaseDataTest.runScript(node1.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cache_invalidation/CreateDB.sql");
+  }
+
+  @AfterAll
+  static void tearDown() {
+    node1.getConfiguration().closeCacheInvalidationBus();
+    node2.getConfiguration().closeCacheInvalidationBus();
+  }
+
+  private static SqlSessionFactory build() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/cache_invalidation/mybatis-config.xml")) {
+      return new SqlSessionFactoryBuilder().build(reader);
+    }
+  }
+
+  @Test
+  void shouldFlushTheCachesOfOtherNodesOnCommit() throws Exception {
+    assertEquals("apple", getName(node1));
+    assertEquals("apple", getName(node2));
+    Cache node1Cache = node1.getConfiguration().getCache(Mapper.class.getName());
+    assertEquals(1, node1Cache.getSize());
+
+    try (SqlSession sqlSession = node2.openSession()) {
+      sqlSession.getMapper(Mapper.class).updateName(1, "banana");
+      sqlSession.commit();
+    }
+
+    long deadline = System.currentTimeMillis() + 5000;
+    while (node1Cache.getSize() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals("banana", getName(node1));
+    assertEquals("banana", getName(node2));
+  }
+
+  private static String getName(SqlSessionFactory node) {
+    try (SqlSession sqlSession = node.openSession()) {
+      return sqlSession.getMapper(Mapper.class).getName(1);
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.column_indexes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.Reader;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class ColumnIndexesTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/column_indexes/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/column_indexes/CreateDB.sql");
+  }
+
+  @Test
+  void shouldApplyAutomaticMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).selectUsers();
+      assertEquals(2, users.size());
+      assertUser(users.get(0), 1, "User1", 30, "one");
+      assertUser(users.get(1), 2, "User2", 0, null);
+    }
+  }
+
+  @Test
+  void shouldReadPrefixedColumnsOfNestedResultMapsByIndex() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).selectUsersWithFriends();
+      assertEquals(2, users.size());
+      // result maps with nested result maps are not auto-mapped by default
+      assertUser(users.get(0), 1, "User1", 0, "one");
+      assertUser(users.get(0).getFriend(), 2, "User2", 0, null);
+      assertUser(users.get(1), 2, "User2", 0, null);
+      assertNull(users.get(1).getFriend());
+    }
+  }
+
+  @Test
+  void shouldReadConstructorArgumentsByIndex() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<UserName> userNames = sqlSession.getMapper(Mapper.class).selectUserNames();
+      assertEquals(2, userNames.size());
+      assertEquals(Integer.valueOf(1), userNames.get(0).getId());
+      assertEquals("User1", userNames.get(0).getName());
+      assertEquals(Integer.valueOf(2), userNames.get(1).getId());
+      assertEquals("User2", userNames.get(1).getName());
+    }
+  }
+
+  @Test
+  void shouldIgnoreMappedColumnsMissingFromResultSet() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.getMapper(Mapper.class).selectUsersWithMissingColumn();
+      assertEquals(2, users.size());
+      assertUser(users.get(0), 1, "User1", 0, "one");
+      assertUser(users.get(1), 2, "User2", 0, null);
+    }
+  }
+
+  @Test
+  void shouldReadColumnsByIndexThroughCompiledRowMappers() {
+    sqlSessionFactory.getConfiguration().setUseCompiledRowMappers(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.selectList(Mapper.class.getName() + ".selectUsersWithMissingColumn");
+      assertEquals(2, users.size());
+      assertUser(users.get(0), 1, "User1", 0, "one");
+      assertUser(users.get(1), 2, "User2", 0, null);
+    } finally {
+      sqlSessionFactory.getConfiguration().setUseCompiledRowMappers(false);
+    }
+  }
+
+  private void assertUser(User user, int id, String name, int age, String nickName) {
+    assertEquals(Integer.valueOf(id), user.getId());
+    assertEquals(name, user.getName());
+    assertEquals(age, user.getAge());
+    assertEquals(nickName, user.getNickName());
+  }
+
+}
@@ -0,0 +1,145 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.Reader;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.executor.resultset.ColumnLayout;
+import org.apache.ibatis.executor.resultset.CompiledRowMapper;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CompiledRowMapperTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mapper/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/compiled_row_mapper/CreateDB.sql");
+  }
+
+  @Test
+  void shouldApplyAutomaticMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = mapper.selectUsers();
+      assertEquals(2, users.size());
+      assertUsers(users);
+    }
+  }
+
+  @Test
+  void shouldApplyPropertyAndAutomaticMappings() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      assertUsers(mapper.selectUsersWithResultMap());
+    }
+  }
+
+  @Test
+  void shouldReuseColumnLayoutAcrossExecutions() {
+    String statementId = Mapper.class.getName() + ".selectUsersWithResultMap";
+    MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement(statementId);
+    ColumnLayout layout;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectUsersWithResultMap();
+      layout = ms.getColumnLayout("ID:INTEGER,USER_NAME:VARCHAR,AGE:INTEGER,NICK_NAME:VARCHAR,");
+      assertNotNull(layout);
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertUsers(sqlSession.getMapper(Mapper.class).selectUsersWithResultMap());
+      assertSame(layout, ms.getColumnLayout("ID:INTEGER,USER_NAME:VARCHAR,AGE:INTEGER,NICK_NAME:VARCHAR,"));
+    }
+  }
+
+  @Test
+  void shouldReuseRowMapperAcrossExecutions() {
+    String statementId = Mapper.class.getName() + ".selectUsers";
+    MappedStatement ms = sqlSessionFactory.getConfiguration().getMappedStatement(statementId);
+    CompiledRowMapper rowMapper;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(Mapper.class).selectUsers();
+      rowMapper = ms.getCompiledRowMapper(
+          ms.getResultMaps().get(0).getId() + ":null:ID:INTEGER,NAME:VARCHAR,AGE:INTEGER,NICK_NAME:VARCHAR,");
+      assertNotNull(rowMapper);
+    }
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      assertUsers(sqlSession.getMapper(Mapper.class).selectUsers());
+      assertSame(rowMapper, ms.getCompiledRowMapper(
+          ms.getResultMaps().get(0).getId() + ":null:ID:INTEGER,NAME:VARCHAR,AGE:INTEGER,NICK_NAME:VARCHAR,"));
+    }
+  }
+
+  @Test
+  void shouldFallBackForMapResults() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Map<String, Object> user = sqlSession.getMapper(Mapper.class).selectUserAsMap(1);
+      assertEquals(1, user.get("ID"));
+      assertEquals("User1", user.get("NAME"));
+    }
+  }
+
+  @Test
+  void shouldSetNonPublicSetterReflectively() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      User user = sqlSession.getMapper(Mapper.class).selectUserWithSecret(1);
+      assertEquals("User1", user.getName());
+      assertEquals("one", user.getSecret());
+    }
+  }
+
+  @Test
+  void shouldCallSettersOnNulls() {
+    sqlSessionFactory.getConfiguration().setCallSettersOnNulls(true);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      List<User> users = sqlSession.selectList(Mapper.class.getName() + ".selectUsersWithResultMap");
+      assertUsers(users);
+    } finally {
+      sqlSessionFactory.getConfiguration().setCallSettersOnNulls(false);
+    }
+  }
+
+  private void assertUsers(List<User> users) {
+    assertEquals(2, users.size());
+    assertEquals(Integer.valueOf(1), users.get(0).getId());
+    assertEquals("User1", users.get(0).getName());
+    assertEquals(30, users.get(0).getAge());
+    assertEquals("one", users.get(0).getNickName());
+    assertEquals(Integer.valueOf(2), users.get(1).getId());
+    assertEquals("User2", users.get(1).getName());
+    assertEquals(0, users.get(1).getAge());
+    assertNull(users.get(1).getNickName());
+  }
+
+}
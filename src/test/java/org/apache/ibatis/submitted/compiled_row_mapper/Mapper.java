@@ -0,0 +1,36 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mapper;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  @Select("select id, name, age, nick_name from users order by id")
+  List<User> selectUsers();
+
+  List<User> selectUsersWithResultMap();
+
+  @Select("select id, name from users where id = #{id}")
+  Map<String, Object> selectUserAsMap(Integer id);
+
+  @Select("select id, name, nick_name secret from users where id = #{id}")
+  User selectUserWithSecret(Integer id);
+
+}
@@ -0,0 +1,107 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.cursor.defaults.PrefetchingCursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs cursors that fetch ahead on a background thread.
+ */
+class CursorPrefetchTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (
+        Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().setCursorPrefetchSize(2);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldFetchAhead() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Cursor<User> usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      assertTrue(usersCursor instanceof PrefetchingCursor);
+
+      List<String> names = new ArrayList<>();
+      usersCursor.forEach(user -> names.add(user.getName()));
+      assertEquals(5, names.size());
+      assertEquals("User5", names.get(4));
+    }
+  }
+
+  @Test
+  void shouldRefuseToUseTheSessionWhileTheCursorIsOpen() throws Exception {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      try (Cursor<User> usersCursor = mapper.getAllUsers()) {
+        Iterator<User> iterator = usersCursor.iterator();
+        assertEquals("User1", iterator.next().getName());
+
+        PersistenceException e = assertThrows(PersistenceException.class, mapper::getAllUsers);
+        assertTrue(e.getMessage().contains("prefetching cursor is open"));
+        assertThrows(PersistenceException.class, sqlSession::commit);
+
+        iterator.forEachRemaining(user -> {
+        });
+        assertTrue(usersCursor.isConsumed());
+        sqlSession.commit();
+      }
+
+      try (Cursor<User> usersCursor = mapper.getAllUsers()) {
+        assertEquals("User1", usersCursor.iterator().next().getName());
+      }
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  void shouldStopFetchingWhenTheSessionIsClosed() {
+    Cursor<User> usersCursor;
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      usersCursor = sqlSession.getMapper(Mapper.class).getAllUsers();
+      assertEquals("User1", usersCursor.iterator().next().getName());
+    }
+    assertFalse(usersCursor.isOpen());
+    assertFalse(usersCursor.isConsumed());
+  }
+
+}
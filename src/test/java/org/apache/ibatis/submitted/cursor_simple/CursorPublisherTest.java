@@ -0,0 +1,175 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.cursor_simple;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+class CursorPublisherTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeAll
+  static void setUp() throws Exception {
+    try (
+        Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/cursor_simple/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    sqlSessionFactory.getConfiguration().addMapper(PublisherMapper.class);
+
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/cursor_simple/CreateDB.sql");
+  }
+
+  @Test
+  void shouldFetchOnlyRequestedUsers() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Flow.Publisher<User> publisher = sqlSession.getMapper(PublisherMapper.class).getAllUsers();
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      publisher.subscribe(subscriber);
+      assertTrue(subscriber.names.isEmpty());
+
+      subscriber.subscription.request(2);
+      assertEquals(Arrays.asList("User1", "User2"), subscriber.names);
+      assertFalse(subscriber.completed);
+
+      subscriber.subscription.request(Long.MAX_VALUE);
+      assertEquals(Arrays.asList("User1", "User2", "User3", "User4", "User5"), subscriber.names);
+      assertTrue(subscriber.completed);
+      assertNull(subscriber.error);
+    }
+  }
+
+  @Test
+  void shouldCompleteWhenTheLastUserIsRequestedFromOnNext() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      RecordingSubscriber subscriber = new RecordingSubscriber() {
+        @Override
+        public void onNext(User item) {
+          super.onNext(item);
+          subscription.request(1);
+        }
+      };
+      sqlSession.getMapper(PublisherMapper.class).getAllUsers().subscribe(subscriber);
+      subscriber.subscription.request(1);
+
+      assertEquals(5, subscriber.names.size());
+      assertTrue(subscriber.completed);
+    }
+  }
+
+  @Test
+  void shouldStopOnCancel() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      sqlSession.getMapper(PublisherMapper.class).getAllUsers().subscribe(subscriber);
+      subscriber.subscription.request(1);
+      subscriber.subscription.cancel();
+      subscriber.subscription.request(10);
+
+      assertEquals(Arrays.asList("User1"), subscriber.names);
+      assertFalse(subscriber.completed);
+      assertNull(subscriber.error);
+    }
+  }
+
+  @Test
+  void shouldApplyRowBoundsAndRunAgainForEachSubscriber() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      Flow.Publisher<User> publisher = sqlSession.selectPublisher(
+          "org.apache.ibatis.submitted.cursor_simple.PublisherMapper.getUsers", null, new RowBounds(1, 2));
+      for (int i = 0; i < 2; i++) {
+        RecordingSubscriber subscriber = new RecordingSubscriber();
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(Arrays.asList("User2", "User3"), subscriber.names);
+        assertTrue(subscriber.completed);
+      }
+    }
+  }
+
+  @Test
+  void shouldSignalErrorOnInvalidRequest() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      RecordingSubscriber subscriber = new RecordingSubscriber();
+      sqlSession.getMapper(PublisherMapper.class).getAllUsers().subscribe(subscriber);
+      subscriber.subscription.request(0);
+
+      assertTrue(subscriber.error instanceof IllegalArgumentException);
+      assertTrue(subscriber.names.isEmpty());
+    }
+  }
+
+  @Test
+  void shouldSignalErrorWhenTheSessionIsClosedFirst() {
+    RecordingSubscriber subscriber = new RecordingSubscriber();
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(PublisherMapper.class).getAllUsers().subscribe(subscriber);
+      subscriber.subscription.request(1);
+    }
+    subscriber.subscription.request(1);
+
+    assertEquals(Arrays.asList("User1"), subscriber.names);
+    assertFalse(subscriber.completed);
+    assertTrue(subscriber.error instanceof IllegalStateException);
+  }
+
+  private static class RecordingSubscriber implements Flow.Subscriber<User> {
+
+    final List<String> names = new ArrayList<>();
+    Flow.Subscription subscription;
+    boolean completed;
+    Throwable error;
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+    }
+
+    @Override
+    public void onNext(User item) {
+      names.add(item.getName());
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      error = throwable;
+    }
+
+    @Override
+    public void onComplete() {
+      completed = true;
+    }
+  }
+
+}
@@ -0,0 +1,39 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Select;
+
+public interface Mapper {
+
+  @Insert("insert into users (name) values (#{name})")
+  @Options(useGeneratedKeys = true, keyProperty = "id")
+  void insertUser(User user);
+
+  @Insert("insert into users (id, name) values (#{id}, #{name})")
+  void insertUserWithId(User user);
+
+  @Insert("insert into users (id, name) select #{id}, #{name} from (values(0))")
+  void insertUserBySelect(User user);
+
+  @Select("select * from users order by id")
+  List<User> selectUsers();
+
+}
@@ -0,0 +1,182 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.multi_row_insert;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.BatchExecutorException;
+import org.apache.ibatis.executor.BatchResult;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class MultiRowInsertTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+  private final List<String> preparedSql = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/multi_row_insert/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/multi_row_insert/CreateDB.sql");
+    sqlSessionFactory.getConfiguration().addInterceptor(new PrepareRecorder(preparedSql));
+  }
+
+  @Test
+  void shouldInsertBatchedRowsInChunks() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 7; i++) {
+        mapper.insertUserWithId(new User(i, "User" + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals(7, results.get(0).getParameterObjects().size());
+      assertArrayEquals(new int[] { 1, 1, 1, 1, 1, 1, 1 }, results.get(0).getUpdateCounts());
+      assertEquals(3, preparedSql.size());
+      assertEquals("insert into users (id, name) values (?, ?),(?, ?),(?, ?)", preparedSql.get(0));
+      assertEquals("insert into users (id, name) values (?, ?)", preparedSql.get(2));
+      List<User> users = mapper.selectUsers();
+      assertEquals(7, users.size());
+      for (int i = 0; i < 7; i++) {
+        assertEquals(i + 1, users.get(i).getId());
+        assertEquals("User" + (i + 1), users.get(i).getName());
+      }
+    }
+  }
+
+  @Test
+  void shouldInsertValuesOfTheTimeRowsWereBatched() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      User user = new User(1, "User1");
+      mapper.insertUserWithId(user);
+      user.setId(2);
+      user.setName("User2");
+      mapper.insertUserWithId(user);
+      sqlSession.flushStatements();
+      List<User> users = mapper.selectUsers();
+      assertEquals(2, users.size());
+      assertEquals("User1", users.get(0).getName());
+      assertEquals("User2", users.get(1).getName());
+    }
+  }
+
+  @Test
+  void shouldMapGeneratedKeys() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      List<User> users = new ArrayList<>();
+      for (int i = 0; i < 5; i++) {
+        User user = new User(null, "User" + i);
+        users.add(user);
+        mapper.insertUser(user);
+      }
+      sqlSession.flushStatements();
+      assertEquals(2, preparedSql.size());
+      for (int i = 0; i < 5; i++) {
+        assertEquals(100 + i, users.get(i).getId());
+      }
+    }
+  }
+
+  @Test
+  void shouldBatchStatementsThatCannotBeRewritten() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 4; i++) {
+        mapper.insertUserBySelect(new User(i, "User" + i));
+      }
+      List<BatchResult> results = sqlSession.flushStatements();
+      assertEquals(1, results.size());
+      assertEquals(1, preparedSql.size());
+      assertEquals(4, mapper.selectUsers().size());
+    }
+  }
+
+  @Test
+  void shouldReportFailedChunk() {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 4; i++) {
+        mapper.insertUserWithId(new User(i, "User" + i));
+      }
+      mapper.insertUserWithId(new User(1, "User1"));
+      PersistenceException e = assertThrows(PersistenceException.class, sqlSession::flushStatements);
+      BatchExecutorException cause = assertInstanceOf(BatchExecutorException.class, e.getCause());
+      assertArrayEquals(new int[] { 1, 1, 1 }, cause.getBatchUpdateException().getUpdateCounts());
+      sqlSession.rollback();
+    }
+  }
+
+  @Test
+  void shouldNotRewriteWhenDisabled() {
+    sqlSessionFactory.getConfiguration().setMultiRowInsertSize(null);
+    try (SqlSession sqlSession = sqlSessionFactory.openSession(ExecutorType.BATCH)) {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 1; i <= 4; i++) {
+        mapper.insertUserWithId(new User(i, "User" + i));
+      }
+      sqlSession.flushStatements();
+      assertEquals(1, preparedSql.size());
+      assertEquals(4, mapper.selectUsers().size());
+    }
+  }
+
+  @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+  public static class PrepareRecorder implements Interceptor {
+
+    private final List<String> preparedSql;
+
+    PrepareRecorder(List<String> preparedSql) {
+      this.preparedSql = preparedSql;
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      String sql = ((StatementHandler) invocation.getTarget()).getBoundSql().getSql();
+      if (sql.startsWith("insert")) {
+        preparedSql.add(sql);
+      }
+      return invocation.proceed();
+    }
+
+  }
+
+}
@@ -0,0 +1,41 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache_invalidation;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.CacheTables;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+@CacheNamespace(readWrite = false)
+public interface ItemMapper {
+
+  @Select("select name from item order by id")
+  List<String> getNames();
+
+  @Select("select item_id from orders order by id")
+  List<Integer> getOrderedItemIds();
+
+  @CacheTables("item")
+  @Select("select name from item_view order by name")
+  List<String> getNamesFromView();
+
+  @Update("update item set name = #{name} where id = #{id}")
+  int updateName(int id, String name);
+
+}
@@ -0,0 +1,40 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache_invalidation;
+
+import java.util.List;
+
+import org.apache.ibatis.annotations.CacheNamespace;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+
+@CacheNamespace(readWrite = false)
+public interface OrderMapper {
+
+  @Select("select i.name from orders o join item i on i.id = o.item_id order by o.id")
+  List<String> getOrderedNames();
+
+  @Select("call (select count(*) from orders)")
+  List<Integer> countOrders();
+
+  @Insert("insert into orders (id, item_id) values (#{id}, #{itemId})")
+  int insertOrder(int id, int itemId);
+
+  @Delete("<script>delete from orders <where><if test='id != null'>id = #{id}</if></where></script>")
+  int deleteOrders(Integer id);
+
+}
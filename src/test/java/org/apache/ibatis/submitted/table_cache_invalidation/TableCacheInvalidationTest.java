@@ -0,0 +1,137 @@
+/*
+ *    Copyright 2009-2023 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       https://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.table_cache_invalidation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class TableCacheInvalidationTest {
+
+  private SqlSessionFactory sqlSessionFactory;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    try (Reader reader = Resources
+        .getResourceAsReader("org/apache/ibatis/submitted/table_cache_invalidation/mybatis-config.xml")) {
+      sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    }
+    BaseDataTest.runScript(sqlSessionFactory.getConfiguration().getEnvironment().getDataSource(),
+        "org/apache/ibatis/submitted/table_cache_invalidation/CreateDB.sql");
+  }
+
+  @Test
+  void shouldKeepEntriesOfOtherTablesInTheSameNamespace() {
+    List<String> names = select(s -> s.getMapper(ItemMapper.class).getNames());
+    List<Integer> itemIds = select(s -> s.getMapper(ItemMapper.class).getOrderedItemIds());
+
+    updateName(1, "cherry");
+
+    assertSame(itemIds, select(s -> s.getMapper(ItemMapper.class).getOrderedItemIds()));
+    assertNotSame(names, select(s -> s.getMapper(ItemMapper.class).getNames()));
+    assertEquals(Arrays.asList("cherry", "banana"), select(s -> s.getMapper(ItemMapper.class).getNames()));
+  }
+
+  @Test
+  void shouldInvalidateEntriesOfOtherNamespaces() {
+    assertEquals(Collections.singletonList("apple"), select(s -> s.getMapper(OrderMapper.class).getOrderedNames()));
+
+    updateName(1, "cherry");
+
+    assertEquals(Collections.singletonList("cherry"), select(s -> s.getMapper(OrderMapper.class).getOrderedNames()));
+  }
+
+  @Test
+  void shouldInvalidateEntriesOfExplicitTables() {
+    assertEquals(Arrays.asList("apple", "banana"), select(s -> s.getMapper(ItemMapper.class).getNamesFromView()));
+
+    updateName(2, "avocado");
+
+    assertEquals(Arrays.asList("apple", "avocado"), select(s -> s.getMapper(ItemMapper.class).getNamesFromView()));
+  }
+
+  @Test
+  void shouldInvalidateEntriesOfUnknownTablesOnAnyWriteToTheNamespace() {
+    List<Integer> count = select(s -> s.getMapper(OrderMapper.class).countOrders());
+    assertEquals(Collections.singletonList(1), count);
+
+    updateName(1, "cherry");
+    assertSame(count, select(s -> s.getMapper(OrderMapper.class).countOrders()));
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(OrderMapper.class).insertOrder(2, 2);
+      sqlSession.commit();
+    }
+    assertEquals(Collections.singletonList(2), select(s -> s.getMapper(OrderMapper.class).countOrders()));
+  }
+
+  @Test
+  void shouldInvalidateEntriesOfTablesFoundInDynamicStatements() {
+    List<String> names = select(s -> s.getMapper(ItemMapper.class).getNames());
+    assertEquals(Collections.singletonList("apple"), select(s -> s.getMapper(OrderMapper.class).getOrderedNames()));
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(OrderMapper.class).deleteOrders(null);
+      sqlSession.commit();
+    }
+
+    assertEquals(Collections.emptyList(), select(s -> s.getMapper(OrderMapper.class).getOrderedNames()));
+    assertEquals(Collections.emptyList(), select(s -> s.getMapper(ItemMapper.class).getOrderedItemIds()));
+    assertSame(names, select(s -> s.getMapper(ItemMapper.class).getNames()));
+  }
+
+  @Test
+  void shouldSeeOwnWritesBeforeCommit() {
+    List<String> names = select(s -> s.getMapper(ItemMapper.class).getNames());
+
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      ItemMapper mapper = sqlSession.getMapper(ItemMapper.class);
+      mapper.updateName(1, "cherry");
+      assertEquals(Arrays.asList("cherry", "banana"), mapper.getNames());
+      sqlSession.rollback();
+    }
+
+    assertSame(names, select(s -> s.getMapper(ItemMapper.class).getNames()));
+  }
+
+  private void updateName(int id, String name) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      sqlSession.getMapper(ItemMapper.class).updateName(id, name);
+      sqlSession.commit();
+    }
+  }
+
+  private <T> T select(Function<SqlSession, T> query) {
+    try (SqlSession sqlSession = sqlSessionFactory.openSession()) {
+      return query.apply(sqlSession);
+    }
+  }
+
+}
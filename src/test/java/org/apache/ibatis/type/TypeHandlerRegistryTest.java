@@ -227,6 +227,22 @@ class TypeHandlerRegistryTest {
     assertTrue(typeHandlerRegistry.hasTypeHandler(Address.class));
   }
 
+  @Test
+  void shouldResolveAgainAfterRegistration() {
+    TypeHandler<String> varcharHandler = typeHandlerRegistry.getTypeHandler(String.class, JdbcType.VARCHAR);
+    assertSame(typeHandlerRegistry.getTypeHandler(String.class),
+        typeHandlerRegistry.getTypeHandler(String.class, JdbcType.OTHER));
+    assertNull(typeHandlerRegistry.getTypeHandler(RichType.class, JdbcType.OTHER));
+
+    StringTypeHandler otherHandler = new StringTypeHandler();
+    typeHandlerRegistry.register(String.class, JdbcType.OTHER, otherHandler);
+    typeHandlerRegistry.register(RichType.class, JdbcType.OTHER, StringTypeHandler.class);
+    assertSame(otherHandler, typeHandlerRegistry.getTypeHandler(String.class, JdbcType.OTHER));
+    assertSame(varcharHandler, typeHandlerRegistry.getTypeHandler(String.class, JdbcType.VARCHAR));
+    assertSame(typeHandlerRegistry.getTypeHandler(RichType.class, JdbcType.OTHER),
+        typeHandlerRegistry.getTypeHandler(RichType.class, JdbcType.VARCHAR));
+  }
+
   enum TestEnum {
     ONE, TWO
   }
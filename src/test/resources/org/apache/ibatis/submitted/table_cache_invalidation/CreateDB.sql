@@ -0,0 +1,36 @@
+--
+--    Copyright 2009-2023 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       https://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop view item_view if exists;
+drop table orders if exists;
+drop table item if exists;
+
+create table item (
+  id int,
+  name varchar(20)
+);
+
+create table orders (
+  id int,
+  item_id int
+);
+
+create view item_view as select name from item;
+
+insert into item (id, name) values (1, 'apple');
+insert into item (id, name) values (2, 'banana');
+insert into orders (id, item_id) values (1, 1);